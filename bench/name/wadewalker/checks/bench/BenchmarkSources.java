@@ -0,0 +1,192 @@
+package name.wadewalker.checks.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//==============================================================================
+/**
+ * Generates the source files the benchmarks run on. The files are built in code
+ * rather than read from disk, so every run measures exactly the same input.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+final class BenchmarkSources {
+
+    /** Name of the input with many fields, parameters, and locals. */
+    static final String ssFieldHeavy = "fieldHeavy";
+
+    /** Name of the input with many long Javadoc comments. */
+    static final String ssJavadocHeavy = "javadocHeavy";
+
+    /** Name of the input with deeply nested types. */
+    static final String ssDeeplyNested = "deeplyNested";
+
+    /** Types used for generated declarations, paired with their correct prefixes. */
+    private static final String [][] sasTypesAndPrefixes = {
+        {"int", "i"}, {"long", "l"}, {"boolean", "b"}, {"double", "d"}, {"char", "c"},
+        {"String", "s"}, {"StringBuilder", "sb"}, {"Object", "o"}, {"java.util.List<String>", "list"},
+        {"java.util.Map<String, Integer>", "map"}
+    };
+
+    /** Number of fields in the field-heavy input. */
+    private static final int siFields = 400;
+
+    /** Number of methods in the Javadoc-heavy input. */
+    private static final int siMethods = 200;
+
+    /** Number of nesting levels in the deeply nested input. */
+    private static final int siNestingDepth = 128;
+
+    //==============================================================================
+    /**
+     * Can't instantiate this class (it only has static methods).
+     */
+    private BenchmarkSources() {
+    }
+
+    //==============================================================================
+    /**
+     * Generates one of the inputs.
+     *
+     * @param sInput Name of the input to generate.
+     * @return the lines of the source file.
+     */
+    static List<String> generate( String sInput ) {
+
+        if( sInput.equals( ssFieldHeavy ) )
+            return( fieldHeavy() );
+        if( sInput.equals( ssJavadocHeavy ) )
+            return( javadocHeavy() );
+        if( sInput.equals( ssDeeplyNested ) )
+            return( deeplyNested() );
+        throw new IllegalArgumentException( "Unknown benchmark input " + sInput );
+    }
+
+    //==============================================================================
+    /**
+     * Adds the package line and the Javadoc of the top class.
+     *
+     * @param listLines Lines of the file being generated.
+     */
+    private static void addHeader( List<String> listLines ) {
+        listLines.add( "package name.wadewalker.checks.bench;" );
+        listLines.add( "" );
+        listLines.add( "//==============================================================================" );
+        listLines.add( "/**" );
+        listLines.add( " * Generated benchmark input." );
+        listLines.add( " *" );
+        listLines.add( " * Copyright (c) 2016 Wade Walker. All rights reserved." );
+        listLines.add( " * @author Wade Walker" );
+        listLines.add( " */" );
+    }
+
+    //==============================================================================
+    /**
+     * Generates a class with many fields, parameters, and locals. Every third name is
+     * missing part of its prefix, so the checks log as well as pass.
+     *
+     * @return the lines of the source file.
+     */
+    private static List<String> fieldHeavy() {
+
+        List<String> listLines = new ArrayList<String>();
+        addHeader( listLines );
+        listLines.add( "public class FieldHeavy {" );
+
+        for( int iField = 0; iField < siFields; iField++ ) {
+            String [] asTypeAndPrefix = sasTypesAndPrefixes[iField % sasTypesAndPrefixes.length];
+            boolean bStatic = (iField % 4) == 0;
+            boolean bArray = (iField % 5) == 0;
+            boolean bWrong = (iField % 3) == 0;
+
+            String sPrefix = (bStatic ? "s" : "") + (bArray ? "a" : "") + asTypeAndPrefix[1];
+            String sName = (bWrong ? sPrefix.substring( 1 ) : sPrefix) + "Field" + iField;
+            listLines.add( "    private " + (bStatic ? "static " : "") + asTypeAndPrefix[0] + (bArray ? " []" : "")
+                           + " " + sName + ";" );
+        }
+
+        for( int iMethod = 0; iMethod < siFields / 10; iMethod++ ) {
+            listLines.add( "    void method" + iMethod + "( int iCount, String sName, Object... aoArgs ) {" );
+            listLines.add( "        int iLocal = iCount;" );
+            listLines.add( "        String name = sName;" );
+            listLines.add( "        for( int i = 0; i < iLocal; i++ ) { double dValue = i; }" );
+            listLines.add( "    }" );
+        }
+
+        listLines.add( "}" );
+        return( listLines );
+    }
+
+    //==============================================================================
+    /**
+     * Generates a class with many methods whose Javadoc has several parameters. Every
+     * fourth method has a trivial parameter comment and a missing comment bar.
+     *
+     * @return the lines of the source file.
+     */
+    private static List<String> javadocHeavy() {
+
+        List<String> listLines = new ArrayList<String>();
+        addHeader( listLines );
+        listLines.add( "public class JavadocHeavy {" );
+
+        for( int iMethod = 0; iMethod < siMethods; iMethod++ ) {
+            boolean bWrong = (iMethod % 4) == 0;
+
+            listLines.add( "" );
+            listLines.add( bWrong ? "" : "    //==============================================================================" );
+            listLines.add( "    /**" );
+            listLines.add( "     * Does step " + iMethod + " of the computation, with a description long enough" );
+            listLines.add( "     * to wrap onto a second line like real comments do." );
+            listLines.add( "     *" );
+            listLines.add( "     * @param iFirst The first operand of the step." );
+            listLines.add( "     * @param iSecond The second operand of the step." );
+            listLines.add( bWrong ? "     * @param iThird Third" : "     * @param iThird The third operand of the step." );
+            listLines.add( "     * @param sLabel Label printed with the result." );
+            listLines.add( "     * @return the result of the step." );
+            listLines.add( "     */" );
+            listLines.add( "    int method" + iMethod + "( int iFirst, int iSecond, int iThird, String sLabel ) {" );
+            listLines.add( "        return( iFirst + iSecond + iThird );" );
+            listLines.add( "    }" );
+        }
+
+        listLines.add( "}" );
+        return( listLines );
+    }
+
+    //==============================================================================
+    /**
+     * Generates deeply nested classes, each with a field and a documented method.
+     *
+     * @return the lines of the source file.
+     */
+    private static List<String> deeplyNested() {
+
+        List<String> listLines = new ArrayList<String>();
+        addHeader( listLines );
+        listLines.add( "public class DeeplyNested {" );
+
+        for( int iLevel = 1; iLevel <= siNestingDepth; iLevel++ ) {
+            listLines.add( "    private int iLevel" + iLevel + ";" );
+            listLines.add( "    //==============================================================================" );
+            listLines.add( "    /**" );
+            listLines.add( "     * Method at level " + iLevel + "." );
+            listLines.add( "     * @param iArg Argument of the method." );
+            listLines.add( "     */" );
+            listLines.add( "    void method" + iLevel + "( int iArg ) { }" );
+
+            if( iLevel < siNestingDepth ) {
+                listLines.add( "    /**" );
+                listLines.add( "     * Nested type." );
+                listLines.add( "     */" );
+                listLines.add( "    class Level" + iLevel + " {" );
+            }
+        }
+
+        for( int iLevel = 1; iLevel <= siNestingDepth; iLevel++ )
+            listLines.add( "}" );
+
+        return( listLines );
+    }
+}
@@ -0,0 +1,310 @@
+package name.wadewalker.checks.bench;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import antlr.RecognitionException;
+import antlr.TokenStreamException;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.TreeWalker;
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.FileContents;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.LocalizedMessages;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+
+import name.wadewalker.checks.HungarianNaming;
+import name.wadewalker.checks.JavadocTemplate;
+import name.wadewalker.checks.MappedJavadocTemplate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+//==============================================================================
+/**
+ * Measures the checks on one generated file per input. The visitToken benchmarks
+ * replay a pre-parsed AST, so they measure only the check; the Checker benchmarks
+ * measure the whole pipeline including reading and parsing the file. The mapped
+ * Javadoc benchmark reads the file too, so it compares to the Javadoc-only Checker.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class CheckBenchmarks {
+
+    /** Which generated file to run on (see {@link BenchmarkSources}). */
+    @Param( {BenchmarkSources.ssFieldHeavy, BenchmarkSources.ssJavadocHeavy, BenchmarkSources.ssDeeplyNested} )
+    public String sInput;
+
+    /** Contents of the generated file. */
+    private FileContents filecontents;
+
+    /** Root of the generated file's AST. */
+    private DetailAST detailastRoot;
+
+    /** Hungarian naming check, configured and initialized. */
+    private HungarianNaming hungariannaming;
+
+    /** Nodes HungarianNaming visits, in the order TreeWalker would visit them. */
+    private DetailAST [] adetailastHungarianNaming;
+
+    /** Javadoc template check, configured and initialized. */
+    private JavadocTemplate javadoctemplate;
+
+    /** Nodes JavadocTemplate visits or leaves, in the order TreeWalker would call it. */
+    private DetailAST [] adetailastJavadocTemplate;
+
+    /** For each node in {@link #adetailastJavadocTemplate}, true for a visit and false for a leave. */
+    private boolean [] abJavadocTemplateVisits;
+
+    /** Messages logged by the checks (cleared on every invocation so they don't pile up). */
+    private LocalizedMessages localizedmessages;
+
+    /** Checker with both checks, for the full pipeline. */
+    private Checker checker;
+
+    /** Checker with only the Javadoc template check, to compare with the mapped check. */
+    private Checker checkerJavadocTemplate;
+
+    /** Javadoc template rules applied without parsing. */
+    private MappedJavadocTemplate mappedjavadoctemplate;
+
+    /** Generated file written to disk for the Checker. */
+    private File fileInput;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public CheckBenchmarks() {
+    }
+
+    //==============================================================================
+    /**
+     * Generates and parses the input, and sets up the checks.
+     *
+     * @throws RecognitionException if the generated file doesn't parse.
+     * @throws TokenStreamException if the generated file doesn't parse.
+     * @throws CheckstyleException if a check can't be configured.
+     * @throws IOException if the generated file can't be written.
+     */
+    @Setup( Level.Trial )
+    public void setUp() throws RecognitionException, TokenStreamException, CheckstyleException, IOException {
+
+        List<String> listLines = BenchmarkSources.generate( sInput );
+
+        fileInput = File.createTempFile( sInput, ".java" );
+        PrintWriter printwriter = new PrintWriter( new OutputStreamWriter( new FileOutputStream( fileInput ), "UTF-8" ) );
+        try {
+            for( String sLine : listLines )
+                printwriter.println( sLine );
+        }
+        finally {
+            printwriter.close();
+        }
+
+        filecontents = new FileContents( FileText.fromLines( fileInput, listLines ) );
+        detailastRoot = TreeWalker.parse( filecontents );
+        localizedmessages = new LocalizedMessages();
+
+        hungariannaming = new HungarianNaming();
+        setUpCheck( hungariannaming, "HungarianNaming" );
+        List<DetailAST> listNodes = new ArrayList<DetailAST>();
+        collectVisits( detailastRoot, hungariannaming.getDefaultTokens(), listNodes, null );
+        adetailastHungarianNaming = listNodes.toArray( new DetailAST [listNodes.size()] );
+
+        javadoctemplate = new JavadocTemplate();
+        setUpCheck( javadoctemplate, "JavadocTemplate" );
+        listNodes.clear();
+        List<Boolean> listVisits = new ArrayList<Boolean>();
+        collectVisits( detailastRoot, javadoctemplate.getDefaultTokens(), listNodes, listVisits );
+        adetailastJavadocTemplate = listNodes.toArray( new DetailAST [listNodes.size()] );
+        abJavadocTemplateVisits = new boolean [listVisits.size()];
+        for( int i = 0; i < abJavadocTemplateVisits.length; i++ )
+            abJavadocTemplateVisits[i] = listVisits.get( i );
+
+        DefaultConfiguration defaultconfigurationTreeWalker = new DefaultConfiguration( "TreeWalker" );
+        defaultconfigurationTreeWalker.addChild( new DefaultConfiguration( HungarianNaming.class.getName() ) );
+        defaultconfigurationTreeWalker.addChild( new DefaultConfiguration( JavadocTemplate.class.getName() ) );
+        DefaultConfiguration defaultconfigurationChecker = new DefaultConfiguration( "Checker" );
+        defaultconfigurationChecker.addAttribute( "severity", "warning" );
+        defaultconfigurationChecker.addChild( defaultconfigurationTreeWalker );
+
+        checker = new Checker();
+        checker.setModuleClassLoader( CheckBenchmarks.class.getClassLoader() );
+        checker.configure( defaultconfigurationChecker );
+
+        DefaultConfiguration defaultconfigurationJavadocTreeWalker = new DefaultConfiguration( "TreeWalker" );
+        defaultconfigurationJavadocTreeWalker.addChild( new DefaultConfiguration( JavadocTemplate.class.getName() ) );
+        DefaultConfiguration defaultconfigurationJavadocChecker = new DefaultConfiguration( "Checker" );
+        defaultconfigurationJavadocChecker.addAttribute( "severity", "warning" );
+        defaultconfigurationJavadocChecker.addChild( defaultconfigurationJavadocTreeWalker );
+
+        checkerJavadocTemplate = new Checker();
+        checkerJavadocTemplate.setModuleClassLoader( CheckBenchmarks.class.getClassLoader() );
+        checkerJavadocTemplate.configure( defaultconfigurationJavadocChecker );
+
+        mappedjavadoctemplate = new MappedJavadocTemplate( SeverityLevel.WARNING );
+    }
+
+    //==============================================================================
+    /**
+     * Releases the Checker and deletes the generated file.
+     */
+    @TearDown( Level.Trial )
+    public void tearDown() {
+        checker.destroy();
+        checkerJavadocTemplate.destroy();
+        if( !fileInput.delete() )
+            fileInput.deleteOnExit();
+    }
+
+    //==============================================================================
+    /**
+     * Configures a check the way TreeWalker would.
+     *
+     * @param abstractcheck Check to set up.
+     * @param sModuleName Module name used in the check's configuration.
+     * @throws CheckstyleException if the check can't be configured.
+     */
+    private void setUpCheck( AbstractCheck abstractcheck, String sModuleName ) throws CheckstyleException {
+        abstractcheck.configure( new DefaultConfiguration( sModuleName ) );
+        abstractcheck.setMessages( localizedmessages );
+        abstractcheck.setFileContents( filecontents );
+        abstractcheck.init();
+    }
+
+    //==============================================================================
+    /**
+     * Records the calls TreeWalker would make to a check.
+     *
+     * @param detailast First AST node to look at (its siblings and children are also recorded).
+     * @param aiTokens Token types the check is subscribed to.
+     * @param listNodes Receives the nodes visited and left.
+     * @param listVisits Receives true for each visit and false for each leave (or null to record only visits).
+     */
+    private static void collectVisits( DetailAST detailast, int [] aiTokens, List<DetailAST> listNodes, List<Boolean> listVisits ) {
+
+        for( DetailAST detailastCurrent = detailast; detailastCurrent != null; detailastCurrent = detailastCurrent.getNextSibling() ) {
+            boolean bSubscribed = false;
+            for( int iToken : aiTokens )
+                bSubscribed |= (iToken == detailastCurrent.getType());
+
+            if( bSubscribed ) {
+                listNodes.add( detailastCurrent );
+                if( listVisits != null )
+                    listVisits.add( Boolean.TRUE );
+            }
+
+            collectVisits( detailastCurrent.getFirstChild(), aiTokens, listNodes, listVisits );
+
+            if( bSubscribed && (listVisits != null) ) {
+                listNodes.add( detailastCurrent );
+                listVisits.add( Boolean.FALSE );
+            }
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Runs HungarianNaming over every declaration in the file.
+     *
+     * @return the number of messages logged.
+     */
+    @Benchmark
+    public int hungarianNamingVisitToken() {
+
+        localizedmessages.reset();
+        for( DetailAST detailast : adetailastHungarianNaming )
+            hungariannaming.visitToken( detailast );
+        return( localizedmessages.size() );
+    }
+
+    //==============================================================================
+    /**
+     * Runs JavadocTemplate over every type and method in the file, including its
+     * per-file setup.
+     *
+     * @return the number of messages logged.
+     */
+    @Benchmark
+    public int javadocTemplateVisitToken() {
+
+        localizedmessages.reset();
+        javadoctemplate.beginTree( detailastRoot );
+        for( int i = 0; i < adetailastJavadocTemplate.length; i++ ) {
+            if( abJavadocTemplateVisits[i] )
+                javadoctemplate.visitToken( adetailastJavadocTemplate[i] );
+            else
+                javadoctemplate.leaveToken( adetailastJavadocTemplate[i] );
+        }
+        javadoctemplate.finishTree( detailastRoot );
+        return( localizedmessages.size() );
+    }
+
+    //==============================================================================
+    /**
+     * Runs a Checker with both checks over the file, including reading and parsing it.
+     *
+     * @return the number of errors found.
+     * @throws CheckstyleException if the check fails.
+     */
+    @Benchmark
+    public int checkerProcess() throws CheckstyleException {
+        return( checker.process( Collections.singletonList( fileInput ) ) );
+    }
+
+    //==============================================================================
+    /**
+     * Runs a Checker with only JavadocTemplate over the file, including reading and
+     * parsing it.
+     *
+     * @return the number of errors found.
+     * @throws CheckstyleException if the check fails.
+     */
+    @Benchmark
+    public int javadocTemplateCheckerProcess() throws CheckstyleException {
+        return( checkerJavadocTemplate.process( Collections.singletonList( fileInput ) ) );
+    }
+
+    //==============================================================================
+    /**
+     * Runs the Javadoc template rules over the file without parsing it, including
+     * mapping and lexing it.
+     *
+     * @return the number of violations found.
+     * @throws IOException if the file can't be read.
+     */
+    @Benchmark
+    public int mappedJavadocTemplateProcess() throws IOException {
+        return( mappedjavadoctemplate.process( fileInput ).size() );
+    }
+}
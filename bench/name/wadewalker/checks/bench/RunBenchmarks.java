@@ -0,0 +1,52 @@
+package name.wadewalker.checks.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+//==============================================================================
+/**
+ * Runs the benchmarks with the GC profiler (for allocation rates), and writes the
+ * results as JSON so runs can be compared.
+ *
+ * <pre>
+ * java name.wadewalker.checks.bench.RunBenchmarks [results.json [benchmark regex]]
+ * </pre>
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class RunBenchmarks {
+
+    /** Results file used when none is given. */
+    private static final String ssDefaultResultFile = "jmh-result.json";
+
+    //==============================================================================
+    /**
+     * Can't instantiate this class (it's just here to hold main).
+     */
+    private RunBenchmarks() {
+    }
+
+    //==============================================================================
+    /**
+     * Runs the benchmarks.
+     *
+     * @param asArgs Optional results file name, then an optional regex selecting benchmarks.
+     * @throws RunnerException if a benchmark fails.
+     */
+    public static void main( String [] asArgs ) throws RunnerException {
+
+        Options options = new OptionsBuilder()
+            .include( asArgs.length > 1 ? asArgs[1] : CheckBenchmarks.class.getSimpleName() )
+            .addProfiler( GCProfiler.class )
+            .resultFormat( ResultFormatType.JSON )
+            .result( asArgs.length > 0 ? asArgs[0] : ssDefaultResultFile )
+            .build();
+
+        new Runner( options ).run();
+    }
+}
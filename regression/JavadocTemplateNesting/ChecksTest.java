@@ -0,0 +1,900 @@
+package name.wadewalker.checks;
+
+//==============================================================================
+/**
+ * Sixty levels of nested classes. Only the top level needs comment bars.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class Test {
+
+    /**
+     * Method at level 1 without a bar.
+     *
+     * @param iX Count
+     */
+    void method1( int iX ) {
+    }
+
+    /**
+     * Level 2 (no bar needed).
+     */
+    public static class Level2 {
+
+        /**
+         * Method at level 2 without a bar.
+         *
+         * @param iX Count
+         */
+        void method2( int iX ) {
+        }
+
+        /**
+         * Level 3 (no bar needed).
+         */
+        public static class Level3 {
+
+            /**
+             * Method at level 3 without a bar.
+             *
+             * @param iX Count
+             */
+            void method3( int iX ) {
+            }
+
+            /**
+             * Level 4 (no bar needed).
+             */
+            public static class Level4 {
+
+                /**
+                 * Method at level 4 without a bar.
+                 *
+                 * @param iX Count
+                 */
+                void method4( int iX ) {
+                }
+
+                /**
+                 * Level 5 (no bar needed).
+                 */
+                public static class Level5 {
+
+                    /**
+                     * Method at level 5 without a bar.
+                     *
+                     * @param iX Count
+                     */
+                    void method5( int iX ) {
+                    }
+
+                    /**
+                     * Level 6 (no bar needed).
+                     */
+                    public static class Level6 {
+
+                        /**
+                         * Method at level 6 without a bar.
+                         *
+                         * @param iX Count
+                         */
+                        void method6( int iX ) {
+                        }
+
+                        /**
+                         * Level 7 (no bar needed).
+                         */
+                        public static class Level7 {
+
+                            /**
+                             * Method at level 7 without a bar.
+                             *
+                             * @param iX Count
+                             */
+                            void method7( int iX ) {
+                            }
+
+                            /**
+                             * Level 8 (no bar needed).
+                             */
+                            public static class Level8 {
+
+                                /**
+                                 * Method at level 8 without a bar.
+                                 *
+                                 * @param iX Count
+                                 */
+                                void method8( int iX ) {
+                                }
+
+                                /**
+                                 * Level 9 (no bar needed).
+                                 */
+                                public static class Level9 {
+
+                                    /**
+                                     * Method at level 9 without a bar.
+                                     *
+                                     * @param iX Count
+                                     */
+                                    void method9( int iX ) {
+                                    }
+
+                                    /**
+                                     * Level 10 (no bar needed).
+                                     */
+                                    public static class Level10 {
+
+                                        /**
+                                         * Method at level 10 without a bar.
+                                         *
+                                         * @param iX Count
+                                         */
+                                        void method10( int iX ) {
+                                        }
+
+                                        /**
+                                         * Level 11 (no bar needed).
+                                         */
+                                        public static class Level11 {
+
+                                            /**
+                                             * Method at level 11 without a bar.
+                                             *
+                                             * @param iX Count
+                                             */
+                                            void method11( int iX ) {
+                                            }
+
+                                            /**
+                                             * Level 12 (no bar needed).
+                                             */
+                                            public static class Level12 {
+
+                                                /**
+                                                 * Method at level 12 without a bar.
+                                                 *
+                                                 * @param iX Count
+                                                 */
+                                                void method12( int iX ) {
+                                                }
+
+                                                /**
+                                                 * Level 13 (no bar needed).
+                                                 */
+                                                public static class Level13 {
+
+                                                    /**
+                                                     * Method at level 13 without a bar.
+                                                     *
+                                                     * @param iX Count
+                                                     */
+                                                    void method13( int iX ) {
+                                                    }
+
+                                                    /**
+                                                     * Level 14 (no bar needed).
+                                                     */
+                                                    public static class Level14 {
+
+                                                        /**
+                                                         * Method at level 14 without a bar.
+                                                         *
+                                                         * @param iX Count
+                                                         */
+                                                        void method14( int iX ) {
+                                                        }
+
+                                                        /**
+                                                         * Level 15 (no bar needed).
+                                                         */
+                                                        public static class Level15 {
+
+                                                            /**
+                                                             * Method at level 15 without a bar.
+                                                             *
+                                                             * @param iX Count
+                                                             */
+                                                            void method15( int iX ) {
+                                                            }
+
+                                                            /**
+                                                             * Level 16 (no bar needed).
+                                                             */
+                                                            public static class Level16 {
+
+                                                                /**
+                                                                 * Method at level 16 without a bar.
+                                                                 *
+                                                                 * @param iX Count
+                                                                 */
+                                                                void method16( int iX ) {
+                                                                }
+
+                                                                /**
+                                                                 * Level 17 (no bar needed).
+                                                                 */
+                                                                public static class Level17 {
+
+                                                                    /**
+                                                                     * Method at level 17 without a bar.
+                                                                     *
+                                                                     * @param iX Count
+                                                                     */
+                                                                    void method17( int iX ) {
+                                                                    }
+
+                                                                    /**
+                                                                     * Level 18 (no bar needed).
+                                                                     */
+                                                                    public static class Level18 {
+
+                                                                        /**
+                                                                         * Method at level 18 without a bar.
+                                                                         *
+                                                                         * @param iX Count
+                                                                         */
+                                                                        void method18( int iX ) {
+                                                                        }
+
+                                                                        /**
+                                                                         * Level 19 (no bar needed).
+                                                                         */
+                                                                        public static class Level19 {
+
+                                                                            /**
+                                                                             * Method at level 19 without a bar.
+                                                                             *
+                                                                             * @param iX Count
+                                                                             */
+                                                                            void method19( int iX ) {
+                                                                            }
+
+                                                                            /**
+                                                                             * Level 20 (no bar needed).
+                                                                             */
+                                                                            public static class Level20 {
+
+                                                                                /**
+                                                                                 * Method at level 20 without a bar.
+                                                                                 *
+                                                                                 * @param iX Count
+                                                                                 */
+                                                                                void method20( int iX ) {
+                                                                                }
+
+                                                                                /**
+                                                                                 * Enum inside a nested class.
+                                                                                 */
+                                                                                enum Inner20 {
+                                                                                    A;
+
+                                                                                    /**
+                                                                                     * Method in a nested enum.
+                                                                                     */
+                                                                                    void enumMethod() {
+                                                                                    }
+                                                                                }
+
+                                                                                /**
+                                                                                 * Level 21 (no bar needed).
+                                                                                 */
+                                                                                public static class Level21 {
+
+                                                                                    /**
+                                                                                     * Method at level 21 without a bar.
+                                                                                     *
+                                                                                     * @param iX Count
+                                                                                     */
+                                                                                    void method21( int iX ) {
+                                                                                    }
+
+                                                                                    /**
+                                                                                     * Level 22 (no bar needed).
+                                                                                     */
+                                                                                    public static class Level22 {
+
+                                                                                        /**
+                                                                                         * Method at level 22 without a bar.
+                                                                                         *
+                                                                                         * @param iX Count
+                                                                                         */
+                                                                                        void method22( int iX ) {
+                                                                                        }
+
+                                                                                        /**
+                                                                                         * Level 23 (no bar needed).
+                                                                                         */
+                                                                                        public static class Level23 {
+
+                                                                                            /**
+                                                                                             * Method at level 23 without a bar.
+                                                                                             *
+                                                                                             * @param iX Count
+                                                                                             */
+                                                                                            void method23( int iX ) {
+                                                                                            }
+
+                                                                                            /**
+                                                                                             * Level 24 (no bar needed).
+                                                                                             */
+                                                                                            public static class Level24 {
+
+                                                                                                /**
+                                                                                                 * Method at level 24 without a bar.
+                                                                                                 *
+                                                                                                 * @param iX Count
+                                                                                                 */
+                                                                                                void method24( int iX ) {
+                                                                                                }
+
+                                                                                                /**
+                                                                                                 * Level 25 (no bar needed).
+                                                                                                 */
+                                                                                                public static class Level25 {
+
+                                                                                                    /**
+                                                                                                     * Method at level 25 without a bar.
+                                                                                                     *
+                                                                                                     * @param iX Count
+                                                                                                     */
+                                                                                                    void method25( int iX ) {
+                                                                                                    }
+
+                                                                                                    /**
+                                                                                                     * Level 26 (no bar needed).
+                                                                                                     */
+                                                                                                    public static class Level26 {
+
+                                                                                                        /**
+                                                                                                         * Method at level 26 without a bar.
+                                                                                                         *
+                                                                                                         * @param iX Count
+                                                                                                         */
+                                                                                                        void method26( int iX ) {
+                                                                                                        }
+
+                                                                                                        /**
+                                                                                                         * Level 27 (no bar needed).
+                                                                                                         */
+                                                                                                        public static class Level27 {
+
+                                                                                                            /**
+                                                                                                             * Method at level 27 without a bar.
+                                                                                                             *
+                                                                                                             * @param iX Count
+                                                                                                             */
+                                                                                                            void method27( int iX ) {
+                                                                                                            }
+
+                                                                                                            /**
+                                                                                                             * Level 28 (no bar needed).
+                                                                                                             */
+                                                                                                            public static class Level28 {
+
+                                                                                                                /**
+                                                                                                                 * Method at level 28 without a bar.
+                                                                                                                 *
+                                                                                                                 * @param iX Count
+                                                                                                                 */
+                                                                                                                void method28( int iX ) {
+                                                                                                                }
+
+                                                                                                                /**
+                                                                                                                 * Level 29 (no bar needed).
+                                                                                                                 */
+                                                                                                                public static class Level29 {
+
+                                                                                                                    /**
+                                                                                                                     * Method at level 29 without a bar.
+                                                                                                                     *
+                                                                                                                     * @param iX Count
+                                                                                                                     */
+                                                                                                                    void method29( int iX ) {
+                                                                                                                    }
+
+                                                                                                                    /**
+                                                                                                                     * Level 30 (no bar needed).
+                                                                                                                     */
+                                                                                                                    public static class Level30 {
+
+                                                                                                                        /**
+                                                                                                                         * Method at level 30 without a bar.
+                                                                                                                         *
+                                                                                                                         * @param iX Count
+                                                                                                                         */
+                                                                                                                        void method30( int iX ) {
+                                                                                                                        }
+
+                                                                                                                        /**
+                                                                                                                         * Level 31 (no bar needed).
+                                                                                                                         */
+                                                                                                                        public static class Level31 {
+
+                                                                                                                            /**
+                                                                                                                             * Method at level 31 without a bar.
+                                                                                                                             *
+                                                                                                                             * @param iX Count
+                                                                                                                             */
+                                                                                                                            void method31( int iX ) {
+                                                                                                                            }
+
+                                                                                                                            /**
+                                                                                                                             * Level 32 (no bar needed).
+                                                                                                                             */
+                                                                                                                            public static class Level32 {
+
+                                                                                                                                /**
+                                                                                                                                 * Method at level 32 without a bar.
+                                                                                                                                 *
+                                                                                                                                 * @param iX Count
+                                                                                                                                 */
+                                                                                                                                void method32( int iX ) {
+                                                                                                                                }
+
+                                                                                                                                /**
+                                                                                                                                 * Level 33 (no bar needed).
+                                                                                                                                 */
+                                                                                                                                public static class Level33 {
+
+                                                                                                                                    /**
+                                                                                                                                     * Method at level 33 without a bar.
+                                                                                                                                     *
+                                                                                                                                     * @param iX Count
+                                                                                                                                     */
+                                                                                                                                    void method33( int iX ) {
+                                                                                                                                    }
+
+                                                                                                                                    /**
+                                                                                                                                     * Level 34 (no bar needed).
+                                                                                                                                     */
+                                                                                                                                    public static class Level34 {
+
+                                                                                                                                        /**
+                                                                                                                                         * Method at level 34 without a bar.
+                                                                                                                                         *
+                                                                                                                                         * @param iX Count
+                                                                                                                                         */
+                                                                                                                                        void method34( int iX ) {
+                                                                                                                                        }
+
+                                                                                                                                        /**
+                                                                                                                                         * Level 35 (no bar needed).
+                                                                                                                                         */
+                                                                                                                                        public static class Level35 {
+
+                                                                                                                                            /**
+                                                                                                                                             * Method at level 35 without a bar.
+                                                                                                                                             *
+                                                                                                                                             * @param iX Count
+                                                                                                                                             */
+                                                                                                                                            void method35( int iX ) {
+                                                                                                                                            }
+
+                                                                                                                                            /**
+                                                                                                                                             * Level 36 (no bar needed).
+                                                                                                                                             */
+                                                                                                                                            public static class Level36 {
+
+                                                                                                                                                /**
+                                                                                                                                                 * Method at level 36 without a bar.
+                                                                                                                                                 *
+                                                                                                                                                 * @param iX Count
+                                                                                                                                                 */
+                                                                                                                                                void method36( int iX ) {
+                                                                                                                                                }
+
+                                                                                                                                                /**
+                                                                                                                                                 * Level 37 (no bar needed).
+                                                                                                                                                 */
+                                                                                                                                                public static class Level37 {
+
+                                                                                                                                                    /**
+                                                                                                                                                     * Method at level 37 without a bar.
+                                                                                                                                                     *
+                                                                                                                                                     * @param iX Count
+                                                                                                                                                     */
+                                                                                                                                                    void method37( int iX ) {
+                                                                                                                                                    }
+
+                                                                                                                                                    /**
+                                                                                                                                                     * Level 38 (no bar needed).
+                                                                                                                                                     */
+                                                                                                                                                    public static class Level38 {
+
+                                                                                                                                                        /**
+                                                                                                                                                         * Method at level 38 without a bar.
+                                                                                                                                                         *
+                                                                                                                                                         * @param iX Count
+                                                                                                                                                         */
+                                                                                                                                                        void method38( int iX ) {
+                                                                                                                                                        }
+
+                                                                                                                                                        /**
+                                                                                                                                                         * Level 39 (no bar needed).
+                                                                                                                                                         */
+                                                                                                                                                        public static class Level39 {
+
+                                                                                                                                                            /**
+                                                                                                                                                             * Method at level 39 without a bar.
+                                                                                                                                                             *
+                                                                                                                                                             * @param iX Count
+                                                                                                                                                             */
+                                                                                                                                                            void method39( int iX ) {
+                                                                                                                                                            }
+
+                                                                                                                                                            /**
+                                                                                                                                                             * Level 40 (no bar needed).
+                                                                                                                                                             */
+                                                                                                                                                            public static class Level40 {
+
+                                                                                                                                                                /**
+                                                                                                                                                                 * Method at level 40 without a bar.
+                                                                                                                                                                 *
+                                                                                                                                                                 * @param iX Count
+                                                                                                                                                                 */
+                                                                                                                                                                void method40( int iX ) {
+                                                                                                                                                                }
+
+                                                                                                                                                                /**
+                                                                                                                                                                 * Level 41 (no bar needed).
+                                                                                                                                                                 */
+                                                                                                                                                                public static class Level41 {
+
+                                                                                                                                                                    /**
+                                                                                                                                                                     * Method at level 41 without a bar.
+                                                                                                                                                                     *
+                                                                                                                                                                     * @param iX Count
+                                                                                                                                                                     */
+                                                                                                                                                                    void method41( int iX ) {
+                                                                                                                                                                    }
+
+                                                                                                                                                                    /**
+                                                                                                                                                                     * Level 42 (no bar needed).
+                                                                                                                                                                     */
+                                                                                                                                                                    public static class Level42 {
+
+                                                                                                                                                                        /**
+                                                                                                                                                                         * Method at level 42 without a bar.
+                                                                                                                                                                         *
+                                                                                                                                                                         * @param iX Count
+                                                                                                                                                                         */
+                                                                                                                                                                        void method42( int iX ) {
+                                                                                                                                                                        }
+
+                                                                                                                                                                        /**
+                                                                                                                                                                         * Level 43 (no bar needed).
+                                                                                                                                                                         */
+                                                                                                                                                                        public static class Level43 {
+
+                                                                                                                                                                            /**
+                                                                                                                                                                             * Method at level 43 without a bar.
+                                                                                                                                                                             *
+                                                                                                                                                                             * @param iX Count
+                                                                                                                                                                             */
+                                                                                                                                                                            void method43( int iX ) {
+                                                                                                                                                                            }
+
+                                                                                                                                                                            /**
+                                                                                                                                                                             * Level 44 (no bar needed).
+                                                                                                                                                                             */
+                                                                                                                                                                            public static class Level44 {
+
+                                                                                                                                                                                /**
+                                                                                                                                                                                 * Method at level 44 without a bar.
+                                                                                                                                                                                 *
+                                                                                                                                                                                 * @param iX Count
+                                                                                                                                                                                 */
+                                                                                                                                                                                void method44( int iX ) {
+                                                                                                                                                                                }
+
+                                                                                                                                                                                /**
+                                                                                                                                                                                 * Level 45 (no bar needed).
+                                                                                                                                                                                 */
+                                                                                                                                                                                public static class Level45 {
+
+                                                                                                                                                                                    /**
+                                                                                                                                                                                     * Method at level 45 without a bar.
+                                                                                                                                                                                     *
+                                                                                                                                                                                     * @param iX Count
+                                                                                                                                                                                     */
+                                                                                                                                                                                    void method45( int iX ) {
+                                                                                                                                                                                    }
+
+                                                                                                                                                                                    /**
+                                                                                                                                                                                     * Level 46 (no bar needed).
+                                                                                                                                                                                     */
+                                                                                                                                                                                    public static class Level46 {
+
+                                                                                                                                                                                        /**
+                                                                                                                                                                                         * Method at level 46 without a bar.
+                                                                                                                                                                                         *
+                                                                                                                                                                                         * @param iX Count
+                                                                                                                                                                                         */
+                                                                                                                                                                                        void method46( int iX ) {
+                                                                                                                                                                                        }
+
+                                                                                                                                                                                        /**
+                                                                                                                                                                                         * Level 47 (no bar needed).
+                                                                                                                                                                                         */
+                                                                                                                                                                                        public static class Level47 {
+
+                                                                                                                                                                                            /**
+                                                                                                                                                                                             * Method at level 47 without a bar.
+                                                                                                                                                                                             *
+                                                                                                                                                                                             * @param iX Count
+                                                                                                                                                                                             */
+                                                                                                                                                                                            void method47( int iX ) {
+                                                                                                                                                                                            }
+
+                                                                                                                                                                                            /**
+                                                                                                                                                                                             * Level 48 (no bar needed).
+                                                                                                                                                                                             */
+                                                                                                                                                                                            public static class Level48 {
+
+                                                                                                                                                                                                /**
+                                                                                                                                                                                                 * Method at level 48 without a bar.
+                                                                                                                                                                                                 *
+                                                                                                                                                                                                 * @param iX Count
+                                                                                                                                                                                                 */
+                                                                                                                                                                                                void method48( int iX ) {
+                                                                                                                                                                                                }
+
+                                                                                                                                                                                                /**
+                                                                                                                                                                                                 * Level 49 (no bar needed).
+                                                                                                                                                                                                 */
+                                                                                                                                                                                                public static class Level49 {
+
+                                                                                                                                                                                                    /**
+                                                                                                                                                                                                     * Method at level 49 without a bar.
+                                                                                                                                                                                                     *
+                                                                                                                                                                                                     * @param iX Count
+                                                                                                                                                                                                     */
+                                                                                                                                                                                                    void method49( int iX ) {
+                                                                                                                                                                                                    }
+
+                                                                                                                                                                                                    /**
+                                                                                                                                                                                                     * Level 50 (no bar needed).
+                                                                                                                                                                                                     */
+                                                                                                                                                                                                    public static class Level50 {
+
+                                                                                                                                                                                                        /**
+                                                                                                                                                                                                         * Method at level 50 without a bar.
+                                                                                                                                                                                                         *
+                                                                                                                                                                                                         * @param iX Count
+                                                                                                                                                                                                         */
+                                                                                                                                                                                                        void method50( int iX ) {
+                                                                                                                                                                                                        }
+
+                                                                                                                                                                                                        /**
+                                                                                                                                                                                                         * Level 51 (no bar needed).
+                                                                                                                                                                                                         */
+                                                                                                                                                                                                        public static class Level51 {
+
+                                                                                                                                                                                                            /**
+                                                                                                                                                                                                             * Method at level 51 without a bar.
+                                                                                                                                                                                                             *
+                                                                                                                                                                                                             * @param iX Count
+                                                                                                                                                                                                             */
+                                                                                                                                                                                                            void method51( int iX ) {
+                                                                                                                                                                                                            }
+
+                                                                                                                                                                                                            /**
+                                                                                                                                                                                                             * Level 52 (no bar needed).
+                                                                                                                                                                                                             */
+                                                                                                                                                                                                            public static class Level52 {
+
+                                                                                                                                                                                                                /**
+                                                                                                                                                                                                                 * Method at level 52 without a bar.
+                                                                                                                                                                                                                 *
+                                                                                                                                                                                                                 * @param iX Count
+                                                                                                                                                                                                                 */
+                                                                                                                                                                                                                void method52( int iX ) {
+                                                                                                                                                                                                                }
+
+                                                                                                                                                                                                                /**
+                                                                                                                                                                                                                 * Level 53 (no bar needed).
+                                                                                                                                                                                                                 */
+                                                                                                                                                                                                                public static class Level53 {
+
+                                                                                                                                                                                                                    /**
+                                                                                                                                                                                                                     * Method at level 53 without a bar.
+                                                                                                                                                                                                                     *
+                                                                                                                                                                                                                     * @param iX Count
+                                                                                                                                                                                                                     */
+                                                                                                                                                                                                                    void method53( int iX ) {
+                                                                                                                                                                                                                    }
+
+                                                                                                                                                                                                                    /**
+                                                                                                                                                                                                                     * Level 54 (no bar needed).
+                                                                                                                                                                                                                     */
+                                                                                                                                                                                                                    public static class Level54 {
+
+                                                                                                                                                                                                                        /**
+                                                                                                                                                                                                                         * Method at level 54 without a bar.
+                                                                                                                                                                                                                         *
+                                                                                                                                                                                                                         * @param iX Count
+                                                                                                                                                                                                                         */
+                                                                                                                                                                                                                        void method54( int iX ) {
+                                                                                                                                                                                                                        }
+
+                                                                                                                                                                                                                        /**
+                                                                                                                                                                                                                         * Level 55 (no bar needed).
+                                                                                                                                                                                                                         */
+                                                                                                                                                                                                                        public static class Level55 {
+
+                                                                                                                                                                                                                            /**
+                                                                                                                                                                                                                             * Method at level 55 without a bar.
+                                                                                                                                                                                                                             *
+                                                                                                                                                                                                                             * @param iX Count
+                                                                                                                                                                                                                             */
+                                                                                                                                                                                                                            void method55( int iX ) {
+                                                                                                                                                                                                                            }
+
+                                                                                                                                                                                                                            /**
+                                                                                                                                                                                                                             * Level 56 (no bar needed).
+                                                                                                                                                                                                                             */
+                                                                                                                                                                                                                            public static class Level56 {
+
+                                                                                                                                                                                                                                /**
+                                                                                                                                                                                                                                 * Method at level 56 without a bar.
+                                                                                                                                                                                                                                 *
+                                                                                                                                                                                                                                 * @param iX Count
+                                                                                                                                                                                                                                 */
+                                                                                                                                                                                                                                void method56( int iX ) {
+                                                                                                                                                                                                                                }
+
+                                                                                                                                                                                                                                /**
+                                                                                                                                                                                                                                 * Level 57 (no bar needed).
+                                                                                                                                                                                                                                 */
+                                                                                                                                                                                                                                public static class Level57 {
+
+                                                                                                                                                                                                                                    /**
+                                                                                                                                                                                                                                     * Method at level 57 without a bar.
+                                                                                                                                                                                                                                     *
+                                                                                                                                                                                                                                     * @param iX Count
+                                                                                                                                                                                                                                     */
+                                                                                                                                                                                                                                    void method57( int iX ) {
+                                                                                                                                                                                                                                    }
+
+                                                                                                                                                                                                                                    /**
+                                                                                                                                                                                                                                     * Level 58 (no bar needed).
+                                                                                                                                                                                                                                     */
+                                                                                                                                                                                                                                    public static class Level58 {
+
+                                                                                                                                                                                                                                        /**
+                                                                                                                                                                                                                                         * Method at level 58 without a bar.
+                                                                                                                                                                                                                                         *
+                                                                                                                                                                                                                                         * @param iX Count
+                                                                                                                                                                                                                                         */
+                                                                                                                                                                                                                                        void method58( int iX ) {
+                                                                                                                                                                                                                                        }
+
+                                                                                                                                                                                                                                        /**
+                                                                                                                                                                                                                                         * Level 59 (no bar needed).
+                                                                                                                                                                                                                                         */
+                                                                                                                                                                                                                                        public static class Level59 {
+
+                                                                                                                                                                                                                                            /**
+                                                                                                                                                                                                                                             * Method at level 59 without a bar.
+                                                                                                                                                                                                                                             *
+                                                                                                                                                                                                                                             * @param iX Count
+                                                                                                                                                                                                                                             */
+                                                                                                                                                                                                                                            void method59( int iX ) {
+                                                                                                                                                                                                                                            }
+
+                                                                                                                                                                                                                                            /**
+                                                                                                                                                                                                                                             * Level 60 (no bar needed).
+                                                                                                                                                                                                                                             */
+                                                                                                                                                                                                                                            public static class Level60 {
+
+                                                                                                                                                                                                                                                /**
+                                                                                                                                                                                                                                                 * Method at level 60 without a bar.
+                                                                                                                                                                                                                                                 *
+                                                                                                                                                                                                                                                 * @param iX Count
+                                                                                                                                                                                                                                                 */
+                                                                                                                                                                                                                                                void method60( int iX ) {
+                                                                                                                                                                                                                                                }
+                                                                                                                                                                                                                                            }
+                                                                                                                                                                                                                                        }
+                                                                                                                                                                                                                                    }
+                                                                                                                                                                                                                                }
+                                                                                                                                                                                                                            }
+                                                                                                                                                                                                                        }
+                                                                                                                                                                                                                    }
+                                                                                                                                                                                                                }
+                                                                                                                                                                                                            }
+                                                                                                                                                                                                        }
+                                                                                                                                                                                                    }
+                                                                                                                                                                                                }
+                                                                                                                                                                                            }
+                                                                                                                                                                                        }
+                                                                                                                                                                                    }
+                                                                                                                                                                                }
+                                                                                                                                                                            }
+                                                                                                                                                                        }
+                                                                                                                                                                    }
+                                                                                                                                                                }
+                                                                                                                                                            }
+                                                                                                                                                        }
+                                                                                                                                                    }
+                                                                                                                                                }
+                                                                                                                                            }
+                                                                                                                                        }
+                                                                                                                                    }
+                                                                                                                                }
+                                                                                                                            }
+                                                                                                                        }
+                                                                                                                    }
+                                                                                                                }
+                                                                                                            }
+                                                                                                        }
+                                                                                                    }
+                                                                                                }
+                                                                                            }
+                                                                                        }
+                                                                                    }
+                                                                                }
+                                                                            }
+                                                                        }
+                                                                    }
+                                                                }
+                                                            }
+                                                        }
+                                                    }
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
+
+/**
+ * Top-level interface without a bar.
+ */
+interface TopInterface {
+
+    /**
+     * Method in a top-level interface without a bar.
+     */
+    void interfaceMethod();
+}
+
+/**
+ * Top-level enum (not checked itself).
+ */
+enum TopEnum {
+    A;
+
+    /**
+     * Method in a top-level enum without a bar.
+     */
+    void enumMethod() {
+    }
+
+    /**
+     * Class nested in an enum without a bar.
+     */
+    class InEnum {
+    }
+}
+
+/**
+ * Top-level annotation (not checked itself).
+ */
+@interface TopAnnotation {
+
+    /**
+     * Class nested in an annotation without a bar.
+     */
+    class InAnnotation {
+    }
+}
@@ -0,0 +1,102 @@
+package name.wadewalker.checks;
+
+//==============================================================================
+/**
+ * Tests edge cases of the comment bar, copyright, and parameter rules.
+ *
+ * Copyright (c) 2011 -  2016 Wade Walker. Free for any use, but credit is appreciated.   
+ * @author Wade Walker
+ */
+public class Test {
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public Test() {
+    }
+
+	//==============================================================================
+    /**
+     * Bar indented by a tab isn't a multiple of four whitespace characters.
+     */
+    public void method1() {
+    }
+
+				//==============================================================================
+    /**
+     * Bar indented by four tabs is four whitespace characters.
+     */
+    public void method2() {
+    }
+
+   //==============================================================================
+    /**
+     * Bar indented by three spaces.
+     */
+    public void method3() {
+    }
+
+    //===============================================================================
+    /**
+     * Bar that's one equals sign too long.
+     */
+    public void method4() {
+    }
+
+    //============================================================================== 
+    /**
+     * Bar with trailing whitespace.
+     */
+    public void method5() {
+    }
+
+    //==============================================================================
+    /**
+     * Parameter comments with one word, two words, and a real comment.
+     *
+     * @param iA
+     * @param iB int
+     * @param iC The number of things to do.
+     */
+    public void method6( int iA, int iB, int iC ) {
+    }
+
+    //==============================================================================
+    /**
+     * Trailing whitespace after a trivial comment isn't matched.
+     *
+     * @param iA int   
+     * @param iB	int
+     *	@param	iC	
+     */
+    public void method7( int iA, int iB, int iC ) {
+    }
+
+    //==============================================================================
+    /**
+     * Tags that aren't at the start of a word, or appear more than once.
+     *
+     * x@param iA
+     * @paramiB int
+     * @param iC @param iD
+     * @param iE @param iF more words
+     * @param
+     */
+    public void method8( int iA, int iB, int iC, int iD, int iE, int iF ) {
+    }
+
+    /**
+     * Missing bar on a nested class, which isn't checked.
+     */
+    static class Nested {
+
+        /**
+         * Trivial parameter comments are still checked in nested classes.
+         *
+         * @param iA Count
+         */
+        void nestedMethod( int iA ) {
+        }
+    }
+}
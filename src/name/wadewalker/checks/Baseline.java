@@ -0,0 +1,349 @@
+package name.wadewalker.checks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+//==============================================================================
+/**
+ * Known violations that shouldn't be reported again, keyed by file, target (the
+ * declaration, type, or method name the violation is about), and message key. Line
+ * numbers aren't part of the key, so edits elsewhere in a file don't invalidate it.
+ * The file lists each source path once, followed by its entries:
+ *
+ * <pre>
+ * # name.wadewalker.checks baseline 1
+ * src/name/wadewalker/Example.java
+ *     hungarian.naming.prefix ms1
+ *     javadoc.template.commentBar Example
+ * </pre>
+ *
+ * Source paths are stored relative to the baseline file's directory (when they're
+ * under it), and match any checked file whose path ends with them.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class Baseline {
+
+    /** First line of every baseline file. */
+    private static final String ssHeader = "# name.wadewalker.checks baseline 1";
+
+    /** Indentation of entry lines. */
+    private static final String ssIndent = "    ";
+
+    /** Separates the target from the message key in the entry sets. */
+    private static final char scSeparator = '\u0000';
+
+    /** Loaded baselines indexed by canonical path, so all the checks in a process share one. */
+    private static final ConcurrentMap<String, Baseline> sconcurrentmapLoaded = new ConcurrentHashMap<String, Baseline>();
+
+    /** Baselines being recorded outside any audit, indexed by canonical path. */
+    private static final ConcurrentMap<String, Baseline> sconcurrentmapRecording = new ConcurrentHashMap<String, Baseline>();
+
+    /** Baselines being recorded by the audit running on each thread (null for threads outside any audit). */
+    private static final ThreadLocal<ConcurrentMap<String, Baseline>> sthreadlocalAuditRecordings =
+        new ThreadLocal<ConcurrentMap<String, Baseline>>();
+
+    /** Directory stored paths are relative to, with a trailing slash. */
+    private final String sBaseDir;
+
+    /** Entries ("target\0key") indexed by stored path. */
+    private final Map<String, Set<String>> mapEntries = new HashMap<String, Set<String>>();
+
+    /** Time the file was last modified when it was loaded (0 if it was never loaded). */
+    private long lLastModified;
+
+    /** Length of the file when it was loaded (0 if it was never loaded). */
+    private long lLength;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     *
+     * @param fileBaseline Baseline file, whose directory stored paths are relative to.
+     */
+    private Baseline( File fileBaseline ) {
+        File fileParent = fileBaseline.getAbsoluteFile().getParentFile();
+        sBaseDir = fileParent != null ? normalize( fileParent.getPath() ) + "/" : "";
+    }
+
+    //==============================================================================
+    /**
+     * Loads a baseline file. Missing files give an empty baseline.
+     *
+     * @param fileBaseline Baseline file.
+     * @return the baseline.
+     * @throws IOException if the file can't be read or is in the wrong format.
+     */
+    public static Baseline load( File fileBaseline ) throws IOException {
+
+        Baseline baseline = new Baseline( fileBaseline );
+        baseline.lLastModified = fileBaseline.lastModified();
+        baseline.lLength = fileBaseline.length();
+
+        BufferedReader bufferedreader;
+        try {
+            bufferedreader = new BufferedReader( new InputStreamReader( new FileInputStream( fileBaseline ), "UTF-8" ) );
+        }
+        catch( FileNotFoundException filenotfoundexception ) {
+            return( baseline );
+        }
+
+        try {
+            if( !ssHeader.equals( bufferedreader.readLine() ) )
+                throw new IOException( fileBaseline + " isn't a baseline file" );
+
+            Set<String> setFileEntries = null;
+            for( String sLine = bufferedreader.readLine(); sLine != null; sLine = bufferedreader.readLine() ) {
+                if( sLine.isEmpty() || sLine.startsWith( "#" ) )
+                    continue;
+
+                if( !sLine.startsWith( ssIndent ) ) {
+                    setFileEntries = new HashSet<String>();
+                    baseline.mapEntries.put( sLine, setFileEntries );
+                    continue;
+                }
+
+                int iSpace = sLine.indexOf( ' ', ssIndent.length() );
+                if( (setFileEntries == null) || (iSpace < 0) )
+                    throw new IOException( fileBaseline + " has a malformed entry: " + sLine );
+                setFileEntries.add( sLine.substring( iSpace + 1 ) + scSeparator + sLine.substring( ssIndent.length(), iSpace ) );
+            }
+        }
+        finally {
+            bufferedreader.close();
+        }
+
+        return( baseline );
+    }
+
+    //==============================================================================
+    /**
+     * Gets a loaded baseline shared by every check that uses the same file, loading it
+     * again if the file has changed.
+     *
+     * @param sFileName Name of the baseline file.
+     * @return the baseline.
+     * @throws IOException if the file can't be read or is in the wrong format.
+     */
+    static Baseline getShared( String sFileName ) throws IOException {
+
+        File fileBaseline = new File( sFileName ).getCanonicalFile();
+        Baseline baseline = sconcurrentmapLoaded.get( fileBaseline.getPath() );
+        if( (baseline == null) || (baseline.lLastModified != fileBaseline.lastModified())
+            || (baseline.lLength != fileBaseline.length()) ) {
+            baseline = load( fileBaseline );
+            sconcurrentmapLoaded.put( fileBaseline.getPath(), baseline );
+        }
+        return( baseline );
+    }
+
+    //==============================================================================
+    /**
+     * Gets the baseline being recorded into a file, shared by every check that records
+     * into the same file during the same audit (or outside any audit).
+     *
+     * @param sFileName Name of the baseline file.
+     * @return the baseline being recorded.
+     * @throws IOException if the file's canonical name can't be found.
+     */
+    static Baseline getRecording( String sFileName ) throws IOException {
+
+        ConcurrentMap<String, Baseline> concurrentmapRecording = sthreadlocalAuditRecordings.get();
+        if( concurrentmapRecording == null )
+            concurrentmapRecording = sconcurrentmapRecording;
+
+        File fileBaseline = new File( sFileName ).getCanonicalFile();
+        Baseline baseline = concurrentmapRecording.get( fileBaseline.getPath() );
+        if( baseline != null )
+            return( baseline );
+
+        Baseline baselineNew = new Baseline( fileBaseline );
+        baseline = concurrentmapRecording.putIfAbsent( fileBaseline.getPath(), baselineNew );
+        return( baseline != null ? baseline : baselineNew );
+    }
+
+    //==============================================================================
+    /**
+     * Ends a recording made outside any audit, so the next one into the same file
+     * starts empty. Checks that still hold the recorded baseline can go on writing it.
+     *
+     * @param sFileName Name of the baseline file.
+     * @param baseline Baseline that was being recorded.
+     * @throws IOException if the file's canonical name can't be found.
+     */
+    static void endRecording( String sFileName, Baseline baseline ) throws IOException {
+        sconcurrentmapRecording.remove( new File( sFileName ).getCanonicalPath(), baseline );
+    }
+
+    //==============================================================================
+    /**
+     * Makes an audit's recordings current on this thread, so the checks it runs record
+     * into them instead of ending a recording each time their Checker is destroyed
+     * (which Checkstyle does after every call to process()).
+     *
+     * @param concurrentmapRecordings Baselines recorded by the audit this thread works on,
+     * indexed by canonical path (or null for none).
+     * @return the recordings that were current before, to restore afterward.
+     */
+    static ConcurrentMap<String, Baseline> setAuditRecordings( ConcurrentMap<String, Baseline> concurrentmapRecordings ) {
+
+        ConcurrentMap<String, Baseline> concurrentmapPrevious = sthreadlocalAuditRecordings.get();
+        if( concurrentmapRecordings != null )
+            sthreadlocalAuditRecordings.set( concurrentmapRecordings );
+        else
+            sthreadlocalAuditRecordings.remove();
+        return( concurrentmapPrevious );
+    }
+
+    //==============================================================================
+    /**
+     * Tells whether this thread is working on an audit that writes its own recordings.
+     *
+     * @return true if an audit's recordings are current on this thread.
+     */
+    static boolean isAuditRecording() {
+        return( sthreadlocalAuditRecordings.get() != null );
+    }
+
+    //==============================================================================
+    /**
+     * Writes the baselines recorded by an audit, once all its files are checked.
+     *
+     * @param concurrentmapRecordings Baselines recorded by the audit, indexed by canonical path.
+     * @throws IOException if a baseline file can't be written.
+     */
+    static void writeAuditRecordings( ConcurrentMap<String, Baseline> concurrentmapRecordings ) throws IOException {
+        for( Map.Entry<String, Baseline> entry : concurrentmapRecordings.entrySet() )
+            entry.getValue().write( new File( entry.getKey() ) );
+    }
+
+    //==============================================================================
+    /**
+     * Finds the entries for a checked file. Called once per file, so the checks only
+     * pay for a set lookup per violation, and nothing at all in files with no entries.
+     *
+     * @param sFileName Name of the checked file.
+     * @return the file's entries, or null if it has none.
+     */
+    Set<String> getFileEntries( String sFileName ) {
+
+        if( mapEntries.isEmpty() )
+            return( null );
+
+        // try the whole path, then each suffix that starts after a slash
+        String sPath = normalize( sFileName );
+        int iStart = 0;
+        while( true ) {
+            Set<String> setFileEntries = mapEntries.get( sPath.substring( iStart ) );
+            if( setFileEntries != null )
+                return( setFileEntries );
+
+            int iSlash = sPath.indexOf( '/', iStart );
+            if( iSlash < 0 )
+                return( null );
+            iStart = iSlash + 1;
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Checks whether a file's entries include a violation.
+     *
+     * @param setFileEntries Entries of the checked file (from {@link #getFileEntries(String)}).
+     * @param sTarget Declaration, type, or method name the violation is about.
+     * @param sKey Message key of the violation.
+     * @return true if the violation is in the baseline, false otherwise.
+     */
+    static boolean contains( Set<String> setFileEntries, String sTarget, String sKey ) {
+        return( setFileEntries.contains( sTarget + scSeparator + sKey ) );
+    }
+
+    //==============================================================================
+    /**
+     * Adds a violation.
+     *
+     * @param sFileName Name of the checked file.
+     * @param sTarget Declaration, type, or method name the violation is about.
+     * @param sKey Message key of the violation.
+     */
+    public synchronized void add( String sFileName, String sTarget, String sKey ) {
+
+        String sPath = normalize( sFileName );
+        if( sPath.startsWith( sBaseDir ) )
+            sPath = sPath.substring( sBaseDir.length() );
+
+        Set<String> setFileEntries = mapEntries.get( sPath );
+        if( setFileEntries == null ) {
+            setFileEntries = new HashSet<String>();
+            mapEntries.put( sPath, setFileEntries );
+        }
+        setFileEntries.add( sTarget + scSeparator + sKey );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the number of entries.
+     */
+    public synchronized int size() {
+        int iSize = 0;
+        for( Set<String> setFileEntries : mapEntries.values() )
+            iSize += setFileEntries.size();
+        return( iSize );
+    }
+
+    //==============================================================================
+    /**
+     * Writes the baseline, sorted so it diffs cleanly in version control.
+     *
+     * @param fileBaseline File to write.
+     * @throws IOException if the file can't be written.
+     */
+    public synchronized void write( File fileBaseline ) throws IOException {
+
+        PrintWriter printwriter = new PrintWriter( new OutputStreamWriter( new FileOutputStream( fileBaseline ), "UTF-8" ) );
+        try {
+            printwriter.println( ssHeader );
+            for( Map.Entry<String, Set<String>> entry : new TreeMap<String, Set<String>>( mapEntries ).entrySet() ) {
+                printwriter.println( entry.getKey() );
+                for( String sEntry : new TreeSet<String>( entry.getValue() ) ) {
+                    int iSeparator = sEntry.indexOf( scSeparator );
+                    printwriter.println( ssIndent + sEntry.substring( iSeparator + 1 ) + " " + sEntry.substring( 0, iSeparator ) );
+                }
+            }
+        }
+        finally {
+            printwriter.close();
+        }
+
+        if( printwriter.checkError() )
+            throw new IOException( "Error writing " + fileBaseline );
+    }
+
+    //==============================================================================
+    /**
+     * Normalizes path separators.
+     *
+     * @param sPath Path to normalize.
+     * @return the path with forward slashes.
+     */
+    private static String normalize( String sPath ) {
+        return( sPath.replace( '\\', '/' ) );
+    }
+}
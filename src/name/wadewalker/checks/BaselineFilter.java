@@ -0,0 +1,131 @@
+package name.wadewalker.checks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+
+//==============================================================================
+/**
+ * Per-check view of a {@link Baseline}: either skips the violations it contains, or
+ * records every violation into it when the baseline is being updated.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+final class BaselineFilter {
+
+    /** Name of the baseline file. */
+    private final String sBaselineFile;
+
+    /** The loaded baseline, or the one being recorded by the current audit (looked up for each file). */
+    private Baseline baseline;
+
+    /** True if violations are recorded instead of skipped. */
+    private final boolean bUpdate;
+
+    /** Name of the file being checked. */
+    private String sFileName;
+
+    /** Baseline entries of the file being checked (null if it has none). */
+    private Set<String> setFileEntries;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     *
+     * @param sBaselineFileIn Name of the baseline file.
+     * @param bUpdateIn True to record violations into the baseline instead of skipping them.
+     */
+    BaselineFilter( String sBaselineFileIn, boolean bUpdateIn ) {
+
+        sBaselineFile = sBaselineFileIn;
+        bUpdate = bUpdateIn;
+        try {
+            baseline = bUpdate ? null : Baseline.getShared( sBaselineFile );
+        }
+        catch( IOException ioexception ) {
+            throw new IllegalArgumentException( "Unable to read baseline file " + sBaselineFile, ioexception );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Looks up the entries of a file once, before it's checked, or the baseline it's
+     * recorded into.
+     *
+     * @param sFileNameIn Name of the file being checked.
+     */
+    void beginFile( String sFileNameIn ) {
+
+        sFileName = sFileNameIn;
+        if( !bUpdate ) {
+            setFileEntries = baseline.getFileEntries( sFileName );
+            return;
+        }
+
+        try {
+            baseline = Baseline.getRecording( sBaselineFile );
+        }
+        catch( IOException ioexception ) {
+            throw new IllegalStateException( "Unable to record baseline file " + sBaselineFile, ioexception );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Checks whether a violation is already in the baseline. When updating, records the
+     * violation instead.
+     *
+     * @param sTarget Declaration, type, or method name the violation is about.
+     * @param sKey Message key of the violation.
+     * @return true if the violation should be skipped, false if it should be logged.
+     */
+    boolean isKnown( String sTarget, String sKey ) {
+
+        if( bUpdate ) {
+            baseline.add( sFileName, sTarget, sKey );
+            return( false );
+        }
+        return( (setFileEntries != null) && Baseline.contains( setFileEntries, sTarget, sKey ) );
+    }
+
+    //==============================================================================
+    /**
+     * Tells whether a violation is in the baseline, without recording it when the
+     * baseline is being updated.
+     *
+     * @param sTarget Declaration, type, or method name the violation is about.
+     * @param sKey Message key of the violation.
+     * @return true if the violation is known (always false when the baseline is being updated).
+     */
+    boolean contains( String sTarget, String sKey ) {
+        return( (setFileEntries != null) && Baseline.contains( setFileEntries, sTarget, sKey ) );
+    }
+
+    //==============================================================================
+    /**
+     * Writes the recorded baseline, if it's being updated, and ends the recording. Every
+     * check recording into the same file writes all of it, so the last one to finish
+     * leaves it complete. Inside an audit run by {@link ParallelChecker}, whose pooled
+     * Checkers are destroyed after each file, the audit writes its recordings at the end
+     * instead.
+     */
+    void finish() {
+
+        if( !bUpdate || (baseline == null) )
+            return;
+
+        try {
+            if( !Baseline.isAuditRecording() ) {
+                baseline.write( new File( sBaselineFile ) );
+                Baseline.endRecording( sBaselineFile, baseline );
+            }
+        }
+        catch( IOException ioexception ) {
+            throw new IllegalStateException( "Unable to write baseline file " + sBaselineFile, ioexception );
+        }
+        finally {
+            baseline = null;
+        }
+    }
+}
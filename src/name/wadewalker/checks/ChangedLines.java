@@ -0,0 +1,459 @@
+package name.wadewalker.checks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+//==============================================================================
+/**
+ * Lines changed in each file, read from a unified diff (like "git diff" output) or from
+ * a list of ranges, one per line:
+ *
+ * <pre>
+ * src/name/wadewalker/Example.java:10-25
+ * src/name/wadewalker/Example.java:40
+ * </pre>
+ *
+ * A file counts as a diff if it has a "+++ " line. Only added lines count as changed,
+ * plus the line after each deletion. Each hunk ends after the number of lines its
+ * header gives, so added lines starting with "++ " and removed lines starting with
+ * "-- " aren't mistaken for file headers. Paths match any checked file whose path ends
+ * with them, so diff paths relative to the repository root work from any directory.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class ChangedLines {
+
+    /** Matches a hunk header, capturing the old file's line count, and the new file's start line and line count
+     *  (a missing count means one line). */
+    private static final Pattern spatternHunk = Pattern.compile( "^@@ -\\d+(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@.*" );
+
+    /** Matches a range line, capturing the path, first line, and optional last line. */
+    private static final Pattern spatternRange = Pattern.compile( "^(.+):(\\d+)(?:-(\\d+))?$" );
+
+    /** Prefix of the new file's name in a diff. */
+    private static final String ssNewFilePrefix = "+++ ";
+
+    /** Name diffs give a deleted file. */
+    private static final String ssDevNull = "/dev/null";
+
+    /** Most recently loaded file's changed lines, so all the checks in a process share them. Only one is
+     *  kept, so a long-running process given a new file for each check doesn't collect them. */
+    private static volatile ChangedLines schangedlinesShared;
+
+    /** Changed lines of the audit running on each thread (null for threads outside any audit, or audits
+     *  that aren't limited to changed lines). */
+    private static final ThreadLocal<ChangedLines> sthreadlocalCurrent = new ThreadLocal<ChangedLines>();
+
+    /** Changed lines indexed by path. */
+    private final Map<String, LineRanges> mapRanges = new HashMap<String, LineRanges>();
+
+    /** Time the file was last modified when it was loaded. */
+    private long lLastModified;
+
+    /** Length of the file when it was loaded. */
+    private long lLength;
+
+    /** Canonical path of the file, if it was loaded by {@link #getShared(String)}. */
+    private String sCanonicalPath;
+
+    //==============================================================================
+    /**
+     * Sorted, non-overlapping ranges of changed lines in one file.
+     */
+    public static final class LineRanges {
+
+        /** Ranges for a file with no changes. */
+        static final LineRanges slinerangesNone = new LineRanges( new int [0], new int [0] );
+
+        /** First line of each range, ascending. */
+        private final int [] aiFirsts;
+
+        /** Last line of each range (same order as the firsts). */
+        private final int [] aiLasts;
+
+        //==============================================================================
+        /**
+         * Constructor.
+         *
+         * @param aiFirstsIn First line of each range, ascending.
+         * @param aiLastsIn Last line of each range, with no overlaps.
+         */
+        private LineRanges( int [] aiFirstsIn, int [] aiLastsIn ) {
+            aiFirsts = aiFirstsIn;
+            aiLasts = aiLastsIn;
+        }
+
+        //==============================================================================
+        /**
+         * Merges a list of changed lines into ranges.
+         *
+         * @param listLines Changed line numbers, in any order, possibly repeated.
+         * @return the ranges.
+         */
+        static LineRanges fromLines( List<int []> listLines ) {
+
+            int [][] aiSortedRanges = listLines.toArray( new int [listLines.size()][] );
+            Arrays.sort( aiSortedRanges, new Comparator<int []>() {
+                public int compare( int [] aiRange1, int [] aiRange2 ) {
+                    return( aiRange1[0] < aiRange2[0] ? -1 : (aiRange1[0] == aiRange2[0] ? 0 : 1) );
+                }
+            } );
+
+            int [] aiFirsts = new int [aiSortedRanges.length];
+            int [] aiLasts = new int [aiSortedRanges.length];
+            int iCount = 0;
+            for( int [] aiRange : aiSortedRanges ) {
+                // merge ranges that overlap or touch
+                if( (iCount > 0) && (aiRange[0] <= aiLasts[iCount - 1] + 1) )
+                    aiLasts[iCount - 1] = Math.max( aiLasts[iCount - 1], aiRange[1] );
+                else {
+                    aiFirsts[iCount] = aiRange[0];
+                    aiLasts[iCount] = aiRange[1];
+                    iCount++;
+                }
+            }
+
+            return( new LineRanges( Arrays.copyOf( aiFirsts, iCount ), Arrays.copyOf( aiLasts, iCount ) ) );
+        }
+
+        //==============================================================================
+        /**
+         * Checks whether any changed line falls in a span of lines, with a binary search.
+         *
+         * @param iFirst First line of the span.
+         * @param iLast Last line of the span.
+         * @return true if a changed line is in the span, false otherwise.
+         */
+        public boolean intersects( int iFirst, int iLast ) {
+
+            // find the last range starting at or before the end of the span
+            int iLow = 0;
+            int iHigh = aiFirsts.length - 1;
+            while( iLow <= iHigh ) {
+                int iMid = (iLow + iHigh) >>> 1;
+                if( aiFirsts[iMid] <= iLast )
+                    iLow = iMid + 1;
+                else
+                    iHigh = iMid - 1;
+            }
+            return( (iHigh >= 0) && (aiLasts[iHigh] >= iFirst) );
+        }
+
+        //==============================================================================
+        /**
+         * Accessor.
+         * @return true if no lines changed.
+         */
+        public boolean isEmpty() {
+            return( aiFirsts.length == 0 );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    private ChangedLines() {
+    }
+
+    //==============================================================================
+    /**
+     * Reads changed lines from a unified diff or a list of ranges.
+     *
+     * @param file File to read.
+     * @return the changed lines.
+     * @throws IOException if the file can't be read or has a malformed range.
+     */
+    public static ChangedLines load( File file ) throws IOException {
+
+        List<String> listLines = new ArrayList<String>();
+        BufferedReader bufferedreader = new BufferedReader( new InputStreamReader( new FileInputStream( file ), "UTF-8" ) );
+        try {
+            for( String sLine = bufferedreader.readLine(); sLine != null; sLine = bufferedreader.readLine() )
+                listLines.add( sLine );
+        }
+        finally {
+            bufferedreader.close();
+        }
+
+        ChangedLines changedlines = parse( listLines );
+        changedlines.lLastModified = file.lastModified();
+        changedlines.lLength = file.length();
+        return( changedlines );
+    }
+
+    //==============================================================================
+    /**
+     * Reads changed lines from a unified diff or a list of ranges.
+     *
+     * @param reader Reads the diff or ranges.
+     * @return the changed lines.
+     * @throws IOException if the input can't be read or has a malformed range.
+     */
+    public static ChangedLines load( Reader reader ) throws IOException {
+
+        List<String> listLines = new ArrayList<String>();
+        BufferedReader bufferedreader = new BufferedReader( reader );
+        for( String sLine = bufferedreader.readLine(); sLine != null; sLine = bufferedreader.readLine() )
+            listLines.add( sLine );
+        return( parse( listLines ) );
+    }
+
+    //==============================================================================
+    /**
+     * Gets changed lines shared by every check that uses the same file, loading them
+     * again if the file has changed or another file was loaded since.
+     *
+     * @param sFileName Name of the diff or ranges file.
+     * @return the changed lines.
+     * @throws IOException if the file can't be read or has a malformed range.
+     */
+    static ChangedLines getShared( String sFileName ) throws IOException {
+
+        File file = new File( sFileName ).getCanonicalFile();
+        ChangedLines changedlines = schangedlinesShared;
+        if(    (changedlines == null) || !changedlines.sCanonicalPath.equals( file.getPath() )
+            || (changedlines.lLastModified != file.lastModified()) || (changedlines.lLength != file.length()) ) {
+            changedlines = load( file );
+            changedlines.sCanonicalPath = file.getPath();
+            schangedlinesShared = changedlines;
+        }
+        return( changedlines );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the changed lines of the audit running on this thread (or null if there isn't one).
+     */
+    static ChangedLines getCurrent() {
+        return( sthreadlocalCurrent.get() );
+    }
+
+    //==============================================================================
+    /**
+     * Makes changed lines current on this thread, so checks with no changed lines file
+     * of their own are limited to them. This lets pooled Checkers configured without
+     * changed lines check a diff.
+     *
+     * @param changedlinesCurrent Changed lines of the audit this thread works on (or null for none).
+     * @return the changed lines that were current before, to restore afterward.
+     */
+    static ChangedLines setCurrent( ChangedLines changedlinesCurrent ) {
+
+        ChangedLines changedlinesPrevious = sthreadlocalCurrent.get();
+        if( changedlinesCurrent != null )
+            sthreadlocalCurrent.set( changedlinesCurrent );
+        else
+            sthreadlocalCurrent.remove();
+        return( changedlinesPrevious );
+    }
+
+    //==============================================================================
+    /**
+     * Parses a unified diff or a list of ranges.
+     *
+     * @param listLines Lines of the input.
+     * @return the changed lines.
+     * @throws IOException if a range is malformed.
+     */
+    private static ChangedLines parse( List<String> listLines ) throws IOException {
+
+        boolean bDiff = false;
+        for( String sLine : listLines )
+            bDiff |= sLine.startsWith( ssNewFilePrefix );
+
+        Map<String, List<int []>> mapLines = new HashMap<String, List<int []>>();
+        if( bDiff )
+            parseDiff( listLines, mapLines );
+        else
+            parseRanges( listLines, mapLines );
+
+        ChangedLines changedlines = new ChangedLines();
+        for( Map.Entry<String, List<int []>> entry : mapLines.entrySet() )
+            changedlines.mapRanges.put( entry.getKey(), LineRanges.fromLines( entry.getValue() ) );
+        return( changedlines );
+    }
+
+    //==============================================================================
+    /**
+     * Collects the added lines (and the line after each deletion) from a unified diff.
+     *
+     * @param listLines Lines of the diff.
+     * @param mapLines Receives the changed lines, indexed by path.
+     */
+    private static void parseDiff( List<String> listLines, Map<String, List<int []>> mapLines ) {
+
+        List<int []> listFileLines = null;
+        int iNewLine = 0;
+        int iOldLeft = 0;
+        int iNewLeft = 0;
+
+        for( String sLine : listLines ) {
+            // inside a hunk, every line is content until its counts run out, even if it looks like a header
+            if( (iOldLeft > 0) || (iNewLeft > 0) ) {
+                char cMarker = sLine.isEmpty() ? ' ' : sLine.charAt( 0 );
+                if( cMarker == '+' ) {
+                    if( listFileLines != null )
+                        listFileLines.add( new int [] {iNewLine, iNewLine} );
+                    iNewLine++;
+                    iNewLeft--;
+                    continue;
+                }
+                if( cMarker == '-' ) {
+                    if( listFileLines != null )
+                        listFileLines.add( new int [] {Math.max( iNewLine, 1 ), Math.max( iNewLine, 1 )} );
+                    iOldLeft--;
+                    continue;
+                }
+                if( cMarker == ' ' ) {
+                    iNewLine++;
+                    iOldLeft--;
+                    iNewLeft--;
+                    continue;
+                }
+                if( cMarker == '\\' )
+                    continue;
+
+                // anything else means the hunk was cut short, so the line is read as a header
+                iOldLeft = 0;
+                iNewLeft = 0;
+            }
+
+            if( sLine.startsWith( ssNewFilePrefix ) ) {
+                String sPath = stripDiffPrefix( sLine.substring( ssNewFilePrefix.length() ) );
+                listFileLines = sPath.equals( ssDevNull ) ? null : linesOf( mapLines, sPath );
+                continue;
+            }
+
+            Matcher matcher = spatternHunk.matcher( sLine );
+            if( matcher.matches() ) {
+                iOldLeft = matcher.group( 1 ) != null ? Integer.parseInt( matcher.group( 1 ) ) : 1;
+                iNewLine = Integer.parseInt( matcher.group( 2 ) );
+                iNewLeft = matcher.group( 3 ) != null ? Integer.parseInt( matcher.group( 3 ) ) : 1;
+            }
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Collects ranges from "path:first-last" or "path:line" lines.
+     *
+     * @param listLines Lines of the ranges file.
+     * @param mapLines Receives the changed lines, indexed by path.
+     * @throws IOException if a line is malformed.
+     */
+    private static void parseRanges( List<String> listLines, Map<String, List<int []>> mapLines ) throws IOException {
+
+        for( String sLine : listLines ) {
+            String sTrimmed = sLine.trim();
+            if( sTrimmed.isEmpty() || sTrimmed.startsWith( "#" ) )
+                continue;
+
+            Matcher matcher = spatternRange.matcher( sTrimmed );
+            if( !matcher.matches() )
+                throw new IOException( "Malformed line range: " + sLine );
+
+            int iFirst = Integer.parseInt( matcher.group( 2 ) );
+            int iLast = matcher.group( 3 ) != null ? Integer.parseInt( matcher.group( 3 ) ) : iFirst;
+            if( iLast < iFirst )
+                throw new IOException( "Malformed line range: " + sLine );
+            linesOf( mapLines, normalize( matcher.group( 1 ) ) ).add( new int [] {iFirst, iLast} );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Gets the list of changed lines for a path, creating it if needed.
+     *
+     * @param mapLines Changed lines indexed by path.
+     * @param sPath Path of the file.
+     * @return the file's list.
+     */
+    private static List<int []> linesOf( Map<String, List<int []>> mapLines, String sPath ) {
+        List<int []> listFileLines = mapLines.get( sPath );
+        if( listFileLines == null ) {
+            listFileLines = new ArrayList<int []>();
+            mapLines.put( sPath, listFileLines );
+        }
+        return( listFileLines );
+    }
+
+    //==============================================================================
+    /**
+     * Strips the "b/" prefix git puts on new file names, and any trailing timestamp.
+     *
+     * @param sName File name from a "+++ " line.
+     * @return the path.
+     */
+    private static String stripDiffPrefix( String sName ) {
+
+        int iTab = sName.indexOf( '\t' );
+        String sPath = normalize( iTab >= 0 ? sName.substring( 0, iTab ) : sName );
+        return( sPath.startsWith( "b/" ) ? sPath.substring( 2 ) : sPath );
+    }
+
+    //==============================================================================
+    /**
+     * Finds the changed lines of a file.
+     *
+     * @param sFileName Name of the file.
+     * @return the file's changed lines (empty if it's unchanged).
+     */
+    public LineRanges getFileRanges( String sFileName ) {
+
+        // try the whole path, then each suffix that starts after a slash
+        String sPath = normalize( sFileName );
+        int iStart = 0;
+        while( true ) {
+            LineRanges lineranges = mapRanges.get( sPath.substring( iStart ) );
+            if( lineranges != null )
+                return( lineranges );
+
+            int iSlash = sPath.indexOf( '/', iStart );
+            if( iSlash < 0 )
+                return( LineRanges.slinerangesNone );
+            iStart = iSlash + 1;
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Keeps only the files with changed lines.
+     *
+     * @param listFiles Files to filter.
+     * @return the changed files, in the same order.
+     */
+    public List<File> filter( List<File> listFiles ) {
+        List<File> listChanged = new ArrayList<File>();
+        for( File file : listFiles ) {
+            if( !getFileRanges( file.getAbsolutePath() ).isEmpty() )
+                listChanged.add( file );
+        }
+        return( listChanged );
+    }
+
+    //==============================================================================
+    /**
+     * Normalizes path separators.
+     *
+     * @param sPath Path to normalize.
+     * @return the path with forward slashes.
+     */
+    private static String normalize( String sPath ) {
+        return( sPath.replace( '\\', '/' ) );
+    }
+}
@@ -0,0 +1,577 @@
+package name.wadewalker.checks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.regex.Pattern;
+
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+
+//==============================================================================
+/**
+ * Long-running server that loads the configuration once and keeps a pool of warm
+ * Checkers, so clients like pre-commit hooks don't pay for JVM startup, class loading,
+ * configuration parsing, and JIT warm-up on every run. Listens on a loopback port:
+ *
+ * <pre>
+ * java name.wadewalker.checks.CheckDaemon -c config.xml [-p file.properties] [-b basedir]
+ *     [-t threads] [-port port] [-cachedir dir] [-token file]
+ * </pre>
+ *
+ * The protocol is line-based UTF-8 text. A request is one of
+ *
+ * - "PING", answered with "OK"
+ * - "STOP", answered with "OK" before the daemon shuts down
+ * - "CHECK", followed by option lines ("-t threads", "-i cachename", or "-d diff"),
+ *   then one file or directory per line, ended by an empty line
+ *
+ * A check is answered with the DefaultLogger output (as {@link CheckRunner} prints it),
+ * then "EXIT" and the number of errors, or "EXIT -2" after an "ERROR" line if the check
+ * failed. Relative paths are resolved against the daemon's working directory, so clients
+ * should send absolute ones (see {@link CheckDaemonClient}). The configuration and
+ * properties files are reloaded only when they change, and any {@link TypeIndex} whose
+ * files have changed is rebuilt before each check.
+ *
+ * "-d" works as it does for {@link CheckRunner}: files the diff or line ranges file
+ * doesn't change are skipped, and the checks only report changed lines. The changed
+ * lines are loaded for each request and handed to the warm Checkers (see
+ * {@link ParallelChecker#setChangedLines(ChangedLines)}) instead of going into the
+ * configuration, and those checks don't use the result cache. "-i" names a result
+ * cache file inside the daemon's "-cachedir" directory (a plain file name, not a
+ * path), and is refused if the daemon has no cache directory.
+ *
+ * Trust model: the daemon only listens on the loopback interface, but any local
+ * process can connect to it, and it reads (never writes) whatever files a check names
+ * with the daemon's permissions. Run it as a user that may read the code being checked.
+ * With "-token", the daemon writes a random token to that file, readable only by the
+ * daemon's user, and every request must start with a "TOKEN" line holding it, so only
+ * processes that can read the file can check or stop it. Without "-token", the daemon
+ * prints a warning when it starts.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class CheckDaemon {
+
+    /** Default port to listen on. */
+    public static final int siDefaultPort = 17417;
+
+    /** Usage message printed for bad arguments. */
+    private static final String ssUsage =
+        "Usage: CheckDaemon -c config.xml [-p file.properties] [-b basedir] [-t threads] [-port port] [-cachedir dir] [-token file]";
+
+    /** Prefix of the line a request starts with when the daemon requires a token. */
+    public static final String ssTokenPrefix = "TOKEN ";
+
+    /** Matches a cache name a client may send: a plain file name, not a path. */
+    private static final Pattern spatternCacheName = Pattern.compile( "[A-Za-z0-9_][A-Za-z0-9_.-]*" );
+
+    /** Number of random bytes in a token. */
+    private static final int siTokenBytes = 32;
+
+    /** Number of connections handled at once. */
+    private static final int siConnectionThreads = 4;
+
+    /** Milliseconds a connection can sit idle before it's dropped. */
+    private static final int siReadTimeoutMillis = 60000;
+
+    /** Checkstyle configuration file. */
+    private final String sConfigFile;
+
+    /** Properties file used to expand the configuration file (or null for none). */
+    private final String sPropertiesFile;
+
+    /** Base directory stripped from file names in the output (or null to leave them alone). */
+    private final String sBasedir;
+
+    /** Default number of worker threads per check (or 0 to use one per processor). */
+    private final int iThreads;
+
+    /** Directory holding the result caches clients name (or null to refuse caches). */
+    private File fileCacheDir;
+
+    /** File the token is written to (or null if requests don't need one). */
+    private File fileToken;
+
+    /** Token every request must start with (or null if requests don't need one). */
+    private String sToken;
+
+    /** Pool of warm Checkers for the current configuration. */
+    private CheckerPool checkerpool;
+
+    /** Modification times and lengths of the configuration files when they were loaded. */
+    private String sConfigStamp;
+
+    /** Number of times the configuration has been loaded. */
+    private int iConfigurationLoads;
+
+    /** Socket accepting connections (null until started). */
+    private ServerSocket serversocket;
+
+    /** Threads handling connections. */
+    private ExecutorService executorserviceConnections;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     *
+     * @param sConfigFileIn Checkstyle configuration file.
+     * @param sPropertiesFileIn Properties file used to expand the configuration file (or null for none).
+     * @param sBasedirIn Base directory stripped from file names in the output (or null to leave them alone).
+     * @param iThreadsIn Default number of worker threads per check (or 0 to use one per processor).
+     */
+    public CheckDaemon( String sConfigFileIn, String sPropertiesFileIn, String sBasedirIn, int iThreadsIn ) {
+        sConfigFile = sConfigFileIn;
+        sPropertiesFile = sPropertiesFileIn;
+        sBasedir = sBasedirIn;
+        iThreads = iThreadsIn;
+    }
+
+    //==============================================================================
+    /**
+     * Runs the daemon from the command line until it's sent "STOP".
+     *
+     * @param asArgs Command-line arguments (see the class comment).
+     */
+    public static void main( String [] asArgs ) {
+
+        String sConfigFile = null;
+        String sPropertiesFile = null;
+        String sBasedir = null;
+        int iThreads = 0;
+        int iPort = siDefaultPort;
+        String sCacheDir = null;
+        String sTokenFile = null;
+
+        try {
+            for( int i = 0; i < asArgs.length; i += 2 ) {
+                if( i + 1 >= asArgs.length )
+                    throw new IllegalArgumentException( asArgs[i] );
+                if( asArgs[i].equals( "-c" ) )
+                    sConfigFile = asArgs[i + 1];
+                else if( asArgs[i].equals( "-p" ) )
+                    sPropertiesFile = asArgs[i + 1];
+                else if( asArgs[i].equals( "-b" ) )
+                    sBasedir = asArgs[i + 1];
+                else if( asArgs[i].equals( "-t" ) )
+                    iThreads = Integer.parseInt( asArgs[i + 1] );
+                else if( asArgs[i].equals( "-port" ) )
+                    iPort = Integer.parseInt( asArgs[i + 1] );
+                else if( asArgs[i].equals( "-cachedir" ) )
+                    sCacheDir = asArgs[i + 1];
+                else if( asArgs[i].equals( "-token" ) )
+                    sTokenFile = asArgs[i + 1];
+                else
+                    throw new IllegalArgumentException( asArgs[i] );
+            }
+            if( sConfigFile == null )
+                throw new IllegalArgumentException( "-c" );
+        }
+        catch( IllegalArgumentException illegalargumentexception ) {
+            System.err.println( ssUsage );
+            System.exit( -1 );
+        }
+
+        CheckDaemon checkdaemon = new CheckDaemon( sConfigFile, sPropertiesFile, sBasedir, iThreads );
+        if( sCacheDir != null )
+            checkdaemon.setCacheDir( new File( sCacheDir ) );
+        if( sTokenFile != null )
+            checkdaemon.setTokenFile( new File( sTokenFile ) );
+        else
+            System.err.println( "Warning: without -token, any local process can have the daemon read files as this user, or stop it" );
+        try {
+            checkdaemon.start( iPort );
+        }
+        catch( CheckstyleException checkstyleexception ) {
+            checkstyleexception.printStackTrace();
+            System.exit( -2 );
+        }
+        catch( IOException ioexception ) {
+            ioexception.printStackTrace();
+            System.exit( -2 );
+        }
+        System.err.println( "Listening on port " + checkdaemon.getPort() );
+    }
+
+    //==============================================================================
+    /**
+     * Mutator.
+     * @param fileCacheDirIn Directory holding the result caches clients name with "-i"
+     * (or null to refuse caches).
+     */
+    public void setCacheDir( File fileCacheDirIn ) {
+        fileCacheDir = fileCacheDirIn;
+    }
+
+    //==============================================================================
+    /**
+     * Mutator.
+     * @param fileTokenIn File a random token is written to when the daemon starts, which
+     * every request must then give (or null if requests don't need one).
+     */
+    public void setTokenFile( File fileTokenIn ) {
+        fileToken = fileTokenIn;
+    }
+
+    //==============================================================================
+    /**
+     * Loads the configuration, writes the token file if there is one, and starts listening.
+     *
+     * @param iPort Loopback port to listen on (or 0 for any free port).
+     * @throws CheckstyleException if the configuration can't be loaded.
+     * @throws IOException if the configuration can't be read, the token file can't be
+     * written, or the port can't be opened.
+     */
+    public void start( int iPort ) throws CheckstyleException, IOException {
+
+        refreshCheckerPool();
+        if( fileToken != null )
+            sToken = writeToken( fileToken );
+
+        serversocket = new ServerSocket( iPort, 50, InetAddress.getByName( "127.0.0.1" ) );
+        executorserviceConnections = Executors.newFixedThreadPool( siConnectionThreads, new ThreadFactory() {
+            public Thread newThread( Runnable runnable ) {
+                Thread thread = new Thread( runnable, "CheckDaemon connection" );
+                thread.setDaemon( true );
+                return( thread );
+            }
+        } );
+
+        Thread threadAccept = new Thread( new Runnable() {
+            public void run() {
+                acceptConnections();
+            }
+        }, "CheckDaemon accept" );
+        threadAccept.start();
+    }
+
+    //==============================================================================
+    /**
+     * Writes a new random token to a file only the daemon's user can read.
+     *
+     * @param file File to write.
+     * @return the token.
+     * @throws IOException if the file can't be written.
+     */
+    private static String writeToken( File file ) throws IOException {
+
+        byte [] abToken = new byte [siTokenBytes];
+        new SecureRandom().nextBytes( abToken );
+        StringBuilder sb = new StringBuilder();
+        for( byte b : abToken )
+            sb.append( String.format( "%02x", b & 0xff ) );
+        String sTokenNew = sb.toString();
+
+        // the file is created readable only by its owner, so no other process can open
+        // it before the token is written (and creation fails if one made it first)
+        if( file.exists() && !file.delete() )
+            throw new IOException( "Can't replace token file " + file );
+        try {
+            Files.createFile( file.toPath(), PosixFilePermissions.asFileAttribute( PosixFilePermissions.fromString( "rw-------" ) ) );
+        }
+        catch( UnsupportedOperationException unsupportedoperationexception ) {
+            // not a POSIX file system (like Windows, where new files get their directory's
+            // access list), so the permissions can only be narrowed after creating it
+            if(    !file.createNewFile()
+                || !file.setReadable( false, false ) || !file.setReadable( true, true )
+                || !file.setWritable( false, false ) || !file.setWritable( true, true ) )
+                throw new IOException( "Can't make token file " + file + " readable only by its owner" );
+        }
+
+        Writer writer = new OutputStreamWriter( new FileOutputStream( file ), "UTF-8" );
+        try {
+            writer.write( sTokenNew );
+        }
+        finally {
+            writer.close();
+        }
+        return( sTokenNew );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the port the daemon is listening on.
+     */
+    public int getPort() {
+        return( serversocket.getLocalPort() );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the number of times the configuration has been loaded.
+     */
+    public synchronized int getConfigurationLoads() {
+        return( iConfigurationLoads );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the pool of warm Checkers for the current configuration.
+     */
+    public synchronized CheckerPool getCheckerPool() {
+        return( checkerpool );
+    }
+
+    //==============================================================================
+    /**
+     * Stops listening, and destroys the idle Checkers. Checks in progress finish first.
+     */
+    public void stop() {
+
+        try {
+            serversocket.close();
+        }
+        catch( IOException ioexception ) {
+            // already closed, which is all that matters
+        }
+        executorserviceConnections.shutdown();
+
+        synchronized( this ) {
+            checkerpool.close();
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Hands each connection to a connection thread until the socket is closed.
+     */
+    private void acceptConnections() {
+
+        while( !serversocket.isClosed() ) {
+            final Socket socket;
+            try {
+                socket = serversocket.accept();
+            }
+            catch( SocketException socketexception ) {
+                // closed by stop()
+                break;
+            }
+            catch( IOException ioexception ) {
+                continue;
+            }
+
+            executorserviceConnections.execute( new Runnable() {
+                public void run() {
+                    handleConnection( socket );
+                }
+            } );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Answers one request.
+     *
+     * @param socket Connection to the client.
+     */
+    private void handleConnection( Socket socket ) {
+
+        try {
+            try {
+                socket.setSoTimeout( siReadTimeoutMillis );
+                BufferedReader bufferedreader = new BufferedReader( new InputStreamReader( socket.getInputStream(), "UTF-8" ) );
+                PrintWriter printwriter = new PrintWriter( new OutputStreamWriter( socket.getOutputStream(), "UTF-8" ) );
+
+                String sCommand = bufferedreader.readLine();
+                if( sToken != null ) {
+                    if( !isToken( sCommand ) ) {
+                        printwriter.println( "ERROR Missing or wrong token" );
+                        printwriter.flush();
+                        return;
+                    }
+                    sCommand = bufferedreader.readLine();
+                }
+
+                if( "PING".equals( sCommand ) )
+                    printwriter.println( "OK" );
+                else if( "STOP".equals( sCommand ) ) {
+                    printwriter.println( "OK" );
+                    printwriter.flush();
+                    stop();
+                }
+                else if( "CHECK".equals( sCommand ) )
+                    handleCheck( bufferedreader, printwriter );
+                else
+                    printwriter.println( "ERROR Unknown command " + sCommand );
+
+                printwriter.flush();
+            }
+            finally {
+                socket.close();
+            }
+        }
+        catch( IOException ioexception ) {
+            // client went away, nothing to answer
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @param sLine First line of a request (or null if there wasn't one).
+     * @return true if the line gives the daemon's token.
+     */
+    private boolean isToken( String sLine ) {
+        if( (sLine == null) || !sLine.startsWith( ssTokenPrefix ) )
+            return( false );
+        try {
+            // compared in constant time, so the token can't be guessed a byte at a time
+            return( MessageDigest.isEqual( sLine.substring( ssTokenPrefix.length() ).getBytes( "UTF-8" ), sToken.getBytes( "UTF-8" ) ) );
+        }
+        catch( UnsupportedEncodingException unsupportedencodingexception ) {
+            return( false );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Reads the rest of a check request, checks the files, and writes the results.
+     *
+     * @param bufferedreader Reads the request after the command line.
+     * @param printwriter Writes the response.
+     * @throws IOException if the request can't be read.
+     */
+    private void handleCheck( BufferedReader bufferedreader, PrintWriter printwriter ) throws IOException {
+
+        int iRequestThreads = iThreads;
+        String sCacheName = null;
+        String sChangedLinesFile = null;
+        List<File> listFiles = new ArrayList<File>();
+
+        try {
+            for( String sLine = bufferedreader.readLine(); (sLine != null) && !sLine.isEmpty(); sLine = bufferedreader.readLine() ) {
+                if( sLine.startsWith( "-t " ) )
+                    iRequestThreads = Integer.parseInt( sLine.substring( 3 ).trim() );
+                else if( sLine.startsWith( "-i " ) )
+                    sCacheName = sLine.substring( 3 ).trim();
+                else if( sLine.startsWith( "-d " ) )
+                    sChangedLinesFile = sLine.substring( 3 ).trim();
+                else
+                    CheckRunner.findJavaFiles( new File( sLine ), listFiles );
+            }
+            File fileCache = sCacheName != null ? findCacheFile( sCacheName ) : null;
+
+            // each request's changed lines are loaded for it alone, and given to the warm Checkers
+            CheckRunner.sortFiles( listFiles );
+            ChangedLines changedlines = sChangedLinesFile != null ? ChangedLines.load( new File( sChangedLinesFile ) ) : null;
+            if( changedlines != null )
+                listFiles = changedlines.filter( listFiles );
+
+            CheckerPool checkerpoolCurrent = refreshCheckerPool();
+            Configuration configuration = checkerpoolCurrent.getConfiguration();
+
+            // the warm Checkers' type indexes are rebuilt if the project's files changed
+            TypeIndex.refreshShared();
+
+            ParallelChecker parallelchecker = new ParallelChecker( configuration, sBasedir, iRequestThreads );
+            parallelchecker.setCheckerPool( checkerpoolCurrent );
+            parallelchecker.setChangedLines( changedlines );
+            ResultCache resultcache =   (fileCache != null) && (changedlines == null)
+                                      ? ResultCache.load( fileCache, configuration, sBasedir )
+                                      : null;
+            parallelchecker.setResultCache( resultcache );
+
+            List<FileResult> listResults = parallelchecker.check( listFiles );
+            if( resultcache != null )
+                resultcache.save();
+
+            int iErrorCount = 0;
+            printwriter.println( "Starting audit..." );
+            for( FileResult fileresult : listResults ) {
+                for( String sResultLine : fileresult.getLines() )
+                    printwriter.println( sResultLine );
+                iErrorCount += fileresult.getErrorCount();
+            }
+            printwriter.println( "Audit done." );
+            printwriter.println( "EXIT " + iErrorCount );
+        }
+        catch( NumberFormatException numberformatexception ) {
+            printwriter.println( "ERROR Bad thread count: " + numberformatexception.getMessage() );
+            printwriter.println( "EXIT -2" );
+        }
+        catch( CheckstyleException checkstyleexception ) {
+            printwriter.println( "ERROR " + checkstyleexception );
+            printwriter.println( "EXIT -2" );
+        }
+        catch( IllegalArgumentException illegalargumentexception ) {
+            printwriter.println( "ERROR " + illegalargumentexception.getMessage() );
+            printwriter.println( "EXIT -2" );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Finds the result cache a client named, which must be in the cache directory.
+     *
+     * @param sCacheName Name of the cache file, without any directory.
+     * @return the cache file.
+     * @throws IllegalArgumentException if the daemon has no cache directory, or the name
+     * isn't a plain file name.
+     */
+    private File findCacheFile( String sCacheName ) {
+        if( fileCacheDir == null )
+            throw new IllegalArgumentException( "Result caches aren't enabled (start the daemon with -cachedir)" );
+        if( !spatternCacheName.matcher( sCacheName ).matches() )
+            throw new IllegalArgumentException( "Bad cache name (must be a file name, not a path): " + sCacheName );
+        return( new File( fileCacheDir, sCacheName ) );
+    }
+
+    //==============================================================================
+    /**
+     * Reloads the configuration if its files have changed since they were loaded, and
+     * replaces the Checker pool with one for the new configuration.
+     *
+     * @return the pool for the current configuration.
+     * @throws CheckstyleException if the configuration can't be loaded.
+     * @throws IOException if the properties file can't be read.
+     */
+    private synchronized CheckerPool refreshCheckerPool() throws CheckstyleException, IOException {
+
+        String sStamp = stamp( sConfigFile ) + " " + (sPropertiesFile != null ? stamp( sPropertiesFile ) : "");
+        if( (checkerpool != null) && sStamp.equals( sConfigStamp ) )
+            return( checkerpool );
+
+        Configuration configuration = CheckRunner.loadConfiguration( sConfigFile, sPropertiesFile, sBasedir, null );
+        iConfigurationLoads++;
+
+        if( checkerpool != null )
+            checkerpool.close();
+        checkerpool = new CheckerPool( configuration, sBasedir );
+        sConfigStamp = sStamp;
+        return( checkerpool );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @param sFileName Name of a file.
+     * @return a string that changes whenever the file is modified.
+     */
+    private static String stamp( String sFileName ) {
+        File file = new File( sFileName );
+        return( file.lastModified() + ":" + file.length() );
+    }
+}
@@ -0,0 +1,173 @@
+package name.wadewalker.checks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+//==============================================================================
+/**
+ * Sends a check request to a running {@link CheckDaemon} and prints its output. The
+ * exit code is the number of errors, like {@link CheckRunner}'s:
+ *
+ * <pre>
+ * java name.wadewalker.checks.CheckDaemonClient [-port port] [-token file] [-t threads] [-i cachename] [-d diff] path...
+ * java name.wadewalker.checks.CheckDaemonClient [-port port] [-token file] -stop
+ * </pre>
+ *
+ * "-token" gives the token file the daemon was started with, if any. "-i" names a
+ * result cache in the daemon's cache directory, so it's sent as is; the other paths
+ * are made absolute, since the daemon may have a different working directory.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class CheckDaemonClient {
+
+    /** Usage message printed for bad arguments. */
+    private static final String ssUsage =
+        "Usage: CheckDaemonClient [-port port] [-token file] [-t threads] [-i cachename] [-d diff] path... | [-port port] [-token file] -stop";
+
+    /** Prefix of the last line of a check response. */
+    private static final String ssExitPrefix = "EXIT ";
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    private CheckDaemonClient() {
+    }
+
+    //==============================================================================
+    /**
+     * Sends a request from the command line.
+     *
+     * @param asArgs Command-line arguments (see the class comment).
+     */
+    public static void main( String [] asArgs ) {
+
+        int iPort = CheckDaemon.siDefaultPort;
+        boolean bStop = false;
+        String sTokenFile = null;
+        List<String> listRequest = new ArrayList<String>();
+        listRequest.add( "CHECK" );
+        List<String> listPaths = new ArrayList<String>();
+
+        try {
+            for( int i = 0; i < asArgs.length; i++ ) {
+                if( asArgs[i].equals( "-stop" ) )
+                    bStop = true;
+                else if( asArgs[i].equals( "-port" ) && (i + 1 < asArgs.length) )
+                    iPort = Integer.parseInt( asArgs[++i] );
+                else if( asArgs[i].equals( "-token" ) && (i + 1 < asArgs.length) )
+                    sTokenFile = asArgs[++i];
+                else if( (asArgs[i].equals( "-t" ) || asArgs[i].equals( "-i" ) || asArgs[i].equals( "-d" )) && (i + 1 < asArgs.length) ) {
+                    String sValue = !asArgs[i].equals( "-d" ) ? asArgs[i + 1] : new File( asArgs[i + 1] ).getAbsolutePath();
+                    listRequest.add( asArgs[i] + " " + sValue );
+                    i++;
+                }
+                else if( asArgs[i].startsWith( "-" ) )
+                    throw new IllegalArgumentException( asArgs[i] );
+                else
+                    listPaths.add( new File( asArgs[i] ).getAbsolutePath() );
+            }
+            if( bStop == !listPaths.isEmpty() )
+                throw new IllegalArgumentException( "paths" );
+        }
+        catch( IllegalArgumentException illegalargumentexception ) {
+            System.err.println( ssUsage );
+            System.exit( -1 );
+        }
+
+        if( bStop ) {
+            listRequest.clear();
+            listRequest.add( "STOP" );
+        }
+        else {
+            listRequest.addAll( listPaths );
+            listRequest.add( "" );
+        }
+
+        if( sTokenFile != null ) {
+            try {
+                listRequest.add( 0, CheckDaemon.ssTokenPrefix + readToken( new File( sTokenFile ) ) );
+            }
+            catch( IOException ioexception ) {
+                System.err.println( "Can't read the token file " + sTokenFile + ": " + ioexception.getMessage() );
+                System.exit( -2 );
+            }
+        }
+
+        try {
+            List<String> listResponse = sendRequest( iPort, listRequest );
+            int iExitCode = 0;
+            for( String sLine : listResponse ) {
+                if( sLine.startsWith( ssExitPrefix ) )
+                    iExitCode = Integer.parseInt( sLine.substring( ssExitPrefix.length() ) );
+                else
+                    System.out.println( sLine );
+            }
+            System.exit( iExitCode );
+        }
+        catch( IOException ioexception ) {
+            System.err.println( "Can't reach the check daemon on port " + iPort + ": " + ioexception.getMessage() );
+            System.exit( -2 );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Reads the token a daemon wrote.
+     *
+     * @param fileToken Token file the daemon was started with.
+     * @return the token.
+     * @throws IOException if the file can't be read.
+     */
+    private static String readToken( File fileToken ) throws IOException {
+
+        BufferedReader bufferedreader = new BufferedReader( new InputStreamReader( new FileInputStream( fileToken ), "UTF-8" ) );
+        try {
+            String sToken = bufferedreader.readLine();
+            return( sToken != null ? sToken.trim() : "" );
+        }
+        finally {
+            bufferedreader.close();
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Sends a request and reads the whole response.
+     *
+     * @param iPort Loopback port the daemon is listening on.
+     * @param listRequest Lines of the request (see {@link CheckDaemon}).
+     * @return the lines of the response.
+     * @throws IOException if the daemon can't be reached.
+     */
+    public static List<String> sendRequest( int iPort, List<String> listRequest ) throws IOException {
+
+        Socket socket = new Socket( InetAddress.getByName( "127.0.0.1" ), iPort );
+        try {
+            PrintWriter printwriter = new PrintWriter( new OutputStreamWriter( socket.getOutputStream(), "UTF-8" ) );
+            for( String sLine : listRequest )
+                printwriter.println( sLine );
+            printwriter.flush();
+
+            List<String> listResponse = new ArrayList<String>();
+            BufferedReader bufferedreader = new BufferedReader( new InputStreamReader( socket.getInputStream(), "UTF-8" ) );
+            for( String sLine = bufferedreader.readLine(); sLine != null; sLine = bufferedreader.readLine() )
+                listResponse.add( sLine );
+            return( listResponse );
+        }
+        finally {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package name.wadewalker.checks;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+//==============================================================================
+/**
+ * Runtime metrics for the checks: tokens visited, time spent in visitToken, files
+ * checked, violations by kind, and the slowest files. Checks only record into this
+ * when their "metrics" property is true; otherwise they never touch it, so there's
+ * no cost. The single instance is registered as an MXBean when it's first created,
+ * and {@link MetricsExporter} writes it in Prometheus text format at the end of an audit.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class CheckMetrics implements CheckMetricsMXBean {
+
+    /** Name the MXBean is registered under. */
+    public static final String ssObjectName = "name.wadewalker.checks:type=CheckMetrics";
+
+    /** Number of slowest files kept. */
+    private static final int siSlowestFiles = 10;
+
+    /** Nanoseconds per second, for converting times to Prometheus' base unit. */
+    private static final double sdNanosPerSecond = 1e9;
+
+    /** The single instance (created on first use). */
+    private static CheckMetrics scheckmetrics;
+
+    //==============================================================================
+    /**
+     * Kinds of violations the checks report.
+     */
+    public enum Kind {
+        /** Missing "s" for a static. */
+        STATIC( "static" ),
+        /** Missing "a" for an array. */
+        ARRAY( "array" ),
+        /** Missing "a" for a varargs parameter. */
+        VARARGS( "varargs" ),
+        /** Missing prefix for the declaration's type. */
+        TYPE_PREFIX( "type prefix" ),
+        /** Missing or incorrect comment bar. */
+        COMMENT_BAR( "comment bar" ),
+        /** Missing or incorrect copyright line. */
+        COPYRIGHT( "copyright" ),
+        /** Empty or trivial parameter comment. */
+        TRIVIAL_PARAM( "trivial param" );
+
+        /** Name used in reports. */
+        private final String sLabel;
+
+        /**
+         * Constructor.
+         *
+         * @param sLabelIn Name used in reports.
+         */
+        Kind( String sLabelIn ) {
+            sLabel = sLabelIn;
+        }
+
+        /**
+         * Accessor.
+         * @return the name used in reports.
+         */
+        public String getLabel() {
+            return( sLabel );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Counters for one check. Each check instance looks these up once in init(), so
+     * recording is just atomic adds.
+     */
+    public static final class CheckCounters {
+
+        /** Metrics these counters belong to. */
+        private final CheckMetrics checkmetrics;
+
+        /** Name of the check. */
+        private final String sCheckName;
+
+        /** Number of tokens visited. */
+        private final AtomicLong atomiclongTokens = new AtomicLong();
+
+        /** Total nanoseconds spent in visitToken. */
+        private final AtomicLong atomiclongNanos = new AtomicLong();
+
+        /** Number of files checked. */
+        private final AtomicLong atomiclongFiles = new AtomicLong();
+
+        /**
+         * Constructor.
+         *
+         * @param checkmetricsIn Metrics these counters belong to.
+         * @param sCheckNameIn Name of the check.
+         */
+        CheckCounters( CheckMetrics checkmetricsIn, String sCheckNameIn ) {
+            checkmetrics = checkmetricsIn;
+            sCheckName = sCheckNameIn;
+        }
+
+        /**
+         * Records one call of visitToken.
+         *
+         * @param lNanos Nanoseconds the call took.
+         */
+        public void addVisit( long lNanos ) {
+            atomiclongTokens.incrementAndGet();
+            atomiclongNanos.addAndGet( lNanos );
+        }
+
+        /**
+         * Records a finished file.
+         *
+         * @param sFileName Name of the file.
+         * @param lNanos Nanoseconds spent in visitToken for the file.
+         */
+        public void addFile( String sFileName, long lNanos ) {
+            atomiclongFiles.incrementAndGet();
+            checkmetrics.addFileTime( sCheckName, sFileName, lNanos );
+        }
+
+        /**
+         * Records a violation.
+         *
+         * @param kind Kind of violation.
+         */
+        public void addViolation( Kind kind ) {
+            checkmetrics.atomiclongarrayViolations.incrementAndGet( kind.ordinal() );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Time one check spent on one file.
+     */
+    private static final class FileTime implements Comparable<FileTime> {
+
+        /** Name of the check. */
+        private final String sCheckName;
+
+        /** Name of the file. */
+        private final String sFileName;
+
+        /** Nanoseconds spent in visitToken for the file. */
+        private final long lNanos;
+
+        /**
+         * Constructor.
+         *
+         * @param sCheckNameIn Name of the check.
+         * @param sFileNameIn Name of the file.
+         * @param lNanosIn Nanoseconds spent in visitToken for the file.
+         */
+        FileTime( String sCheckNameIn, String sFileNameIn, long lNanosIn ) {
+            sCheckName = sCheckNameIn;
+            sFileName = sFileNameIn;
+            lNanos = lNanosIn;
+        }
+
+        /**
+         * Orders file times from fastest to slowest.
+         *
+         * @param filetime File time to compare to.
+         * @return negative, zero, or positive as this time is less than, equal to, or greater than the other.
+         */
+        public int compareTo( FileTime filetime ) {
+            return( lNanos < filetime.lNanos ? -1 : (lNanos == filetime.lNanos ? 0 : 1) );
+        }
+    }
+
+    /** Counters indexed by check name. */
+    private final ConcurrentMap<String, CheckCounters> concurrentmapCounters = new ConcurrentHashMap<String, CheckCounters>();
+
+    /** Violation counts indexed by {@link Kind#ordinal()}. */
+    private final AtomicLongArray atomiclongarrayViolations = new AtomicLongArray( Kind.values().length );
+
+    /** Slowest file times, fastest at the head so it's the one replaced. */
+    private final PriorityQueue<FileTime> priorityqueueSlowestFiles = new PriorityQueue<FileTime>();
+
+    /** Time a file has to beat to get into the slowest files (read without locking, to skip fast files cheaply). */
+    private volatile long lSlowestThreshold;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    private CheckMetrics() {
+    }
+
+    //==============================================================================
+    /**
+     * Gets the single instance, creating it and registering its MXBean if needed.
+     *
+     * @return the metrics.
+     */
+    public static synchronized CheckMetrics getInstance() {
+
+        if( scheckmetrics == null ) {
+            scheckmetrics = new CheckMetrics();
+            try {
+                MBeanServer mbeanserver = ManagementFactory.getPlatformMBeanServer();
+                ObjectName objectname = new ObjectName( ssObjectName );
+                if( !mbeanserver.isRegistered( objectname ) )
+                    mbeanserver.registerMBean( scheckmetrics, objectname );
+            }
+            catch( JMException jmexception ) {
+                // metrics still work without JMX (for example if another class loader registered first)
+            }
+        }
+
+        return( scheckmetrics );
+    }
+
+    //==============================================================================
+    /**
+     * Gets the counters for a check, creating them if needed.
+     *
+     * @param sCheckName Name of the check.
+     * @return the counters.
+     */
+    public CheckCounters getCounters( String sCheckName ) {
+
+        CheckCounters checkcounters = concurrentmapCounters.get( sCheckName );
+        if( checkcounters == null ) {
+            CheckCounters checkcountersNew = new CheckCounters( this, sCheckName );
+            checkcounters = concurrentmapCounters.putIfAbsent( sCheckName, checkcountersNew );
+            if( checkcounters == null )
+                checkcounters = checkcountersNew;
+        }
+        return( checkcounters );
+    }
+
+    //==============================================================================
+    /**
+     * Records the time one check spent on a file, keeping it if it's one of the slowest.
+     *
+     * @param sCheckName Name of the check.
+     * @param sFileName Name of the file.
+     * @param lNanos Nanoseconds spent in visitToken for the file.
+     */
+    private void addFileTime( String sCheckName, String sFileName, long lNanos ) {
+
+        if( lNanos <= lSlowestThreshold )
+            return;
+
+        synchronized( priorityqueueSlowestFiles ) {
+            priorityqueueSlowestFiles.add( new FileTime( sCheckName, sFileName, lNanos ) );
+            if( priorityqueueSlowestFiles.size() > siSlowestFiles )
+                priorityqueueSlowestFiles.poll();
+            if( priorityqueueSlowestFiles.size() == siSlowestFiles )
+                lSlowestThreshold = priorityqueueSlowestFiles.peek().lNanos;
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the slowest file times, slowest first.
+     */
+    private List<FileTime> getSlowestFileTimes() {
+
+        List<FileTime> listFileTimes;
+        synchronized( priorityqueueSlowestFiles ) {
+            listFileTimes = new ArrayList<FileTime>( priorityqueueSlowestFiles );
+        }
+        Collections.sort( listFileTimes, Collections.reverseOrder() );
+        return( listFileTimes );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the number of tokens visited, indexed by check name.
+     */
+    public Map<String, Long> getTokensVisited() {
+        Map<String, Long> mapValues = new TreeMap<String, Long>();
+        for( CheckCounters checkcounters : concurrentmapCounters.values() )
+            mapValues.put( checkcounters.sCheckName, checkcounters.atomiclongTokens.get() );
+        return( mapValues );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the total nanoseconds spent in visitToken, indexed by check name.
+     */
+    public Map<String, Long> getVisitNanos() {
+        Map<String, Long> mapValues = new TreeMap<String, Long>();
+        for( CheckCounters checkcounters : concurrentmapCounters.values() )
+            mapValues.put( checkcounters.sCheckName, checkcounters.atomiclongNanos.get() );
+        return( mapValues );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the number of files checked, indexed by check name.
+     */
+    public Map<String, Long> getFilesChecked() {
+        Map<String, Long> mapValues = new TreeMap<String, Long>();
+        for( CheckCounters checkcounters : concurrentmapCounters.values() )
+            mapValues.put( checkcounters.sCheckName, checkcounters.atomiclongFiles.get() );
+        return( mapValues );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the number of violations, indexed by kind.
+     */
+    public Map<String, Long> getViolations() {
+        Map<String, Long> mapValues = new TreeMap<String, Long>();
+        for( Kind kind : Kind.values() )
+            mapValues.put( kind.getLabel(), atomiclongarrayViolations.get( kind.ordinal() ) );
+        return( mapValues );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the files that took longest in one check, slowest first, each as
+     * "check file nanoseconds".
+     */
+    public List<String> getSlowestFiles() {
+        List<String> listFiles = new ArrayList<String>();
+        for( FileTime filetime : getSlowestFileTimes() )
+            listFiles.add( filetime.sCheckName + " " + filetime.sFileName + " " + filetime.lNanos );
+        return( listFiles );
+    }
+
+    //==============================================================================
+    /**
+     * Sets all the counts back to zero.
+     */
+    public void reset() {
+
+        for( CheckCounters checkcounters : concurrentmapCounters.values() ) {
+            checkcounters.atomiclongTokens.set( 0 );
+            checkcounters.atomiclongNanos.set( 0 );
+            checkcounters.atomiclongFiles.set( 0 );
+        }
+
+        for( int i = 0; i < atomiclongarrayViolations.length(); i++ )
+            atomiclongarrayViolations.set( i, 0 );
+
+        synchronized( priorityqueueSlowestFiles ) {
+            priorityqueueSlowestFiles.clear();
+            lSlowestThreshold = 0;
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Writes the metrics in Prometheus text exposition format.
+     *
+     * @param writer Where to write the metrics.
+     * @throws IOException if the metrics can't be written.
+     */
+    public void writePrometheus( Writer writer ) throws IOException {
+
+        writeHeader( writer, "wadewalker_check_tokens_visited_total", "counter", "Tokens visited by each check." );
+        for( Map.Entry<String, Long> entry : getTokensVisited().entrySet() )
+            writer.write( "wadewalker_check_tokens_visited_total{check=\"" + escape( entry.getKey() ) + "\"} " + entry.getValue() + "\n" );
+
+        writeHeader( writer, "wadewalker_check_visit_seconds_total", "counter", "Time spent in visitToken by each check." );
+        for( Map.Entry<String, Long> entry : getVisitNanos().entrySet() )
+            writer.write( "wadewalker_check_visit_seconds_total{check=\"" + escape( entry.getKey() ) + "\"} " + seconds( entry.getValue() ) + "\n" );
+
+        writeHeader( writer, "wadewalker_check_files_total", "counter", "Files checked by each check." );
+        for( Map.Entry<String, Long> entry : getFilesChecked().entrySet() )
+            writer.write( "wadewalker_check_files_total{check=\"" + escape( entry.getKey() ) + "\"} " + entry.getValue() + "\n" );
+
+        writeHeader( writer, "wadewalker_check_violations_total", "counter", "Violations reported, by kind." );
+        for( Map.Entry<String, Long> entry : getViolations().entrySet() )
+            writer.write( "wadewalker_check_violations_total{kind=\"" + escape( entry.getKey() ) + "\"} " + entry.getValue() + "\n" );
+
+        writeHeader( writer, "wadewalker_check_slowest_file_seconds", "gauge", "Time spent in visitToken on the slowest files." );
+        for( FileTime filetime : getSlowestFileTimes() )
+            writer.write( "wadewalker_check_slowest_file_seconds{check=\"" + escape( filetime.sCheckName ) + "\",file=\""
+                          + escape( filetime.sFileName ) + "\"} " + seconds( filetime.lNanos ) + "\n" );
+    }
+
+    //==============================================================================
+    /**
+     * Writes the help and type lines of one metric.
+     *
+     * @param writer Where to write the lines.
+     * @param sName Name of the metric.
+     * @param sType Prometheus type of the metric.
+     * @param sHelp Description of the metric.
+     * @throws IOException if the lines can't be written.
+     */
+    private static void writeHeader( Writer writer, String sName, String sType, String sHelp ) throws IOException {
+        writer.write( "# HELP " + sName + " " + sHelp + "\n" );
+        writer.write( "# TYPE " + sName + " " + sType + "\n" );
+    }
+
+    //==============================================================================
+    /**
+     * Converts nanoseconds to a Prometheus value in seconds.
+     *
+     * @param lNanos Time in nanoseconds.
+     * @return the time in seconds, formatted without locale-specific separators.
+     */
+    private static String seconds( long lNanos ) {
+        return( String.format( Locale.US, "%.9f", lNanos / sdNanosPerSecond ) );
+    }
+
+    //==============================================================================
+    /**
+     * Escapes a Prometheus label value.
+     *
+     * @param sValue Label value.
+     * @return the value with backslashes, quotes, and newlines escaped.
+     */
+    private static String escape( String sValue ) {
+        return( sValue.replace( "\\", "\\\\" ).replace( "\"", "\\\"" ).replace( "\n", "\\n" ) );
+    }
+}
@@ -0,0 +1,57 @@
+package name.wadewalker.checks;
+
+import java.util.List;
+import java.util.Map;
+
+//==============================================================================
+/**
+ * Management interface of {@link CheckMetrics}, registered with the platform MBean
+ * server as "name.wadewalker.checks:type=CheckMetrics".
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public interface CheckMetricsMXBean {
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the number of tokens visited, indexed by check name.
+     */
+    Map<String, Long> getTokensVisited();
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the total nanoseconds spent in visitToken, indexed by check name.
+     */
+    Map<String, Long> getVisitNanos();
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the number of files checked, indexed by check name.
+     */
+    Map<String, Long> getFilesChecked();
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the number of violations, indexed by kind (like "static" or "comment bar").
+     */
+    Map<String, Long> getViolations();
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the files that took longest in one check, slowest first, each as
+     * "check file nanoseconds".
+     */
+    List<String> getSlowestFiles();
+
+    //==============================================================================
+    /**
+     * Sets all the counts back to zero.
+     */
+    void reset();
+}
@@ -0,0 +1,351 @@
+package name.wadewalker.checks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+
+//==============================================================================
+/**
+ * Command-line runner that walks source roots and checks all the Java files in them
+ * on several threads at once. Output is in the same format as Checkstyle's
+ * DefaultLogger, sorted by file. The exit code is the number of errors.
+ *
+ * <pre>
+ * java name.wadewalker.checks.CheckRunner -c config.xml [-p file.properties] [-b basedir]
+ *     [-t threads] [-o output] [-i cachefile] [-d diff] [-s shard/shards] root...
+ * </pre>
+ *
+ * With -i, results are cached by file contents, and unchanged files replay their
+ * cached output without being parsed (see {@link ResultCache}).
+ *
+ * With -d, only files changed in a unified diff or line ranges file are checked (see
+ * {@link ChangedLines}), and the file's name is given to the configuration as the
+ * "changedLines" property, so the checks can be limited to the changed lines too:
+ *
+ * &lt;property name="changedLines" value="${changedLines}" default=""/&gt;
+ *
+ * A run with -d doesn't use the -i cache, so checking a diff never replaces the
+ * cached results of the whole tree.
+ *
+ * With -s, only one shard of the files is checked, and the output is a partial report
+ * that {@link ShardReport} merges with the other shards' (so -o is required). Each
+ * process should get its own -i cache file.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class CheckRunner {
+
+    /** Usage message printed for bad arguments. */
+    private static final String ssUsage =
+        "Usage: CheckRunner -c config.xml [-p file.properties] [-b basedir] [-t threads] [-o output] [-i cachefile] [-d diff] [-s shard/shards] root...";
+
+    /** Checkstyle configuration file. */
+    private String sConfigFile;
+
+    /** Properties file used to expand the configuration file (or null for none). */
+    private String sPropertiesFile;
+
+    /** Base directory stripped from file names in the output (or null to leave them alone). */
+    private String sBasedir;
+
+    /** Number of worker threads (or 0 to use one per processor). */
+    private int iThreads;
+
+    /** Output file (or null for standard out). */
+    private String sOutputFile;
+
+    /** Result cache file for incremental runs (or null to check every file). */
+    private String sCacheFile;
+
+    /** Diff or line ranges file limiting the check to changed lines (or null to check everything). */
+    private String sChangedLinesFile;
+
+    /** Shard of the files to check, from 0 to iShards - 1 (only used if the files are sharded). */
+    private int iShard;
+
+    /** Number of shards the files are split into (or 0 to check them all and write a full report). */
+    private int iShards;
+
+    /** Files and directories to check. */
+    private final List<File> listRoots = new ArrayList<File>();
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    private CheckRunner() {
+    }
+
+    //==============================================================================
+    /**
+     * Runs the checks from the command line.
+     *
+     * @param asArgs Command-line arguments (see the class comment).
+     */
+    public static void main( String [] asArgs ) {
+
+        CheckRunner checkrunner = new CheckRunner();
+        if( !checkrunner.parseArgs( asArgs ) ) {
+            System.err.println( ssUsage );
+            System.exit( -1 );
+        }
+
+        try {
+            System.exit( checkrunner.run() );
+        }
+        catch( CheckstyleException checkstyleexception ) {
+            checkstyleexception.printStackTrace();
+            System.exit( -2 );
+        }
+        catch( IOException ioexception ) {
+            ioexception.printStackTrace();
+            System.exit( -2 );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Reads the command-line arguments into fields.
+     *
+     * @param asArgs Command-line arguments (see the class comment).
+     * @return true if the arguments were valid, false otherwise.
+     */
+    private boolean parseArgs( String [] asArgs ) {
+
+        for( int i = 0; i < asArgs.length; i++ ) {
+            String sArg = asArgs[i];
+            if( sArg.startsWith( "-" ) ) {
+                if( i + 1 >= asArgs.length )
+                    return( false );
+                String sValue = asArgs[++i];
+                if( sArg.equals( "-c" ) )
+                    sConfigFile = sValue;
+                else if( sArg.equals( "-p" ) )
+                    sPropertiesFile = sValue;
+                else if( sArg.equals( "-b" ) )
+                    sBasedir = sValue;
+                else if( sArg.equals( "-o" ) )
+                    sOutputFile = sValue;
+                else if( sArg.equals( "-i" ) )
+                    sCacheFile = sValue;
+                else if( sArg.equals( "-d" ) )
+                    sChangedLinesFile = sValue;
+                else if( sArg.equals( "-s" ) ) {
+                    if( !parseShard( sValue ) )
+                        return( false );
+                }
+                else if( sArg.equals( "-t" ) ) {
+                    try {
+                        iThreads = Integer.parseInt( sValue );
+                    }
+                    catch( NumberFormatException numberformatexception ) {
+                        return( false );
+                    }
+                }
+                else
+                    return( false );
+            }
+            else
+                listRoots.add( new File( sArg ) );
+        }
+
+        return( (sConfigFile != null) && !listRoots.isEmpty() && ((iShards == 0) || (sOutputFile != null)) );
+    }
+
+    //==============================================================================
+    /**
+     * Reads the shard argument into fields.
+     *
+     * @param sValue Shard and number of shards, like "0/4".
+     * @return true if the argument was valid, false otherwise.
+     */
+    private boolean parseShard( String sValue ) {
+
+        int iSlash = sValue.indexOf( '/' );
+        if( iSlash < 0 )
+            return( false );
+
+        try {
+            iShard = Integer.parseInt( sValue.substring( 0, iSlash ) );
+            iShards = Integer.parseInt( sValue.substring( iSlash + 1 ) );
+        }
+        catch( NumberFormatException numberformatexception ) {
+            return( false );
+        }
+        return( (iShards > 0) && (iShard >= 0) && (iShard < iShards) );
+    }
+
+    //==============================================================================
+    /**
+     * Checks all the files and prints the results.
+     *
+     * @return the number of errors found.
+     * @throws CheckstyleException if the configuration can't be loaded, or if checking fails.
+     * @throws IOException if the properties file can't be read, or the output can't be written.
+     */
+    private int run() throws CheckstyleException, IOException {
+
+        List<File> listFiles = new ArrayList<File>();
+        for( File fileRoot : listRoots )
+            findJavaFiles( fileRoot, listFiles );
+        sortFiles( listFiles );
+        if( sChangedLinesFile != null )
+            listFiles = ChangedLines.load( new File( sChangedLinesFile ) ).filter( listFiles );
+
+        long lStartNanos = System.nanoTime();
+
+        Configuration configuration = loadConfiguration( sConfigFile, sPropertiesFile, sBasedir, sChangedLinesFile );
+        ParallelChecker parallelchecker = new ParallelChecker( configuration, sBasedir, iThreads );
+        // a diff's results cover only some files (and maybe some lines), so they aren't cached
+        ResultCache resultcache =   (sCacheFile != null) && (sChangedLinesFile == null)
+                                  ? ResultCache.load( new File( sCacheFile ), configuration, sBasedir )
+                                  : null;
+        parallelchecker.setResultCache( resultcache );
+
+        // every shard finds the same sorted file list, so positions in it are the output order
+        List<File> listChecked = listFiles;
+        List<Integer> listIndices = null;
+        if( iShards > 0 ) {
+            listIndices = ShardReport.selectShard( listFiles, iShard, iShards );
+            listChecked = new ArrayList<File>( listIndices.size() );
+            for( int iIndex : listIndices )
+                listChecked.add( listFiles.get( iIndex ) );
+        }
+
+        List<FileResult> listResults = parallelchecker.check( listChecked );
+
+        double dSeconds = (System.nanoTime() - lStartNanos) / 1e9;
+
+        int iErrorCount = 0;
+        if( listIndices != null ) {
+            ShardReport.write( new File( sOutputFile ), iShard, iShards, ResultCache.computeFingerprint( configuration, sBasedir ),
+                               listFiles, listIndices, listResults );
+            for( FileResult fileresult : listResults )
+                iErrorCount += fileresult.getErrorCount();
+        }
+        else
+            iErrorCount = writeResults( listResults, sOutputFile );
+        if( resultcache != null )
+            resultcache.save();
+
+        System.err.println( String.format( "%d files in %.2f s on %d threads (%.1f files/sec)",
+                                           listChecked.size(), dSeconds, parallelchecker.getThreads(),
+                                           listChecked.size() / Math.max( dSeconds, 1e-9 ) ) );
+        if( resultcache != null )
+            System.err.println( String.format( "%d cached, %d checked", resultcache.getHitCount(), resultcache.getMissCount() ) );
+        return( iErrorCount );
+    }
+
+    //==============================================================================
+    /**
+     * Loads the Checkstyle configuration, expanding it with the properties file and
+     * the "basedir" and "changedLines" properties.
+     *
+     * @param sConfigFile Checkstyle configuration file.
+     * @param sPropertiesFile Properties file used to expand the configuration file (or null for none).
+     * @param sBasedir Base directory given to the configuration as "basedir" (or null for the working directory).
+     * @param sChangedLinesFile Diff or line ranges file given to the configuration as "changedLines" (or null for none).
+     * @return the loaded configuration.
+     * @throws CheckstyleException if the configuration can't be loaded.
+     * @throws IOException if the properties file can't be read.
+     */
+    static Configuration loadConfiguration( String sConfigFile, String sPropertiesFile, String sBasedir, String sChangedLinesFile )
+        throws CheckstyleException, IOException {
+
+        Properties properties = new Properties();
+        if( sPropertiesFile != null ) {
+            InputStream inputstream = new FileInputStream( sPropertiesFile );
+            try {
+                properties.load( inputstream );
+            }
+            finally {
+                inputstream.close();
+            }
+        }
+        properties.setProperty( "basedir", sBasedir != null ? sBasedir : System.getProperty( "user.dir" ) );
+        if( sChangedLinesFile != null )
+            properties.setProperty( "changedLines", sChangedLinesFile );
+
+        return( ConfigurationLoader.loadConfiguration( sConfigFile, new PropertiesExpander( properties ) ) );
+    }
+
+    //==============================================================================
+    /**
+     * Writes the results in DefaultLogger format.
+     *
+     * @param listResults Results of checking each file, in output order.
+     * @param sOutputFile Output file (or null for standard out).
+     * @return the total number of errors.
+     * @throws IOException if the output can't be written.
+     */
+    static int writeResults( List<FileResult> listResults, String sOutputFile ) throws IOException {
+
+        PrintWriter printwriter = sOutputFile != null
+                                  ? new PrintWriter( new OutputStreamWriter( new FileOutputStream( sOutputFile ), "UTF-8" ) )
+                                  : new PrintWriter( new OutputStreamWriter( System.out, "UTF-8" ) );
+        int iErrorCount = 0;
+        try {
+            printwriter.println( "Starting audit..." );
+            for( FileResult fileresult : listResults ) {
+                for( String sLine : fileresult.getLines() )
+                    printwriter.println( sLine );
+                iErrorCount += fileresult.getErrorCount();
+            }
+            printwriter.println( "Audit done." );
+        }
+        finally {
+            if( sOutputFile != null )
+                printwriter.close();
+            else
+                printwriter.flush();
+        }
+
+        if( printwriter.checkError() )
+            throw new IOException( "Error writing output" );
+        return( iErrorCount );
+    }
+
+    //==============================================================================
+    /**
+     * Finds Java files recursively.
+     *
+     * @param file File or directory to search.
+     * @param listFiles Where to put the Java files found.
+     */
+    static void findJavaFiles( File file, List<File> listFiles ) {
+
+        if( file.isDirectory() ) {
+            File [] afileChildren = file.listFiles();
+            if( afileChildren != null ) {
+                for( File fileChild : afileChildren )
+                    findJavaFiles( fileChild, listFiles );
+            }
+        }
+        else if( file.getName().endsWith( ".java" ) )
+            listFiles.add( file );
+    }
+
+    //==============================================================================
+    /**
+     * Sorts files by path, so output order doesn't depend on the file system.
+     *
+     * @param listFiles Files to sort in place.
+     */
+    static void sortFiles( List<File> listFiles ) {
+        Collections.sort( listFiles );
+    }
+}
@@ -0,0 +1,164 @@
+package name.wadewalker.checks;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+
+//==============================================================================
+/**
+ * Configured Checkers kept for reuse, so a long-running process only pays for
+ * configuring (and warming up) each one once. Checkers are created on demand and
+ * given back after each use; once the pool is closed, Checkers given back to it are
+ * destroyed instead, so a pool can be replaced while some of its Checkers are in use.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class CheckerPool {
+
+    /** Checkstyle configuration given to each Checker. */
+    private final Configuration configuration;
+
+    /** Base directory stripped from file names in the output (or null to leave them alone). */
+    private final String sBasedir;
+
+    /** Idle Checkers. */
+    private final ConcurrentLinkedQueue<PooledChecker> concurrentlinkedqueueIdle = new ConcurrentLinkedQueue<PooledChecker>();
+
+    /** Number of Checkers created so far. */
+    private final AtomicInteger atomicintegerCreated = new AtomicInteger();
+
+    /** True once the pool has been closed. */
+    private volatile boolean bClosed;
+
+    //==============================================================================
+    /**
+     * A Checker and the listener that collects its output.
+     */
+    static final class PooledChecker {
+
+        /** Configured Checker. */
+        final Checker checker;
+
+        /** Listener that collects the Checker's output. */
+        final FileResultCollector fileresultcollector;
+
+        //==============================================================================
+        /**
+         * Constructor.
+         *
+         * @param checkerIn Configured Checker.
+         * @param fileresultcollectorIn Listener already added to the Checker.
+         */
+        PooledChecker( Checker checkerIn, FileResultCollector fileresultcollectorIn ) {
+            checker = checkerIn;
+            fileresultcollector = fileresultcollectorIn;
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Constructor.
+     *
+     * @param configurationIn Checkstyle configuration given to each Checker.
+     * @param sBasedirIn Base directory stripped from file names in the output (or null to leave them alone).
+     */
+    public CheckerPool( Configuration configurationIn, String sBasedirIn ) {
+        configuration = configurationIn;
+        sBasedir = sBasedirIn;
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the Checkstyle configuration given to each Checker.
+     */
+    public Configuration getConfiguration() {
+        return( configuration );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the number of Checkers created so far (stays flat while they're being reused).
+     */
+    public int getCreatedCount() {
+        return( atomicintegerCreated.get() );
+    }
+
+    //==============================================================================
+    /**
+     * Takes an idle Checker, or creates one if none are idle.
+     *
+     * @return the Checker, which must be given back with {@link #giveBack(PooledChecker)}
+     * or {@link #discard(PooledChecker)}.
+     * @throws CheckstyleException if a new Checker can't be configured.
+     */
+    PooledChecker borrow() throws CheckstyleException {
+
+        PooledChecker pooledchecker = concurrentlinkedqueueIdle.poll();
+        if( pooledchecker != null )
+            return( pooledchecker );
+
+        Checker checker = new Checker();
+        // gives Checkstyle access to this project's .class files
+        checker.setModuleClassLoader( CheckerPool.class.getClassLoader() );
+        if( sBasedir != null )
+            checker.setBasedir( sBasedir );
+        checker.configure( configuration );
+
+        FileResultCollector fileresultcollector = new FileResultCollector();
+        checker.addListener( fileresultcollector );
+
+        atomicintegerCreated.incrementAndGet();
+        return( new PooledChecker( checker, fileresultcollector ) );
+    }
+
+    //==============================================================================
+    /**
+     * Gives a Checker back for reuse, or destroys it if the pool has been closed.
+     *
+     * @param pooledchecker Checker from {@link #borrow()}.
+     */
+    void giveBack( PooledChecker pooledchecker ) {
+
+        pooledchecker.fileresultcollector.takeLines();
+        concurrentlinkedqueueIdle.add( pooledchecker );
+
+        // recheck after adding, so a close that raced with this still destroys it
+        if( bClosed )
+            destroyIdle();
+    }
+
+    //==============================================================================
+    /**
+     * Destroys a Checker instead of giving it back (after it failed, for example).
+     *
+     * @param pooledchecker Checker from {@link #borrow()}.
+     */
+    void discard( PooledChecker pooledchecker ) {
+        pooledchecker.checker.destroy();
+    }
+
+    //==============================================================================
+    /**
+     * Closes the pool, destroying the idle Checkers now and the borrowed ones when
+     * they're given back.
+     */
+    public void close() {
+        bClosed = true;
+        destroyIdle();
+    }
+
+    //==============================================================================
+    /**
+     * Destroys all the idle Checkers.
+     */
+    private void destroyIdle() {
+        for( PooledChecker pooledchecker = concurrentlinkedqueueIdle.poll(); pooledchecker != null; pooledchecker = concurrentlinkedqueueIdle.poll() )
+            pooledchecker.checker.destroy();
+    }
+}
@@ -0,0 +1,291 @@
+package name.wadewalker.checks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+//==============================================================================
+/**
+ * Generates a tree of Java source files for testing the checks at scale. Each file
+ * mixes declarations and Javadoc that pass the checks with some that fail them.
+ * Each file's contents depend only on the seed and the file's index, so the same
+ * seed always gives the same tree, however many files are generated.
+ *
+ * <pre>
+ * java name.wadewalker.checks.CorpusGenerator outputdir files [seed]
+ * </pre>
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class CorpusGenerator {
+
+    /** Number of files put in each package directory. */
+    private static final int siFilesPerPackage = 100;
+
+    /** Comment bar (indented to match its class or method). */
+    private static final String ssCommentBar = "//==============================================================================";
+
+    /** Types used for generated declarations, paired with their correct prefixes. */
+    private static final String [][] sasTypesAndPrefixes = {
+        {"boolean", "b"}, {"byte", "b"}, {"char", "c"}, {"double", "d"}, {"float", "f"}, {"int", "i"},
+        {"long", "l"}, {"short", "s"}, {"String", "s"}, {"StringBuilder", "sb"}, {"Object", "o"},
+        {"java.util.List<String>", "list"}, {"java.util.Map<String, Integer>", "map"}, {"Thread", "thread"}
+    };
+
+    /** Words used to build names and comments. */
+    private static final String [] sasWords = {
+        "count", "name", "value", "index", "total", "buffer", "result", "offset", "limit", "state"
+    };
+
+    /** Seed that determines the whole tree. */
+    private final long lSeed;
+
+    /** Chance that any one generated item fails a check. */
+    private double dFailureRate = 0.2;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     *
+     * @param lSeedIn Seed that determines the whole tree.
+     */
+    public CorpusGenerator( long lSeedIn ) {
+        lSeed = lSeedIn;
+    }
+
+    //==============================================================================
+    /**
+     * Mutator.
+     * @param dFailureRateIn Chance that any one generated item fails a check (0 to 1).
+     */
+    public void setFailureRate( double dFailureRateIn ) {
+        if( (dFailureRateIn < 0.0) || (dFailureRateIn > 1.0) )
+            throw new IllegalArgumentException( "Failure rate " + dFailureRateIn + " isn't between 0 and 1" );
+        dFailureRate = dFailureRateIn;
+    }
+
+    //==============================================================================
+    /**
+     * Writes a tree of source files, a hundred to a package directory.
+     *
+     * @param fileRootDir Directory to write the tree under (created if it doesn't exist).
+     * @param iFiles Number of files to write.
+     * @return the files written, in index order.
+     * @throws IOException if a file can't be written.
+     */
+    public List<File> generate( File fileRootDir, int iFiles ) throws IOException {
+
+        List<File> listFiles = new ArrayList<File>( iFiles );
+
+        for( int iFile = 0; iFile < iFiles; iFile++ ) {
+            String sPackage = String.format( "p%04d", iFile / siFilesPerPackage );
+            String sClassName = String.format( "Generated%06d", iFile );
+
+            File fileDir = new File( fileRootDir, sPackage );
+            if( !fileDir.isDirectory() && !fileDir.mkdirs() )
+                throw new IOException( "Can't create directory " + fileDir );
+
+            File file = new File( fileDir, sClassName + ".java" );
+            PrintWriter printwriter = new PrintWriter( new OutputStreamWriter( new FileOutputStream( file ), "UTF-8" ) );
+            try {
+                for( String sLine : generateFile( iFile, sPackage, sClassName ) )
+                    printwriter.println( sLine );
+            }
+            finally {
+                printwriter.close();
+            }
+            if( printwriter.checkError() )
+                throw new IOException( "Error writing " + file );
+
+            listFiles.add( file );
+        }
+
+        return( listFiles );
+    }
+
+    //==============================================================================
+    /**
+     * Generates the lines of one file.
+     *
+     * @param iFile Index of the file, which along with the seed determines its contents.
+     * @param sPackage Package the class is in.
+     * @param sClassName Name of the class.
+     * @return the lines of the file.
+     */
+    public List<String> generateFile( int iFile, String sPackage, String sClassName ) {
+
+        Random random = new Random( lSeed * 1000003L + iFile );
+        List<String> listLines = new ArrayList<String>();
+
+        listLines.add( "package " + sPackage + ";" );
+        listLines.add( "" );
+        listLines.add( fails( random ) ? "" : ssCommentBar );
+        listLines.add( "/**" );
+        listLines.add( " * Generated class " + iFile + "." );
+        listLines.add( " *" );
+        listLines.add( fails( random ) ? " * Copyright Wade Walker." : " * Copyright (c) 2016 Wade Walker. All rights reserved." );
+        listLines.add( " * @author Wade Walker" );
+        listLines.add( " */" );
+        listLines.add( "public class " + sClassName + " {" );
+
+        addMembers( random, listLines, "    " );
+
+        // a nested class, whose comment bars aren't checked
+        if( random.nextInt( 4 ) == 0 ) {
+            listLines.add( "" );
+            listLines.add( "    /**" );
+            listLines.add( "     * Nested class." );
+            listLines.add( "     */" );
+            listLines.add( "    static class Nested {" );
+            addMembers( random, listLines, "        " );
+            listLines.add( "    }" );
+        }
+
+        listLines.add( "}" );
+        return( listLines );
+    }
+
+    //==============================================================================
+    /**
+     * Adds fields and methods to a class.
+     *
+     * @param random Random numbers for this file.
+     * @param listLines Lines of the file being generated.
+     * @param sIndent Indentation of the members.
+     */
+    private void addMembers( Random random, List<String> listLines, String sIndent ) {
+
+        int iFields = 2 + random.nextInt( 12 );
+        for( int iField = 0; iField < iFields; iField++ ) {
+            boolean bStatic = random.nextInt( 4 ) == 0;
+            listLines.add( "" );
+            listLines.add( sIndent + "/** Field " + iField + ". */" );
+            listLines.add( sIndent + "private " + (bStatic ? "static " : "") + declaration( random, bStatic, "Field" + iField ) + ";" );
+        }
+
+        int iMethods = 1 + random.nextInt( 8 );
+        for( int iMethod = 0; iMethod < iMethods; iMethod++ )
+            addMethod( random, listLines, sIndent, iMethod );
+    }
+
+    //==============================================================================
+    /**
+     * Adds a method with Javadoc, parameters, and locals.
+     *
+     * @param random Random numbers for this file.
+     * @param listLines Lines of the file being generated.
+     * @param sIndent Indentation of the method.
+     * @param iMethod Index of the method in its class.
+     */
+    private void addMethod( Random random, List<String> listLines, String sIndent, int iMethod ) {
+
+        int iParams = random.nextInt( 4 );
+        List<String> listParams = new ArrayList<String>();
+        for( int iParam = 0; iParam < iParams; iParam++ )
+            listParams.add( declaration( random, false, "Arg" + iParam ) );
+
+        listLines.add( "" );
+        listLines.add( fails( random ) ? "" : sIndent + ssCommentBar );
+        listLines.add( sIndent + "/**" );
+        listLines.add( sIndent + " * Computes the " + word( random ) + " from the " + word( random ) + "." );
+        listLines.add( sIndent + " *" );
+        for( String sParam : listParams ) {
+            String sName = sParam.substring( sParam.lastIndexOf( ' ' ) + 1 );
+            listLines.add( sIndent + " * @param " + sName
+                           + (fails( random ) ? " " + capitalize( word( random ) ) : " The " + word( random ) + " to use.") );
+        }
+        listLines.add( sIndent + " */" );
+
+        StringBuilder sbSignature = new StringBuilder( sIndent + "void method" + iMethod + "(" );
+        for( int iParam = 0; iParam < listParams.size(); iParam++ )
+            sbSignature.append( iParam == 0 ? " " : ", " ).append( listParams.get( iParam ) );
+        sbSignature.append( listParams.isEmpty() ? ") {" : " ) {" );
+        listLines.add( sbSignature.toString() );
+
+        int iLocals = random.nextInt( 4 );
+        for( int iLocal = 0; iLocal < iLocals; iLocal++ )
+            listLines.add( sIndent + "    " + declaration( random, false, "Local" + iLocal ) + ";" );
+        listLines.add( sIndent + "}" );
+    }
+
+    //==============================================================================
+    /**
+     * Makes a declaration with a random type, whose name has the correct prefix unless
+     * this item is chosen to fail.
+     *
+     * @param random Random numbers for this file.
+     * @param bStatic True if the declaration is static.
+     * @param sSuffix Suffix that makes the name unique in its scope.
+     * @return the type and name of the declaration.
+     */
+    private String declaration( Random random, boolean bStatic, String sSuffix ) {
+
+        String [] asTypeAndPrefix = sasTypesAndPrefixes[random.nextInt( sasTypesAndPrefixes.length )];
+        boolean bArray = random.nextInt( 5 ) == 0;
+
+        String sPrefix = (bStatic ? "s" : "") + (bArray ? "a" : "") + asTypeAndPrefix[1];
+        // failing names drop their first prefix letter
+        if( fails( random ) )
+            sPrefix = sPrefix.substring( 1 );
+
+        return( asTypeAndPrefix[0] + (bArray ? " []" : "") + " " + sPrefix + capitalize( word( random ) ) + sSuffix );
+    }
+
+    //==============================================================================
+    /**
+     * Decides whether the next item fails a check.
+     *
+     * @param random Random numbers for this file.
+     * @return true if the item should fail, false otherwise.
+     */
+    private boolean fails( Random random ) {
+        return( random.nextDouble() < dFailureRate );
+    }
+
+    //==============================================================================
+    /**
+     * Picks a word for a name or comment.
+     *
+     * @param random Random numbers for this file.
+     * @return the word.
+     */
+    private static String word( Random random ) {
+        return( sasWords[random.nextInt( sasWords.length )] );
+    }
+
+    //==============================================================================
+    /**
+     * Capitalizes a word.
+     *
+     * @param sWord Word to capitalize.
+     * @return the word with its first letter in upper case.
+     */
+    private static String capitalize( String sWord ) {
+        return( Character.toUpperCase( sWord.charAt( 0 ) ) + sWord.substring( 1 ) );
+    }
+
+    //==============================================================================
+    /**
+     * Generates a tree from the command line.
+     *
+     * @param asArgs Output directory, number of files, and optional seed.
+     * @throws IOException if a file can't be written.
+     */
+    public static void main( String [] asArgs ) throws IOException {
+
+        if( (asArgs.length < 2) || (asArgs.length > 3) ) {
+            System.err.println( "Usage: CorpusGenerator outputdir files [seed]" );
+            System.exit( -1 );
+        }
+
+        CorpusGenerator corpusgenerator = new CorpusGenerator( asArgs.length > 2 ? Long.parseLong( asArgs[2] ) : 0L );
+        List<File> listFiles = corpusgenerator.generate( new File( asArgs[0] ), Integer.parseInt( asArgs[1] ) );
+        System.err.println( "Wrote " + listFiles.size() + " files under " + asArgs[0] );
+    }
+}
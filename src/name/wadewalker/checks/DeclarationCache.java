@@ -0,0 +1,149 @@
+package name.wadewalker.checks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+//==============================================================================
+/**
+ * Bounded, thread-safe LRU cache of declaration verdicts, so declarations that
+ * repeat throughout a code base (like "String sName" or "int iCount") are only
+ * classified once. Entries are keyed by the simple type name, and each entry holds
+ * one verdict per combination of the static, varargs, and array flags. Keying on
+ * the type name first means a lookup never has to allocate a composite key. The
+ * cache doesn't look inside the verdicts, so it's generic in their type.
+ *
+ * @param <V> Type of the verdicts.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class DeclarationCache<V> {
+
+    /** Flag for static declarations. */
+    public static final int siFlagStatic = 1;
+
+    /** Flag for varargs parameters. */
+    public static final int siFlagVarargs = 2;
+
+    /** Flag for array declarations (of any dimension). */
+    public static final int siFlagArray = 4;
+
+    /** Number of distinct flag combinations. */
+    private static final int siFlagCombinations = 8;
+
+    /** Verdicts indexed by type name, then flags. Kept in access order for LRU eviction. */
+    private final Map<String, Object []> mapVerdicts;
+
+    /** Number of lookups that found a verdict. */
+    private final AtomicLong atomiclongHits = new AtomicLong();
+
+    /** Number of lookups that didn't find a verdict. */
+    private final AtomicLong atomiclongMisses = new AtomicLong();
+
+    //==============================================================================
+    /**
+     * Constructor.
+     *
+     * @param iMaxTypeNames Maximum number of type names to hold verdicts for before
+     * evicting the least recently used one.
+     */
+    public DeclarationCache( final int iMaxTypeNames ) {
+        mapVerdicts = new LinkedHashMap<String, Object []>( 16, 0.75f, true ) {
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<String, Object []> entry ) {
+                return( size() > iMaxTypeNames );
+            }
+        };
+    }
+
+    //==============================================================================
+    /**
+     * Looks up a verdict.
+     *
+     * @param sTypeName Simple name of the declared type (after any array declarators).
+     * @param iFlags Combination of the static, varargs, and array flags.
+     * @return the cached verdict, or null if there isn't one.
+     */
+    @SuppressWarnings( "unchecked" )
+    public V get( String sTypeName, int iFlags ) {
+
+        V vVerdict = null;
+
+        synchronized( mapVerdicts ) {
+            Object [] aoVerdicts = mapVerdicts.get( sTypeName );
+            if( aoVerdicts != null )
+                vVerdict = (V)aoVerdicts[iFlags];
+        }
+
+        if( vVerdict != null )
+            atomiclongHits.incrementAndGet();
+        else
+            atomiclongMisses.incrementAndGet();
+
+        return( vVerdict );
+    }
+
+    //==============================================================================
+    /**
+     * Stores a verdict.
+     *
+     * @param sTypeName Simple name of the declared type (after any array declarators).
+     * @param iFlags Combination of the static, varargs, and array flags.
+     * @param vVerdict Verdict to store.
+     */
+    public void put( String sTypeName, int iFlags, V vVerdict ) {
+
+        synchronized( mapVerdicts ) {
+            Object [] aoVerdicts = mapVerdicts.get( sTypeName );
+            if( aoVerdicts == null ) {
+                aoVerdicts = new Object [siFlagCombinations];
+                mapVerdicts.put( sTypeName, aoVerdicts );
+            }
+
+            aoVerdicts[iFlags] = vVerdict;
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the number of lookups that found a verdict.
+     */
+    public long getHitCount() {
+        return( atomiclongHits.get() );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the number of lookups that didn't find a verdict.
+     */
+    public long getMissCount() {
+        return( atomiclongMisses.get() );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the number of type names currently holding verdicts.
+     */
+    public int size() {
+        synchronized( mapVerdicts ) {
+            return( mapVerdicts.size() );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Removes all verdicts and resets the hit and miss counts.
+     */
+    public void clear() {
+        synchronized( mapVerdicts ) {
+            mapVerdicts.clear();
+        }
+
+        atomiclongHits.set( 0 );
+        atomiclongMisses.set( 0 );
+    }
+}
@@ -0,0 +1,36 @@
+package name.wadewalker.checks;
+
+//==============================================================================
+/**
+ * Everything a declaration's name is checked against: the parts of the Hungarian
+ * prefix in the order they must appear, and the complete prefix they add up to
+ * (e.g. "sab" for a static boolean array). Immutable, so it can be shared between
+ * threads through {@link DeclarationCache}.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+final class DeclarationVerdict {
+
+    /** Prefix parts in the order they must appear in the name (type prefix last). */
+    final Prefix [] aprefixParts;
+
+    /** All the prefix parts concatenated. */
+    final String sRequiredPrefix;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     *
+     * @param aprefixPartsIn Prefix parts in the order they must appear in the name.
+     */
+    DeclarationVerdict( Prefix [] aprefixPartsIn ) {
+        aprefixParts = aprefixPartsIn;
+
+        StringBuilder sbRequiredPrefix = new StringBuilder();
+        for( Prefix prefix : aprefixParts )
+            sbRequiredPrefix.append( prefix.sPrefix );
+
+        sRequiredPrefix = sbRequiredPrefix.toString();
+    }
+}
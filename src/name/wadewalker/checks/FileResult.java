@@ -0,0 +1,67 @@
+package name.wadewalker.checks;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+//==============================================================================
+/**
+ * The output of checking one file: the lines DefaultLogger would print for it
+ * (without the "Starting audit..." and "Audit done." lines), and the number of
+ * violations with error severity.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class FileResult {
+
+    /** File that was checked. */
+    private final File file;
+
+    /** Output lines in DefaultLogger format. */
+    private final List<String> listLines;
+
+    /** Number of violations with error severity. */
+    private final int iErrorCount;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     *
+     * @param fileIn File that was checked.
+     * @param listLinesIn Output lines in DefaultLogger format.
+     * @param iErrorCountIn Number of violations with error severity.
+     */
+    public FileResult( File fileIn, List<String> listLinesIn, int iErrorCountIn ) {
+        file = fileIn;
+        listLines = Collections.unmodifiableList( listLinesIn );
+        iErrorCount = iErrorCountIn;
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the file that was checked.
+     */
+    public File getFile() {
+        return( file );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the output lines in DefaultLogger format.
+     */
+    public List<String> getLines() {
+        return( listLines );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the number of violations with error severity.
+     */
+    public int getErrorCount() {
+        return( iErrorCount );
+    }
+}
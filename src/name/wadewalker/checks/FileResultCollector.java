@@ -0,0 +1,114 @@
+package name.wadewalker.checks;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.puppycrawl.tools.checkstyle.AuditEventDefaultFormatter;
+import com.puppycrawl.tools.checkstyle.AuditEventFormatter;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+
+//==============================================================================
+/**
+ * Audit listener that keeps the lines DefaultLogger would print for the files in
+ * one audit, so they can be merged with the output of other audits later.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+final class FileResultCollector implements AuditListener {
+
+    /** Formats violations the same way DefaultLogger does. */
+    private final AuditEventFormatter auditeventformatter = new AuditEventDefaultFormatter();
+
+    /** Lines collected since the last call to {@link #takeLines()}. */
+    private List<String> listLines = new ArrayList<String>();
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    FileResultCollector() {
+    }
+
+    //==============================================================================
+    /**
+     * Returns the collected lines and starts collecting a new set.
+     *
+     * @return the lines collected since the last call.
+     */
+    List<String> takeLines() {
+        List<String> listTaken = listLines;
+        listLines = new ArrayList<String>();
+        return( listTaken );
+    }
+
+    //==============================================================================
+    /**
+     * Does nothing (the merged output gets a single start line).
+     *
+     * @param auditevent Event for the start of the audit.
+     */
+    public void auditStarted( AuditEvent auditevent ) {
+    }
+
+    //==============================================================================
+    /**
+     * Does nothing (the merged output gets a single end line).
+     *
+     * @param auditevent Event for the end of the audit.
+     */
+    public void auditFinished( AuditEvent auditevent ) {
+    }
+
+    //==============================================================================
+    /**
+     * Does nothing.
+     *
+     * @param auditevent Event for the start of a file.
+     */
+    public void fileStarted( AuditEvent auditevent ) {
+    }
+
+    //==============================================================================
+    /**
+     * Does nothing.
+     *
+     * @param auditevent Event for the end of a file.
+     */
+    public void fileFinished( AuditEvent auditevent ) {
+    }
+
+    //==============================================================================
+    /**
+     * Collects a violation, formatted as DefaultLogger would print it.
+     *
+     * @param auditevent Event for the violation.
+     */
+    public void addError( AuditEvent auditevent ) {
+        if( auditevent.getSeverityLevel() != SeverityLevel.IGNORE )
+            listLines.add( auditeventformatter.format( auditevent ) );
+    }
+
+    //==============================================================================
+    /**
+     * Collects an exception, formatted as DefaultLogger would print it.
+     *
+     * @param auditevent Event for the file the exception happened in.
+     * @param throwable Exception that was thrown.
+     */
+    public void addException( AuditEvent auditevent, Throwable throwable ) {
+
+        StringWriter stringwriter = new StringWriter();
+        PrintWriter printwriter = new PrintWriter( stringwriter );
+        printwriter.println( "Error auditing " + auditevent.getFileName() );
+        throwable.printStackTrace( printwriter );
+        printwriter.flush();
+
+        for( String sLine : stringwriter.toString().split( "\r?\n" ) )
+            listLines.add( sLine );
+    }
+}
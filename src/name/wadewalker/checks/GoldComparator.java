@@ -0,0 +1,148 @@
+package name.wadewalker.checks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//==============================================================================
+/**
+ * Compares violations against a gold file of DefaultLogger output, without writing
+ * the actual output anywhere. File names are compared with path separators
+ * normalized, so gold files work on every platform.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class GoldComparator {
+
+    /** Line DefaultLogger prints before any violations. */
+    private static final String ssAuditStarted = "Starting audit...";
+
+    /** Line DefaultLogger prints after all violations. */
+    private static final String ssAuditDone = "Audit done.";
+
+    //==============================================================================
+    /**
+     * Can't instantiate this class (it only has static methods).
+     */
+    private GoldComparator() {
+    }
+
+    //==============================================================================
+    /**
+     * Reads the violations in a gold file.
+     *
+     * @param fileGold Gold file of DefaultLogger output.
+     * @return the violations, in file order.
+     * @throws IOException if the file can't be read, or has a line that's not a violation
+     * or one of DefaultLogger's start and end lines.
+     */
+    public static List<Violation> readGold( File fileGold ) throws IOException {
+
+        List<Violation> listViolations = new ArrayList<Violation>();
+
+        BufferedReader bufferedreader = new BufferedReader( new InputStreamReader( new FileInputStream( fileGold ), "UTF-8" ) );
+        try {
+            int iLine = 0;
+            for( String sLine = bufferedreader.readLine(); sLine != null; sLine = bufferedreader.readLine() ) {
+                iLine++;
+                if( sLine.isEmpty() || sLine.equals( ssAuditStarted ) || sLine.equals( ssAuditDone ) )
+                    continue;
+
+                Violation violation = Violation.parse( sLine );
+                if( violation == null )
+                    throw new IOException( fileGold + ":" + iLine + ": not a violation: " + sLine );
+                listViolations.add( violation );
+            }
+        }
+        finally {
+            bufferedreader.close();
+        }
+
+        return( listViolations );
+    }
+
+    //==============================================================================
+    /**
+     * Compares actual violations to expected ones, in order.
+     *
+     * @param listExpected Violations that should have been reported (usually from a gold file).
+     * @param listActual Violations that were reported.
+     * @return null if they match, or a report of the differences.
+     */
+    public static String compare( List<Violation> listExpected, List<Violation> listActual ) {
+
+        if( listExpected.equals( listActual ) )
+            return( null );
+
+        StringBuilder sb = new StringBuilder();
+        sb.append( "Expected " ).append( listExpected.size() ).append( " violations, got " ).append( listActual.size() ).append( '\n' );
+
+        // first place the lists disagree, which is the best clue when only order differs
+        int iFirstDifference = 0;
+        while(    (iFirstDifference < listExpected.size()) && (iFirstDifference < listActual.size())
+               && listExpected.get( iFirstDifference ).equals( listActual.get( iFirstDifference ) ) )
+            iFirstDifference++;
+        sb.append( "First difference at violation " ).append( iFirstDifference + 1 ).append( ":\n" );
+        sb.append( "  expected: " ).append( iFirstDifference < listExpected.size() ? listExpected.get( iFirstDifference ) : "(none)" ).append( '\n' );
+        sb.append( "  actual:   " ).append( iFirstDifference < listActual.size() ? listActual.get( iFirstDifference ) : "(none)" ).append( '\n' );
+
+        Map<Violation, Integer> mapActualCounts = countViolations( listActual );
+        Map<Violation, Integer> mapExpectedCounts = countViolations( listExpected );
+        appendUnmatched( sb, "Missing (expected but not reported):", listExpected, mapActualCounts );
+        appendUnmatched( sb, "Unexpected (reported but not expected):", listActual, mapExpectedCounts );
+
+        return( sb.toString() );
+    }
+
+    //==============================================================================
+    /**
+     * Counts how many times each violation occurs.
+     *
+     * @param listViolations Violations to count.
+     * @return the number of times each one occurs.
+     */
+    private static Map<Violation, Integer> countViolations( List<Violation> listViolations ) {
+
+        Map<Violation, Integer> mapCounts = new HashMap<Violation, Integer>();
+        for( Violation violation : listViolations ) {
+            Integer integerCount = mapCounts.get( violation );
+            mapCounts.put( violation, integerCount == null ? 1 : integerCount + 1 );
+        }
+        return( mapCounts );
+    }
+
+    //==============================================================================
+    /**
+     * Appends the violations in one list that aren't matched by the other list.
+     *
+     * @param sb Report being built.
+     * @param sHeading Heading printed before the unmatched violations (if there are any).
+     * @param listViolations Violations to look for.
+     * @param mapOtherCounts How many times each violation occurs in the other list (used up
+     * as matches are found).
+     */
+    private static void appendUnmatched( StringBuilder sb, String sHeading, List<Violation> listViolations, Map<Violation, Integer> mapOtherCounts ) {
+
+        boolean bHeadingDone = false;
+        for( Violation violation : listViolations ) {
+            Integer integerCount = mapOtherCounts.get( violation );
+            if( (integerCount != null) && (integerCount > 0) ) {
+                mapOtherCounts.put( violation, integerCount - 1 );
+                continue;
+            }
+
+            if( !bHeadingDone ) {
+                sb.append( sHeading ).append( '\n' );
+                bHeadingDone = true;
+            }
+            sb.append( "  " ).append( violation ).append( '\n' );
+        }
+    }
+}
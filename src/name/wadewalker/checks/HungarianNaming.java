@@ -1,5 +1,19 @@
 package name.wadewalker.checks;
 
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.DetailAST;
 import com.puppycrawl.tools.checkstyle.api.TokenTypes;
@@ -32,24 +46,70 @@ import com.puppycrawl.tools.checkstyle.api.TokenTypes;
  * sb: StringBuffer or StringBuilder
  * {class name}: {class name}
  *
+ * More type-to-prefix rules (which can also override the ones above) can be given
+ * with the "prefixes" property as a comma-separated list like
+ * "ByteBuffer=bb, ConcurrentHashMap=chm", or with the "prefixFile" property as the
+ * name of a properties file with one "ByteBuffer=bb" rule per line.
+ *
+ * By default each missing prefix part is its own violation. Setting the
+ * "mergeViolations" property to true reports one violation per declaration instead,
+ * giving the whole required prefix and listing the missing parts.
+ *
+ * Setting the "metrics" property to true records tokens, time, and violations in
+ * {@link CheckMetrics}.
+ *
+ * The "baselineFile" property names a {@link Baseline} of known violations, matched by
+ * declaration name, that aren't reported again. Setting "updateBaseline" to true
+ * rewrites that file with the current violations instead.
+ *
+ * The "changedLines" property names a unified diff or line ranges file (see
+ * {@link ChangedLines}), and limits the check to declarations on changed lines.
+ *
+ * Rules can name qualified or nested types, like "java.util.Map.Entry=me" or
+ * "Outer.Inner=oi". When any rule does, type names are resolved through the file's
+ * package, imports, and declared types, and through the project's other types if the
+ * "typeIndexRoots" property lists source directories to build a shared {@link TypeIndex}
+ * from. A resolved name is matched against the rules whole, then from its first
+ * capitalized segment (the nested type path), then by its simple name.
+ *
+ * The "maxViolationsPerFile" property limits the violations reported in one file.
+ * Once a file reaches it, its remaining declarations are skipped before any name or
+ * type work, and one more violation at the first of them gives how many weren't
+ * checked. The "maxViolations" property is a fail-fast limit on the violations
+ * reported during one audit (see {@link ViolationCount}): reaching it throws an
+ * exception that aborts the audit.
+ *
  * Copyright (c) 2011-2016 Wade Walker. All rights reserved.
  * @author Wade Walker
  */
 public class HungarianNaming extends AbstractCheck {
 
-    /** Format string for warning message.
-     * 1: type
-     * 2: " member", " parameter", or ""
+    /** Key of warning message in messages.properties. Message arguments are
+     * 0: type
+     * 1: " member", " parameter", or ""
      * 2: name
      * 3: prefix
      */
-    private static final String ssWarningMsg = "Prepend %s%s name ''%s'' with ''%s''";
+    private static final String ssWarningKey = "hungarian.naming.prefix";
+
+    /** Key of merged warning message in messages.properties. Message arguments are
+     * 0: " member", " parameter", or ""
+     * 1: name
+     * 2: complete required prefix
+     * 3: missing parts, like "static 's', boolean 'b'"
+     */
+    private static final String ssMergedWarningKey = "hungarian.naming.merged";
+
+    /** Key of the message logged when a file reaches its violation limit. Message
+     *  arguments are the number of violations reported, and the number of declarations
+     *  not checked. */
+    private static final String ssStoppedWarningKey = "hungarian.naming.stopped";
 
     /** Used when warning is about a member declaration. */
-    private static final String ssMember = " member";
+    static final String ssMember = " member";
     
     /** Used when warning is about a patameter declaration. */
-    private static final String ssParameter = " parameter";
+    static final String ssParameter = " parameter";
     
     /** Java native types to check prefixes of. */
     private static final String [] sasNativeTypeNames = {
@@ -67,6 +127,108 @@ public class HungarianNaming extends AbstractCheck {
         TokenTypes.LITERAL_FLOAT, TokenTypes.LITERAL_INT, TokenTypes.LITERAL_LONG, TokenTypes.LITERAL_SHORT
     };
 
+    /** True for the token types of the native types, indexed by token type. */
+    private static final boolean [] sabNativeByTokenType;
+
+    /** Built-in prefixes, indexed by type name. */
+    private static final Map<String, Prefix> smapDefaultPrefixes = new LinkedHashMap<String, Prefix>();
+
+    static {
+        int iMaxTokenType = 0;
+        for( int i = 0; i < saiNativeTokenTypes.length; i++ )
+            iMaxTokenType = Math.max( iMaxTokenType, saiNativeTokenTypes[i] );
+
+        sabNativeByTokenType = new boolean [iMaxTokenType + 1];
+        for( int i = 0; i < saiNativeTokenTypes.length; i++ ) {
+            sabNativeByTokenType[saiNativeTokenTypes[i]] = true;
+            smapDefaultPrefixes.put( sasNativeTypeNames[i], new Prefix( sasNativeTypeNames[i], sasNativePrefixes[i] ) );
+        }
+
+        Prefix prefixStringBuilder = new Prefix( "StringBuffer or StringBuilder", "sb" );
+        smapDefaultPrefixes.put( "String", new Prefix( "String", "s" ) );
+        smapDefaultPrefixes.put( "StringBuffer", prefixStringBuilder );
+        smapDefaultPrefixes.put( "StringBuilder", prefixStringBuilder );
+        smapDefaultPrefixes.put( "Object", new Prefix( "Object", "o" ) );
+    }
+
+    /** Compiled prefix tables indexed by their custom rules, so each set of rules is only
+     * compiled once no matter how many instances of this check use it. */
+    private static final ConcurrentMap<Map<String, String>, PrefixTable> sconcurrentmapCompiledTables =
+        new ConcurrentHashMap<Map<String, String>, PrefixTable>();
+
+    /** Custom prefixes indexed by type name (sorted, so equal rule sets compare equal). */
+    private final Map<String, String> mapCustomPrefixes = new TreeMap<String, String>();
+
+    /** Built-in and custom prefix rules, compiled in {@link #init()}. */
+    private PrefixTable prefixtable;
+
+    /** True to report one violation per declaration instead of one per missing prefix part. */
+    private boolean bMergeViolations;
+
+    /** True if metrics should be recorded. */
+    private boolean bMetrics;
+
+    /** Name of the baseline file of known violations (null if there isn't one). */
+    private String sBaselineFile;
+
+    /** True to record every violation into the baseline file instead of skipping the known ones. */
+    private boolean bUpdateBaseline;
+
+    /** Known violations to skip (null if there's no baseline, so the only cost is a null check). */
+    private BaselineFilter baselinefilter;
+
+    /** Name of the diff or line ranges file limiting the check to changed lines (null if there isn't one). */
+    private String sChangedLinesFile;
+
+    /** Changed lines of all files (null if the check isn't limited to them). */
+    private ChangedLines changedlines;
+
+    /** Changed lines of the file being checked (null if the check isn't limited to them). */
+    private ChangedLines.LineRanges lineranges;
+
+    /** Source directories to index the project's types from (null if there's no index). */
+    private String [] asTypeIndexRoots;
+
+    /** True if type names are resolved to qualified names, because some rule names a qualified or nested type. */
+    private boolean bResolveTypes;
+
+    /** Index of the project's types (null if there isn't one or type names aren't resolved). */
+    private TypeIndex typeindex;
+
+    /** Generation of the shared type indexes when the index was loaded (see {@link TypeIndex#getGeneration()}). */
+    private int iTypeIndexGeneration;
+
+    /** Package, imports, and declared types of the file being checked (null if type names aren't resolved). */
+    private TypeIndex.FileTypes filetypes;
+
+    /** Qualified names of the type names written in the file being checked, so each is only resolved once per file. */
+    private final Map<String, String> mapResolvedNames = new HashMap<String, String>();
+
+    /** Where metrics are recorded (null if they're not, so the only cost is a null check). */
+    private CheckMetrics.CheckCounters checkcounters;
+
+    /** Nanoseconds spent in {@link #visitToken(DetailAST)} for the current file (only kept with metrics on). */
+    private long lFileNanos;
+
+    /** Most violations to report in one file before only counting the rest of it (or 0 for no limit). */
+    private int iMaxViolationsPerFile;
+
+    /** Most violations to report in one audit before aborting it (or 0 for no limit). */
+    private int iMaxViolations;
+
+    /** Count for the fail-fast limit when no audit's count is current (see {@link ViolationCount}),
+     *  replaced when the audit ends. */
+    private ViolationCount violationcountOwn = new ViolationCount();
+
+    /** Violations reported in the current file. */
+    private int iFileViolations;
+
+    /** Declarations not checked in the current file because it reached its limit. */
+    private int iSkippedDeclarations;
+
+    /** Line of the first declaration in the current file that wasn't checked. */
+    private int iFirstSkippedLine;
+
     //==============================================================================
     /**
      * Constructor.
@@ -74,6 +236,221 @@ public class HungarianNaming extends AbstractCheck {
     public HungarianNaming() {
     }
 
+    //==============================================================================
+    /**
+     * Sets custom prefix rules.
+     *
+     * @param asRules Rules like "ByteBuffer=bb", each giving the prefix for one type name.
+     * @throws IllegalArgumentException if a rule isn't of the form "type=prefix".
+     */
+    public void setPrefixes( String [] asRules ) {
+
+        for( String sRule : asRules ) {
+            int iEquals = sRule.indexOf( '=' );
+            if( iEquals < 0 )
+                throw new IllegalArgumentException( "Prefix rule '" + sRule + "' isn't of the form type=prefix" );
+
+            addCustomPrefix( sRule.substring( 0, iEquals ), sRule.substring( iEquals + 1 ) );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Reads custom prefix rules from a properties file.
+     *
+     * @param sFileName Name of a properties file with one "type=prefix" rule per line.
+     * @throws IllegalArgumentException if the file can't be read or contains a bad rule.
+     */
+    public void setPrefixFile( String sFileName ) {
+
+        Properties properties = new Properties();
+
+        try {
+            InputStream inputstream = new FileInputStream( sFileName );
+            try {
+                properties.load( inputstream );
+            }
+            finally {
+                inputstream.close();
+            }
+        }
+        catch( IOException ioexception ) {
+            throw new IllegalArgumentException( "Unable to read prefix file " + sFileName, ioexception );
+        }
+
+        for( String sTypeName : properties.stringPropertyNames() )
+            addCustomPrefix( sTypeName, properties.getProperty( sTypeName ) );
+    }
+
+    //==============================================================================
+    /**
+     * Adds one custom prefix rule.
+     *
+     * @param sTypeName Simple type name (or native type keyword) the rule applies to.
+     * @param sPrefix Prefix names of that type must start with.
+     * @throws IllegalArgumentException if the type name or prefix is empty.
+     */
+    private void addCustomPrefix( String sTypeName, String sPrefix ) {
+
+        String sTrimmedTypeName = sTypeName.trim();
+        String sTrimmedPrefix = sPrefix.trim();
+
+        if( sTrimmedTypeName.isEmpty() || sTrimmedPrefix.isEmpty() )
+            throw new IllegalArgumentException( "Prefix rule " + sTypeName + "=" + sPrefix + " has an empty type or prefix" );
+
+        mapCustomPrefixes.put( sTrimmedTypeName, sTrimmedPrefix );
+    }
+
+    //==============================================================================
+    /**
+     * Chooses between one violation per declaration and one per missing prefix part.
+     *
+     * @param bEnabled True to merge each declaration's missing prefix parts into one violation.
+     */
+    public void setMergeViolations( boolean bEnabled ) {
+        bMergeViolations = bEnabled;
+    }
+
+    //==============================================================================
+    /**
+     * Enables or disables recording metrics in {@link CheckMetrics}.
+     *
+     * @param bEnabled True to record metrics.
+     */
+    public void setMetrics( boolean bEnabled ) {
+        bMetrics = bEnabled;
+    }
+
+    //==============================================================================
+    /**
+     * Sets a baseline file of known violations that shouldn't be reported.
+     *
+     * @param sFileName Name of a file written by {@link Baseline#write(java.io.File)}.
+     */
+    public void setBaselineFile( String sFileName ) {
+        sBaselineFile = sFileName;
+    }
+
+    //==============================================================================
+    /**
+     * Chooses whether to record the current violations into the baseline file (when
+     * the check is destroyed) instead of skipping the ones already in it.
+     *
+     * @param bEnabled True to rewrite the baseline file.
+     */
+    public void setUpdateBaseline( boolean bEnabled ) {
+        bUpdateBaseline = bEnabled;
+    }
+
+    //==============================================================================
+    /**
+     * Limits the check to changed lines, so declarations outside them are skipped.
+     *
+     * @param sFileName Name of a unified diff or line ranges file (see {@link ChangedLines}),
+     * or an empty string to check every line.
+     */
+    public void setChangedLines( String sFileName ) {
+        sChangedLinesFile = sFileName.isEmpty() ? null : sFileName;
+    }
+
+    //==============================================================================
+    /**
+     * Sets the source directories whose types qualified and nested rules can resolve
+     * against (only used if a rule names a qualified or nested type).
+     *
+     * @param asRoots Source directories or files to index, or an empty array for no index.
+     */
+    public void setTypeIndexRoots( String [] asRoots ) {
+        asTypeIndexRoots = asRoots.length > 0 ? asRoots.clone() : null;
+    }
+
+    //==============================================================================
+    /**
+     * Limits the violations reported in each file. Once a file reaches the limit, the
+     * violations of its remaining declarations are only counted.
+     *
+     * @param iMaxViolationsPerFileIn Most violations to report in one file (or 0 for no limit).
+     */
+    public void setMaxViolationsPerFile( int iMaxViolationsPerFileIn ) {
+        iMaxViolationsPerFile = iMaxViolationsPerFileIn;
+    }
+
+    //==============================================================================
+    /**
+     * Sets a fail-fast limit on the violations reported during one audit, so hopeless
+     * audits stop early.
+     *
+     * @param iMaxViolationsIn Number of violations that aborts the audit (or 0 for no limit).
+     */
+    public void setMaxViolations( int iMaxViolationsIn ) {
+        iMaxViolations = iMaxViolationsIn;
+    }
+
+    //==============================================================================
+    /**
+     * Loads the shared index of the project's types.
+     *
+     * @param asRoots Source directories or files to index.
+     * @return the index.
+     * @throws IllegalArgumentException if a file can't be read.
+     */
+    private static TypeIndex loadTypeIndex( String [] asRoots ) {
+        try {
+            return( TypeIndex.getShared( asRoots ) );
+        }
+        catch( IOException ioexception ) {
+            throw new IllegalArgumentException( "Unable to index types under " + Arrays.toString( asRoots ), ioexception );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Loads the changed lines.
+     *
+     * @param sFileName Name of a unified diff or line ranges file.
+     * @return the changed lines.
+     * @throws IllegalArgumentException if the file can't be read.
+     */
+    private static ChangedLines loadChangedLines( String sFileName ) {
+        try {
+            return( ChangedLines.getShared( sFileName ) );
+        }
+        catch( IOException ioexception ) {
+            throw new IllegalArgumentException( "Unable to read changed lines file " + sFileName, ioexception );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Compiles the prefix rules, or reuses an already compiled table with the same rules.
+     * @see com.puppycrawl.tools.checkstyle.api.AbstractCheck#init()
+     */
+    public void init() {
+
+        checkcounters = bMetrics ? CheckMetrics.getInstance().getCounters( "HungarianNaming" ) : null;
+        baselinefilter = sBaselineFile != null ? new BaselineFilter( sBaselineFile, bUpdateBaseline ) : null;
+        changedlines = sChangedLinesFile != null ? loadChangedLines( sChangedLinesFile ) : null;
+
+        bResolveTypes = false;
+        for( String sTypeName : mapCustomPrefixes.keySet() )
+            bResolveTypes |= sTypeName.indexOf( '.' ) >= 0;
+        iTypeIndexGeneration = TypeIndex.getGeneration();
+        typeindex = bResolveTypes && (asTypeIndexRoots != null) ? loadTypeIndex( asTypeIndexRoots ) : null;
+
+        prefixtable = sconcurrentmapCompiledTables.get( mapCustomPrefixes );
+        if( prefixtable != null )
+            return;
+
+        Map<String, Prefix> mapRules = new LinkedHashMap<String, Prefix>( smapDefaultPrefixes );
+        for( Map.Entry<String, String> entry : mapCustomPrefixes.entrySet() )
+            mapRules.put( entry.getKey(), new Prefix( entry.getKey(), entry.getValue() ) );
+
+        PrefixTable prefixtableNew = new PrefixTable( mapRules );
+        prefixtable = sconcurrentmapCompiledTables.putIfAbsent( new TreeMap<String, String>( mapCustomPrefixes ), prefixtableNew );
+        if( prefixtable == null )
+            prefixtable = prefixtableNew;
+    }
+
     //==============================================================================
     /**
      * Accessor.
@@ -92,36 +469,280 @@ public class HungarianNaming extends AbstractCheck {
      */
     private boolean isStatic( DetailAST detailast ) {
         DetailAST detailastModifiers = detailast.findFirstToken( TokenTypes.MODIFIERS );
-        return( (detailastModifiers != null) && detailastModifiers.branchContains( TokenTypes.LITERAL_STATIC ) );
+        return( (detailastModifiers != null) && (detailastModifiers.findFirstToken( TokenTypes.LITERAL_STATIC ) != null) );
     }
 
 
     //==============================================================================
     /**
-     * Gets the class name from an AST that's been advanced past any array declarators.
-     * Concatenates names for inner types like Map.Entry.
+     * Gets the simple class name from an AST that's been advanced past any array
+     * declarators, which is the last identifier of a qualified name like Map.Entry or
+     * Outer<String>.Inner.
      *
      * @param detailast AST to find the class name in.
      * @return the class name, or null if we can't find it (due to calling this method
      * on an unexpected part of the AST).
      */
-    private String findClassName( DetailAST detailast ) {
+    private static String findClassName( DetailAST detailast ) {
 
-        DetailAST detailastCurr = detailast;
+        if( detailast.getType() == TokenTypes.IDENT )
+            return( detailast.getText() );
+        if( detailast.getType() != TokenTypes.DOT )
+            return( null );
+
+        // type arguments and annotations can follow the inner name, so find the last identifier
+        String sClassName = null;
+        for( DetailAST detailastChild = detailast.getFirstChild(); detailastChild != null; detailastChild = detailastChild.getNextSibling() ) {
+            if( detailastChild.getType() == TokenTypes.IDENT )
+                sClassName = detailastChild.getText();
+        }
+        return( sClassName );
+    }
+
+    //==============================================================================
+    /**
+     * Appends a dotted name to a string builder, skipping any type arguments and
+     * annotations inside it.
+     *
+     * @param detailast AST of an identifier, "*", or dot.
+     * @param sb Where to append the name.
+     * @return true if the whole name was appended, false if the AST has an unexpected shape.
+     */
+    private static boolean appendDottedName( DetailAST detailast, StringBuilder sb ) {
 
-        while( (detailastCurr != null) && (detailastCurr.getType() != TokenTypes.IDENT) ) {
-            // dot means inner class, so traverse to inner name
-            if ( (detailastCurr.getType() == TokenTypes.DOT) && (detailastCurr.getFirstChild() != null) ) {
-                detailastCurr = detailastCurr.getFirstChild().getNextSibling();
+        if( (detailast.getType() == TokenTypes.IDENT) || (detailast.getType() == TokenTypes.STAR) ) {
+            if( sb.length() > 0 )
+                sb.append( '.' );
+            sb.append( detailast.getText() );
+            return( true );
+        }
+        if( detailast.getType() != TokenTypes.DOT )
+            return( false );
+
+        for( DetailAST detailastChild = detailast.getFirstChild(); detailastChild != null; detailastChild = detailastChild.getNextSibling() ) {
+            int iType = detailastChild.getType();
+            if( (iType != TokenTypes.TYPE_ARGUMENTS) && (iType != TokenTypes.ANNOTATIONS) && !appendDottedName( detailastChild, sb ) )
+                return( false );
+        }
+        return( true );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return true if type names are resolved to qualified names before their prefixes
+     * are looked up, false if only simple names are used.
+     */
+    boolean isResolvingTypes() {
+        return( bResolveTypes );
+    }
+
+    //==============================================================================
+    /**
+     * Resolves the type name written in a declaration to a qualified name.
+     *
+     * @param sWrittenName Type name as written, without type arguments or annotations.
+     * @return the qualified name, or the name as written if it can't be resolved.
+     */
+    String resolveTypeName( String sWrittenName ) {
+
+        String sResolvedName = mapResolvedNames.get( sWrittenName );
+        if( sResolvedName == null ) {
+            sResolvedName = filetypes.resolve( sWrittenName, typeindex );
+            mapResolvedNames.put( sWrittenName, sResolvedName );
+        }
+        return( sResolvedName );
+    }
+
+    //==============================================================================
+    /**
+     * Finds the package, imports, and declared types of a file from its AST, for files
+     * that aren't in the type index.
+     *
+     * @param detailastRoot First top-level AST node of the file.
+     * @return the types of the file.
+     */
+    private static TypeIndex.FileTypes findFileTypes( DetailAST detailastRoot ) {
+
+        String sPackage = null;
+        List<String> listImports = new ArrayList<String>();
+        Map<String, String> mapDeclared = new HashMap<String, String>();
+
+        for( DetailAST detailast = detailastRoot; detailast != null; detailast = detailast.getNextSibling() ) {
+            StringBuilder sb = new StringBuilder();
+            if( detailast.getType() == TokenTypes.PACKAGE_DEF ) {
+                if( appendDottedName( detailast.findFirstToken( TokenTypes.ANNOTATIONS ).getNextSibling(), sb ) )
+                    sPackage = sb.toString();
+            }
+            else if( detailast.getType() == TokenTypes.IMPORT ) {
+                if( appendDottedName( detailast.getFirstChild(), sb ) )
+                    listImports.add( sb.toString() );
             }
-            else
-                detailastCurr = null;
         }
 
-        if ( detailastCurr != null )
-            return( detailastCurr.getText() );
-        else
-            return( null );
+        for( DetailAST detailast = detailastRoot; detailast != null; detailast = detailast.getNextSibling() )
+            addDeclaredTypes( detailast, sPackage != null ? sPackage + "." : "", mapDeclared );
+
+        return( new TypeIndex.FileTypes( sPackage, listImports, mapDeclared ) );
+    }
+
+    //==============================================================================
+    /**
+     * Adds a type declaration and the types nested in it to a map.
+     *
+     * @param detailast AST node that may be a type declaration.
+     * @param sQualifier Package or enclosing type name to qualify the type with, ending in ".".
+     * @param mapDeclared Where to put the qualified type names, indexed by simple name.
+     */
+    private static void addDeclaredTypes( DetailAST detailast, String sQualifier, Map<String, String> mapDeclared ) {
+
+        int iType = detailast.getType();
+        if(    (iType != TokenTypes.CLASS_DEF) && (iType != TokenTypes.INTERFACE_DEF) && (iType != TokenTypes.ENUM_DEF)
+            && (iType != TokenTypes.ANNOTATION_DEF) )
+            return;
+
+        String sName = detailast.findFirstToken( TokenTypes.IDENT ).getText();
+        String sQualifiedName = sQualifier + sName;
+        if( !mapDeclared.containsKey( sName ) )
+            mapDeclared.put( sName, sQualifiedName );
+
+        for( DetailAST detailastChild = detailast.findFirstToken( TokenTypes.OBJBLOCK ).getFirstChild(); detailastChild != null;
+             detailastChild = detailastChild.getNextSibling() )
+            addDeclaredTypes( detailastChild, sQualifiedName + ".", mapDeclared );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the cache of declaration verdicts shared by all instances of this check
+     * with the same prefix rules (useful for reading its hit and miss counts).
+     */
+    public DeclarationCache<?> getDeclarationCache() {
+        return( prefixtable.getDeclarationCache() );
+    }
+
+    //==============================================================================
+    /**
+     * Works out the prefix parts a declaration's name needs.
+     *
+     * @param sTypeName Simple name of the element type (or native type keyword), or its
+     * qualified name if type names are being resolved.
+     * @param iFlags Combination of the static, varargs, and array flags from {@link DeclarationCache}.
+     * @return the verdict for the declaration.
+     */
+    private DeclarationVerdict classify( String sTypeName, int iFlags ) {
+
+        // check for native types, String, StringBuffer, StringBuilder, Object, and custom rules
+        Prefix prefixType = prefixtable.lookup( sTypeName );
+        String sSimpleName = sTypeName.substring( sTypeName.lastIndexOf( '.' ) + 1 );
+
+        // a qualified name can also match a rule by its nested type path or simple name
+        if( (prefixType == null) && !sSimpleName.equals( sTypeName ) ) {
+            int iNestedStart = 0;
+            while( !Character.isUpperCase( sTypeName.charAt( iNestedStart ) ) && (sTypeName.indexOf( '.', iNestedStart ) >= 0) )
+                iNestedStart = sTypeName.indexOf( '.', iNestedStart ) + 1;
+
+            if( iNestedStart > 0 )
+                prefixType = prefixtable.lookup( sTypeName.substring( iNestedStart ) );
+            if( prefixType == null )
+                prefixType = prefixtable.lookup( sSimpleName );
+        }
+
+        // any other class type needs the prepended lowercase class name
+        if( prefixType == null )
+            prefixType = new Prefix( sSimpleName, sSimpleName.toLowerCase() );
+
+        Prefix [] aprefixParts = new Prefix [Integer.bitCount( iFlags ) + 1];
+        int iPart = 0;
+        if( (iFlags & DeclarationCache.siFlagStatic) != 0 )
+            aprefixParts[iPart++] = Prefix.sprefixStatic;
+        if( (iFlags & DeclarationCache.siFlagVarargs) != 0 )
+            aprefixParts[iPart++] = Prefix.sprefixVarargs;
+        if( (iFlags & DeclarationCache.siFlagArray) != 0 )
+            aprefixParts[iPart++] = Prefix.sprefixArray;
+        aprefixParts[iPart] = prefixType;
+
+        return( new DeclarationVerdict( aprefixParts ) );
+    }
+
+    //==============================================================================
+    /**
+     * Starts the per-file metrics, looks up the file's changed lines, and starts the file.
+     *
+     * @param detailastRoot First top-level AST node of the file.
+     * @see com.puppycrawl.tools.checkstyle.api.AbstractCheck#beginTree(com.puppycrawl.tools.checkstyle.api.DetailAST)
+     */
+    public void beginTree( DetailAST detailastRoot ) {
+        lFileNanos = 0;
+        // without a changed lines file of its own, the check uses the audit's (see ChangedLines.setCurrent)
+        ChangedLines changedlinesUsed = changedlines != null ? changedlines : ChangedLines.getCurrent();
+        lineranges = changedlinesUsed != null ? changedlinesUsed.getFileRanges( getFileContents().getFileName() ) : null;
+        beginFile( getFileContents().getFileName(), null );
+        if( bResolveTypes && (filetypes == null) )
+            filetypes = findFileTypes( detailastRoot );
+    }
+
+    //==============================================================================
+    /**
+     * Starts checking a file: looks up its baseline entries, and its types if type
+     * names are resolved, getting the type index again if its files have changed.
+     *
+     * @param sFileName Name of the file.
+     * @param filetypesFound Types of the file found by the caller (or null to use the
+     * type index, leaving them null if the file isn't in it).
+     */
+    void beginFile( String sFileName, TypeIndex.FileTypes filetypesFound ) {
+
+        iFileViolations = 0;
+        iSkippedDeclarations = 0;
+
+        if( baselinefilter != null )
+            baselinefilter.beginFile( sFileName );
+
+        if( bResolveTypes ) {
+            mapResolvedNames.clear();
+            filetypes = filetypesFound;
+            if( (typeindex != null) && (iTypeIndexGeneration != TypeIndex.getGeneration()) ) {
+                iTypeIndexGeneration = TypeIndex.getGeneration();
+                typeindex = loadTypeIndex( asTypeIndexRoots );
+            }
+            if( (filetypes == null) && (typeindex != null) ) {
+                try {
+                    filetypes = typeindex.getFileTypes( sFileName );
+                }
+                catch( IOException ioexception ) {
+                    filetypes = null;
+                }
+            }
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Reports how many declarations weren't checked if the file reached its limit, and
+     * records the per-file metrics.
+     *
+     * @param detailastRoot First top-level AST node of the file.
+     * @see com.puppycrawl.tools.checkstyle.api.AbstractCheck#finishTree(com.puppycrawl.tools.checkstyle.api.DetailAST)
+     */
+    public void finishTree( DetailAST detailastRoot ) {
+        if( iSkippedDeclarations > 0 )
+            log( iFirstSkippedLine, ssStoppedWarningKey, Integer.toString( iFileViolations ), Integer.toString( iSkippedDeclarations ) );
+        if( checkcounters != null )
+            checkcounters.addFile( getFileContents().getFileName(), lFileNanos );
+    }
+
+    //==============================================================================
+    /**
+     * Writes the baseline file, if it's being updated, and starts a new count for the
+     * fail-fast limit. Checkstyle calls this at the end of every audit (each call to
+     * the Checker's process()), and a pooled Checker goes on to the next one.
+     * @see com.puppycrawl.tools.checkstyle.api.AbstractCheck#destroy()
+     */
+    public void destroy() {
+        if( baselinefilter != null )
+            baselinefilter.finish();
+        violationcountOwn = new ViolationCount();
     }
 
     //==============================================================================
@@ -133,6 +754,46 @@ public class HungarianNaming extends AbstractCheck {
      */
     public void visitToken( DetailAST detailast ) {
 
+        // outside the changed lines, skip the declaration before looking at its name or type
+        if( (lineranges != null) && !isChanged( detailast ) )
+            return;
+
+        // past the file's limit, likewise
+        if( skipIfStopped( detailast.getLineNo() ) )
+            return;
+
+        if( checkcounters == null ) {
+            checkDeclaration( detailast );
+            return;
+        }
+
+        long lStartNanos = System.nanoTime();
+        checkDeclaration( detailast );
+        long lNanos = System.nanoTime() - lStartNanos;
+
+        checkcounters.addVisit( lNanos );
+        lFileNanos += lNanos;
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @param detailast AST node of a declaration.
+     * @return true if a changed line is between the start of the declaration and its name.
+     */
+    private boolean isChanged( DetailAST detailast ) {
+        int iNameLine = detailast.findFirstToken( TokenTypes.IDENT ).getLineNo();
+        return( lineranges.intersects( Math.min( detailast.getLineNo(), iNameLine ), Math.max( detailast.getLineNo(), iNameLine ) ) );
+    }
+
+    //==============================================================================
+    /**
+     * Checks one parameter or variable declaration.
+     *
+     * @param detailast AST node of the declaration.
+     */
+    private void checkDeclaration( DetailAST detailast ) {
+
         // name of the grammar terminal we're called on
         String sTerminalName =   detailast.getType() == TokenTypes.PARAMETER_DEF
                                ? ssParameter
@@ -140,80 +801,171 @@ public class HungarianNaming extends AbstractCheck {
 
         String sMemberOrParamName = detailast.findFirstToken( TokenTypes.IDENT ).getText();
 
-        // index we're looking at in name (incremented for static and array prefixes)
-        int iNameStartIndex = 0;
+        int iFlags = 0;
 
         // check for static member
-        if( isStatic( detailast ) ) {
-            if ( !sMemberOrParamName.startsWith( "s", iNameStartIndex ) )
-                log( detailast.getLineNo(), String.format( ssWarningMsg, "static", sTerminalName, sMemberOrParamName, "s" ) );
-            else
-                iNameStartIndex++;
-        }
+        if( isStatic( detailast ) )
+            iFlags |= DeclarationCache.siFlagStatic;
 
         // check for variable length argument list
-        if( detailast.findFirstToken( TokenTypes.ELLIPSIS ) != null ) {
-            if ( !sMemberOrParamName.startsWith( "a", iNameStartIndex ) )
-                log( detailast.getLineNo(), String.format( ssWarningMsg, "varargs", sTerminalName, sMemberOrParamName, "a" ) );
-            else
-                iNameStartIndex++;
-        }
+        if( detailast.findFirstToken( TokenTypes.ELLIPSIS ) != null )
+            iFlags |= DeclarationCache.siFlagVarargs;
 
-        // find type of member or parameter (always present)
-        DetailAST detailastType = detailast.findFirstToken( TokenTypes.TYPE );
+        // walk down the type once, skipping any array declarators (more than one for
+        // multidimensional arrays) to reach the element type
+        DetailAST detailastElement = detailast.findFirstToken( TokenTypes.TYPE ).getFirstChild();
 
-        // AST after any array declarators
-        DetailAST detailastAfterArray = detailastType;
+        // lambda parameters can leave out their type, so there's nothing to check
+        if( detailastElement == null )
+            return;
 
         // check for array member or parameter
-        if( detailastType.getFirstChild().getType() == TokenTypes.ARRAY_DECLARATOR ) {
+        if( detailastElement.getType() == TokenTypes.ARRAY_DECLARATOR ) {
+            while( detailastElement.getType() == TokenTypes.ARRAY_DECLARATOR )
+                detailastElement = detailastElement.getFirstChild();
 
-            // find the last ARRAY_DECLARATOR (more than one for multidimensional arrays)
-            detailastAfterArray = detailastType.getFirstChild();
-            while( detailastAfterArray.getType() == TokenTypes.ARRAY_DECLARATOR )
-                detailastAfterArray = detailastAfterArray.getFirstChild();
-
-            detailastAfterArray = detailastAfterArray.getParent();
-
-            if( !sMemberOrParamName.startsWith( "a", iNameStartIndex ) )
-                log( detailast.getLineNo(), String.format( ssWarningMsg, "array", sTerminalName, sMemberOrParamName, "a" ) );
-            else
-                iNameStartIndex++;
+            iFlags |= DeclarationCache.siFlagArray;
         }
 
-        // check for native types
-        for( int i = 0; i < saiNativeTokenTypes.length; i++ ) {
-            if( (detailastType.getFirstChild() != null) && detailastType.getFirstChild().branchContains( saiNativeTokenTypes[i] ) ) {
-                if( !sMemberOrParamName.startsWith( sasNativePrefixes[i], iNameStartIndex ) )
-                    log( detailast.getLineNo(), String.format( ssWarningMsg, sasNativeTypeNames[i], sTerminalName, sMemberOrParamName, sasNativePrefixes[i] ) );
-
+        // native types are named by their keyword, classes by their last identifier (or
+        // by their qualified name, if qualified and nested rules need it)
+        int iElementType = detailastElement.getType();
+        String sTypeName;
+        if( (iElementType < sabNativeByTokenType.length) && sabNativeByTokenType[iElementType] )
+            sTypeName = detailastElement.getText();
+        else {
+            sTypeName = findClassName( detailastElement );
+            if( sTypeName == null )
                 return;
+            if( bResolveTypes ) {
+                StringBuilder sb = new StringBuilder();
+                sTypeName = resolveTypeName( appendDottedName( detailastElement, sb ) ? sb.toString() : sTypeName );
             }
         }
 
-        String sClassName = findClassName( detailastAfterArray.getFirstChild() );
+        checkName( detailast.getLineNo(), sTerminalName, sMemberOrParamName, iFlags, sTypeName );
+    }
+
+    //==============================================================================
+    /**
+     * Checks the name of one parameter or variable declaration against the prefix its
+     * type and flags need, and logs the missing parts.
+     *
+     * @param iLine Line to log violations at.
+     * @param sTerminalName {@link #ssMember} or {@link #ssParameter}.
+     * @param sMemberOrParamName Name of the declared parameter or variable.
+     * @param iFlags Combination of the static, varargs, and array flags from {@link DeclarationCache}.
+     * @param sTypeName Simple name of the element type (or native type keyword), or its
+     * qualified name if type names are being resolved.
+     */
+    void checkName( int iLine, String sTerminalName, String sMemberOrParamName, int iFlags, String sTypeName ) {
 
-        // check for String
-        if ( sClassName.equals( "String" ) ) {
-            if( !sMemberOrParamName.startsWith( "s", iNameStartIndex ) )
-                log( detailast.getLineNo(), String.format( ssWarningMsg, "String", sTerminalName, sMemberOrParamName, "s" ) );
+        DeclarationCache<DeclarationVerdict> declarationcache = prefixtable.getDeclarationCache();
+        DeclarationVerdict declarationverdict = declarationcache.get( sTypeName, iFlags );
+        if( declarationverdict == null ) {
+            declarationverdict = classify( sTypeName, iFlags );
+            declarationcache.put( sTypeName, iFlags, declarationverdict );
         }
-        // check for StringBuffer or StringBuilder
-        else if( sClassName.equals( "StringBuffer" ) || sClassName.equals( "StringBuilder" ) ) {
-            if( !sMemberOrParamName.startsWith( "sb", iNameStartIndex ) )
-                log( detailast.getLineNo(), String.format( ssWarningMsg, "StringBuffer or StringBuilder", sTerminalName, sMemberOrParamName, "sb" ) );
+
+        // index we're looking at in name (incremented past each prefix part that's present)
+        int iNameStartIndex = 0;
+
+        // missing parts listed for a merged violation (only allocated if a part is missing)
+        StringBuilder sbMissingParts = null;
+
+        // baseline is only looked up once a part is found missing
+        boolean bBaselineChecked = false;
+
+        // violations logged for this declaration
+        int iViolations = 0;
+
+        for( Prefix prefix : declarationverdict.aprefixParts ) {
+            if( !sMemberOrParamName.startsWith( prefix.sPrefix, iNameStartIndex ) ) {
+                if( (baselinefilter != null) && !bBaselineChecked ) {
+                    if( baselinefilter.isKnown( sMemberOrParamName, bMergeViolations ? ssMergedWarningKey : ssWarningKey ) )
+                        return;
+                    bBaselineChecked = true;
+                }
+
+                if( !bMergeViolations ) {
+                    log( iLine, ssWarningKey, prefix.sTypeName, sTerminalName, sMemberOrParamName, prefix.sPrefix );
+                    iViolations++;
+                }
+                else {
+                    sbMissingParts = sbMissingParts == null ? new StringBuilder() : sbMissingParts.append( ", " );
+                    sbMissingParts.append( prefix.sTypeName ).append( " '" ).append( prefix.sPrefix ).append( '\'' );
+                }
+
+                if( checkcounters != null )
+                    checkcounters.addViolation( kindOf( prefix ) );
+            }
+            else
+                iNameStartIndex += prefix.sPrefix.length();
         }
-        // check for Object
-        else if( sClassName.equals( "Object" ) ) {
-            if( !sMemberOrParamName.startsWith( "o", iNameStartIndex ) )
-                log( detailast.getLineNo(), String.format( ssWarningMsg, "Object", sTerminalName, sMemberOrParamName, "o" ) );
+
+        if( sbMissingParts != null ) {
+            log( iLine, ssMergedWarningKey, sTerminalName, sMemberOrParamName, declarationverdict.sRequiredPrefix,
+                 sbMissingParts.toString() );
+            iViolations++;
         }
-        // check any other class type for prepended lowercase class name
-        else {
-            String sLowercaseClassName = sClassName.toLowerCase();
-    
-            if( !sMemberOrParamName.startsWith( sLowercaseClassName, iNameStartIndex ) )
-                log( detailast.getLineNo(), String.format( ssWarningMsg, sClassName, sTerminalName, sMemberOrParamName, sLowercaseClassName ) );
+
+        if( iViolations > 0 )
+            addViolations( iViolations );
+    }
+
+    //==============================================================================
+    /**
+     * Tells whether the current file has reached its violation limit, so a declaration
+     * should be skipped, and counts it as not checked if so. Called before any work on
+     * the declaration's name or type.
+     *
+     * @param iLine Line of the declaration.
+     * @return true if the declaration should be skipped.
+     */
+    boolean skipIfStopped( int iLine ) {
+
+        if( (iMaxViolationsPerFile <= 0) || (iFileViolations < iMaxViolationsPerFile) )
+            return( false );
+
+        if( iSkippedDeclarations == 0 )
+            iFirstSkippedLine = iLine;
+        iSkippedDeclarations++;
+        return( true );
+    }
+
+    //==============================================================================
+    /**
+     * Counts violations toward the per-file and fail-fast limits.
+     *
+     * @param iViolations Number of violations just logged.
+     * @throws IllegalStateException if the fail-fast limit is reached.
+     */
+    private void addViolations( int iViolations ) {
+
+        iFileViolations += iViolations;
+        if( iMaxViolations > 0 ) {
+            ViolationCount violationcount = ViolationCount.getCurrent();
+            int iTotal = (violationcount != null ? violationcount : violationcountOwn).add( iViolations );
+            if( iTotal >= iMaxViolations )
+                throw new IllegalStateException( "HungarianNaming aborted the audit after " + iTotal + " violations (maxViolations is "
+                                                 + iMaxViolations + ")" );
         }
     }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @param prefix Prefix part that was missing.
+     * @return the kind of violation for the metrics.
+     */
+    private static CheckMetrics.Kind kindOf( Prefix prefix ) {
+
+        if( prefix == Prefix.sprefixStatic )
+            return( CheckMetrics.Kind.STATIC );
+        if( prefix == Prefix.sprefixVarargs )
+            return( CheckMetrics.Kind.VARARGS );
+        if( prefix == Prefix.sprefixArray )
+            return( CheckMetrics.Kind.ARRAY );
+        return( CheckMetrics.Kind.TYPE_PREFIX );
+    }
 }
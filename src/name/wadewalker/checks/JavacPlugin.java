@@ -0,0 +1,802 @@
+package name.wadewalker.checks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+import javax.lang.model.element.Modifier;
+import javax.tools.Diagnostic;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.LocalizedMessage;
+import com.puppycrawl.tools.checkstyle.api.LocalizedMessages;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.utils.CommonUtils;
+import com.sun.source.doctree.DocCommentTree;
+import com.sun.source.doctree.DocTree;
+import com.sun.source.tree.AnnotatedTypeTree;
+import com.sun.source.tree.ArrayTypeTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.ImportTree;
+import com.sun.source.tree.LineMap;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.NewClassTree;
+import com.sun.source.tree.ParameterizedTypeTree;
+import com.sun.source.tree.PrimitiveTypeTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.DocSourcePositions;
+import com.sun.source.util.DocTrees;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.Plugin;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import com.sun.source.util.TreePathScanner;
+
+//==============================================================================
+/**
+ * Runs the rules of {@link HungarianNaming} and {@link JavadocTemplate} inside javac,
+ * on the trees and doc comments javac has already built, so sources don't have to be
+ * parsed again by Checkstyle. Each file is checked as soon as javac has parsed it, so
+ * files that don't compile are still checked. Violations get the same messages as
+ * Checkstyle's, and are reported as compiler warnings or errors.
+ *
+ * <pre>
+ * javac -processorpath checks.jar:checkstyle-all.jar -Xplugin:"WadeWalkerChecks [name=value]..." ...
+ * </pre>
+ *
+ * Options are "severity" ("warning" or "error"), "hungarianNaming" and "javadocTemplate"
+ * (false to turn off either rule), HungarianNaming's "prefixes" (comma-separated),
+ * "prefixFile", "mergeViolations", and "typeIndexRoots" (comma-separated), and "report",
+ * naming a file to also write the violations to in Checkstyle's plain format, with
+ * file names relative to the "basedir" option.
+ *
+ * A compiler diagnostic can only point at a tree, so comment bar and copyright
+ * violations point at their declaration, and HungarianNaming and trivial parameter
+ * violations at the first line of their declaration or their @param tag. The report
+ * has the exact lines Checkstyle gives. javac prints at most 100 warnings unless
+ * -Xmaxwarns is raised.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class JavacPlugin implements Plugin {
+
+    /** Name of the plug-in, as given to javac's -Xplugin option. */
+    private static final String ssName = "WadeWalkerChecks";
+
+    /** Module name printed with HungarianNaming violations. */
+    private static final String ssHungarianNamingModule = "HungarianNaming";
+
+    /** Module name printed with JavadocTemplate violations. */
+    private static final String ssJavadocTemplateModule = "JavadocTemplate";
+
+    /** Severity of the violations. */
+    private SeverityLevel severitylevel = SeverityLevel.WARNING;
+
+    /** Kind of compiler diagnostic the violations are reported as. */
+    private Diagnostic.Kind kind = Diagnostic.Kind.WARNING;
+
+    /** HungarianNaming rule (null if it's turned off). */
+    private HungarianNaming hungariannaming;
+
+    /** Where HungarianNaming logs the violations of each declaration. */
+    private final LocalizedMessages localizedmessages = new LocalizedMessages();
+
+    /** True if the JavadocTemplate rule is on. */
+    private boolean bJavadocTemplate = true;
+
+    /** Text of the comment bar message. */
+    private String sCommentBarMessage;
+
+    /** Text of the copyright message. */
+    private String sCopyrightMessage;
+
+    /** Text of the trivial parameter message. */
+    private String sTrivialParamMessage;
+
+    /** Base directory stripped from file names in the report (or null to leave them absolute). */
+    private String sBasedir;
+
+    /** File the violations are also written to (or null if there isn't one). */
+    private File fileReport;
+
+    /** javac's trees, doc comments, and their positions. */
+    private DocTrees doctrees;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public JavacPlugin() {
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the name of the plug-in.
+     * @see com.sun.source.util.Plugin#getName()
+     */
+    public String getName() {
+        return( ssName );
+    }
+
+    //==============================================================================
+    /**
+     * Reads the options, and starts checking each file as javac parses it.
+     *
+     * @param javactask Compilation being run.
+     * @param asArgs Options, each of the form "name=value".
+     * @throws IllegalArgumentException if an option is unknown or has a bad value.
+     * @see com.sun.source.util.Plugin#init(com.sun.source.util.JavacTask, java.lang.String[])
+     */
+    public void init( JavacTask javactask, String... asArgs ) {
+
+        DefaultConfiguration defaultconfigurationHungarianNaming = new DefaultConfiguration( HungarianNaming.class.getName() );
+        boolean bHungarianNaming = true;
+
+        for( String sArg : asArgs ) {
+            int iEquals = sArg.indexOf( '=' );
+            if( iEquals < 0 )
+                throw new IllegalArgumentException( "Option '" + sArg + "' of " + ssName + " isn't of the form name=value" );
+
+            String sName = sArg.substring( 0, iEquals );
+            String sValue = sArg.substring( iEquals + 1 );
+            if( sName.equals( "hungarianNaming" ) )
+                bHungarianNaming = Boolean.parseBoolean( sValue );
+            else if( sName.equals( "javadocTemplate" ) )
+                bJavadocTemplate = Boolean.parseBoolean( sValue );
+            else
+                setOption( defaultconfigurationHungarianNaming, sName, sValue );
+        }
+
+        if( bHungarianNaming ) {
+            hungariannaming = new HungarianNaming();
+            try {
+                hungariannaming.configure( defaultconfigurationHungarianNaming );
+            }
+            catch( CheckstyleException checkstyleexception ) {
+                throw new IllegalArgumentException( "Bad HungarianNaming option of " + ssName, checkstyleexception );
+            }
+            hungariannaming.init();
+            hungariannaming.setMessages( localizedmessages );
+        }
+
+        ResourceBundle resourcebundle = ResourceBundle.getBundle( MappedJavadocTemplate.ssMessagesBundle, Locale.getDefault() );
+        sCommentBarMessage = MappedJavadocTemplate.formatMessage( resourcebundle, MappedJavadocTemplate.ssCommentBarWarningKey );
+        sCopyrightMessage = MappedJavadocTemplate.formatMessage( resourcebundle, MappedJavadocTemplate.ssCopyrightWarningKey );
+        sTrivialParamMessage = MappedJavadocTemplate.formatMessage( resourcebundle, MappedJavadocTemplate.ssTrivialParamWarningKey );
+
+        if( fileReport != null )
+            startReport();
+
+        doctrees = DocTrees.instance( javactask );
+        javactask.addTaskListener( new TaskListener() {
+            public void started( TaskEvent taskevent ) {
+            }
+
+            public void finished( TaskEvent taskevent ) {
+                if( taskevent.getKind() == TaskEvent.Kind.PARSE )
+                    checkUnit( taskevent.getCompilationUnit() );
+            }
+        } );
+    }
+
+    //==============================================================================
+    /**
+     * Sets one option besides the ones that turn the rules on and off.
+     *
+     * @param defaultconfigurationHungarianNaming Configuration of the HungarianNaming rule, given its options as attributes.
+     * @param sName Name of the option.
+     * @param sValue Value of the option.
+     * @throws IllegalArgumentException if the option is unknown or has a bad value.
+     */
+    private void setOption( DefaultConfiguration defaultconfigurationHungarianNaming, String sName, String sValue ) {
+
+        if( sName.equals( "severity" ) ) {
+            severitylevel = SeverityLevel.getInstance( sValue );
+            if( (severitylevel != SeverityLevel.WARNING) && (severitylevel != SeverityLevel.ERROR) )
+                throw new IllegalArgumentException( "Severity of " + ssName + " must be warning or error, not " + sValue );
+            kind = severitylevel == SeverityLevel.ERROR ? Diagnostic.Kind.ERROR : Diagnostic.Kind.WARNING;
+        }
+        else if(    sName.equals( "prefixes" ) || sName.equals( "prefixFile" ) || sName.equals( "mergeViolations" )
+                 || sName.equals( "typeIndexRoots" ) )
+            defaultconfigurationHungarianNaming.addAttribute( sName, sValue );
+        else if( sName.equals( "report" ) )
+            fileReport = new File( sValue );
+        else if( sName.equals( "basedir" ) )
+            sBasedir = sValue;
+        else
+            throw new IllegalArgumentException( "Unknown option '" + sName + "' of " + ssName );
+    }
+
+    //==============================================================================
+    /**
+     * Empties the report file.
+     *
+     * @throws IllegalArgumentException if the file can't be written.
+     */
+    private void startReport() {
+        try {
+            new FileOutputStream( fileReport ).close();
+        }
+        catch( IOException ioexception ) {
+            throw new IllegalArgumentException( "Unable to write report " + fileReport, ioexception );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Checks one parsed file, and reports its violations.
+     *
+     * @param compilationunittree Tree of the file.
+     */
+    private void checkUnit( CompilationUnitTree compilationunittree ) {
+
+        UnitScanner unitscanner = new UnitScanner( compilationunittree );
+        unitscanner.scan( compilationunittree, null );
+        unitscanner.report();
+    }
+
+    //==============================================================================
+    /**
+     * Finds the package, imports, and declared types of a file from its tree.
+     *
+     * @param compilationunittree Tree of the file.
+     * @return the types of the file.
+     */
+    private static TypeIndex.FileTypes findFileTypes( CompilationUnitTree compilationunittree ) {
+
+        List<String> listImports = new ArrayList<String>();
+        for( ImportTree importtree : compilationunittree.getImports() ) {
+            if( !importtree.isStatic() )
+                listImports.add( importtree.getQualifiedIdentifier().toString() );
+        }
+
+        String sPackage = compilationunittree.getPackageName() != null ? compilationunittree.getPackageName().toString() : null;
+        Map<String, String> mapDeclared = new HashMap<String, String>();
+        for( Tree tree : compilationunittree.getTypeDecls() )
+            addDeclaredTypes( tree, sPackage != null ? sPackage + "." : "", mapDeclared );
+
+        return( new TypeIndex.FileTypes( sPackage, listImports, mapDeclared ) );
+    }
+
+    //==============================================================================
+    /**
+     * Adds a type declaration and the types nested in it to a map.
+     *
+     * @param tree Tree that may be a type declaration.
+     * @param sQualifier Package or enclosing type name to qualify the type with, ending in ".".
+     * @param mapDeclared Where to put the qualified type names, indexed by simple name.
+     */
+    private static void addDeclaredTypes( Tree tree, String sQualifier, Map<String, String> mapDeclared ) {
+
+        if( !(tree instanceof ClassTree) )
+            return;
+
+        String sName = ((ClassTree)tree).getSimpleName().toString();
+        String sQualifiedName = sQualifier + sName;
+        if( !mapDeclared.containsKey( sName ) )
+            mapDeclared.put( sName, sQualifiedName );
+
+        for( Tree treeMember : ((ClassTree)tree).getMembers() )
+            addDeclaredTypes( treeMember, sQualifiedName + ".", mapDeclared );
+    }
+
+    //==============================================================================
+    /**
+     * Appends a type name to a string builder, skipping any type arguments and
+     * annotations inside it.
+     *
+     * @param tree Tree of the type (after any array types).
+     * @param sb Where to append the name.
+     * @return true if the whole name was appended, false if the type isn't a class name
+     * (like a union of exception types).
+     */
+    private static boolean appendTypeName( Tree tree, StringBuilder sb ) {
+
+        switch( tree.getKind() ) {
+        case IDENTIFIER:
+            sb.append( ((IdentifierTree)tree).getName() );
+            return( true );
+        case MEMBER_SELECT:
+            if( !appendTypeName( ((MemberSelectTree)tree).getExpression(), sb ) )
+                return( false );
+            sb.append( '.' ).append( ((MemberSelectTree)tree).getIdentifier() );
+            return( true );
+        case PARAMETERIZED_TYPE:
+            return( appendTypeName( ((ParameterizedTypeTree)tree).getType(), sb ) );
+        case ANNOTATED_TYPE:
+            return( appendTypeName( ((AnnotatedTypeTree)tree).getUnderlyingType(), sb ) );
+        default:
+            return( false );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @param variabletree Variable declared in a type body.
+     * @param treeParent Type the variable is declared in.
+     * @return true if the variable is an enum constant (which javac gives the type of
+     * its enum and an initializer creating one), false otherwise.
+     */
+    private static boolean isEnumConstant( VariableTree variabletree, Tree treeParent ) {
+
+        if( treeParent.getKind() != Tree.Kind.ENUM )
+            return( false );
+
+        Tree treeInitializer = variabletree.getInitializer();
+        return(    (treeInitializer instanceof NewClassTree)
+                && ((NewClassTree)treeInitializer).getIdentifier().toString().equals( ((ClassTree)treeParent).getSimpleName().toString() ) );
+    }
+
+    //==============================================================================
+    /**
+     * One violation found in a file, and where to point its compiler diagnostic.
+     */
+    private static final class Finding {
+
+        /** The violation. */
+        final Violation violation;
+
+        /** Tree to point the diagnostic at. */
+        final Tree tree;
+
+        /** Doc comment tree to point the diagnostic at instead (or null to use the tree). */
+        final DocTree doctree;
+
+        /** Doc comment holding the doc comment tree (or null if there isn't one). */
+        final DocCommentTree doccommenttree;
+
+        //==============================================================================
+        /**
+         * Constructor.
+         *
+         * @param violationIn The violation.
+         * @param treeIn Tree to point the diagnostic at.
+         * @param doctreeIn Doc comment tree to point the diagnostic at instead (or null to use the tree).
+         * @param doccommenttreeIn Doc comment holding the doc comment tree (or null if there isn't one).
+         */
+        Finding( Violation violationIn, Tree treeIn, DocTree doctreeIn, DocCommentTree doccommenttreeIn ) {
+            violation = violationIn;
+            tree = treeIn;
+            doctree = doctreeIn;
+            doccommenttree = doccommenttreeIn;
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Walks the tree of one file, applying the rules to its declarations.
+     */
+    private final class UnitScanner extends TreePathScanner<Void, Void> {
+
+        /** Tree of the file. */
+        private final CompilationUnitTree compilationunittree;
+
+        /** Line numbers of positions in the file. */
+        private final LineMap linemap;
+
+        /** Positions of trees and doc comment trees. */
+        private final DocSourcePositions docsourcepositions;
+
+        /** File name printed in the report. */
+        private final String sFileName;
+
+        /** Text of the file (read only when a doc comment or array parameter needs checking). */
+        private String sSource;
+
+        /** Violations found so far. */
+        private final List<Finding> listFindings = new ArrayList<Finding>();
+
+        /** Number of named types enclosing the current tree. */
+        private int iTypeDepth;
+
+        //==============================================================================
+        /**
+         * Constructor.
+         *
+         * @param compilationunittreeIn Tree of the file.
+         */
+        UnitScanner( CompilationUnitTree compilationunittreeIn ) {
+
+            compilationunittree = compilationunittreeIn;
+            linemap = compilationunittree.getLineMap();
+            docsourcepositions = doctrees.getSourcePositions();
+
+            String sPath = new File( compilationunittree.getSourceFile().getName() ).getAbsolutePath();
+            sFileName = sBasedir != null ? CommonUtils.relativizeAndNormalizePath( sBasedir, sPath ) : sPath;
+
+            if( hungariannaming != null )
+                hungariannaming.beginFile( sPath, hungariannaming.isResolvingTypes() ? findFileTypes( compilationunittree ) : null );
+        }
+
+        //==============================================================================
+        /**
+         * Checks the Javadoc of a class or interface, and counts it for nesting (unless it's anonymous).
+         *
+         * @param classtree Type declaration.
+         * @param voidUnused Nothing (the scanner passes no data).
+         * @return null.
+         * @see com.sun.source.util.TreeScanner#visitClass(com.sun.source.tree.ClassTree, java.lang.Object)
+         */
+        @Override
+        public Void visitClass( ClassTree classtree, Void voidUnused ) {
+
+            // anonymous classes don't count for nesting
+            if( classtree.getSimpleName().length() == 0 )
+                return( super.visitClass( classtree, voidUnused ) );
+
+            Tree.Kind kindType = classtree.getKind();
+            if( bJavadocTemplate && ((kindType == Tree.Kind.CLASS) || (kindType == Tree.Kind.INTERFACE)) )
+                checkJavadoc( classtree, kindType == Tree.Kind.CLASS ? SourceScan.siDeclClass : SourceScan.siDeclInterface );
+
+            iTypeDepth++;
+            super.visitClass( classtree, voidUnused );
+            iTypeDepth--;
+            return( null );
+        }
+
+        //==============================================================================
+        /**
+         * Checks the Javadoc of a method or constructor (but not of an annotation type element).
+         *
+         * @param methodtree Method declaration.
+         * @param voidUnused Nothing (the scanner passes no data).
+         * @return null.
+         * @see com.sun.source.util.TreeScanner#visitMethod(com.sun.source.tree.MethodTree, java.lang.Object)
+         */
+        @Override
+        public Void visitMethod( MethodTree methodtree, Void voidUnused ) {
+            if( bJavadocTemplate && (getCurrentPath().getParentPath().getLeaf().getKind() != Tree.Kind.ANNOTATION_TYPE) )
+                checkJavadoc( methodtree, SourceScan.siDeclMethod );
+            return( super.visitMethod( methodtree, voidUnused ) );
+        }
+
+        //==============================================================================
+        /**
+         * Checks the name of a parameter or variable.
+         *
+         * @param variabletree Parameter or variable declaration.
+         * @param voidUnused Nothing (the scanner passes no data).
+         * @return null.
+         * @see com.sun.source.util.TreeScanner#visitVariable(com.sun.source.tree.VariableTree, java.lang.Object)
+         */
+        @Override
+        public Void visitVariable( VariableTree variabletree, Void voidUnused ) {
+            if( hungariannaming != null )
+                checkVariable( variabletree );
+            return( super.visitVariable( variabletree, voidUnused ) );
+        }
+
+        //==============================================================================
+        /**
+         * Applies the HungarianNaming rule to a parameter or variable, like
+         * HungarianNaming does for Checkstyle's PARAMETER_DEF and VARIABLE_DEF tokens.
+         *
+         * @param variabletree Parameter or variable declaration.
+         */
+        private void checkVariable( VariableTree variabletree ) {
+
+            Tree treeParent = getCurrentPath().getParentPath().getLeaf();
+            Tree.Kind kindParent = treeParent.getKind();
+
+            // resources and enum constants aren't variables to Checkstyle, and lambda
+            // parameters can leave out their type
+            Tree treeType = variabletree.getType();
+            if( (kindParent == Tree.Kind.TRY) || isEnumConstant( variabletree, treeParent ) || (treeType == null) )
+                return;
+
+            // past the file's violation limit, skip it before any name or type work
+            int iLine = (int)linemap.getLineNumber( docsourcepositions.getStartPosition( compilationunittree, variabletree ) );
+            if( hungariannaming.skipIfStopped( iLine ) )
+                return;
+
+            boolean bParameter =    (kindParent == Tree.Kind.METHOD) || (kindParent == Tree.Kind.LAMBDA_EXPRESSION)
+                                 || (kindParent == Tree.Kind.CATCH);
+            String sName = variabletree.getName().toString();
+
+            int iFlags = 0;
+            if( variabletree.getModifiers().getFlags().contains( Modifier.STATIC ) )
+                iFlags |= DeclarationCache.siFlagStatic;
+
+            // javac gives varargs an array type, so they're told apart by their source
+            Tree treeElement = treeType;
+            if( bParameter && (treeElement.getKind() == Tree.Kind.ARRAY_TYPE) && isVarargs( (ArrayTypeTree)treeElement ) ) {
+                treeElement = ((ArrayTypeTree)treeElement).getType();
+                iFlags |= DeclarationCache.siFlagVarargs;
+            }
+
+            if( treeElement.getKind() == Tree.Kind.ARRAY_TYPE ) {
+                while( treeElement.getKind() == Tree.Kind.ARRAY_TYPE )
+                    treeElement = ((ArrayTypeTree)treeElement).getType();
+                iFlags |= DeclarationCache.siFlagArray;
+            }
+
+            String sTypeName;
+            if( treeElement.getKind() == Tree.Kind.PRIMITIVE_TYPE )
+                sTypeName = ((PrimitiveTypeTree)treeElement).getPrimitiveTypeKind().name().toLowerCase( Locale.ENGLISH );
+            else {
+                StringBuilder sb = new StringBuilder();
+                if( !appendTypeName( treeElement, sb ) )
+                    return;
+                sTypeName =   hungariannaming.isResolvingTypes()
+                            ? hungariannaming.resolveTypeName( sb.toString() )
+                            : sb.substring( sb.lastIndexOf( "." ) + 1 );
+            }
+
+            // Checkstyle gives the line of the first modifier, or of the type if there aren't any
+            Tree treeStart =   docsourcepositions.getStartPosition( compilationunittree, variabletree.getModifiers() ) >= 0
+                             ? variabletree.getModifiers()
+                             : treeType;
+
+            hungariannaming.checkName( iLine, bParameter ? HungarianNaming.ssParameter : HungarianNaming.ssMember, sName, iFlags, sTypeName );
+            for( LocalizedMessage localizedmessage : localizedmessages.getMessages() )
+                addFinding( localizedmessage.getLineNo(), ssHungarianNamingModule, localizedmessage.getMessage(), treeStart, null, null );
+            localizedmessages.reset();
+        }
+
+        //==============================================================================
+        /**
+         * Applies the JavadocTemplate rules to the Javadoc of a type or method, if
+         * Checkstyle would see it as that declaration's Javadoc.
+         *
+         * @param treeDecl Type or method declaration.
+         * @param iKind {@link SourceScan#siDeclClass}, {@link SourceScan#siDeclInterface}, or {@link SourceScan#siDeclMethod}.
+         */
+        private void checkJavadoc( Tree treeDecl, int iKind ) {
+
+            DocCommentTree doccommenttree = doctrees.getDocCommentTree( getCurrentPath() );
+            if( doccommenttree == null )
+                return;
+            if( sSource == null )
+                sSource = readSource();
+
+            // Checkstyle only takes a Javadoc ending on the last line before the
+            // declaration that isn't blank or a line comment
+            int iDeclStart = (int)docsourcepositions.getStartPosition( compilationunittree, treeDecl );
+            int iExpectedEnd = (int)linemap.getLineNumber( iDeclStart ) - 1;
+            while( (iExpectedEnd > 1) && isBlankOrLineComment( getLine( iExpectedEnd ) ) )
+                iExpectedEnd--;
+
+            // an empty doc comment has no position, so it's the last comment before the declaration
+            int iBodyStart = (int)docsourcepositions.getStartPosition( compilationunittree, doccommenttree, doccommenttree );
+            int iCommentEnd = iBodyStart >= 0 ? sSource.indexOf( "*/", iBodyStart ) : sSource.lastIndexOf( "*/", iDeclStart );
+            int iCommentStart = sSource.lastIndexOf( "/**", iBodyStart >= 0 ? iBodyStart : iCommentEnd );
+            if( (iCommentEnd < 0) || (iCommentStart < 0) || (linemap.getLineNumber( iCommentEnd ) != iExpectedEnd) )
+                return;
+
+            int iJavadocStart = (int)linemap.getLineNumber( iCommentStart );
+            int iJavadocEnd = iExpectedEnd;
+
+            // don't check comment bars of nested classes
+            boolean bTypeDef = iKind != SourceScan.siDeclMethod;
+            if( iTypeDepth <= (bTypeDef ? 0 : 1) ) {
+                int iBarLine = iJavadocStart - 1;
+                if(    (iBarLine < 1)
+                    || !(bTypeDef ? JavadocLineScanner.isClassCommentBar( getLine( iBarLine ) )
+                                  : JavadocLineScanner.isMethodCommentBar( getLine( iBarLine ) )) )
+                    addFinding( iBarLine, ssJavadocTemplateModule, sCommentBarMessage, treeDecl, null, null );
+            }
+
+            // copyright line only needed in top classes (this skips the first and last lines of the Javadoc)
+            if( (iKind == SourceScan.siDeclClass) && (iTypeDepth == 0) ) {
+                boolean bCopyright = false;
+                for( int iLine = iJavadocStart + 1; !bCopyright && (iLine < iJavadocEnd); iLine++ )
+                    bCopyright = JavadocLineScanner.isCopyright( getLine( iLine ) );
+                if( !bCopyright )
+                    addFinding( iJavadocEnd, ssJavadocTemplateModule, sCopyrightMessage, treeDecl, null, null );
+            }
+
+            // parameter check only in methods
+            if( iKind == SourceScan.siDeclMethod ) {
+                for( int iLine = iJavadocStart + 1; iLine < iJavadocEnd; iLine++ ) {
+                    if( JavadocLineScanner.isTrivialParam( getLine( iLine ) ) )
+                        addFinding( iLine, ssJavadocTemplateModule, sTrivialParamMessage, treeDecl, findTag( doccommenttree, iLine ), doccommenttree );
+                }
+            }
+        }
+
+        //==============================================================================
+        /**
+         * Finds the block tag starting on a line of a doc comment.
+         *
+         * @param doccommenttree Doc comment to search.
+         * @param iLine Line of the tag.
+         * @return the tag, or null if no tag starts on the line.
+         */
+        private DocTree findTag( DocCommentTree doccommenttree, int iLine ) {
+
+            for( DocTree doctree : doccommenttree.getBlockTags() ) {
+                if( linemap.getLineNumber( docsourcepositions.getStartPosition( compilationunittree, doccommenttree, doctree ) ) == iLine )
+                    return( doctree );
+            }
+            return( null );
+        }
+
+        //==============================================================================
+        /**
+         * Tells whether a parameter's array type was written as varargs: whether "..."
+         * comes between the end of its innermost element type and the end of the
+         * parameter (a "," or ")" outside any annotation arguments or type arguments).
+         * The innermost type is used because javac stretches the inner array type of
+         * "int [] ..." over the "...". When javac keeps no end positions (as on the
+         * command line), the search starts at the start of the element type instead,
+         * which finds the same "...".
+         *
+         * @param arraytypetree Outermost array type of the parameter.
+         * @return true if the parameter is varargs.
+         */
+        private boolean isVarargs( ArrayTypeTree arraytypetree ) {
+
+            if( sSource == null )
+                sSource = readSource();
+
+            Tree treeElement = arraytypetree.getType();
+            while( treeElement.getKind() == Tree.Kind.ARRAY_TYPE )
+                treeElement = ((ArrayTypeTree)treeElement).getType();
+            int iPos = (int)docsourcepositions.getEndPosition( compilationunittree, treeElement );
+            if( iPos < 0 )
+                iPos = (int)docsourcepositions.getStartPosition( compilationunittree, treeElement );
+            if( iPos < 0 )
+                return( false );
+
+            int iDepth = 0;
+            while( iPos < sSource.length() ) {
+                char c = sSource.charAt( iPos );
+                if( sSource.startsWith( "//", iPos ) ) {
+                    while( (iPos < sSource.length()) && (sSource.charAt( iPos ) != '\n') )
+                        iPos++;
+                }
+                else if( sSource.startsWith( "/*", iPos ) ) {
+                    int iCommentEnd = sSource.indexOf( "*/", iPos + 2 );
+                    iPos = iCommentEnd < 0 ? sSource.length() : iCommentEnd + 2;
+                }
+                else if( (c == '"') || (c == '\'') ) {
+                    iPos++;
+                    while( (iPos < sSource.length()) && (sSource.charAt( iPos ) != c) )
+                        iPos += sSource.charAt( iPos ) == '\\' ? 2 : 1;
+                    iPos++;
+                }
+                else if( (iDepth == 0) && sSource.startsWith( "...", iPos ) )
+                    return( true );
+                else {
+                    if( (c == '(') || (c == '<') )
+                        iDepth++;
+                    else if( (iDepth > 0) && ((c == ')') || (c == '>')) )
+                        iDepth--;
+                    else if( (c == ',') || (c == ')') )
+                        return( false );
+                    iPos++;
+                }
+            }
+            return( false );
+        }
+
+        //==============================================================================
+        /**
+         * Reads the text of the file from javac's file object.
+         *
+         * @return the text.
+         */
+        private String readSource() {
+            try {
+                return( compilationunittree.getSourceFile().getCharContent( true ).toString() );
+            }
+            catch( IOException ioexception ) {
+                doctrees.printMessage( Diagnostic.Kind.ERROR, ssName + " is unable to read " + sFileName + ": " + ioexception.getMessage(),
+                                       compilationunittree, compilationunittree );
+                return( "" );
+            }
+        }
+
+        //==============================================================================
+        /**
+         * Accessor.
+         * @param iLine Line number, starting from 1.
+         * @return the text of the line, without its terminator.
+         */
+        private String getLine( int iLine ) {
+
+            int iStart = (int)linemap.getStartPosition( iLine );
+            int iEnd = iStart;
+            while( (iEnd < sSource.length()) && (sSource.charAt( iEnd ) != '\n') && (sSource.charAt( iEnd ) != '\r') )
+                iEnd++;
+            return( sSource.substring( iStart, iEnd ) );
+        }
+
+        //==============================================================================
+        /**
+         * Accessor.
+         * @param sLine Line of the file.
+         * @return true if the line is blank or holds only a line comment, false otherwise.
+         */
+        private boolean isBlankOrLineComment( String sLine ) {
+            String sTrimmed = sLine.trim();
+            return( sTrimmed.isEmpty() || sTrimmed.startsWith( "//" ) );
+        }
+
+        //==============================================================================
+        /**
+         * Records one violation.
+         *
+         * @param iLine Line of the violation, as Checkstyle gives it.
+         * @param sModule Name of the rule's module.
+         * @param sMessage Message of the violation.
+         * @param tree Tree to point the diagnostic at.
+         * @param doctree Doc comment tree to point the diagnostic at instead (or null to use the tree).
+         * @param doccommenttree Doc comment holding the doc comment tree (or null if there isn't one).
+         */
+        private void addFinding( int iLine, String sModule, String sMessage, Tree tree, DocTree doctree, DocCommentTree doccommenttree ) {
+            Violation violation = new Violation( sFileName, iLine, 0, severitylevel, sModule, sMessage );
+            listFindings.add( new Finding( violation, tree, doctree, doccommenttree ) );
+        }
+
+        //==============================================================================
+        /**
+         * Reports the violations of the file as diagnostics and in the report file,
+         * sorted and made unique like Checkstyle's messages for a file.
+         */
+        private void report() {
+
+            Collections.sort( listFindings, new Comparator<Finding>() {
+                public int compare( Finding finding1, Finding finding2 ) {
+                    return( MappedJavadocTemplate.scomparatorViolations.compare( finding1.violation, finding2.violation ) );
+                }
+            } );
+
+            List<Violation> listViolations = new ArrayList<Violation>();
+            for( Finding finding : listFindings ) {
+                if( !listViolations.isEmpty() && listViolations.get( listViolations.size() - 1 ).equals( finding.violation ) )
+                    continue;
+                listViolations.add( finding.violation );
+
+                if( finding.doctree != null )
+                    doctrees.printMessage( kind, finding.violation.getMessage(), finding.doctree, finding.doccommenttree, compilationunittree );
+                else
+                    doctrees.printMessage( kind, finding.violation.getMessage(), finding.tree, compilationunittree );
+            }
+
+            if( (fileReport != null) && !listViolations.isEmpty() )
+                writeReport( listViolations );
+        }
+
+        //==============================================================================
+        /**
+         * Appends violations to the report file.
+         *
+         * @param listViolations Violations to append.
+         */
+        private void writeReport( List<Violation> listViolations ) {
+            try {
+                PrintWriter printwriter = new PrintWriter( new OutputStreamWriter( new FileOutputStream( fileReport, true ), "UTF-8" ) );
+                try {
+                    for( Violation violation : listViolations )
+                        printwriter.println( violation.format() );
+                }
+                finally {
+                    printwriter.close();
+                }
+            }
+            catch( IOException ioexception ) {
+                doctrees.printMessage( Diagnostic.Kind.ERROR, ssName + " is unable to write report " + fileReport + ": " + ioexception.getMessage(),
+                                       compilationunittree, compilationunittree );
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package name.wadewalker.checks;
+
+//==============================================================================
+/**
+ * Hand-written scanners for the line-based rules in {@link JavadocTemplate}.
+ * Each one gives the same verdict as the regular expression it replaces, but
+ * looks at each character of the line at most once, so long lines can't cause
+ * backtracking. Whitespace means the same as "\s" in a regular expression.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class JavadocLineScanner {
+
+    /** Length of the equals sign bar after the slashes. */
+    private static final int siBarEqualsCount = 78;
+
+    /** Start of every copyright line (up to the year). */
+    private static final String ssCopyrightStart = " * Copyright (c) ";
+
+    /** Copyright holder (after the year or years). */
+    private static final String ssCopyrightHolder = " Wade Walker. ";
+
+    /** End of private copyright line (before any trailing whitespace). */
+    private static final String ssCopyrightPrivate = "All rights reserved.";
+
+    /** End of public copyright line (before any trailing whitespace). */
+    private static final String ssCopyrightPublic = "Free for any use, but credit is appreciated.";
+
+    /** Javadoc parameter tag. */
+    private static final String ssParamTag = "@param";
+
+    //==============================================================================
+    /**
+     * Can't instantiate this class (it only has static methods).
+     */
+    private JavadocLineScanner() {
+    }
+
+    //==============================================================================
+    /**
+     * Checks for the equals sign bar before a class or interface comment (no spaces
+     * to left). Same as matching "//={78}".
+     *
+     * @param charsequenceLine Line to check.
+     * @return true if the line is a class comment bar, false otherwise.
+     */
+    public static boolean isClassCommentBar( CharSequence charsequenceLine ) {
+        return( (charsequenceLine.length() == 2 + siBarEqualsCount) && isBarAt( charsequenceLine, 0 ) );
+    }
+
+    //==============================================================================
+    /**
+     * Checks for the equals sign bar before a method comment (multiple of four
+     * whitespace characters to left). Same as matching "(\s{4})+//={78}".
+     *
+     * @param charsequenceLine Line to check.
+     * @return true if the line is a method comment bar, false otherwise.
+     */
+    public static boolean isMethodCommentBar( CharSequence charsequenceLine ) {
+
+        int iIndent = 0;
+        while( (iIndent < charsequenceLine.length()) && isWhitespace( charsequenceLine.charAt( iIndent ) ) )
+            iIndent++;
+
+        return(    (iIndent > 0)
+                && (iIndent % 4 == 0)
+                && (charsequenceLine.length() == iIndent + 2 + siBarEqualsCount)
+                && isBarAt( charsequenceLine, iIndent ) );
+    }
+
+    //==============================================================================
+    /**
+     * Checks for a private or public copyright line. Same as matching
+     * " \* Copyright \(c\) \d{4}(\s*-\s*\d{4})? Wade Walker\. " followed by
+     * "All rights reserved\.\s*" or "Free for any use, but credit is appreciated\.\s*".
+     *
+     * @param charsequenceLine Line to check.
+     * @return true if the line is a copyright line, false otherwise.
+     */
+    public static boolean isCopyright( CharSequence charsequenceLine ) {
+
+        if( !regionEquals( charsequenceLine, 0, ssCopyrightStart ) )
+            return( false );
+
+        int iIndex = ssCopyrightStart.length();
+        if( !isYearAt( charsequenceLine, iIndex ) )
+            return( false );
+
+        iIndex += 4;
+
+        // optional year range (can only start with whitespace or a dash, which the
+        // holder name can't, so there's never a need to back up)
+        int iRangeIndex = skipWhitespace( charsequenceLine, iIndex );
+        if( (iRangeIndex < charsequenceLine.length()) && (charsequenceLine.charAt( iRangeIndex ) == '-') ) {
+            iRangeIndex = skipWhitespace( charsequenceLine, iRangeIndex + 1 );
+            if( !isYearAt( charsequenceLine, iRangeIndex ) )
+                return( false );
+
+            iIndex = iRangeIndex + 4;
+        }
+
+        if( !regionEquals( charsequenceLine, iIndex, ssCopyrightHolder ) )
+            return( false );
+
+        iIndex += ssCopyrightHolder.length();
+
+        if( regionEquals( charsequenceLine, iIndex, ssCopyrightPrivate ) )
+            iIndex += ssCopyrightPrivate.length();
+        else if( regionEquals( charsequenceLine, iIndex, ssCopyrightPublic ) )
+            iIndex += ssCopyrightPublic.length();
+        else
+            return( false );
+
+        return( skipWhitespace( charsequenceLine, iIndex ) == charsequenceLine.length() );
+    }
+
+    //==============================================================================
+    /**
+     * Checks for a trivial Javadoc parameter tag (one with no words or only one word
+     * after the parameter name). Same as matching ".*@param(\s+\S+){1,2}".
+     *
+     * That pattern matches when some "@param" is directly followed by whitespace and
+     * then one or two words that run to the end of the line. So the line must end in
+     * a word, and "@param" must end the word before the last word or the word before
+     * that. Scanning backward from the end of the line finds both candidates without
+     * looking at any character twice.
+     *
+     * @param charsequenceLine Line to check.
+     * @return true if the line has a trivial parameter tag, false otherwise.
+     */
+    public static boolean isTrivialParam( CharSequence charsequenceLine ) {
+
+        int iIndex = charsequenceLine.length();
+
+        // check the ends of the two words before the last word
+        for( int iWords = 0; iWords < 2; iWords++ ) {
+
+            // skip back over a word
+            int iWordStart = iIndex;
+            while( (iWordStart > 0) && !isWhitespace( charsequenceLine.charAt( iWordStart - 1 ) ) )
+                iWordStart--;
+
+            // need a word directly before the end of the line or the whitespace
+            if( iWordStart == iIndex )
+                return( false );
+
+            // skip back over whitespace
+            int iWordEnd = iWordStart;
+            while( (iWordEnd > 0) && isWhitespace( charsequenceLine.charAt( iWordEnd - 1 ) ) )
+                iWordEnd--;
+
+            if( iWordEnd == iWordStart )
+                return( false );
+
+            if( regionEquals( charsequenceLine, iWordEnd - ssParamTag.length(), ssParamTag ) )
+                return( true );
+
+            iIndex = iWordEnd;
+        }
+
+        return( false );
+    }
+
+    //==============================================================================
+    /**
+     * Checks for "//" followed by the equals signs of a bar, running to the end of the line.
+     *
+     * @param charsequenceLine Line to check.
+     * @param iStart Index of the first slash.
+     * @return true if the bar is there, false otherwise.
+     */
+    private static boolean isBarAt( CharSequence charsequenceLine, int iStart ) {
+
+        if( (charsequenceLine.charAt( iStart ) != '/') || (charsequenceLine.charAt( iStart + 1 ) != '/') )
+            return( false );
+
+        for( int i = iStart + 2; i < charsequenceLine.length(); i++ ) {
+            if( charsequenceLine.charAt( i ) != '=' )
+                return( false );
+        }
+
+        return( true );
+    }
+
+    //==============================================================================
+    /**
+     * Checks for four ASCII digits.
+     *
+     * @param charsequenceLine Line to check.
+     * @param iStart Index of the first digit.
+     * @return true if the digits are there, false otherwise.
+     */
+    private static boolean isYearAt( CharSequence charsequenceLine, int iStart ) {
+
+        if( iStart + 4 > charsequenceLine.length() )
+            return( false );
+
+        for( int i = iStart; i < iStart + 4; i++ ) {
+            if( (charsequenceLine.charAt( i ) < '0') || (charsequenceLine.charAt( i ) > '9') )
+                return( false );
+        }
+
+        return( true );
+    }
+
+    //==============================================================================
+    /**
+     * Checks for a string at an index in a line.
+     *
+     * @param charsequenceLine Line to check.
+     * @param iStart Index the string should start at (may be negative).
+     * @param sExpected String to look for.
+     * @return true if the string is there, false otherwise.
+     */
+    private static boolean regionEquals( CharSequence charsequenceLine, int iStart, String sExpected ) {
+
+        if( (iStart < 0) || (iStart + sExpected.length() > charsequenceLine.length()) )
+            return( false );
+
+        for( int i = 0; i < sExpected.length(); i++ ) {
+            if( charsequenceLine.charAt( iStart + i ) != sExpected.charAt( i ) )
+                return( false );
+        }
+
+        return( true );
+    }
+
+    //==============================================================================
+    /**
+     * Skips whitespace.
+     *
+     * @param charsequenceLine Line to scan.
+     * @param iStart Index to start at.
+     * @return the index of the first non-whitespace character at or after the start,
+     * or the length of the line if there isn't one.
+     */
+    private static int skipWhitespace( CharSequence charsequenceLine, int iStart ) {
+
+        int iIndex = iStart;
+        while( (iIndex < charsequenceLine.length()) && isWhitespace( charsequenceLine.charAt( iIndex ) ) )
+            iIndex++;
+
+        return( iIndex );
+    }
+
+    //==============================================================================
+    /**
+     * Checks for whitespace the way "\s" does in a regular expression.
+     *
+     * @param c Character to check.
+     * @return true if the character is whitespace, false otherwise.
+     */
+    private static boolean isWhitespace( char c ) {
+        return( (c == ' ') || (c == '\t') || (c == '\n') || (c == '\u000B') || (c == '\f') || (c == '\r') );
+    }
+}
@@ -1,6 +1,6 @@
 package name.wadewalker.checks;
 
-import java.util.regex.Pattern;
+import java.io.IOException;
 
 import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
 import com.puppycrawl.tools.checkstyle.api.DetailAST;
@@ -11,38 +11,62 @@ import com.puppycrawl.tools.checkstyle.api.TokenTypes;
 //==============================================================================
 /**
  * Checks that Javadoc for classes and methods conforms to the standard template.
+ * The line-based rules are matched by {@link JavadocLineScanner}. Setting the
+ * "metrics" property to true records tokens, time, and violations in {@link CheckMetrics}.
+ * The "baselineFile" and "updateBaseline" properties skip or record known violations
+ * like they do in {@link HungarianNaming}, matched by the type or method name (and
+ * the parameter name, for trivial parameter comments). The "changedLines" property limits
+ * the check to Javadoc on changed lines, like it does in {@link HungarianNaming}.
  *
  * Copyright (c) 2011-2016 Wade Walker. All rights reserved.
  * @author Wade Walker
  */
 public class JavadocTemplate extends AbstractCheck {
 
-    /** Matches equals sign bar before class or interface comment (no spaces to left). */
-    private static final Pattern spatternClassCommentBar = Pattern.compile( "//={78}" );
+    /** Key of warning message for comment bar in messages.properties. */
+    private static final String ssCommentBarWarningKey = "javadoc.template.commentBar";
 
-    /** Matches equals sign bar before method comment (multiple of four spaces to left). */
-    private static final Pattern spatternMethodCommentBar = Pattern.compile( "(\\s{4})+//={78}" );
+    /** Key of warning message for copyright line in messages.properties. */
+    private static final String ssCopyrightWarningKey = "javadoc.template.copyright";
 
-    /** Warning message for comment bar. */
-    private static final String ssCommentBarWarning = "Missing or incorrect equals sign bar above Javadoc comment";
-    
-    /** Matches private copyright line. */
-    private static final String ssCopyrightPrivate = " \\* Copyright \\(c\\) \\d\\d\\d\\d(\\s*-\\s*\\d\\d\\d\\d)? Wade Walker\\. All rights reserved\\.\\s*";
+    /** Key of warning message for trivial comment in messages.properties. */
+    private static final String ssTrivialParamWarningKey = "javadoc.template.trivialParam";
 
-    /** Matches public copyright line. */
-    private static final String ssCopyrightPublic = " \\* Copyright \\(c\\) \\d\\d\\d\\d(\\s*-\\s*\\d\\d\\d\\d)? Wade Walker\\. Free for any use, but credit is appreciated\\.\\s*";
+    /** Contents of the file being checked (set once per file in {@link #beginFile(DetailAST, String[])}). */
+    private FileContents filecontents;
 
-    /** Matches any copyright line. */
-    private static final Pattern spatternClassCopyright = Pattern.compile( "(" + ssCopyrightPrivate + ")|(" + ssCopyrightPublic + ")" );
+    /** Lines of the file being checked (fetched once per file, since FileContents.getLines() copies them). */
+    private String [] asLines;
 
-    /** Warning message for copyright line. */
-    private static final String ssCopyrightWarning = "Missing or incorrect copyright line in Javadoc comment";
+    /** Number of class, interface, enum, and annotation definitions enclosing the current node. */
+    private int iTypeDepth;
 
-    /** Matches a trivial Javadoc param tag (one with no words or only one word). */
-    private static final Pattern spatternTrivialParam = Pattern.compile( ".*@param(\\s+\\S+){1,2}" );
+    /** True if metrics should be recorded. */
+    private boolean bMetrics;
 
-    /** Warning message for trivial comment. */
-    private static final String ssTrivialParamWarning = "Empty or trivial Javadoc parameter comment";
+    /** Where metrics are recorded (null if they're not, so the only cost is a null check). */
+    private CheckMetrics.CheckCounters checkcounters;
+
+    /** Name of the baseline file of known violations (null if there isn't one). */
+    private String sBaselineFile;
+
+    /** True to record every violation into the baseline file instead of skipping the known ones. */
+    private boolean bUpdateBaseline;
+
+    /** Known violations to skip (null if there's no baseline, so the only cost is a null check). */
+    private BaselineFilter baselinefilter;
+
+    /** Name of the diff or line ranges file limiting the check to changed lines (null if there isn't one). */
+    private String sChangedLinesFile;
+
+    /** Changed lines of all files (null if the check isn't limited to them). */
+    private ChangedLines changedlines;
+
+    /** Changed lines of the file being checked (null if the check isn't limited to them). */
+    private ChangedLines.LineRanges lineranges;
+
+    /** Nanoseconds spent in {@link #visitToken(DetailAST)} for the current file (only kept with metrics on). */
+    private long lFileNanos;
 
     //==============================================================================
     /**
@@ -51,6 +75,87 @@ public class JavadocTemplate extends AbstractCheck {
     public JavadocTemplate() {
     }
 
+    //==============================================================================
+    /**
+     * Enables or disables recording metrics in {@link CheckMetrics}.
+     *
+     * @param bEnabled True to record metrics.
+     */
+    public void setMetrics( boolean bEnabled ) {
+        bMetrics = bEnabled;
+    }
+
+    //==============================================================================
+    /**
+     * Sets a baseline file of known violations that shouldn't be reported.
+     *
+     * @param sFileName Name of a file written by {@link Baseline#write(java.io.File)}.
+     */
+    public void setBaselineFile( String sFileName ) {
+        sBaselineFile = sFileName;
+    }
+
+    //==============================================================================
+    /**
+     * Chooses whether to record the current violations into the baseline file (when
+     * the check is destroyed) instead of skipping the ones already in it.
+     *
+     * @param bEnabled True to rewrite the baseline file.
+     */
+    public void setUpdateBaseline( boolean bEnabled ) {
+        bUpdateBaseline = bEnabled;
+    }
+
+    //==============================================================================
+    /**
+     * Limits the check to changed lines, so Javadoc outside them are skipped.
+     *
+     * @param sFileName Name of a unified diff or line ranges file (see {@link ChangedLines}),
+     * or an empty string to check every line.
+     */
+    public void setChangedLines( String sFileName ) {
+        sChangedLinesFile = sFileName.isEmpty() ? null : sFileName;
+    }
+
+    //==============================================================================
+    /**
+     * Loads the changed lines.
+     *
+     * @param sFileName Name of a unified diff or line ranges file.
+     * @return the changed lines.
+     * @throws IllegalArgumentException if the file can't be read.
+     */
+    private static ChangedLines loadChangedLines( String sFileName ) {
+        try {
+            return( ChangedLines.getShared( sFileName ) );
+        }
+        catch( IOException ioexception ) {
+            throw new IllegalArgumentException( "Unable to read changed lines file " + sFileName, ioexception );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Looks up where to record metrics, if they're enabled, and loads the baseline and
+     * changed lines.
+     * @see com.puppycrawl.tools.checkstyle.api.AbstractCheck#init()
+     */
+    public void init() {
+        checkcounters = bMetrics ? CheckMetrics.getInstance().getCounters( "JavadocTemplate" ) : null;
+        baselinefilter = sBaselineFile != null ? new BaselineFilter( sBaselineFile, bUpdateBaseline ) : null;
+        changedlines = sChangedLinesFile != null ? loadChangedLines( sChangedLinesFile ) : null;
+    }
+
+    //==============================================================================
+    /**
+     * Writes the baseline file, if it's being updated.
+     * @see com.puppycrawl.tools.checkstyle.api.AbstractCheck#destroy()
+     */
+    public void destroy() {
+        if( baselinefilter != null )
+            baselinefilter.finish();
+    }
+
     //==============================================================================
     /**
      * Accessor.
@@ -58,7 +163,81 @@ public class JavadocTemplate extends AbstractCheck {
      * @see com.puppycrawl.tools.checkstyle.api.AbstractCheck#getDefaultTokens()
      */
     public int [] getDefaultTokens() {
-        return( new int [] {TokenTypes.CLASS_DEF, TokenTypes.CTOR_DEF, TokenTypes.INTERFACE_DEF, TokenTypes.METHOD_DEF} );
+        return( new int [] {TokenTypes.CLASS_DEF, TokenTypes.CTOR_DEF, TokenTypes.INTERFACE_DEF, TokenTypes.METHOD_DEF,
+                            TokenTypes.ENUM_DEF, TokenTypes.ANNOTATION_DEF} );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the token types that must always be visited to track type nesting.
+     * @see com.puppycrawl.tools.checkstyle.api.AbstractCheck#getRequiredTokens()
+     */
+    public int [] getRequiredTokens() {
+        return( new int [] {TokenTypes.CLASS_DEF, TokenTypes.INTERFACE_DEF, TokenTypes.ENUM_DEF, TokenTypes.ANNOTATION_DEF} );
+    }
+
+    //==============================================================================
+    /**
+     * Does the per-file work once: fetches the lines, and checks the copyright line in the
+     * Javadoc of each top-level class.
+     *
+     * @param detailastRoot First top-level AST node of the file.
+     * @see com.puppycrawl.tools.checkstyle.api.AbstractCheck#beginTree(com.puppycrawl.tools.checkstyle.api.DetailAST)
+     */
+    public void beginTree( DetailAST detailastRoot ) {
+        beginFile( detailastRoot, getFileContents().getLines() );
+    }
+
+    //==============================================================================
+    /**
+     * Does the per-file work with lines that have already been fetched (so checks that
+     * share per-file state don't each copy the lines).
+     *
+     * @param detailastRoot First top-level AST node of the file.
+     * @param asLinesIn Lines of the file.
+     */
+    void beginFile( DetailAST detailastRoot, String [] asLinesIn ) {
+
+        filecontents = getFileContents();
+        asLines = asLinesIn;
+        iTypeDepth = 0;
+        lFileNanos = 0;
+
+        if( baselinefilter != null )
+            baselinefilter.beginFile( filecontents.getFileName() );
+
+        // without a changed lines file of its own, the check uses the audit's (see ChangedLines.setCurrent)
+        ChangedLines changedlinesUsed = changedlines != null ? changedlines : ChangedLines.getCurrent();
+        lineranges = changedlinesUsed != null ? changedlinesUsed.getFileRanges( filecontents.getFileName() ) : null;
+        if( (lineranges != null) && lineranges.isEmpty() )
+            return;
+
+        // copyright line only needed in top classes
+        for( DetailAST detailast = detailastRoot; detailast != null; detailast = detailast.getNextSibling() ) {
+            if( detailast.getType() == TokenTypes.CLASS_DEF ) {
+                TextBlock textblockJavadoc = filecontents.getJavadocBefore( detailast.getLineNo() );
+                if(    (textblockJavadoc != null)
+                    && ((lineranges == null) || lineranges.intersects( textblockJavadoc.getStartLineNo(), textblockJavadoc.getEndLineNo() )) )
+                    checkCopyright( detailast, textblockJavadoc.getStartLineNo(), textblockJavadoc.getEndLineNo() );
+            }
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Records the per-file metrics, and releases the file's contents so they can be
+     * garbage collected.
+     *
+     * @param detailastRoot First top-level AST node of the file.
+     * @see com.puppycrawl.tools.checkstyle.api.AbstractCheck#finishTree(com.puppycrawl.tools.checkstyle.api.DetailAST)
+     */
+    public void finishTree( DetailAST detailastRoot ) {
+        if( checkcounters != null )
+            checkcounters.addFile( filecontents.getFileName(), lFileNanos );
+
+        filecontents = null;
+        asLines = null;
     }
 
     //==============================================================================
@@ -70,15 +249,71 @@ public class JavadocTemplate extends AbstractCheck {
      */
     public void visitToken( DetailAST detailast ) {
 
-        FileContents filecontents = getFileContents();
+        // nothing to check (or nest) in an unchanged file
+        if( (lineranges != null) && lineranges.isEmpty() )
+            return;
+
+        if( checkcounters == null ) {
+            checkJavadoc( detailast );
+            return;
+        }
+
+        long lStartNanos = System.nanoTime();
+        checkJavadoc( detailast );
+        long lNanos = System.nanoTime() - lStartNanos;
+
+        checkcounters.addVisit( lNanos );
+        lFileNanos += lNanos;
+    }
+
+    //==============================================================================
+    /**
+     * Checks the Javadoc of one type or method, and tracks type nesting.
+     *
+     * @param detailast AST node being visited.
+     */
+    private void checkJavadoc( DetailAST detailast ) {
+
+        // nested if inside another type (for types), or inside a type that's inside another type (for methods)
+        boolean bTypeDef = isTypeDef( detailast );
+        boolean bNested = iTypeDepth > (bTypeDef ? 0 : 1);
+
+        if( bTypeDef )
+            iTypeDepth++;
+
+        // enums and annotations are only visited to track nesting
+        if( (detailast.getType() == TokenTypes.ENUM_DEF) || (detailast.getType() == TokenTypes.ANNOTATION_DEF) )
+            return;
+
         TextBlock textblockJavadoc = filecontents.getJavadocBefore( detailast.getLineNo() );
 
         // Checkstyle already has a rule for total lack of Javadoc, so don't check for that case
         if( textblockJavadoc == null )
             return;
 
-        checkCommentBar( detailast, filecontents, textblockJavadoc.getStartLineNo() - 1 );
-        checkJavadocContents( detailast, filecontents, textblockJavadoc.getStartLineNo(), textblockJavadoc.getEndLineNo() );
+        // outside the changed lines (from the comment bar to the declaration), skip it before running any line scanner
+        if( (lineranges != null) && !lineranges.intersects( textblockJavadoc.getStartLineNo() - 1, detailast.getLineNo() ) )
+            return;
+
+        // don't check comment bars of nested classes
+        if( !bNested )
+            checkCommentBar( detailast, textblockJavadoc.getStartLineNo() - 1 );
+
+        // parameter check only in methods
+        if( (detailast.getType() == TokenTypes.METHOD_DEF) || (detailast.getType() == TokenTypes.CTOR_DEF) )
+            checkTrivialParams( detailast, textblockJavadoc.getStartLineNo(), textblockJavadoc.getEndLineNo() );
+    }
+
+    //==============================================================================
+    /**
+     * Tracks leaving a type definition.
+     *
+     * @param detailast AST node being left.
+     * @see com.puppycrawl.tools.checkstyle.api.AbstractCheck#leaveToken(com.puppycrawl.tools.checkstyle.api.DetailAST)
+     */
+    public void leaveToken( DetailAST detailast ) {
+        if( ((lineranges == null) || !lineranges.isEmpty()) && isTypeDef( detailast ) )
+            iTypeDepth--;
     }
 
     //==============================================================================
@@ -86,29 +321,13 @@ public class JavadocTemplate extends AbstractCheck {
       * Accessor.
       *
       * @param detailast AST to check.
-      * @return true if the class is a nested class, false otherwise.
+      * @return true if the AST is a class, interface, enum, or annotation definition, false otherwise.
       */
-    private boolean isNestedClass( DetailAST detailast ) {
-
-        int iNestingLevel = 0;
-        
-        // move up through nesting levels
-        DetailAST detailastCurrent = detailast;
-        while( detailastCurrent != null ) {
-            if(    (detailastCurrent.getType() == TokenTypes.ANNOTATION_DEF)
-                || (detailastCurrent.getType() == TokenTypes.CLASS_DEF)
-                || (detailastCurrent.getType() == TokenTypes.ENUM_DEF)
-                || (detailastCurrent.getType() == TokenTypes.INTERFACE_DEF) )
-                iNestingLevel++;
-
-            // no need to count more than one nesting level
-            if( iNestingLevel > 1 )
-                break;
-
-            detailastCurrent = detailastCurrent.getParent();
-        }
-
-        return( iNestingLevel > 1 );
+    private static boolean isTypeDef( DetailAST detailast ) {
+        return(    (detailast.getType() == TokenTypes.ANNOTATION_DEF)
+                || (detailast.getType() == TokenTypes.CLASS_DEF)
+                || (detailast.getType() == TokenTypes.ENUM_DEF)
+                || (detailast.getType() == TokenTypes.INTERFACE_DEF) );
     }
 
     //==============================================================================
@@ -116,58 +335,104 @@ public class JavadocTemplate extends AbstractCheck {
      * Checks this Javadoc to make sure the comment bar is present and correctly formatted.
      *
      * @param detailast The AST node the Javadoc is before.
-     * @param filecontents Whole contents of the file.
      * @param iCommentBarLine The line we expect to find the comment bar on (one line before
      * the start line of the Javadoc comment).
      */
-    private void checkCommentBar( DetailAST detailast, FileContents filecontents, int iCommentBarLine ) {
-
-        // don't check nested classes
-        if( isNestedClass( detailast ) )
-            return;
+    private void checkCommentBar( DetailAST detailast, int iCommentBarLine ) {
 
         // get comment bar
-        String sCommentBarLine = iCommentBarLine >= 1 ? filecontents.getLines()[iCommentBarLine - 1] : null;
+        String sCommentBarLine = iCommentBarLine >= 1 ? asLines[iCommentBarLine - 1] : null;
 
-        Pattern patternCommentBar = ((detailast.getType() == TokenTypes.CLASS_DEF) || (detailast.getType() == TokenTypes.INTERFACE_DEF))
-              ? spatternClassCommentBar : spatternMethodCommentBar;
+        boolean bClassCommentBar = (detailast.getType() == TokenTypes.CLASS_DEF) || (detailast.getType() == TokenTypes.INTERFACE_DEF);
 
-        if( (sCommentBarLine == null) || !patternCommentBar.matcher( sCommentBarLine ).matches() )
-            log( iCommentBarLine, ssCommentBarWarning );
+        if(    (sCommentBarLine == null)
+            || !(bClassCommentBar ? JavadocLineScanner.isClassCommentBar( sCommentBarLine ) : JavadocLineScanner.isMethodCommentBar( sCommentBarLine )) )
+            logViolation( iCommentBarLine, ssCommentBarWarningKey, CheckMetrics.Kind.COMMENT_BAR, nameOf( detailast ) );
     }
 
     //==============================================================================
     /**
-     * Checks for the correct copyright line in class Javadoc, and checks for
-     * empty or trivial parameter comments in method Javadoc.
+     * Checks for the correct copyright line in top class Javadoc.
      *
-     * @param detailast AST node after the Javadoc block.
-     * @param filecontents Whole contents of the file.
+     * @param detailast The AST node of the class the Javadoc is before.
      * @param iJavadocStartLine The start line of the Javadoc comment in the file.
      * @param iJavadocEndLine The end line of the Javadoc comment in the file.
      */
-    private void checkJavadocContents( DetailAST detailast, FileContents filecontents, int iJavadocStartLine, int iJavadocEndLine ) {
+    private void checkCopyright( DetailAST detailast, int iJavadocStartLine, int iJavadocEndLine ) {
 
-        // copyright line only needed in top class
-        boolean bTopClass = (detailast.getParent() == null) && (detailast.getType() == TokenTypes.CLASS_DEF);
+        // check every line in Javadoc (lines are numbered from 1, so this skips the first and last)
+        for( int iLine = iJavadocStartLine; iLine < (iJavadocEndLine - 1); iLine++ ) {
+            if( JavadocLineScanner.isCopyright( asLines[iLine] ) )
+                return;
+        }
 
-        // parameter check only in methods
-        boolean bMethodJavadoc = (detailast.getType() == TokenTypes.METHOD_DEF) || (detailast.getType() == TokenTypes.CTOR_DEF);
+        logViolation( iJavadocEndLine, ssCopyrightWarningKey, CheckMetrics.Kind.COPYRIGHT, nameOf( detailast ) );
+    }
 
-        boolean bFoundCopyright = false;
+    //==============================================================================
+    /**
+     * Checks for empty or trivial parameter comments in method Javadoc.
+     *
+     * @param detailast The AST node of the method the Javadoc is before.
+     * @param iJavadocStartLine The start line of the Javadoc comment in the file.
+     * @param iJavadocEndLine The end line of the Javadoc comment in the file.
+     */
+    private void checkTrivialParams( DetailAST detailast, int iJavadocStartLine, int iJavadocEndLine ) {
 
-        // check every line in Javadoc
+        // check every line in Javadoc (lines are numbered from 1, so this skips the first and last)
         for( int iLine = iJavadocStartLine; iLine < (iJavadocEndLine - 1); iLine++ ) {
-            // check copyright match
-            if( !bFoundCopyright && bTopClass && spatternClassCopyright.matcher( filecontents.getLines()[iLine] ).matches() )
-                bFoundCopyright = true;
-
-            // check for trivial parameter comment
-            if( bMethodJavadoc && spatternTrivialParam.matcher( filecontents.getLines()[iLine] ).matches() )
-                log( iLine + 1, ssTrivialParamWarning );
+            if( JavadocLineScanner.isTrivialParam( asLines[iLine] ) ) {
+                // baseline target is only built if there's a baseline to look it up in
+                String sTarget = baselinefilter != null ? nameOf( detailast ) + "(" + paramNameOf( asLines[iLine] ) + ")" : null;
+                logViolation( iLine + 1, ssTrivialParamWarningKey, CheckMetrics.Kind.TRIVIAL_PARAM, sTarget );
+            }
         }
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @param detailast AST node of a type or method.
+     * @return the name of the type or method.
+     */
+    private static String nameOf( DetailAST detailast ) {
+        return( detailast.findFirstToken( TokenTypes.IDENT ).getText() );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @param sLine Javadoc line with a "@param" tag.
+     * @return the parameter name after the tag (empty if there isn't one).
+     */
+    private static String paramNameOf( String sLine ) {
+
+        int iStart = sLine.indexOf( "@param" ) + "@param".length();
+        while( (iStart < sLine.length()) && Character.isWhitespace( sLine.charAt( iStart ) ) )
+            iStart++;
+
+        int iEnd = iStart;
+        while( (iEnd < sLine.length()) && !Character.isWhitespace( sLine.charAt( iEnd ) ) )
+            iEnd++;
+
+        return( sLine.substring( iStart, iEnd ) );
+    }
+
+    //==============================================================================
+    /**
+     * Logs a violation unless it's in the baseline, and counts it if metrics are enabled.
+     *
+     * @param iLine Line number of the violation.
+     * @param sWarningKey Key of the warning message in messages.properties.
+     * @param kind Kind of violation for the metrics.
+     * @param sTarget Type, method, or parameter the violation is about (only used with a baseline).
+     */
+    private void logViolation( int iLine, String sWarningKey, CheckMetrics.Kind kind, String sTarget ) {
+        if( (baselinefilter != null) && baselinefilter.isKnown( sTarget, sWarningKey ) )
+            return;
 
-        if( bTopClass && !bFoundCopyright )
-            log( iJavadocEndLine, ssCopyrightWarning );
+        log( iLine, sWarningKey );
+        if( checkcounters != null )
+            checkcounters.addViolation( kind );
     }
 }
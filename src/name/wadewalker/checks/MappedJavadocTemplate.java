@@ -0,0 +1,387 @@
+package name.wadewalker.checks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.utils.CommonUtils;
+
+//==============================================================================
+/**
+ * Applies the rules of {@link JavadocTemplate} without parsing. Like a FileSetCheck,
+ * it's given whole files: each one is memory-mapped, and a lexer that skips string
+ * and character literals and comments finds the type and method declarations and the
+ * Javadoc before them. Gives the same violations as JavadocTemplate with its default
+ * properties, in the same order. Bytes are read as ISO-8859-1 characters, which is
+ * exact since every rule only looks at ASCII.
+ *
+ * <pre>
+ * java name.wadewalker.checks.MappedJavadocTemplate [-b basedir] root...
+ * </pre>
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class MappedJavadocTemplate {
+
+    /** Usage message printed for bad arguments. */
+    private static final String ssUsage = "Usage: MappedJavadocTemplate [-b basedir] root...";
+
+    /** Module name printed with each violation. */
+    private static final String ssModule = "JavadocTemplate";
+
+    /** Resource bundle holding the messages of the checks in this package. */
+    static final String ssMessagesBundle = "name.wadewalker.checks.messages";
+
+    /** Key of warning message for comment bar in messages.properties. */
+    static final String ssCommentBarWarningKey = "javadoc.template.commentBar";
+
+    /** Key of warning message for copyright line in messages.properties. */
+    static final String ssCopyrightWarningKey = "javadoc.template.copyright";
+
+    /** Key of warning message for trivial comment in messages.properties. */
+    static final String ssTrivialParamWarningKey = "javadoc.template.trivialParam";
+
+    /** Orders the violations in a file the way Checkstyle does: by line, then by message. */
+    static final Comparator<Violation> scomparatorViolations = new Comparator<Violation>() {
+        public int compare( Violation violation1, Violation violation2 ) {
+            if( violation1.getLine() != violation2.getLine() )
+                return( violation1.getLine() < violation2.getLine() ? -1 : 1 );
+            return( violation1.getMessage().compareTo( violation2.getMessage() ) );
+        }
+    };
+
+    /** Severity of the violations. */
+    private final SeverityLevel severitylevel;
+
+    /** Text of the comment bar message. */
+    private final String sCommentBarMessage;
+
+    /** Text of the copyright message. */
+    private final String sCopyrightMessage;
+
+    /** Text of the trivial parameter message. */
+    private final String sTrivialParamMessage;
+
+    /** Base directory stripped from file names in violations (or null to leave them absolute). */
+    private String sBasedir;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     *
+     * @param severitylevelIn Severity given to every violation.
+     */
+    public MappedJavadocTemplate( SeverityLevel severitylevelIn ) {
+
+        severitylevel = severitylevelIn;
+
+        ResourceBundle resourcebundle = ResourceBundle.getBundle( ssMessagesBundle, Locale.getDefault() );
+        sCommentBarMessage = formatMessage( resourcebundle, ssCommentBarWarningKey );
+        sCopyrightMessage = formatMessage( resourcebundle, ssCopyrightWarningKey );
+        sTrivialParamMessage = formatMessage( resourcebundle, ssTrivialParamWarningKey );
+    }
+
+    //==============================================================================
+    /**
+     * Formats a message without arguments, the way Checkstyle formats it.
+     *
+     * @param resourcebundle Bundle holding the message.
+     * @param sKey Key of the message in the bundle.
+     * @return the message text.
+     */
+    static String formatMessage( ResourceBundle resourcebundle, String sKey ) {
+        return( new MessageFormat( resourcebundle.getString( sKey ), Locale.getDefault() ).format( new Object [0] ) );
+    }
+
+    //==============================================================================
+    /**
+     * Sets the base directory, like Checker.setBasedir().
+     *
+     * @param sBasedirIn Base directory stripped from file names in violations (or null
+     * to leave them absolute).
+     */
+    public void setBasedir( String sBasedirIn ) {
+        sBasedir = sBasedirIn;
+    }
+
+    //==============================================================================
+    /**
+     * Checks several files.
+     *
+     * @param listFiles Files to check.
+     * @return the violations, ordered by file, then by line.
+     * @throws IOException if a file can't be read.
+     */
+    public List<Violation> process( List<File> listFiles ) throws IOException {
+
+        List<Violation> listViolations = new ArrayList<Violation>();
+        for( File file : listFiles )
+            listViolations.addAll( process( file ) );
+        return( listViolations );
+    }
+
+    //==============================================================================
+    /**
+     * Checks one file.
+     *
+     * @param file File to check.
+     * @return the violations, ordered by line.
+     * @throws IOException if the file can't be read.
+     */
+    public List<Violation> process( File file ) throws IOException {
+
+        String sFileName = file.getAbsolutePath();
+        if( sBasedir != null )
+            sFileName = CommonUtils.relativizeAndNormalizePath( sBasedir, sFileName );
+
+        FileInputStream fileinputstream = new FileInputStream( file );
+        try {
+            FileChannel filechannel = fileinputstream.getChannel();
+            ByteBuffer bytebuffer = filechannel.map( FileChannel.MapMode.READ_ONLY, 0, filechannel.size() );
+
+            SourceScan sourcescan = new SourceScan( bytebuffer );
+            sourcescan.scan();
+            return( applyRules( sFileName, sourcescan ) );
+        }
+        finally {
+            fileinputstream.close();
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Applies the rules to the declarations found in one file, the way JavadocTemplate does.
+     *
+     * @param sFileName File name printed in violations.
+     * @param sourcescan Scanned file.
+     * @return the violations, ordered by line.
+     */
+    private List<Violation> applyRules( String sFileName, SourceScan sourcescan ) {
+
+        List<Violation> listViolations = new ArrayList<Violation>();
+        LineView lineview = new LineView( sourcescan.bytebuffer, sourcescan.aiLineStarts, sourcescan.aiLineEnds );
+
+        for( int iDecl = 0; iDecl < sourcescan.iDecls; iDecl++ ) {
+            int iKind = sourcescan.aiDeclKinds[iDecl];
+            int iDepth = sourcescan.aiDeclDepths[iDecl];
+
+            // enums and annotations only count for nesting
+            if( (iKind == SourceScan.siDeclEnum) || (iKind == SourceScan.siDeclAnnotation) )
+                continue;
+
+            int iJavadocEnd = sourcescan.getJavadocEndBefore( sourcescan.aiDeclLines[iDecl] );
+            if( iJavadocEnd == 0 )
+                continue;
+            int iJavadocStart = sourcescan.aiJavadocStarts[iJavadocEnd];
+
+            // don't check comment bars of nested classes
+            boolean bTypeDef = iKind != SourceScan.siDeclMethod;
+            if( iDepth <= (bTypeDef ? 0 : 1) ) {
+                int iBarLine = iJavadocStart - 1;
+                if(    (iBarLine < 1)
+                    || !(bTypeDef ? JavadocLineScanner.isClassCommentBar( lineview.setLine( iBarLine ) )
+                                  : JavadocLineScanner.isMethodCommentBar( lineview.setLine( iBarLine ) )) )
+                    listViolations.add( new Violation( sFileName, iBarLine, 0, severitylevel, ssModule, sCommentBarMessage ) );
+            }
+
+            // copyright line only needed in top classes (this skips the first and last lines of the Javadoc)
+            if( (iKind == SourceScan.siDeclClass) && (iDepth == 0) ) {
+                boolean bCopyright = false;
+                for( int iLine = iJavadocStart + 1; !bCopyright && (iLine < iJavadocEnd); iLine++ )
+                    bCopyright = JavadocLineScanner.isCopyright( lineview.setLine( iLine ) );
+                if( !bCopyright )
+                    listViolations.add( new Violation( sFileName, iJavadocEnd, 0, severitylevel, ssModule, sCopyrightMessage ) );
+            }
+
+            // parameter check only in methods
+            if( iKind == SourceScan.siDeclMethod ) {
+                for( int iLine = iJavadocStart + 1; iLine < iJavadocEnd; iLine++ ) {
+                    if( JavadocLineScanner.isTrivialParam( lineview.setLine( iLine ) ) )
+                        listViolations.add( new Violation( sFileName, iLine, 0, severitylevel, ssModule, sTrivialParamMessage ) );
+                }
+            }
+        }
+
+        // sorted and made unique like Checkstyle's messages for a file
+        Collections.sort( listViolations, scomparatorViolations );
+        for( int i = listViolations.size() - 1; i > 0; i-- ) {
+            if( listViolations.get( i ).equals( listViolations.get( i - 1 ) ) )
+                listViolations.remove( i );
+        }
+        return( listViolations );
+    }
+
+    //==============================================================================
+    /**
+     * Checks files from the command line and prints the violations in DefaultLogger
+     * format. The exit code is the number of errors.
+     *
+     * @param asArgs Command-line arguments (see the class comment).
+     * @throws IOException if a file can't be read.
+     */
+    public static void main( String [] asArgs ) throws IOException {
+
+        String sBasedir = null;
+        List<File> listFiles = new ArrayList<File>();
+        for( int i = 0; i < asArgs.length; i++ ) {
+            if( asArgs[i].equals( "-b" ) && (i + 1 < asArgs.length) )
+                sBasedir = asArgs[++i];
+            else if( asArgs[i].startsWith( "-" ) ) {
+                System.err.println( ssUsage );
+                System.exit( -1 );
+            }
+            else
+                CheckRunner.findJavaFiles( new File( asArgs[i] ), listFiles );
+        }
+        if( listFiles.isEmpty() ) {
+            System.err.println( ssUsage );
+            System.exit( -1 );
+        }
+        CheckRunner.sortFiles( listFiles );
+
+        MappedJavadocTemplate mappedjavadoctemplate = new MappedJavadocTemplate( SeverityLevel.WARNING );
+        mappedjavadoctemplate.setBasedir( sBasedir );
+
+        long lStartNanos = System.nanoTime();
+        List<Violation> listViolations = mappedjavadoctemplate.process( listFiles );
+        double dSeconds = (System.nanoTime() - lStartNanos) / 1e9;
+
+        PrintWriter printwriter = new PrintWriter( new OutputStreamWriter( System.out, "UTF-8" ) );
+        int iErrorCount = 0;
+        printwriter.println( "Starting audit..." );
+        for( Violation violation : listViolations ) {
+            printwriter.println( violation.format() );
+            if( violation.getSeverityLevel() == SeverityLevel.ERROR )
+                iErrorCount++;
+        }
+        printwriter.println( "Audit done." );
+        printwriter.flush();
+
+        System.err.println( String.format( "%d files in %.2f s (%.1f files/sec)",
+                                           listFiles.size(), dSeconds, listFiles.size() / Math.max( dSeconds, 1e-9 ) ) );
+        System.exit( iErrorCount );
+    }
+
+    //==============================================================================
+    /**
+     * One line of a mapped file, seen as characters without copying it.
+     */
+    private static final class LineView implements CharSequence {
+
+        /** Contents of the file. */
+        private final ByteBuffer bytebuffer;
+
+        /** Offset of the start of each line (indexed by line number). */
+        private final int [] aiLineStarts;
+
+        /** Offset of the end of each line, before its terminator (indexed by line number). */
+        private final int [] aiLineEnds;
+
+        /** Offset of the first character of the view. */
+        private int iStart;
+
+        /** Number of characters in the view. */
+        private int iLength;
+
+        //==============================================================================
+        /**
+         * Constructor.
+         *
+         * @param bytebufferIn Contents of the file.
+         * @param aiLineStartsIn Offset of the start of each line.
+         * @param aiLineEndsIn Offset of the end of each line, before its terminator.
+         */
+        LineView( ByteBuffer bytebufferIn, int [] aiLineStartsIn, int [] aiLineEndsIn ) {
+            bytebuffer = bytebufferIn;
+            aiLineStarts = aiLineStartsIn;
+            aiLineEnds = aiLineEndsIn;
+        }
+
+        //==============================================================================
+        /**
+         * Constructor for a subsequence.
+         *
+         * @param bytebufferIn Contents of the file.
+         * @param iStartIn Offset of the first character of the view.
+         * @param iLengthIn Number of characters in the view.
+         */
+        private LineView( ByteBuffer bytebufferIn, int iStartIn, int iLengthIn ) {
+            this( bytebufferIn, null, null );
+            iStart = iStartIn;
+            iLength = iLengthIn;
+        }
+
+        //==============================================================================
+        /**
+         * Points the view at a line.
+         *
+         * @param iLine Number of the line, starting from 1.
+         * @return this view.
+         */
+        LineView setLine( int iLine ) {
+            iStart = aiLineStarts[iLine];
+            iLength = aiLineEnds[iLine] - iStart;
+            return( this );
+        }
+
+        //==============================================================================
+        /**
+         * Accessor.
+         * @return the number of characters in the view.
+         * @see java.lang.CharSequence#length()
+         */
+        public int length() {
+            return( iLength );
+        }
+
+        //==============================================================================
+        /**
+         * Accessor.
+         * @param iIndex Index of the character in the view.
+         * @return the character.
+         * @see java.lang.CharSequence#charAt(int)
+         */
+        public char charAt( int iIndex ) {
+            return( (char)(bytebuffer.get( iStart + iIndex ) & 0xFF) );
+        }
+
+        //==============================================================================
+        /**
+         * Accessor.
+         * @param iStartIndex Index of the first character of the subsequence.
+         * @param iEndIndex Index after the last character of the subsequence.
+         * @return a view of the subsequence.
+         * @see java.lang.CharSequence#subSequence(int, int)
+         */
+        public CharSequence subSequence( int iStartIndex, int iEndIndex ) {
+            return( new LineView( bytebuffer, iStart + iStartIndex, iEndIndex - iStartIndex ) );
+        }
+
+        //==============================================================================
+        /**
+         * Accessor.
+         * @return the characters of the view as a string.
+         * @see java.lang.Object#toString()
+         */
+        public String toString() {
+            StringBuilder sb = new StringBuilder( iLength );
+            for( int i = 0; i < iLength; i++ )
+                sb.append( charAt( i ) );
+            return( sb.toString() );
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package name.wadewalker.checks;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.AutomaticBean;
+
+//==============================================================================
+/**
+ * Writes {@link CheckMetrics} to a file in Prometheus text format at the end of each
+ * audit. Add it directly under the Checker module, and set "metrics" to true on the
+ * checks to be measured:
+ *
+ * &lt;module name="name.wadewalker.checks.MetricsExporter"&gt;
+ *     &lt;property name="file" value="checks.prom"/&gt;
+ * &lt;/module&gt;
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class MetricsExporter extends AutomaticBean implements AuditListener {
+
+    /** File the metrics are written to. */
+    private String sFileName;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public MetricsExporter() {
+    }
+
+    //==============================================================================
+    /**
+     * Mutator.
+     * @param sFileNameIn File the metrics are written to.
+     */
+    public void setFile( String sFileNameIn ) {
+        sFileName = sFileNameIn;
+    }
+
+    //==============================================================================
+    /**
+     * Writes the metrics.
+     *
+     * @param auditevent Event for the end of the audit.
+     */
+    public void auditFinished( AuditEvent auditevent ) {
+
+        if( sFileName == null )
+            return;
+
+        try {
+            Writer writer = new OutputStreamWriter( new FileOutputStream( sFileName ), "UTF-8" );
+            try {
+                CheckMetrics.getInstance().writePrometheus( writer );
+            }
+            finally {
+                writer.close();
+            }
+        }
+        catch( IOException ioexception ) {
+            throw new IllegalStateException( "Unable to write metrics file " + sFileName, ioexception );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Does nothing.
+     *
+     * @param auditevent Event for the start of the audit.
+     */
+    public void auditStarted( AuditEvent auditevent ) {
+    }
+
+    //==============================================================================
+    /**
+     * Does nothing.
+     *
+     * @param auditevent Event for the start of a file.
+     */
+    public void fileStarted( AuditEvent auditevent ) {
+    }
+
+    //==============================================================================
+    /**
+     * Does nothing.
+     *
+     * @param auditevent Event for the end of a file.
+     */
+    public void fileFinished( AuditEvent auditevent ) {
+    }
+
+    //==============================================================================
+    /**
+     * Does nothing.
+     *
+     * @param auditevent Event for the violation.
+     */
+    public void addError( AuditEvent auditevent ) {
+    }
+
+    //==============================================================================
+    /**
+     * Does nothing.
+     *
+     * @param auditevent Event for the file the exception happened in.
+     * @param throwable Exception that was thrown.
+     */
+    public void addException( AuditEvent auditevent, Throwable throwable ) {
+    }
+}
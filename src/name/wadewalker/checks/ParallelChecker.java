@@ -0,0 +1,264 @@
+package name.wadewalker.checks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+
+//==============================================================================
+/**
+ * Checks files on several threads at once. Each worker thread borrows its own
+ * Checker once, then pulls files from a shared index until they run out. Results
+ * come back in the same order as the input files, so output is deterministic no
+ * matter how the work was split. Checkers come from a {@link CheckerPool}, which
+ * is thrown away after each check unless one that outlives it is set. Each check
+ * is one audit for HungarianNaming's fail-fast limit: its workers all add to the
+ * same {@link ViolationCount}. It's also one audit for baseline updates: its workers
+ * all record into the same {@link Baseline}, which is written once every file has
+ * been checked. Changed lines set for a check apply to all its workers' Checkers
+ * (see {@link ChangedLines#setCurrent(ChangedLines)}).
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class ParallelChecker {
+
+    /** Checkstyle configuration given to each worker's Checker. */
+    private final Configuration configuration;
+
+    /** Base directory stripped from file names in the output (or null to leave them alone). */
+    private final String sBasedir;
+
+    /** Number of worker threads. */
+    private final int iThreads;
+
+    /** Cache of results for unchanged files (or null to check every file). */
+    private ResultCache resultcache;
+
+    /** Pool of warm Checkers to reuse (or null to configure new ones for each check). */
+    private CheckerPool checkerpool;
+
+    /** Changed lines the checks are limited to (or null to check every line). */
+    private ChangedLines changedlines;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     *
+     * @param configurationIn Checkstyle configuration given to each worker's Checker.
+     * @param sBasedirIn Base directory stripped from file names in the output (or null to leave them alone).
+     * @param iThreadsIn Number of worker threads (or 0 to use one per processor).
+     */
+    public ParallelChecker( Configuration configurationIn, String sBasedirIn, int iThreadsIn ) {
+        configuration = configurationIn;
+        sBasedir = sBasedirIn;
+        iThreads = iThreadsIn > 0 ? iThreadsIn : Runtime.getRuntime().availableProcessors();
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the number of worker threads.
+     */
+    public int getThreads() {
+        return( iThreads );
+    }
+
+    //==============================================================================
+    /**
+     * Mutator.
+     * @param resultcacheIn Cache of results for unchanged files (or null to check every file).
+     */
+    public void setResultCache( ResultCache resultcacheIn ) {
+        resultcache = resultcacheIn;
+    }
+
+    //==============================================================================
+    /**
+     * Mutator.
+     * @param checkerpoolIn Pool of warm Checkers to reuse across checks (or null to configure
+     * new ones for each check). Its configuration is used instead of this object's.
+     */
+    public void setCheckerPool( CheckerPool checkerpoolIn ) {
+        checkerpool = checkerpoolIn;
+    }
+
+    //==============================================================================
+    /**
+     * Mutator.
+     * @param changedlinesIn Changed lines that checks with no changed lines file of their
+     * own are limited to (or null to check every line), so warm Checkers can check a diff.
+     */
+    public void setChangedLines( ChangedLines changedlinesIn ) {
+        changedlines = changedlinesIn;
+    }
+
+    //==============================================================================
+    /**
+     * Checks the files.
+     *
+     * @param listFiles Files to check.
+     * @return one result per file, in the same order as the input list.
+     * @throws CheckstyleException if a worker's Checker can't be configured, or if checking
+     * a file fails.
+     */
+    public List<FileResult> check( final List<File> listFiles ) throws CheckstyleException {
+
+        final FileResult [] afileresults = new FileResult [listFiles.size()];
+        final AtomicInteger atomicintegerNextFile = new AtomicInteger();
+        final ViolationCount violationcount = new ViolationCount();
+        final ConcurrentMap<String, Baseline> concurrentmapRecordings = new ConcurrentHashMap<String, Baseline>();
+        final CheckerPool checkerpoolUsed = checkerpool != null ? checkerpool : new CheckerPool( configuration, sBasedir );
+
+        // no point starting more workers than there are files
+        int iWorkers = Math.max( 1, Math.min( iThreads, listFiles.size() ) );
+
+        ExecutorService executorservice = Executors.newFixedThreadPool( iWorkers );
+        try {
+            List<Future<Void>> listFutures = new ArrayList<Future<Void>>( iWorkers );
+            for( int i = 0; i < iWorkers; i++ ) {
+                listFutures.add( executorservice.submit( new Callable<Void>() {
+                    public Void call() throws CheckstyleException {
+                        runWorker( checkerpoolUsed, listFiles, afileresults, atomicintegerNextFile, violationcount, concurrentmapRecordings );
+                        return( null );
+                    }
+                } ) );
+            }
+
+            for( Future<Void> future : listFutures )
+                waitFor( future );
+        }
+        finally {
+            executorservice.shutdownNow();
+            if( checkerpoolUsed != checkerpool )
+                checkerpoolUsed.close();
+        }
+
+        try {
+            Baseline.writeAuditRecordings( concurrentmapRecordings );
+        }
+        catch( IOException ioexception ) {
+            throw new CheckstyleException( "Unable to write baseline file", ioexception );
+        }
+
+        List<FileResult> listResults = new ArrayList<FileResult>( afileresults.length );
+        Collections.addAll( listResults, afileresults );
+        return( listResults );
+    }
+
+    //==============================================================================
+    /**
+     * Body of one worker thread: checks files one at a time until there are none left,
+     * replaying cached results for files that haven't changed.
+     *
+     * @param checkerpoolUsed Pool to borrow the worker's Checker from.
+     * @param listFiles All the files to check.
+     * @param afileresults Results for all the files, indexed the same as the file list.
+     * @param atomicintegerNextFile Index of the next file no worker has taken yet.
+     * @param violationcount Violations reported so far by all the workers of this check.
+     * @param concurrentmapRecordings Baselines recorded by all the workers of this check.
+     * @throws CheckstyleException if the Checker can't be configured, or if checking a file fails.
+     */
+    private void runWorker( CheckerPool checkerpoolUsed, List<File> listFiles, FileResult [] afileresults, AtomicInteger atomicintegerNextFile,
+                            ViolationCount violationcount, ConcurrentMap<String, Baseline> concurrentmapRecordings )
+        throws CheckstyleException {
+
+        // borrowed on the first cache miss, so a run where nothing changed never parses anything
+        CheckerPool.PooledChecker pooledchecker = null;
+        boolean bCompleted = false;
+        ViolationCount violationcountPrevious = ViolationCount.setCurrent( violationcount );
+        ChangedLines changedlinesPrevious = ChangedLines.setCurrent( changedlines );
+        ConcurrentMap<String, Baseline> concurrentmapPrevious = Baseline.setAuditRecordings( concurrentmapRecordings );
+
+        try {
+            for( int iFile = atomicintegerNextFile.getAndIncrement(); iFile < listFiles.size(); iFile = atomicintegerNextFile.getAndIncrement() ) {
+                File file = listFiles.get( iFile );
+
+                String sContentHash = null;
+                if( resultcache != null ) {
+                    sContentHash = hashFile( file );
+                    afileresults[iFile] = sContentHash != null ? resultcache.lookup( file, sContentHash ) : null;
+                    if( afileresults[iFile] != null )
+                        continue;
+                }
+
+                if( pooledchecker == null )
+                    pooledchecker = checkerpoolUsed.borrow();
+                int iErrorCount = pooledchecker.checker.process( Collections.singletonList( file ) );
+                afileresults[iFile] = new FileResult( file, pooledchecker.fileresultcollector.takeLines(), iErrorCount );
+
+                if( sContentHash != null )
+                    resultcache.store( afileresults[iFile], sContentHash );
+            }
+            bCompleted = true;
+        }
+        finally {
+            // a Checker that threw might be in a bad state, so it isn't reused
+            if( (pooledchecker != null) && bCompleted )
+                checkerpoolUsed.giveBack( pooledchecker );
+            else if( pooledchecker != null )
+                checkerpoolUsed.discard( pooledchecker );
+
+            // restored last, so a Checker destroyed above still counts as part of this audit
+            ViolationCount.setCurrent( violationcountPrevious );
+            ChangedLines.setCurrent( changedlinesPrevious );
+            Baseline.setAuditRecordings( concurrentmapPrevious );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Hashes a file's contents for the result cache.
+     *
+     * @param file File to hash.
+     * @return the hash, or null if the file can't be read (so the Checker reports the problem,
+     * and nothing is cached).
+     */
+    private static String hashFile( File file ) {
+        try {
+            return( ResultCache.hashFile( file ) );
+        }
+        catch( IOException ioexception ) {
+            return( null );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Waits for a worker to finish, passing on any exception it threw.
+     *
+     * @param future Result of the worker.
+     * @throws CheckstyleException if the worker threw one, or was interrupted.
+     */
+    private static void waitFor( Future<Void> future ) throws CheckstyleException {
+        try {
+            future.get();
+        }
+        catch( InterruptedException interruptedexception ) {
+            Thread.currentThread().interrupt();
+            throw new CheckstyleException( "Interrupted while waiting for checker threads", interruptedexception );
+        }
+        catch( ExecutionException executionexception ) {
+            Throwable throwable = executionexception.getCause();
+            if( throwable instanceof CheckstyleException )
+                throw (CheckstyleException)throwable;
+            if( throwable instanceof RuntimeException )
+                throw (RuntimeException)throwable;
+            if( throwable instanceof Error )
+                throw (Error)throwable;
+            throw new CheckstyleException( "Checker thread failed", throwable );
+        }
+    }
+}
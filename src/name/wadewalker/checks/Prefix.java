@@ -0,0 +1,39 @@
+package name.wadewalker.checks;
+
+//==============================================================================
+/**
+ * One part of a Hungarian prefix (static, array, varargs, or type), and the name
+ * used for it in warning messages.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+final class Prefix {
+
+    /** Required by static declarations. */
+    static final Prefix sprefixStatic = new Prefix( "static", "s" );
+
+    /** Required by varargs parameters. */
+    static final Prefix sprefixVarargs = new Prefix( "varargs", "a" );
+
+    /** Required by array declarations. */
+    static final Prefix sprefixArray = new Prefix( "array", "a" );
+
+    /** Type name (or "static", "array", "varargs") as it appears in warning messages. */
+    final String sTypeName;
+
+    /** Prefix that names of this type must start with. */
+    final String sPrefix;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     *
+     * @param sTypeNameIn Type name as it appears in warning messages.
+     * @param sPrefixIn Prefix that names of this type must start with.
+     */
+    Prefix( String sTypeNameIn, String sPrefixIn ) {
+        sTypeName = sTypeNameIn;
+        sPrefix = sPrefixIn;
+    }
+}
@@ -0,0 +1,121 @@
+package name.wadewalker.checks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+//==============================================================================
+/**
+ * Type-to-prefix rules for {@link HungarianNaming}, compiled into a trie over the
+ * characters of the type names. A lookup walks the type name once, so its cost
+ * depends only on the length of the name, not on how many rules there are.
+ *
+ * Each node's outgoing edges are stored as a sorted character array with a
+ * parallel array of child node indices, and are binary searched. The compiled
+ * table is immutable, so it and its declaration cache can be shared by all
+ * instances of the check that use the same rules.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+final class PrefixTable {
+
+    /** Maximum number of type names to cache declaration verdicts for. */
+    private static final int siMaxCachedTypeNames = 4096;
+
+    /** Edge characters leaving each node, sorted. */
+    private final char [][] acEdgeChars;
+
+    /** Child node indices for each node, in the same order as the edge characters. */
+    private final int [][] aiEdgeTargets;
+
+    /** Prefix for the type name ending at each node, or null if no name ends there. */
+    private final Prefix [] aprefixNodeValues;
+
+    /** Verdicts for declarations checked against these rules. */
+    private final DeclarationCache<DeclarationVerdict> declarationcache = new DeclarationCache<DeclarationVerdict>( siMaxCachedTypeNames );
+
+    //==============================================================================
+    /**
+     * Compiles a set of rules.
+     *
+     * @param mapRules Prefixes indexed by type name.
+     */
+    PrefixTable( Map<String, Prefix> mapRules ) {
+
+        // build the trie with one tree map of children per node, then flatten it
+        List<TreeMap<Character, Integer>> listChildren = new ArrayList<TreeMap<Character, Integer>>();
+        List<Prefix> listValues = new ArrayList<Prefix>();
+        listChildren.add( new TreeMap<Character, Integer>() );
+        listValues.add( null );
+
+        for( Map.Entry<String, Prefix> entry : mapRules.entrySet() ) {
+            String sTypeName = entry.getKey();
+            int iNode = 0;
+
+            for( int i = 0; i < sTypeName.length(); i++ ) {
+                Integer integerChild = listChildren.get( iNode ).get( sTypeName.charAt( i ) );
+                if( integerChild == null ) {
+                    integerChild = listChildren.size();
+                    listChildren.get( iNode ).put( sTypeName.charAt( i ), integerChild );
+                    listChildren.add( new TreeMap<Character, Integer>() );
+                    listValues.add( null );
+                }
+
+                iNode = integerChild;
+            }
+
+            listValues.set( iNode, entry.getValue() );
+        }
+
+        acEdgeChars = new char [listChildren.size()][];
+        aiEdgeTargets = new int [listChildren.size()][];
+        aprefixNodeValues = listValues.toArray( new Prefix [listValues.size()] );
+
+        for( int iNode = 0; iNode < listChildren.size(); iNode++ ) {
+            TreeMap<Character, Integer> treemapChildren = listChildren.get( iNode );
+            acEdgeChars[iNode] = new char [treemapChildren.size()];
+            aiEdgeTargets[iNode] = new int [treemapChildren.size()];
+
+            int iEdge = 0;
+            for( Map.Entry<Character, Integer> entry : treemapChildren.entrySet() ) {
+                acEdgeChars[iNode][iEdge] = entry.getKey();
+                aiEdgeTargets[iNode][iEdge] = entry.getValue();
+                iEdge++;
+            }
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Finds the prefix for a type name.
+     *
+     * @param sTypeName Simple type name (or native type keyword) to look up.
+     * @return the prefix for the type, or null if no rule covers it.
+     */
+    Prefix lookup( String sTypeName ) {
+
+        int iNode = 0;
+
+        for( int i = 0; i < sTypeName.length(); i++ ) {
+            int iEdge = Arrays.binarySearch( acEdgeChars[iNode], sTypeName.charAt( i ) );
+            if( iEdge < 0 )
+                return( null );
+
+            iNode = aiEdgeTargets[iNode][iEdge];
+        }
+
+        return( aprefixNodeValues[iNode] );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the cache of verdicts for declarations checked against these rules.
+     */
+    DeclarationCache<DeclarationVerdict> getDeclarationCache() {
+        return( declarationcache );
+    }
+}
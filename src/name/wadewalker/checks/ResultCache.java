@@ -0,0 +1,572 @@
+package name.wadewalker.checks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+
+//==============================================================================
+/**
+ * On-disk cache of each file's check results, so files that haven't changed can
+ * replay their old output without being parsed again. Each result is keyed by the
+ * file's path and the hash of its contents. The whole cache is thrown away if the
+ * fingerprint changes, which covers the Checkstyle configuration, the base directory,
+ * any prefix file, the types of any type index, and the bytes of every class (nested
+ * ones included) and resource in this package, found where this class was loaded from.
+ *
+ * The cache is bypassed (nothing is replayed and the file on disk is left alone) while
+ * any check is updating its baseline, since a baseline is rewritten from the violations
+ * of the files actually checked, and files replayed from the cache would drop out of it.
+ * It's bypassed too while any check is limited to changed lines, so a run over a diff
+ * neither replays nor replaces the results of full runs.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class ResultCache {
+
+    /** First int of every cache file. */
+    private static final int siMagic = 0x57574343;
+
+    /** Version of the cache file format. */
+    private static final int siFormatVersion = 1;
+
+    /** Hash algorithm for file contents and the fingerprint. */
+    private static final String ssHashAlgorithm = "SHA-256";
+
+    /** Name of the check property that names a prefix file (whose contents change the results). */
+    private static final String ssPrefixFileAttribute = "prefixFile";
+
+    /** Attribute naming a baseline file, whose contents go into the fingerprint when it exists. */
+    private static final String ssBaselineFileAttribute = "baselineFile";
+
+    /** Attribute naming a changed lines file, which the cache is bypassed for. */
+    private static final String ssChangedLinesAttribute = "changedLines";
+
+    /** Attribute that turns on baseline updating, which the cache is bypassed for. */
+    private static final String ssUpdateBaselineAttribute = "updateBaseline";
+
+    /** Attribute listing type index roots, whose declared types go into the fingerprint. */
+    private static final String ssTypeIndexRootsAttribute = "typeIndexRoots";
+
+    /** Cache file on disk. */
+    private final File fileCache;
+
+    /** Fingerprint of everything besides file contents that affects the results. */
+    private final String sFingerprint;
+
+    /** Results read from disk, keyed by file path. */
+    private final Map<String, CachedResult> mapOldEntries;
+
+    /** True if every file must be checked and nothing saved (see the class comment). */
+    private final boolean bBypassed;
+
+    /** Results seen during this run (hits and misses), which are all that get saved. */
+    private final ConcurrentMap<String, CachedResult> concurrentmapNewEntries = new ConcurrentHashMap<String, CachedResult>();
+
+    /** Number of files whose results were replayed from the cache. */
+    private final AtomicLong atomiclongHits = new AtomicLong();
+
+    /** Number of files that had to be checked. */
+    private final AtomicLong atomiclongMisses = new AtomicLong();
+
+    //==============================================================================
+    /**
+     * One file's cached results.
+     */
+    private static final class CachedResult {
+
+        /** Hash of the file's contents when it was checked. */
+        private final String sContentHash;
+
+        /** Output lines in DefaultLogger format. */
+        private final List<String> listLines;
+
+        /** Number of violations with error severity. */
+        private final int iErrorCount;
+
+        //==============================================================================
+        /**
+         * Constructor.
+         *
+         * @param sContentHashIn Hash of the file's contents when it was checked.
+         * @param listLinesIn Output lines in DefaultLogger format.
+         * @param iErrorCountIn Number of violations with error severity.
+         */
+        CachedResult( String sContentHashIn, List<String> listLinesIn, int iErrorCountIn ) {
+            sContentHash = sContentHashIn;
+            listLines = listLinesIn;
+            iErrorCount = iErrorCountIn;
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Constructor.
+     *
+     * @param fileCacheIn Cache file on disk.
+     * @param sFingerprintIn Fingerprint of everything besides file contents that affects the results.
+     * @param mapOldEntriesIn Results read from disk, keyed by file path.
+     * @param bBypassedIn True if every file must be checked and nothing saved.
+     */
+    private ResultCache( File fileCacheIn, String sFingerprintIn, Map<String, CachedResult> mapOldEntriesIn, boolean bBypassedIn ) {
+        fileCache = fileCacheIn;
+        sFingerprint = sFingerprintIn;
+        mapOldEntries = mapOldEntriesIn;
+        bBypassed = bBypassedIn;
+    }
+
+    //==============================================================================
+    /**
+     * Loads a cache file. If the file is missing, unreadable, or was written with a
+     * different fingerprint, the cache starts out empty. If a check in the configuration
+     * is updating its baseline or limited to changed lines, the file isn't read and the
+     * cache is bypassed.
+     *
+     * @param fileCache Cache file on disk.
+     * @param configuration Checkstyle configuration the files will be checked with.
+     * @param sBasedir Base directory stripped from file names in the output (or null).
+     * @return the loaded cache.
+     * @throws CheckstyleException if the fingerprint can't be computed.
+     */
+    public static ResultCache load( File fileCache, Configuration configuration, String sBasedir ) throws CheckstyleException {
+
+        if( isBypassedFor( configuration ) )
+            return( new ResultCache( fileCache, "", new TreeMap<String, CachedResult>(), true ) );
+
+        String sFingerprint = computeFingerprint( configuration, sBasedir );
+        Map<String, CachedResult> mapEntries = new TreeMap<String, CachedResult>();
+
+        try {
+            DataInputStream datainputstream = new DataInputStream( new BufferedInputStream( new FileInputStream( fileCache ) ) );
+            try {
+                if(    (datainputstream.readInt() == siMagic)
+                    && (datainputstream.readInt() == siFormatVersion)
+                    && datainputstream.readUTF().equals( sFingerprint ) )
+                    readEntries( datainputstream, mapEntries );
+            }
+            finally {
+                datainputstream.close();
+            }
+        }
+        catch( FileNotFoundException filenotfoundexception ) {
+            // first run, so nothing to reuse
+        }
+        catch( IOException ioexception ) {
+            // truncated or corrupt cache is treated as empty, and overwritten by save()
+            mapEntries.clear();
+        }
+
+        return( new ResultCache( fileCache, sFingerprint, mapEntries, false ) );
+    }
+
+    //==============================================================================
+    /**
+     * Tells whether a configuration or any of its children updates a baseline or is
+     * limited to changed lines, so the cache must be bypassed.
+     *
+     * @param configuration Configuration to search.
+     * @return true if some module has its updateBaseline attribute set to true, or a
+     * non-empty changedLines attribute.
+     * @throws CheckstyleException if an attribute can't be read.
+     */
+    private static boolean isBypassedFor( Configuration configuration ) throws CheckstyleException {
+
+        List<String> listAttributeNames = Arrays.asList( configuration.getAttributeNames() );
+        if(    (   listAttributeNames.contains( ssUpdateBaselineAttribute )
+                && Boolean.parseBoolean( configuration.getAttribute( ssUpdateBaselineAttribute ).trim() ))
+            || (   listAttributeNames.contains( ssChangedLinesAttribute )
+                && !configuration.getAttribute( ssChangedLinesAttribute ).trim().isEmpty()) )
+            return( true );
+
+        for( Configuration configurationChild : configuration.getChildren() ) {
+            if( isBypassedFor( configurationChild ) )
+                return( true );
+        }
+        return( false );
+    }
+
+    //==============================================================================
+    /**
+     * Reads the entries that follow the cache file header.
+     *
+     * @param datainputstream Stream positioned after the header.
+     * @param mapEntries Where to put the entries.
+     * @throws IOException if the entries can't be read.
+     */
+    private static void readEntries( DataInputStream datainputstream, Map<String, CachedResult> mapEntries ) throws IOException {
+
+        int iEntries = datainputstream.readInt();
+        for( int iEntry = 0; iEntry < iEntries; iEntry++ ) {
+            String sPath = datainputstream.readUTF();
+            String sContentHash = datainputstream.readUTF();
+            int iErrorCount = datainputstream.readInt();
+            int iLines = datainputstream.readInt();
+            if( iLines < 0 )
+                throw new EOFException( "Bad line count" );
+            List<String> listLines = new ArrayList<String>( Math.min( iLines, 1024 ) );
+            for( int iLine = 0; iLine < iLines; iLine++ )
+                listLines.add( datainputstream.readUTF() );
+            mapEntries.put( sPath, new CachedResult( sContentHash, listLines, iErrorCount ) );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Writes the entries seen during this run to the cache file. Entries for files that
+     * weren't checked this time are dropped. Does nothing if the cache is bypassed.
+     *
+     * @throws IOException if the cache file can't be written.
+     */
+    public void save() throws IOException {
+
+        if( bBypassed )
+            return;
+
+        Map<String, CachedResult> mapEntries = new TreeMap<String, CachedResult>( concurrentmapNewEntries );
+
+        // write to a temporary file first, so an interrupted save can't leave a corrupt cache
+        File fileTemp = new File( fileCache.getPath() + ".tmp" );
+        DataOutputStream dataoutputstream = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( fileTemp ) ) );
+        try {
+            dataoutputstream.writeInt( siMagic );
+            dataoutputstream.writeInt( siFormatVersion );
+            dataoutputstream.writeUTF( sFingerprint );
+            dataoutputstream.writeInt( mapEntries.size() );
+            for( Map.Entry<String, CachedResult> entry : mapEntries.entrySet() ) {
+                CachedResult cachedresult = entry.getValue();
+                dataoutputstream.writeUTF( entry.getKey() );
+                dataoutputstream.writeUTF( cachedresult.sContentHash );
+                dataoutputstream.writeInt( cachedresult.iErrorCount );
+                dataoutputstream.writeInt( cachedresult.listLines.size() );
+                for( String sLine : cachedresult.listLines )
+                    dataoutputstream.writeUTF( sLine );
+            }
+        }
+        finally {
+            dataoutputstream.close();
+        }
+
+        if( !fileTemp.renameTo( fileCache ) ) {
+            // rename can't replace an existing file on some platforms
+            if( !fileCache.delete() || !fileTemp.renameTo( fileCache ) )
+                throw new IOException( "Can't replace cache file " + fileCache );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Looks up a file's results.
+     *
+     * @param file File being checked.
+     * @param sContentHash Hash of the file's current contents.
+     * @return the cached results, or null if the file has changed, was never checked, or the cache is bypassed.
+     */
+    FileResult lookup( File file, String sContentHash ) {
+
+        String sPath = file.getPath();
+        CachedResult cachedresult = mapOldEntries.get( sPath );
+        if( bBypassed || (cachedresult == null) || !cachedresult.sContentHash.equals( sContentHash ) ) {
+            atomiclongMisses.incrementAndGet();
+            return( null );
+        }
+
+        atomiclongHits.incrementAndGet();
+        concurrentmapNewEntries.put( sPath, cachedresult );
+        return( new FileResult( file, cachedresult.listLines, cachedresult.iErrorCount ) );
+    }
+
+    //==============================================================================
+    /**
+     * Stores a file's results.
+     *
+     * @param fileresult Results of checking the file.
+     * @param sContentHash Hash of the file's contents when it was checked.
+     */
+    void store( FileResult fileresult, String sContentHash ) {
+        if( !bBypassed )
+            concurrentmapNewEntries.put( fileresult.getFile().getPath(),
+                                         new CachedResult( sContentHash, new ArrayList<String>( fileresult.getLines() ), fileresult.getErrorCount() ) );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the number of files whose results were replayed from the cache.
+     */
+    public long getHitCount() {
+        return( atomiclongHits.get() );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the number of files that had to be checked.
+     */
+    public long getMissCount() {
+        return( atomiclongMisses.get() );
+    }
+
+    //==============================================================================
+    /**
+     * Hashes a file's contents.
+     *
+     * @param file File to hash.
+     * @return the hash as a hex string.
+     * @throws IOException if the file can't be read.
+     */
+    static String hashFile( File file ) throws IOException {
+
+        MessageDigest messagedigest = createDigest();
+        InputStream inputstream = new FileInputStream( file );
+        try {
+            updateDigest( messagedigest, inputstream );
+        }
+        finally {
+            inputstream.close();
+        }
+
+        return( toHex( messagedigest.digest() ) );
+    }
+
+    //==============================================================================
+    /**
+     * Hashes a list of file paths (with separators normalized), so processes that are
+     * meant to find the same files can tell whether they did.
+     *
+     * @param listFiles Files in order.
+     * @return the hash as a hex string.
+     * @throws IOException never, since UTF-8 is always supported.
+     */
+    static String hashFileList( List<File> listFiles ) throws IOException {
+
+        MessageDigest messagedigest = createDigest();
+        for( File file : listFiles )
+            updateDigest( messagedigest, file.getPath().replace( '\\', '/' ) );
+
+        return( toHex( messagedigest.digest() ) );
+    }
+
+    //==============================================================================
+    /**
+     * Computes the fingerprint of everything besides file contents that affects the results.
+     *
+     * @param configuration Checkstyle configuration the files will be checked with.
+     * @param sBasedir Base directory stripped from file names in the output (or null).
+     * @return the fingerprint as a hex string.
+     * @throws CheckstyleException if a check class or prefix file can't be read.
+     */
+    static String computeFingerprint( Configuration configuration, String sBasedir ) throws CheckstyleException {
+
+        MessageDigest messagedigest = createDigest();
+
+        try {
+            updateDigest( messagedigest, "checkstyle=" + Checker.class.getPackage().getImplementationVersion() );
+            updateDigest( messagedigest, "basedir=" + sBasedir );
+            updateDigest( messagedigest, configuration );
+
+            for( String sResource : findCodeResources() ) {
+                InputStream inputstream = ResultCache.class.getResourceAsStream( sResource );
+                if( inputstream == null )
+                    throw new CheckstyleException( "Can't find " + sResource + " to fingerprint the result cache" );
+                try {
+                    updateDigest( messagedigest, sResource );
+                    updateDigest( messagedigest, inputstream );
+                }
+                finally {
+                    inputstream.close();
+                }
+            }
+        }
+        catch( IOException ioexception ) {
+            throw new CheckstyleException( "Can't fingerprint the result cache", ioexception );
+        }
+
+        return( toHex( messagedigest.digest() ) );
+    }
+
+    //==============================================================================
+    /**
+     * Finds the classes and resources of this package, so any code change invalidates
+     * the cache. They're listed from the directory or jar this class was loaded from,
+     * so nested and anonymous classes are found too.
+     *
+     * @return the names of the files in this package (not in subpackages), in sorted order.
+     * @throws CheckstyleException if the package can't be listed.
+     * @throws IOException if the jar holding the package can't be read.
+     */
+    private static List<String> findCodeResources() throws CheckstyleException, IOException {
+
+        List<String> listResources = new ArrayList<String>();
+        URL url = ResultCache.class.getResource( ResultCache.class.getSimpleName() + ".class" );
+
+        if( (url != null) && url.getProtocol().equals( "file" ) ) {
+            File [] afiles = null;
+            try {
+                afiles = new File( url.toURI() ).getParentFile().listFiles();
+            }
+            catch( URISyntaxException urisyntaxexception ) {
+                throw new CheckstyleException( "Can't list " + url + " to fingerprint the result cache", urisyntaxexception );
+            }
+            if( afiles == null )
+                throw new CheckstyleException( "Can't list " + url + " to fingerprint the result cache" );
+            for( File file : afiles ) {
+                if( file.isFile() )
+                    listResources.add( file.getName() );
+            }
+        }
+        else if( (url != null) && url.getProtocol().equals( "jar" ) ) {
+            JarURLConnection jarurlconnection = (JarURLConnection)url.openConnection();
+            jarurlconnection.setUseCaches( false );
+            String sEntryName = jarurlconnection.getEntryName();
+            String sPackagePath = sEntryName.substring( 0, sEntryName.lastIndexOf( '/' ) + 1 );
+            JarFile jarfile = jarurlconnection.getJarFile();
+            try {
+                for( Enumeration<JarEntry> enumeration = jarfile.entries(); enumeration.hasMoreElements(); ) {
+                    String sName = enumeration.nextElement().getName();
+                    if( sName.startsWith( sPackagePath ) && (sName.indexOf( '/', sPackagePath.length() ) < 0) && (sName.length() > sPackagePath.length()) )
+                        listResources.add( sName.substring( sPackagePath.length() ) );
+                }
+            }
+            finally {
+                jarfile.close();
+            }
+        }
+        else
+            throw new CheckstyleException( "Can't list the classes at " + url + " to fingerprint the result cache" );
+
+        Collections.sort( listResources );
+        return( listResources );
+    }
+
+    //==============================================================================
+    /**
+     * Adds a configuration and all its children to a digest, with attributes in sorted
+     * order. The contents of prefix and baseline files and the types of any type index are added too,
+     * since they change the results without changing the configuration.
+     *
+     * @param messagedigest Digest to add to.
+     * @param configuration Configuration to add.
+     * @throws CheckstyleException if an attribute or prefix file can't be read.
+     * @throws IOException if a prefix file can't be read.
+     */
+    private static void updateDigest( MessageDigest messagedigest, Configuration configuration )
+        throws CheckstyleException, IOException {
+
+        updateDigest( messagedigest, "module=" + configuration.getName() );
+
+        String [] asAttributeNames = configuration.getAttributeNames();
+        Arrays.sort( asAttributeNames );
+        for( String sAttributeName : asAttributeNames ) {
+            String sValue = configuration.getAttribute( sAttributeName );
+            updateDigest( messagedigest, sAttributeName + "=" + sValue );
+
+            if(    sAttributeName.equals( ssPrefixFileAttribute )
+                || (sAttributeName.equals( ssBaselineFileAttribute ) && new File( sValue ).isFile()) ) {
+                InputStream inputstream = new FileInputStream( sValue );
+                try {
+                    updateDigest( messagedigest, inputstream );
+                }
+                finally {
+                    inputstream.close();
+                }
+            }
+            else if( sAttributeName.equals( ssTypeIndexRootsAttribute ) && !sValue.trim().isEmpty() )
+                updateDigest( messagedigest, TypeIndex.getShared( sValue.split( "," ) ).getFingerprint() );
+        }
+
+        for( Configuration configurationChild : configuration.getChildren() )
+            updateDigest( messagedigest, configurationChild );
+        updateDigest( messagedigest, "end=" + configuration.getName() );
+    }
+
+    //==============================================================================
+    /**
+     * Adds a string to a digest, terminated so adjacent strings can't run together.
+     *
+     * @param messagedigest Digest to add to.
+     * @param s String to add.
+     * @throws UnsupportedEncodingException never, since UTF-8 is always supported.
+     */
+    private static void updateDigest( MessageDigest messagedigest, String s ) throws UnsupportedEncodingException {
+        messagedigest.update( s.getBytes( "UTF-8" ) );
+        messagedigest.update( (byte)0 );
+    }
+
+    //==============================================================================
+    /**
+     * Adds the rest of a stream to a digest.
+     *
+     * @param messagedigest Digest to add to.
+     * @param inputstream Stream to read (not closed).
+     * @throws IOException if the stream can't be read.
+     */
+    private static void updateDigest( MessageDigest messagedigest, InputStream inputstream ) throws IOException {
+
+        byte [] abBuffer = new byte [8192];
+        for( int iRead = inputstream.read( abBuffer ); iRead >= 0; iRead = inputstream.read( abBuffer ) )
+            messagedigest.update( abBuffer, 0, iRead );
+    }
+
+    //==============================================================================
+    /**
+     * Creates a digest for the hash algorithm.
+     *
+     * @return the new digest.
+     */
+    private static MessageDigest createDigest() {
+        try {
+            return( MessageDigest.getInstance( ssHashAlgorithm ) );
+        }
+        catch( NoSuchAlgorithmException nosuchalgorithmexception ) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException( nosuchalgorithmexception );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Converts bytes to a hex string.
+     *
+     * @param ab Bytes to convert.
+     * @return the hex string.
+     */
+    private static String toHex( byte [] ab ) {
+
+        StringBuilder sb = new StringBuilder( ab.length * 2 );
+        for( byte b : ab ) {
+            sb.append( Character.forDigit( (b >> 4) & 0xf, 16 ) );
+            sb.append( Character.forDigit( b & 0xf, 16 ) );
+        }
+        return( sb.toString() );
+    }
+}
@@ -0,0 +1,264 @@
+package name.wadewalker.checks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+//==============================================================================
+/**
+ * Partial reports for splitting one check across several independent processes.
+ * Every process is given the same roots, so each finds the same sorted file list,
+ * and takes the files whose path hashes to its shard (see {@link #getShard(File, int)}).
+ * {@link CheckRunner} run with "-s shard/shards" writes a partial report holding each
+ * of its files' results and their positions in the whole list, and the merge step
+ * puts the results back in that order:
+ *
+ * <pre>
+ * java name.wadewalker.checks.CheckRunner -c config.xml -s 0/4 -o part0 root...
+ * ...
+ * java name.wadewalker.checks.ShardReport [-o output] part0 part1 part2 part3
+ * </pre>
+ *
+ * The merged output is identical to a single-process run's, and the exit code is the
+ * number of errors. A file found in more than one partial report is only output once,
+ * and a missing shard is an error, so a partial result is never mistaken for a whole one.
+ * Each partial report's header holds the {@link ResultCache} fingerprint of the
+ * configuration and code it was checked with, and a hash of the whole sorted file list,
+ * so reports from checks with different settings, code, or files are never merged.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class ShardReport {
+
+    /** Usage message printed for bad arguments. */
+    private static final String ssUsage = "Usage: ShardReport [-o output] partialreport...";
+
+    /** First int of every partial report. */
+    private static final int siMagic = 0x57575352;
+
+    /** Version of the partial report format. */
+    private static final int siFormatVersion = 2;
+
+    //==============================================================================
+    /**
+     * Can't instantiate this class (it only has static methods).
+     */
+    private ShardReport() {
+    }
+
+    //==============================================================================
+    /**
+     * Merges partial reports from the command line.
+     *
+     * @param asArgs Command-line arguments (see the class comment).
+     */
+    public static void main( String [] asArgs ) {
+
+        String sOutputFile = null;
+        int iFirstReport = 0;
+        if( (asArgs.length >= 2) && asArgs[0].equals( "-o" ) ) {
+            sOutputFile = asArgs[1];
+            iFirstReport = 2;
+        }
+
+        List<File> listReports = new ArrayList<File>();
+        for( int i = iFirstReport; i < asArgs.length; i++ )
+            listReports.add( new File( asArgs[i] ) );
+
+        if( listReports.isEmpty() || asArgs[iFirstReport].startsWith( "-" ) ) {
+            System.err.println( ssUsage );
+            System.exit( -1 );
+        }
+
+        try {
+            System.exit( CheckRunner.writeResults( merge( listReports ), sOutputFile ) );
+        }
+        catch( IOException ioexception ) {
+            ioexception.printStackTrace();
+            System.exit( -2 );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Finds the shard a file belongs to. This only depends on the file's path (with
+     * separators normalized), so every process puts a file in the same shard.
+     *
+     * @param file File to place.
+     * @param iShards Number of shards.
+     * @return the shard, from 0 to iShards - 1.
+     */
+    public static int getShard( File file, int iShards ) {
+        int iHash = file.getPath().replace( '\\', '/' ).hashCode();
+        return( (iHash & Integer.MAX_VALUE) % iShards );
+    }
+
+    //==============================================================================
+    /**
+     * Finds the files of one shard.
+     *
+     * @param listFiles All the files to check, in output order.
+     * @param iShard Shard to select, from 0 to iShards - 1.
+     * @param iShards Number of shards.
+     * @return the positions in the list of the shard's files, in increasing order.
+     */
+    public static List<Integer> selectShard( List<File> listFiles, int iShard, int iShards ) {
+
+        List<Integer> listIndices = new ArrayList<Integer>();
+        for( int i = 0; i < listFiles.size(); i++ ) {
+            if( getShard( listFiles.get( i ), iShards ) == iShard )
+                listIndices.add( i );
+        }
+        return( listIndices );
+    }
+
+    //==============================================================================
+    /**
+     * Writes the partial report of one shard.
+     *
+     * @param fileReport Partial report to write.
+     * @param iShard Shard that was checked.
+     * @param iShards Number of shards.
+     * @param sFingerprint Fingerprint of the configuration and code the files were checked
+     * with (see {@link ResultCache}).
+     * @param listFiles All the files in all the shards together, in output order.
+     * @param listIndices Positions of the shard's files in the whole file list.
+     * @param listResults Results of checking the shard's files, in the same order as the positions.
+     * @throws IOException if the report can't be written.
+     */
+    public static void write( File fileReport, int iShard, int iShards, String sFingerprint, List<File> listFiles,
+                              List<Integer> listIndices, List<FileResult> listResults ) throws IOException {
+
+        String sFileListHash = ResultCache.hashFileList( listFiles );
+        DataOutputStream dataoutputstream = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( fileReport ) ) );
+        try {
+            dataoutputstream.writeInt( siMagic );
+            dataoutputstream.writeInt( siFormatVersion );
+            dataoutputstream.writeInt( iShard );
+            dataoutputstream.writeInt( iShards );
+            dataoutputstream.writeInt( listFiles.size() );
+            dataoutputstream.writeUTF( sFingerprint );
+            dataoutputstream.writeUTF( sFileListHash );
+            dataoutputstream.writeInt( listResults.size() );
+            for( int i = 0; i < listResults.size(); i++ ) {
+                FileResult fileresult = listResults.get( i );
+                dataoutputstream.writeInt( listIndices.get( i ) );
+                dataoutputstream.writeUTF( fileresult.getFile().getPath() );
+                dataoutputstream.writeInt( fileresult.getErrorCount() );
+                dataoutputstream.writeInt( fileresult.getLines().size() );
+                for( String sLine : fileresult.getLines() )
+                    dataoutputstream.writeUTF( sLine );
+            }
+        }
+        finally {
+            dataoutputstream.close();
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Merges partial reports into the results of the whole check.
+     *
+     * @param listReports Partial reports, one or more per shard, in any order.
+     * @return one result per file, in the same order a single process would give them.
+     * @throws IOException if a report can't be read, the reports are from checks with
+     * different configurations, code, or files, or a shard is missing.
+     */
+    public static List<FileResult> merge( List<File> listReports ) throws IOException {
+
+        if( listReports.isEmpty() )
+            throw new IOException( "No partial reports to merge" );
+
+        FileResult [] afileresults = null;
+        boolean [] abShardsFound = null;
+        String sFirstFingerprint = null;
+        String sFirstFileListHash = null;
+
+        for( File fileReport : listReports ) {
+            DataInputStream datainputstream = new DataInputStream( new BufferedInputStream( new FileInputStream( fileReport ) ) );
+            try {
+                if( (datainputstream.readInt() != siMagic) || (datainputstream.readInt() != siFormatVersion) )
+                    throw new IOException( fileReport + " isn't a partial report" );
+
+                int iShard = datainputstream.readInt();
+                int iShards = datainputstream.readInt();
+                int iTotalFiles = datainputstream.readInt();
+                String sFingerprint = datainputstream.readUTF();
+                String sFileListHash = datainputstream.readUTF();
+                if( afileresults == null ) {
+                    if( (iShards <= 0) || (iTotalFiles < 0) )
+                        throw new EOFException( "Bad shard count or file count in " + fileReport );
+                    afileresults = new FileResult [iTotalFiles];
+                    abShardsFound = new boolean [iShards];
+                    sFirstFingerprint = sFingerprint;
+                    sFirstFileListHash = sFileListHash;
+                }
+                else if( (iShards != abShardsFound.length) || (iTotalFiles != afileresults.length) )
+                    throw new IOException( fileReport + " is from a different check than " + listReports.get( 0 ) );
+                else if( !sFingerprint.equals( sFirstFingerprint ) )
+                    throw new IOException( fileReport + " was checked with a different configuration or code than " + listReports.get( 0 ) );
+                else if( !sFileListHash.equals( sFirstFileListHash ) )
+                    throw new IOException( fileReport + " was checked over different files than " + listReports.get( 0 ) );
+                if( (iShard < 0) || (iShard >= iShards) )
+                    throw new EOFException( "Bad shard in " + fileReport );
+                abShardsFound[iShard] = true;
+
+                readResults( datainputstream, afileresults, fileReport );
+            }
+            finally {
+                datainputstream.close();
+            }
+        }
+
+        for( int iShard = 0; iShard < abShardsFound.length; iShard++ ) {
+            if( !abShardsFound[iShard] )
+                throw new IOException( "Missing partial report for shard " + iShard + " of " + abShardsFound.length );
+        }
+        for( FileResult fileresult : afileresults ) {
+            if( fileresult == null )
+                throw new IOException( "Partial reports are missing some files" );
+        }
+
+        return( Arrays.asList( afileresults ) );
+    }
+
+    //==============================================================================
+    /**
+     * Reads the file results of one partial report, keeping the first result found for each file.
+     *
+     * @param datainputstream Reads the report after its header.
+     * @param afileresults Results of all the files, indexed by position in the whole file list.
+     * @param fileReport Partial report being read.
+     * @throws IOException if the report can't be read.
+     */
+    private static void readResults( DataInputStream datainputstream, FileResult [] afileresults, File fileReport ) throws IOException {
+
+        int iResults = datainputstream.readInt();
+        for( int iResult = 0; iResult < iResults; iResult++ ) {
+            int iIndex = datainputstream.readInt();
+            if( (iIndex < 0) || (iIndex >= afileresults.length) )
+                throw new EOFException( "Bad file position in " + fileReport );
+            String sPath = datainputstream.readUTF();
+            int iErrorCount = datainputstream.readInt();
+            int iLines = datainputstream.readInt();
+            if( iLines < 0 )
+                throw new EOFException( "Bad line count in " + fileReport );
+            List<String> listLines = new ArrayList<String>( Math.min( iLines, 1024 ) );
+            for( int iLine = 0; iLine < iLines; iLine++ )
+                listLines.add( datainputstream.readUTF() );
+
+            if( afileresults[iIndex] == null )
+                afileresults[iIndex] = new FileResult( new File( sPath ), listLines, iErrorCount );
+        }
+    }
+}
@@ -0,0 +1,842 @@
+package name.wadewalker.checks;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+//==============================================================================
+/**
+ * Lexes one Java source file without parsing it, finding its lines, Javadoc comments,
+ * package, imports, and type and method declarations. String and character literals
+ * and comments are skipped. Declarations are recognized from the braces, parentheses,
+ * and a few keywords around them, tracked in a stack of frames, one per open brace.
+ * Bytes at or above 0x80 are treated as identifier characters, so names are decoded
+ * as UTF-8.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+final class SourceScan {
+
+    /** Declaration kind for a class. */
+    static final int siDeclClass = 1;
+
+    /** Declaration kind for an interface. */
+    static final int siDeclInterface = 2;
+
+    /** Declaration kind for an enum. */
+    static final int siDeclEnum = 3;
+
+    /** Declaration kind for an annotation type. */
+    static final int siDeclAnnotation = 4;
+
+    /** Declaration kind for a method or constructor. */
+    static final int siDeclMethod = 5;
+
+    /** Parent of a top-level type declaration. */
+    static final int siParentNone = -1;
+
+    /** Parent of a type declared in a block of code or an anonymous class (which can't be named from outside). */
+    static final int siParentLocal = -2;
+
+    /** Token for an identifier or keyword that isn't one of the ones below. */
+    private static final int siTokenIdent = -1;
+
+    /** Token for the "class" keyword. */
+    private static final int siTokenClass = -2;
+
+    /** Token for the "interface" keyword. */
+    private static final int siTokenInterface = -3;
+
+    /** Token for the "enum" keyword. */
+    private static final int siTokenEnum = -4;
+
+    /** Token for the "new" keyword. */
+    private static final int siTokenNew = -5;
+
+    /** Token for a number, string, or character literal. */
+    private static final int siTokenLiteral = -6;
+
+    /** Token for the "package" keyword. */
+    private static final int siTokenPackage = -7;
+
+    /** Token for the "import" keyword. */
+    private static final int siTokenImport = -8;
+
+    /** Contents of the file. */
+    final ByteBuffer bytebuffer;
+
+    /** Length of the file. */
+    private final int iSize;
+
+    /** Offset of the start of each line (indexed by line number, starting from 1). */
+    int [] aiLineStarts = new int [256];
+
+    /** Offset of the end of each line, before its terminator (indexed by line number). */
+    int [] aiLineEnds = new int [256];
+
+    /** Number of lines. */
+    int iLines;
+
+    /** Start line of the Javadoc comment ending on each line (or 0 if none does). */
+    int [] aiJavadocStarts;
+
+    /** Start and end line of each block comment, in the order they appear. */
+    private int [] aiComments = new int [64];
+
+    /** Number of entries used in {@link #aiComments}. */
+    private int iCommentEntries;
+
+    /** Kind of each declaration. */
+    int [] aiDeclKinds = new int [64];
+
+    /** Line of the first token of each declaration (including annotations and modifiers). */
+    int [] aiDeclLines = new int [64];
+
+    /** Number of types (not counting anonymous classes) enclosing each declaration. */
+    int [] aiDeclDepths = new int [64];
+
+    /** Offset of the name of each type declaration (unused for methods). */
+    private int [] aiDeclNameStarts = new int [64];
+
+    /** Length of the name of each type declaration (0 for methods). */
+    private int [] aiDeclNameLengths = new int [64];
+
+    /** Index of the type declaration enclosing each type declaration, or {@link #siParentNone} or {@link #siParentLocal}. */
+    int [] aiDeclParents = new int [64];
+
+    /** Number of declarations. */
+    int iDecls;
+
+    /** Package the file declares (or null if it doesn't declare one). */
+    String sPackage;
+
+    /** Names of the types and packages the file imports, like "java.util.Map" or "java.util.*" (not counting static imports). */
+    final List<String> listImports = new ArrayList<String>();
+
+    /** Package or import declaration being read (or null outside them). */
+    private StringBuilder sbHeader;
+
+    /** True if the declaration being read is a package declaration, false if it's an import. */
+    private boolean bPackageHeader;
+
+    /** True if the declaration being read is a static import. */
+    private boolean bStaticImport;
+
+    /** Offset of the current identifier token. */
+    private int iTokenStart;
+
+    /** Length of the current identifier token. */
+    private int iTokenLength;
+
+    /** Open braces, innermost last. */
+    private final List<Frame> listFrames = new ArrayList<Frame>();
+
+    /** Number of types (not counting anonymous classes) enclosing the current token. */
+    private int iTypeDepth;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     *
+     * @param bytebufferIn Contents of the file.
+     */
+    SourceScan( ByteBuffer bytebufferIn ) {
+        bytebuffer = bytebufferIn;
+        iSize = bytebufferIn.limit();
+        listFrames.add( new Frame( Frame.siMembers, false, false ) );
+    }
+
+    //==============================================================================
+    /**
+     * Lexes the whole file.
+     */
+    void scan() {
+
+        int iLine = 1;
+        aiLineStarts[1] = 0;
+
+        int i = 0;
+        while( i < iSize ) {
+            int iChar = bytebuffer.get( i ) & 0xFF;
+
+            if( (iChar == '\n') || (iChar == '\r') ) {
+                i = endLine( iLine++, i );
+                continue;
+            }
+
+            if( (iChar == ' ') || (iChar == '\t') || (iChar == '\f') || (iChar == 0x0B) ) {
+                i++;
+                continue;
+            }
+
+            int iNextChar = i + 1 < iSize ? bytebuffer.get( i + 1 ) & 0xFF : -1;
+
+            if( (iChar == '/') && (iNextChar == '/') ) {
+                i += 2;
+                while( (i < iSize) && !isLineTerminator( bytebuffer.get( i ) ) )
+                    i++;
+            }
+            else if( (iChar == '/') && (iNextChar == '*') ) {
+                int iStartLine = iLine;
+                i += 2;
+                while( i < iSize ) {
+                    int iCommentChar = bytebuffer.get( i ) & 0xFF;
+                    if( (iCommentChar == '*') && (i + 1 < iSize) && (bytebuffer.get( i + 1 ) == '/') ) {
+                        i += 2;
+                        break;
+                    }
+                    if( (iCommentChar == '\n') || (iCommentChar == '\r') )
+                        i = endLine( iLine++, i );
+                    else
+                        i++;
+                }
+                addComment( iStartLine, iLine );
+            }
+            else if( (iChar == '"') || (iChar == '\'') ) {
+                i = skipQuoted( i + 1, iChar );
+                token( siTokenLiteral, iLine );
+            }
+            else if( isIdentifierStart( iChar ) ) {
+                iTokenStart = i;
+                while( (i < iSize) && isIdentifierPart( bytebuffer.get( i ) & 0xFF ) )
+                    i++;
+                iTokenLength = i - iTokenStart;
+                token( keyword( iTokenStart, iTokenLength ), iLine );
+            }
+            else if( (iChar >= '0' && iChar <= '9') || ((iChar == '.') && (iNextChar >= '0') && (iNextChar <= '9')) ) {
+                i = skipNumber( i );
+                token( siTokenLiteral, iLine );
+            }
+            else {
+                i++;
+                token( iChar, iLine );
+            }
+        }
+
+        aiLineEnds[iLine] = iSize;
+        iLines = iLine;
+        findJavadoc();
+    }
+
+    //==============================================================================
+    /**
+     * Records the end of a line and the start of the next one.
+     *
+     * @param iLine Number of the line that's ending.
+     * @param i Offset of the line terminator.
+     * @return the offset after the line terminator.
+     */
+    private int endLine( int iLine, int i ) {
+
+        if( iLine + 1 >= aiLineStarts.length ) {
+            aiLineStarts = Arrays.copyOf( aiLineStarts, aiLineStarts.length * 2 );
+            aiLineEnds = Arrays.copyOf( aiLineEnds, aiLineEnds.length * 2 );
+        }
+
+        aiLineEnds[iLine] = i;
+        int iNext = ((bytebuffer.get( i ) == '\r') && (i + 1 < iSize) && (bytebuffer.get( i + 1 ) == '\n')) ? i + 2 : i + 1;
+        aiLineStarts[iLine + 1] = iNext;
+        return( iNext );
+    }
+
+    //==============================================================================
+    /**
+     * Records a block comment.
+     *
+     * @param iStartLine Line the comment starts on.
+     * @param iEndLine Line the comment ends on.
+     */
+    private void addComment( int iStartLine, int iEndLine ) {
+        if( iCommentEntries + 2 > aiComments.length )
+            aiComments = Arrays.copyOf( aiComments, aiComments.length * 2 );
+        aiComments[iCommentEntries++] = iStartLine;
+        aiComments[iCommentEntries++] = iEndLine;
+    }
+
+    //==============================================================================
+    /**
+     * Finds the block comments that Checkstyle counts as Javadoc: the ones whose
+     * first line contains "/**" but not "/**&#47;". A later comment ending on the same
+     * line replaces an earlier one.
+     */
+    private void findJavadoc() {
+
+        aiJavadocStarts = new int [iLines + 1];
+        for( int i = 0; i < iCommentEntries; i += 2 ) {
+            int iStartLine = aiComments[i];
+            if( lineContains( iStartLine, "/**" ) && !lineContains( iStartLine, "/**/" ) )
+                aiJavadocStarts[aiComments[i + 1]] = iStartLine;
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Finds the Javadoc comment Checkstyle associates with a declaration: the one
+     * ending on the line before it, skipping blank lines and line comments.
+     *
+     * @param iDeclLine Line of the declaration.
+     * @return the end line of the Javadoc comment, or 0 if there isn't one.
+     */
+    int getJavadocEndBefore( int iDeclLine ) {
+
+        int iLine = iDeclLine - 1;
+        while( (iLine > 1) && (isBlankLine( iLine ) || isCommentLine( iLine )) )
+            iLine--;
+
+        return( ((iLine >= 1) && (aiJavadocStarts[iLine] != 0)) ? iLine : 0 );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @param iLine Number of the line.
+     * @return true if the line is empty or all whitespace, false otherwise.
+     */
+    private boolean isBlankLine( int iLine ) {
+        for( int i = aiLineStarts[iLine]; i < aiLineEnds[iLine]; i++ ) {
+            if( !Character.isWhitespace( (char)(bytebuffer.get( i ) & 0xFF) ) )
+                return( false );
+        }
+        return( true );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @param iLine Number of the line.
+     * @return true if the line is only a line comment, false otherwise.
+     */
+    private boolean isCommentLine( int iLine ) {
+
+        int i = aiLineStarts[iLine];
+        int iEnd = aiLineEnds[iLine];
+        while( (i < iEnd) && isSpace( bytebuffer.get( i ) ) )
+            i++;
+
+        return( (i + 1 < iEnd) && (bytebuffer.get( i ) == '/') && (bytebuffer.get( i + 1 ) == '/') );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @param iLine Number of the line.
+     * @param sText ASCII text to look for.
+     * @return true if the line contains the text, false otherwise.
+     */
+    private boolean lineContains( int iLine, String sText ) {
+
+        int iLast = aiLineEnds[iLine] - sText.length();
+        for( int i = aiLineStarts[iLine]; i <= iLast; i++ ) {
+            int iMatched = 0;
+            while( (iMatched < sText.length()) && (bytebuffer.get( i + iMatched ) == sText.charAt( iMatched )) )
+                iMatched++;
+            if( iMatched == sText.length() )
+                return( true );
+        }
+        return( false );
+    }
+
+    //==============================================================================
+    /**
+     * Skips a string or character literal. Unterminated literals end at the end
+     * of the line.
+     *
+     * @param iStart Offset after the opening quote.
+     * @param iQuote Quote character.
+     * @return the offset after the closing quote.
+     */
+    private int skipQuoted( int iStart, int iQuote ) {
+
+        int i = iStart;
+        while( i < iSize ) {
+            byte b = bytebuffer.get( i );
+            if( isLineTerminator( b ) )
+                return( i );
+            if( b == iQuote )
+                return( i + 1 );
+            i += ((b == '\\') && (i + 1 < iSize) && !isLineTerminator( bytebuffer.get( i + 1 ) )) ? 2 : 1;
+        }
+        return( i );
+    }
+
+    //==============================================================================
+    /**
+     * Skips a number literal, including any exponent sign.
+     *
+     * @param iStart Offset of the first character of the number.
+     * @return the offset after the number.
+     */
+    private int skipNumber( int iStart ) {
+
+        int i = iStart;
+        while( i < iSize ) {
+            int iChar = bytebuffer.get( i ) & 0xFF;
+            if( (iChar == '+') || (iChar == '-') ) {
+                int iPreviousChar = bytebuffer.get( i - 1 ) & 0xFF;
+                if( (iPreviousChar != 'e') && (iPreviousChar != 'E') && (iPreviousChar != 'p') && (iPreviousChar != 'P') )
+                    break;
+            }
+            else if( !isIdentifierPart( iChar ) && (iChar != '.') )
+                break;
+            i++;
+        }
+        return( i );
+    }
+
+    //==============================================================================
+    /**
+     * Classifies an identifier.
+     *
+     * @param iStart Offset of the identifier.
+     * @param iLength Length of the identifier.
+     * @return the token for the identifier.
+     */
+    private int keyword( int iStart, int iLength ) {
+
+        if( regionEquals( iStart, iLength, "class" ) )
+            return( siTokenClass );
+        if( regionEquals( iStart, iLength, "interface" ) )
+            return( siTokenInterface );
+        if( regionEquals( iStart, iLength, "enum" ) )
+            return( siTokenEnum );
+        if( regionEquals( iStart, iLength, "new" ) )
+            return( siTokenNew );
+        if( regionEquals( iStart, iLength, "package" ) )
+            return( siTokenPackage );
+        if( regionEquals( iStart, iLength, "import" ) )
+            return( siTokenImport );
+        return( siTokenIdent );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @param iStart Offset of the region.
+     * @param iLength Length of the region.
+     * @return the region as a string.
+     */
+    private String text( int iStart, int iLength ) {
+        byte [] ab = new byte [iLength];
+        for( int i = 0; i < iLength; i++ )
+            ab[i] = bytebuffer.get( iStart + i );
+        return( new String( ab, ViolationStreamWriter.scharsetUtf8 ) );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @param iDecl Index of a type declaration.
+     * @return the simple name of the type.
+     */
+    String getDeclName( int iDecl ) {
+        return( text( aiDeclNameStarts[iDecl], aiDeclNameLengths[iDecl] ) );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @param iStart Offset of the region.
+     * @param iLength Length of the region.
+     * @param sText ASCII text to compare to.
+     * @return true if the region is the text, false otherwise.
+     */
+    private boolean regionEquals( int iStart, int iLength, String sText ) {
+
+        if( iLength != sText.length() )
+            return( false );
+        for( int i = 0; i < iLength; i++ ) {
+            if( bytebuffer.get( iStart + i ) != sText.charAt( i ) )
+                return( false );
+        }
+        return( true );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @param iChar Character to check.
+     * @return true if the character can start an identifier (any non-ASCII byte can), false otherwise.
+     */
+    private static boolean isIdentifierStart( int iChar ) {
+        return( ((iChar >= 'a') && (iChar <= 'z')) || ((iChar >= 'A') && (iChar <= 'Z')) || (iChar == '_') || (iChar == '$') || (iChar >= 0x80) );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @param iChar Character to check.
+     * @return true if the character can be inside an identifier, false otherwise.
+     */
+    private static boolean isIdentifierPart( int iChar ) {
+        return( isIdentifierStart( iChar ) || ((iChar >= '0') && (iChar <= '9')) );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @param b Byte to check.
+     * @return true if the byte is a line terminator, false otherwise.
+     */
+    private static boolean isLineTerminator( byte b ) {
+        return( (b == '\n') || (b == '\r') );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @param b Byte to check.
+     * @return true if the byte is whitespace in a regular expression ("\s"), false otherwise.
+     */
+    private static boolean isSpace( byte b ) {
+        return( (b == ' ') || (b == '\t') || (b == '\n') || (b == 0x0B) || (b == '\f') || (b == '\r') );
+    }
+
+    //==============================================================================
+    /**
+     * Records a declaration.
+     *
+     * @param iKind Kind of declaration.
+     * @param frame Innermost frame, which holds the declaration.
+     */
+    private void addDecl( int iKind, Frame frame ) {
+
+        if( iDecls == aiDeclKinds.length ) {
+            aiDeclKinds = Arrays.copyOf( aiDeclKinds, iDecls * 2 );
+            aiDeclLines = Arrays.copyOf( aiDeclLines, iDecls * 2 );
+            aiDeclDepths = Arrays.copyOf( aiDeclDepths, iDecls * 2 );
+            aiDeclNameStarts = Arrays.copyOf( aiDeclNameStarts, iDecls * 2 );
+            aiDeclNameLengths = Arrays.copyOf( aiDeclNameLengths, iDecls * 2 );
+            aiDeclParents = Arrays.copyOf( aiDeclParents, iDecls * 2 );
+        }
+        aiDeclKinds[iDecls] = iKind;
+        aiDeclLines[iDecls] = frame.iStartLine;
+        aiDeclDepths[iDecls] = iTypeDepth;
+        aiDeclNameStarts[iDecls] = frame.iPendingNameStart;
+        aiDeclNameLengths[iDecls] = iKind != siDeclMethod ? frame.iPendingNameLength : 0;
+
+        // types declared directly in a type body are named by their enclosing type
+        if( frame.iTypeDecl >= 0 )
+            aiDeclParents[iDecls] = frame.iTypeDecl;
+        else
+            aiDeclParents[iDecls] = listFrames.size() == 1 ? siParentNone : siParentLocal;
+        iDecls++;
+    }
+
+    //==============================================================================
+    /**
+     * Reads the names in a package or import declaration.
+     *
+     * @param iToken Current token.
+     */
+    private void readHeader( int iToken ) {
+
+        if( iToken == ';' ) {
+            if( bPackageHeader )
+                sPackage = sbHeader.toString();
+            else if( !bStaticImport )
+                listImports.add( sbHeader.toString() );
+            sbHeader = null;
+        }
+        else if( iToken == siTokenIdent ) {
+            if( !bPackageHeader && (sbHeader.length() == 0) && regionEquals( iTokenStart, iTokenLength, "static" ) )
+                bStaticImport = true;
+            else
+                sbHeader.append( text( iTokenStart, iTokenLength ) );
+        }
+        else if( (iToken == '.') || (iToken == '*') )
+            sbHeader.append( (char)iToken );
+    }
+
+    //==============================================================================
+    /**
+     * Handles one token outside comments.
+     *
+     * @param iToken Punctuation character, or one of the token constants for words and literals.
+     * @param iLine Line the token is on.
+     */
+    private void token( int iToken, int iLine ) {
+
+        Frame frame = listFrames.get( listFrames.size() - 1 );
+
+        if( sbHeader != null )
+            readHeader( iToken );
+        else if( ((iToken == siTokenPackage) || (iToken == siTokenImport)) && (listFrames.size() == 1) ) {
+            sbHeader = new StringBuilder();
+            bPackageHeader = iToken == siTokenPackage;
+            bStaticImport = false;
+        }
+
+        if( (frame.iStartLine < 0) && (iToken != ';') && (iToken != '}') )
+            frame.iStartLine = iLine;
+
+        boolean bAnonymous = frame.trackNew( iToken );
+
+        switch( iToken ) {
+        case '(':
+            if(    (frame.iKind != Frame.siCode) && (frame.iParenDepth == 0) && (frame.iPreviousToken == siTokenIdent)
+                && !frame.bAssigned && !frame.bAnnotationName )
+                frame.bMethod = true;
+            frame.iParenDepth++;
+            break;
+        case ')':
+            if( frame.iParenDepth > 0 )
+                frame.iParenDepth--;
+            break;
+        case '=':
+            if( frame.iParenDepth == 0 )
+                frame.bAssigned = true;
+            break;
+        case siTokenIdent:
+            // the name of a type follows its keyword
+            if( (frame.iPendingType != 0) && (frame.iPreviousToken <= siTokenClass) && (frame.iPreviousToken >= siTokenEnum) ) {
+                frame.iPendingNameStart = iTokenStart;
+                frame.iPendingNameLength = iTokenLength;
+            }
+            break;
+        case siTokenClass:
+        case siTokenInterface:
+        case siTokenEnum:
+            if( (frame.iPreviousToken != '.') && (frame.iParenDepth == 0) ) {
+                if( iToken == siTokenClass )
+                    frame.iPendingType = siDeclClass;
+                else if( iToken == siTokenEnum )
+                    frame.iPendingType = siDeclEnum;
+                else
+                    frame.iPendingType = frame.iPreviousToken == '@' ? siDeclAnnotation : siDeclInterface;
+            }
+            break;
+        case ';':
+            if( frame.iParenDepth == 0 ) {
+                if( frame.iKind == Frame.siEnumConstants )
+                    frame.iKind = Frame.siMembers;
+                else if( (frame.iKind == Frame.siMembers) && frame.bMethod && !frame.bAssigned && !frame.bAnnotationType )
+                    addDecl( siDeclMethod, frame );
+                frame.reset();
+            }
+            break;
+        case ':':
+            if( (frame.iKind == Frame.siCode) && (frame.iParenDepth == 0) )
+                frame.reset();
+            break;
+        case '{':
+            openBrace( frame, bAnonymous );
+            return;
+        case '}':
+            closeBrace();
+            return;
+        default:
+            break;
+        }
+
+        // an annotation name is a dotted sequence of identifiers after the "@"
+        frame.bAnnotationName =    (iToken == '@')
+                                || (frame.bAnnotationName && ((iToken == siTokenIdent) ? frame.iPreviousToken != siTokenIdent : iToken == '.'));
+        frame.iPreviousToken = iToken;
+    }
+
+    //==============================================================================
+    /**
+     * Opens a type body, anonymous class body, method body, or other block.
+     *
+     * @param frame Innermost frame before the brace.
+     * @param bAnonymous True if the brace starts an anonymous class body.
+     */
+    private void openBrace( Frame frame, boolean bAnonymous ) {
+
+        frame.iPreviousToken = '{';
+        frame.bAnnotationName = false;
+
+        if( bAnonymous )
+            listFrames.add( new Frame( Frame.siMembers, false, false ) );
+        else if( (frame.iPendingType != 0) && (frame.iParenDepth == 0) ) {
+            addDecl( frame.iPendingType, frame );
+            Frame frameBody = new Frame( frame.iPendingType == siDeclEnum ? Frame.siEnumConstants : Frame.siMembers,
+                                         true, frame.iPendingType == siDeclAnnotation );
+            frameBody.iTypeDecl = iDecls - 1;
+            listFrames.add( frameBody );
+            frame.iPendingType = 0;
+            iTypeDepth++;
+        }
+        else if( (frame.iKind == Frame.siEnumConstants) && (frame.iParenDepth == 0) )
+            listFrames.add( new Frame( Frame.siMembers, false, false ) );
+        else if(    (frame.iKind == Frame.siMembers) && (frame.iParenDepth == 0) && frame.bMethod && !frame.bAssigned
+                 && !frame.bAnnotationType ) {
+            addDecl( siDeclMethod, frame );
+            listFrames.add( new Frame( Frame.siCode, false, false ) );
+        }
+        else
+            listFrames.add( new Frame( Frame.siCode, false, false ) );
+    }
+
+    //==============================================================================
+    /**
+     * Closes the innermost brace, and ends the declaration or statement it was the
+     * body of (unless it was inside an expression).
+     */
+    private void closeBrace() {
+
+        // unbalanced braces are ignored
+        if( listFrames.size() == 1 )
+            return;
+
+        if( listFrames.remove( listFrames.size() - 1 ).bTypeBody )
+            iTypeDepth--;
+
+        Frame frame = listFrames.get( listFrames.size() - 1 );
+        if( (frame.iParenDepth == 0) && (frame.iKind != Frame.siEnumConstants) && ((frame.iKind == Frame.siCode) || !frame.bAssigned) )
+            frame.reset();
+        else {
+            frame.iPreviousToken = '}';
+            frame.bAnnotationName = false;
+        }
+    }
+
+    //==============================================================================
+    /**
+     * State of one open brace (or of the whole file, outside any brace).
+     */
+    private static final class Frame {
+
+        /** Frame kind for a body holding member declarations. */
+        static final int siMembers = 0;
+
+        /** Frame kind for the constants at the start of an enum body. */
+        static final int siEnumConstants = 1;
+
+        /** Frame kind for a method body, initializer, or other block of code. */
+        static final int siCode = 2;
+
+        /** State of a "new" expression while reading its type. */
+        private static final int siNewType = 0;
+
+        /** State of a "new" expression while reading its arguments. */
+        private static final int siNewArguments = 1;
+
+        /** State of a "new" expression after its arguments (a brace here starts an anonymous class). */
+        private static final int siNewAfterArguments = 2;
+
+        /** Kind of frame. */
+        int iKind;
+
+        /** True if the frame is the body of a class, interface, enum, or annotation type. */
+        final boolean bTypeBody;
+
+        /** True if the frame is the body of an annotation type. */
+        final boolean bAnnotationType;
+
+        /** Line of the first token of the current declaration or statement (or -1 before it starts). */
+        int iStartLine = -1;
+
+        /** Depth of parentheses in the current declaration or statement. */
+        int iParenDepth;
+
+        /** True if the current declaration has an initializer. */
+        boolean bAssigned;
+
+        /** True if the current declaration has a name followed by a parameter list. */
+        boolean bMethod;
+
+        /** True while reading the name of an annotation. */
+        boolean bAnnotationName;
+
+        /** Kind of type declared by the current declaration (or 0 if it's not a type). */
+        int iPendingType;
+
+        /** Offset of the name of the type declared by the current declaration. */
+        int iPendingNameStart;
+
+        /** Length of the name of the type declared by the current declaration. */
+        int iPendingNameLength;
+
+        /** Index of the type declaration the frame is the body of (or -1 if it's not a named type's body). */
+        int iTypeDecl = -1;
+
+        /** Previous token in the frame. */
+        int iPreviousToken;
+
+        /** States of the unfinished "new" expressions, innermost last. */
+        private int [] aiNewStates = new int [4];
+
+        /** Parenthesis depths the arguments of the unfinished "new" expressions start at. */
+        private int [] aiNewParenDepths = new int [4];
+
+        /** Number of unfinished "new" expressions. */
+        private int iNews;
+
+        //==============================================================================
+        /**
+         * Constructor.
+         *
+         * @param iKindIn Kind of frame.
+         * @param bTypeBodyIn True if the frame is the body of a class, interface, enum, or annotation type.
+         * @param bAnnotationTypeIn True if the frame is the body of an annotation type.
+         */
+        Frame( int iKindIn, boolean bTypeBodyIn, boolean bAnnotationTypeIn ) {
+            iKind = iKindIn;
+            bTypeBody = bTypeBodyIn;
+            bAnnotationType = bAnnotationTypeIn;
+        }
+
+        //==============================================================================
+        /**
+         * Ends the current declaration or statement.
+         */
+        void reset() {
+            iStartLine = -1;
+            iParenDepth = 0;
+            bAssigned = false;
+            bMethod = false;
+            bAnnotationName = false;
+            iPendingType = 0;
+            iPendingNameLength = 0;
+            iPreviousToken = ';';
+            iNews = 0;
+        }
+
+        //==============================================================================
+        /**
+         * Follows "new" expressions through their type and arguments, to tell when a
+         * brace starts an anonymous class body. Must be called before the token changes
+         * the parenthesis depth.
+         *
+         * @param iToken Current token.
+         * @return true if the token is a brace starting an anonymous class body, false otherwise.
+         */
+        boolean trackNew( int iToken ) {
+
+            // finished "new" expressions end here unless a brace follows
+            while( (iNews > 0) && (aiNewStates[iNews - 1] == siNewAfterArguments) ) {
+                iNews--;
+                if( iToken == '{' )
+                    return( true );
+            }
+
+            if( iNews > 0 ) {
+                int iTop = iNews - 1;
+                if( aiNewStates[iTop] == siNewType ) {
+                    if( iToken == '(' ) {
+                        aiNewStates[iTop] = siNewArguments;
+                        aiNewParenDepths[iTop] = iParenDepth;
+                    }
+                    else if( (iToken == '[') || (iToken == '{') || (iToken == ';') || (iToken == ')') || (iToken == '}') )
+                        iNews--;
+                }
+                else if( (iToken == ')') && (iParenDepth - 1 == aiNewParenDepths[iTop]) )
+                    aiNewStates[iTop] = siNewAfterArguments;
+            }
+
+            if( iToken == SourceScan.siTokenNew ) {
+                if( iNews == aiNewStates.length ) {
+                    aiNewStates = Arrays.copyOf( aiNewStates, iNews * 2 );
+                    aiNewParenDepths = Arrays.copyOf( aiNewParenDepths, iNews * 2 );
+                }
+                aiNewStates[iNews] = siNewType;
+                iNews++;
+            }
+
+            return( false );
+        }
+    }
+}
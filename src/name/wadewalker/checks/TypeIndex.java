@@ -0,0 +1,400 @@
+package name.wadewalker.checks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//==============================================================================
+/**
+ * Index of the package, imports, and declared types of every Java file under a set
+ * of source roots, so {@link HungarianNaming} can resolve the type names written in
+ * declarations to qualified names like "java.util.Map.Entry". Files are lexed with
+ * {@link SourceScan} instead of being parsed, on a thread pool.
+ *
+ * An index is immutable once built, and {@link #getShared(String[])} builds each set
+ * of roots only once, so every worker thread and every instance of the check shares it.
+ * Each call checks the paths, modification times, and lengths of the files under the
+ * roots, and replaces the shared index if they've changed since it was built, so a
+ * long-running process like {@link CheckDaemon} sees files being added, removed, and
+ * edited. Checks holding a replaced index notice through {@link #getGeneration()}. Types outside the roots (like the JDK's) are only known through single-type
+ * imports and qualified names, since on-demand imports can't be expanded without them.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class TypeIndex {
+
+    /** Indexes being built or already built, indexed by their canonical roots. */
+    private static final ConcurrentMap<List<String>, FutureTask<TypeIndex>> sconcurrentmapShared =
+        new ConcurrentHashMap<List<String>, FutureTask<TypeIndex>>();
+
+    /** Number of times a shared index has been replaced because its files changed. */
+    private static final AtomicInteger satomicintegerGeneration = new AtomicInteger();
+
+    /** Types declared in each file, indexed by canonical path. */
+    private final Map<String, FileTypes> mapFiles;
+
+    /** Qualified names of every named type declared in the indexed files. */
+    private final Set<String> setTypeNames;
+
+    /** Stamp of the indexed files when a shared index was built (see {@link #stamp(List)}). */
+    private long lStamp;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     *
+     * @param mapFilesIn Types declared in each file, indexed by canonical path.
+     */
+    private TypeIndex( Map<String, FileTypes> mapFilesIn ) {
+
+        mapFiles = mapFilesIn;
+        setTypeNames = new HashSet<String>();
+        for( FileTypes filetypes : mapFiles.values() )
+            setTypeNames.addAll( filetypes.mapDeclared.values() );
+    }
+
+    //==============================================================================
+    /**
+     * Gets the index of a set of source roots, building it the first time any thread
+     * asks for it, and again whenever the files under the roots have changed since.
+     *
+     * @param asRoots Source directories or files to index.
+     * @return the index.
+     * @throws IOException if a file can't be read.
+     */
+    public static TypeIndex getShared( String [] asRoots ) throws IOException {
+
+        List<File> listRoots = new ArrayList<File>();
+        List<String> listKey = new ArrayList<String>();
+        for( String sRoot : asRoots ) {
+            File fileRoot = new File( sRoot.trim() ).getCanonicalFile();
+            listRoots.add( fileRoot );
+            listKey.add( fileRoot.getPath() );
+        }
+        Collections.sort( listKey );
+
+        final List<File> listFiles = new ArrayList<File>();
+        for( File fileRoot : listRoots )
+            CheckRunner.findJavaFiles( fileRoot, listFiles );
+        CheckRunner.sortFiles( listFiles );
+        final long lStampNow = stamp( listFiles );
+
+        while( true ) {
+            FutureTask<TypeIndex> futuretask = sconcurrentmapShared.get( listKey );
+            if( futuretask == null ) {
+                FutureTask<TypeIndex> futuretaskNew = new FutureTask<TypeIndex>( new Callable<TypeIndex>() {
+                    public TypeIndex call() throws IOException {
+                        TypeIndex typeindex = build( listFiles, Runtime.getRuntime().availableProcessors() );
+                        typeindex.lStamp = lStampNow;
+                        return( typeindex );
+                    }
+                } );
+
+                futuretask = sconcurrentmapShared.putIfAbsent( listKey, futuretaskNew );
+                if( futuretask == null ) {
+                    futuretask = futuretaskNew;
+                    futuretask.run();
+                }
+            }
+
+            TypeIndex typeindex;
+            try {
+                typeindex = futuretask.get();
+            }
+            catch( InterruptedException interruptedexception ) {
+                Thread.currentThread().interrupt();
+                throw new IOException( "Interrupted while indexing types", interruptedexception );
+            }
+            catch( ExecutionException executionexception ) {
+                // let a later call try again instead of caching the failure
+                sconcurrentmapShared.remove( listKey, futuretask );
+                throw new IOException( "Unable to index types", executionexception.getCause() );
+            }
+
+            if( typeindex.lStamp == lStampNow )
+                return( typeindex );
+
+            // the files changed since it was built, so the first thread to notice replaces it
+            if( sconcurrentmapShared.remove( listKey, futuretask ) )
+                satomicintegerGeneration.incrementAndGet();
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Replaces any shared index whose files have changed since it was built, so checks
+     * holding one get the new one before their next file.
+     *
+     * @throws IOException if a file can't be read.
+     */
+    public static void refreshShared() throws IOException {
+        for( List<String> listKey : sconcurrentmapShared.keySet() )
+            getShared( listKey.toArray( new String [listKey.size()] ) );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the number of times a shared index has been replaced, which changes
+     * whenever a check should call {@link #getShared(String[])} again.
+     */
+    static int getGeneration() {
+        return( satomicintegerGeneration.get() );
+    }
+
+    //==============================================================================
+    /**
+     * Stamps a list of files with a hash of their paths, modification times, and
+     * lengths, which is much cheaper than lexing them again.
+     *
+     * @param listFiles Files to stamp, in a fixed order.
+     * @return the stamp.
+     */
+    private static long stamp( List<File> listFiles ) {
+        long lStampFiles = listFiles.size();
+        for( File file : listFiles ) {
+            lStampFiles = lStampFiles * 31 + file.getPath().hashCode();
+            lStampFiles = lStampFiles * 31 + file.lastModified();
+            lStampFiles = lStampFiles * 31 + file.length();
+        }
+        return( lStampFiles );
+    }
+
+    //==============================================================================
+    /**
+     * Builds an index of some files.
+     *
+     * @param listFiles Java files to index.
+     * @param iThreads Number of threads to lex the files on.
+     * @return the index.
+     * @throws IOException if a file can't be read.
+     */
+    public static TypeIndex build( List<File> listFiles, int iThreads ) throws IOException {
+
+        ExecutorService executorservice = Executors.newFixedThreadPool( Math.max( 1, iThreads ) );
+        try {
+            List<Future<FileTypes>> listFutures = new ArrayList<Future<FileTypes>>();
+            for( final File file : listFiles ) {
+                listFutures.add( executorservice.submit( new Callable<FileTypes>() {
+                    public FileTypes call() throws IOException {
+                        return( scan( file ) );
+                    }
+                } ) );
+            }
+
+            Map<String, FileTypes> mapFiles = new HashMap<String, FileTypes>();
+            for( int i = 0; i < listFiles.size(); i++ )
+                mapFiles.put( listFiles.get( i ).getCanonicalPath(), listFutures.get( i ).get() );
+            return( new TypeIndex( mapFiles ) );
+        }
+        catch( InterruptedException interruptedexception ) {
+            Thread.currentThread().interrupt();
+            throw new IOException( "Interrupted while indexing types", interruptedexception );
+        }
+        catch( ExecutionException executionexception ) {
+            throw new IOException( "Unable to index types", executionexception.getCause() );
+        }
+        finally {
+            executorservice.shutdownNow();
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Lexes one file for its package, imports, and declared types.
+     *
+     * @param file File to lex.
+     * @return the types of the file.
+     * @throws IOException if the file can't be read.
+     */
+    private static FileTypes scan( File file ) throws IOException {
+
+        SourceScan sourcescan;
+        FileInputStream fileinputstream = new FileInputStream( file );
+        try {
+            FileChannel filechannel = fileinputstream.getChannel();
+            ByteBuffer bytebuffer = filechannel.map( FileChannel.MapMode.READ_ONLY, 0, filechannel.size() );
+            sourcescan = new SourceScan( bytebuffer );
+            sourcescan.scan();
+        }
+        finally {
+            fileinputstream.close();
+        }
+
+        // nested types are qualified by their enclosing type, which is always declared first
+        String [] asQualifiedNames = new String [sourcescan.iDecls];
+        Map<String, String> mapDeclared = new HashMap<String, String>();
+        String sPackagePrefix = sourcescan.sPackage != null ? sourcescan.sPackage + "." : "";
+
+        for( int iDecl = 0; iDecl < sourcescan.iDecls; iDecl++ ) {
+            int iParent = sourcescan.aiDeclParents[iDecl];
+            if( (sourcescan.aiDeclKinds[iDecl] == SourceScan.siDeclMethod) || (iParent == SourceScan.siParentLocal) )
+                continue;
+            if( (iParent >= 0) && (asQualifiedNames[iParent] == null) )
+                continue;
+
+            String sName = sourcescan.getDeclName( iDecl );
+            if( sName.isEmpty() )
+                continue;
+
+            asQualifiedNames[iDecl] = (iParent >= 0 ? asQualifiedNames[iParent] + "." : sPackagePrefix) + sName;
+            if( !mapDeclared.containsKey( sName ) )
+                mapDeclared.put( sName, asQualifiedNames[iDecl] );
+        }
+
+        return( new FileTypes( sourcescan.sPackage, sourcescan.listImports, mapDeclared ) );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @param sQualifiedName Qualified name of a type, like "p.Outer.Inner".
+     * @return true if one of the indexed files declares the type, false otherwise.
+     */
+    public boolean contains( String sQualifiedName ) {
+        return( setTypeNames.contains( sQualifiedName ) );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @param sFileName Name of a file.
+     * @return the types of the file, or null if it isn't in the index.
+     * @throws IOException if the file's canonical path can't be found.
+     */
+    public FileTypes getFileTypes( String sFileName ) throws IOException {
+        return( mapFiles.get( new File( sFileName ).getCanonicalPath() ) );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the qualified names of all the indexed types, sorted, one per line (since
+     * these are all that can change how names in other files resolve).
+     */
+    public String getFingerprint() {
+
+        StringBuilder sb = new StringBuilder();
+        for( String sTypeName : new TreeSet<String>( setTypeNames ) )
+            sb.append( sTypeName ).append( '\n' );
+        return( sb.toString() );
+    }
+
+    //==============================================================================
+    /**
+     * Package, imports, and declared types of one file, which are what the type names
+     * written in the file resolve against. Immutable.
+     */
+    public static final class FileTypes {
+
+        /** Package of the file (empty for the default package). */
+        private final String sPackage;
+
+        /** Qualified names of single-type imports, indexed by simple name. */
+        private final Map<String, String> mapSingleImports = new HashMap<String, String>();
+
+        /** Packages and types imported on demand. */
+        private final List<String> listOnDemandImports = new ArrayList<String>();
+
+        /** Qualified names of the named types declared in the file, indexed by simple name. */
+        final Map<String, String> mapDeclared;
+
+        //==============================================================================
+        /**
+         * Constructor.
+         *
+         * @param sPackageIn Package of the file (or null for the default package).
+         * @param listImports Imported names, like "java.util.Map" or "java.util.*" (not counting static imports).
+         * @param mapDeclaredIn Qualified names of the named types declared in the file, indexed by simple name.
+         */
+        FileTypes( String sPackageIn, List<String> listImports, Map<String, String> mapDeclaredIn ) {
+
+            sPackage = sPackageIn != null ? sPackageIn : "";
+            mapDeclared = mapDeclaredIn;
+
+            for( String sImport : listImports ) {
+                if( sImport.endsWith( ".*" ) )
+                    listOnDemandImports.add( sImport.substring( 0, sImport.length() - 2 ) );
+                else
+                    mapSingleImports.put( sImport.substring( sImport.lastIndexOf( '.' ) + 1 ), sImport );
+            }
+        }
+
+        //==============================================================================
+        /**
+         * Resolves a type name as written in the file. The first segment of the name is
+         * looked up in the file's own types, then its single-type imports, then its
+         * package and on-demand imports (for types in the index); the rest of the name is
+         * kept as nested type names.
+         *
+         * @param sWrittenName Type name as written, like "Entry", "Map.Entry", or "java.util.Map.Entry".
+         * @param typeindex Index of the project's types (or null if there isn't one).
+         * @return the qualified name, or the written name if it can't be resolved.
+         */
+        public String resolve( String sWrittenName, TypeIndex typeindex ) {
+
+            int iDot = sWrittenName.indexOf( '.' );
+            String sFirst = iDot < 0 ? sWrittenName : sWrittenName.substring( 0, iDot );
+            String sRest = iDot < 0 ? "" : sWrittenName.substring( iDot );
+
+            String sQualifiedFirst = mapDeclared.get( sFirst );
+            if( sQualifiedFirst == null )
+                sQualifiedFirst = mapSingleImports.get( sFirst );
+
+            if( (sQualifiedFirst == null) && (typeindex != null) ) {
+                String sSamePackage = sPackage.isEmpty() ? sFirst : sPackage + "." + sFirst;
+                if( typeindex.contains( sSamePackage ) )
+                    sQualifiedFirst = sSamePackage;
+
+                for( int i = 0; (sQualifiedFirst == null) && (i < listOnDemandImports.size()); i++ ) {
+                    String sOnDemand = listOnDemandImports.get( i ) + "." + sFirst;
+                    if( typeindex.contains( sOnDemand ) )
+                        sQualifiedFirst = sOnDemand;
+                }
+            }
+
+            return( sQualifiedFirst != null ? sQualifiedFirst + sRest : sWrittenName );
+        }
+
+        //==============================================================================
+        /**
+         * Accessor.
+         * @return the package of the file (empty for the default package).
+         */
+        public String getPackage() {
+            return( sPackage );
+        }
+
+        //==============================================================================
+        /**
+         * Accessor.
+         * @return the simple names of the types declared in the file, sorted.
+         */
+        public List<String> getDeclaredNames() {
+            String [] asNames = mapDeclared.keySet().toArray( new String [mapDeclared.size()] );
+            Arrays.sort( asNames );
+            return( Arrays.asList( asNames ) );
+        }
+    }
+}
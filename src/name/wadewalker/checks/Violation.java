@@ -0,0 +1,234 @@
+package name.wadewalker.checks;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+
+//==============================================================================
+/**
+ * One violation reported by a check, in structured form. Can be made from an audit
+ * event or parsed from a line of DefaultLogger output, and formatted back into the
+ * same line.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class Violation {
+
+    /** Matches a DefaultLogger line: severity, file, line, optional column, message, and module. */
+    private static final Pattern spatternLine = Pattern.compile( "^\\[(\\w+)\\] (.*?):(\\d+):(?:(\\d+):)? (.*) \\[(\\w+)\\]$" );
+
+    /** Label DefaultLogger prints for warnings (other severities print their upper-case names). */
+    private static final String ssWarningLabel = "WARN";
+
+    /** Suffix Checkstyle strips from module names in output. */
+    private static final String ssCheckSuffix = "Check";
+
+    /** File the violation is in, as printed (relative to the Checker's base directory). */
+    private final String sFileName;
+
+    /** Line number of the violation. */
+    private final int iLine;
+
+    /** Column number of the violation (or 0 if it applies to the whole line). */
+    private final int iColumn;
+
+    /** Severity of the violation. */
+    private final SeverityLevel severitylevel;
+
+    /** Short name of the module that reported the violation (like "HungarianNaming"). */
+    private final String sModule;
+
+    /** Message text. */
+    private final String sMessage;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     *
+     * @param sFileNameIn File the violation is in, as printed.
+     * @param iLineIn Line number of the violation.
+     * @param iColumnIn Column number of the violation (or 0 if it applies to the whole line).
+     * @param severitylevelIn Severity of the violation.
+     * @param sModuleIn Short name of the module that reported the violation.
+     * @param sMessageIn Message text.
+     */
+    public Violation( String sFileNameIn, int iLineIn, int iColumnIn, SeverityLevel severitylevelIn, String sModuleIn, String sMessageIn ) {
+        sFileName = sFileNameIn;
+        iLine = iLineIn;
+        iColumn = iColumnIn;
+        severitylevel = severitylevelIn;
+        sModule = sModuleIn;
+        sMessage = sMessageIn;
+    }
+
+    //==============================================================================
+    /**
+     * Makes a violation from an audit event.
+     *
+     * @param auditevent Event for the violation.
+     * @return the violation.
+     */
+    public static Violation fromAuditEvent( AuditEvent auditevent ) {
+        return( new Violation( auditevent.getFileName(), auditevent.getLine(), auditevent.getColumn(), auditevent.getSeverityLevel(),
+                               shortModuleName( auditevent.getSourceName() ), auditevent.getMessage() ) );
+    }
+
+    //==============================================================================
+    /**
+     * Parses a line of DefaultLogger output.
+     *
+     * @param sLine Line to parse.
+     * @return the violation, or null if the line isn't a violation (like "Audit done.").
+     */
+    public static Violation parse( String sLine ) {
+
+        Matcher matcher = spatternLine.matcher( sLine );
+        if( !matcher.matches() )
+            return( null );
+
+        String sSeverity = matcher.group( 1 );
+        SeverityLevel severitylevel;
+        try {
+            severitylevel = sSeverity.equals( ssWarningLabel ) ? SeverityLevel.WARNING : SeverityLevel.getInstance( sSeverity.toLowerCase( Locale.US ) );
+        }
+        catch( IllegalArgumentException illegalargumentexception ) {
+            return( null );
+        }
+
+        return( new Violation( matcher.group( 2 ), Integer.parseInt( matcher.group( 3 ) ),
+                               matcher.group( 4 ) != null ? Integer.parseInt( matcher.group( 4 ) ) : 0,
+                               severitylevel, matcher.group( 6 ), matcher.group( 5 ) ) );
+    }
+
+    //==============================================================================
+    /**
+     * Shortens a module's class name the way Checkstyle's output does.
+     *
+     * @param sSourceName Fully qualified class name of the module.
+     * @return the class name without its package or a "Check" suffix.
+     */
+    static String shortModuleName( String sSourceName ) {
+        String sName = sSourceName.substring( sSourceName.lastIndexOf( '.' ) + 1 );
+        return( sName.endsWith( ssCheckSuffix ) ? sName.substring( 0, sName.lastIndexOf( ssCheckSuffix ) ) : sName );
+    }
+
+    //==============================================================================
+    /**
+     * Formats the violation the way DefaultLogger prints it.
+     *
+     * @return the formatted line.
+     */
+    public String format() {
+
+        StringBuilder sb = new StringBuilder();
+        sb.append( '[' ).append( severitylevel == SeverityLevel.WARNING ? ssWarningLabel : severitylevel.getName().toUpperCase( Locale.US ) );
+        sb.append( "] " ).append( sFileName ).append( ':' ).append( iLine );
+        if( iColumn > 0 )
+            sb.append( ':' ).append( iColumn );
+        sb.append( ": " ).append( sMessage ).append( " [" ).append( sModule ).append( ']' );
+        return( sb.toString() );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the file the violation is in, as printed.
+     */
+    public String getFileName() {
+        return( sFileName );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the line number of the violation.
+     */
+    public int getLine() {
+        return( iLine );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the column number of the violation (or 0 if it applies to the whole line).
+     */
+    public int getColumn() {
+        return( iColumn );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the severity of the violation.
+     */
+    public SeverityLevel getSeverityLevel() {
+        return( severitylevel );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the short name of the module that reported the violation.
+     */
+    public String getModule() {
+        return( sModule );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the message text.
+     */
+    public String getMessage() {
+        return( sMessage );
+    }
+
+    //==============================================================================
+    /**
+     * Compares violations. File names are compared with path separators normalized,
+     * so output from one platform matches gold files written on another.
+     *
+     * @param o Object to compare to.
+     * @return true if the violations are the same, false otherwise.
+     */
+    @Override
+    public boolean equals( Object o ) {
+
+        if( !(o instanceof Violation) )
+            return( false );
+
+        Violation violation = (Violation)o;
+        return(    (iLine == violation.iLine)
+                && (iColumn == violation.iColumn)
+                && (severitylevel == violation.severitylevel)
+                && sModule.equals( violation.sModule )
+                && sMessage.equals( violation.sMessage )
+                && sFileName.replace( '\\', '/' ).equals( violation.sFileName.replace( '\\', '/' ) ) );
+    }
+
+    //==============================================================================
+    /**
+     * Hashes the violation consistently with {@link #equals(Object)}.
+     *
+     * @return the hash code.
+     */
+    @Override
+    public int hashCode() {
+        return( ((sFileName.replace( '\\', '/' ).hashCode() * 31 + iLine) * 31 + iColumn) * 31 + sMessage.hashCode() );
+    }
+
+    //==============================================================================
+    /**
+     * Formats the violation for debugging.
+     *
+     * @return the formatted line.
+     */
+    @Override
+    public String toString() {
+        return( format() );
+    }
+}
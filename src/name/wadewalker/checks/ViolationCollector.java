@@ -0,0 +1,118 @@
+package name.wadewalker.checks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+
+//==============================================================================
+/**
+ * Audit listener that keeps violations in memory as {@link Violation} objects, for
+ * tests and for programs that embed Checkstyle and don't want to parse its output.
+ * Exceptions are kept as well, formatted the way DefaultLogger prints them.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class ViolationCollector implements AuditListener {
+
+    /** Violations collected so far, in the order they were reported. */
+    private final List<Violation> listViolations = new ArrayList<Violation>();
+
+    /** Exceptions collected so far, each as "Error auditing file: message". */
+    private final List<String> listExceptions = new ArrayList<String>();
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public ViolationCollector() {
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return a copy of the violations collected so far, in the order they were reported.
+     */
+    public synchronized List<Violation> getViolations() {
+        return( new ArrayList<Violation>( listViolations ) );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return a copy of the exceptions collected so far.
+     */
+    public synchronized List<String> getExceptions() {
+        return( new ArrayList<String>( listExceptions ) );
+    }
+
+    //==============================================================================
+    /**
+     * Throws away everything collected so far.
+     */
+    public synchronized void clear() {
+        listViolations.clear();
+        listExceptions.clear();
+    }
+
+    //==============================================================================
+    /**
+     * Does nothing.
+     *
+     * @param auditevent Event for the start of the audit.
+     */
+    public void auditStarted( AuditEvent auditevent ) {
+    }
+
+    //==============================================================================
+    /**
+     * Does nothing.
+     *
+     * @param auditevent Event for the end of the audit.
+     */
+    public void auditFinished( AuditEvent auditevent ) {
+    }
+
+    //==============================================================================
+    /**
+     * Does nothing.
+     *
+     * @param auditevent Event for the start of a file.
+     */
+    public void fileStarted( AuditEvent auditevent ) {
+    }
+
+    //==============================================================================
+    /**
+     * Does nothing.
+     *
+     * @param auditevent Event for the end of a file.
+     */
+    public void fileFinished( AuditEvent auditevent ) {
+    }
+
+    //==============================================================================
+    /**
+     * Collects a violation (unless its severity is "ignore", which DefaultLogger doesn't print).
+     *
+     * @param auditevent Event for the violation.
+     */
+    public synchronized void addError( AuditEvent auditevent ) {
+        if( auditevent.getSeverityLevel() != SeverityLevel.IGNORE )
+            listViolations.add( Violation.fromAuditEvent( auditevent ) );
+    }
+
+    //==============================================================================
+    /**
+     * Collects an exception.
+     *
+     * @param auditevent Event for the file the exception happened in.
+     * @param throwable Exception that was thrown.
+     */
+    public synchronized void addException( AuditEvent auditevent, Throwable throwable ) {
+        listExceptions.add( "Error auditing " + auditevent.getFileName() + ": " + throwable );
+    }
+}
@@ -0,0 +1,78 @@
+package name.wadewalker.checks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+//==============================================================================
+/**
+ * Count of the violations reported during one audit, for the fail-fast
+ * "maxViolations" limit of {@link HungarianNaming}. {@link ParallelChecker} makes a
+ * new count for each check and makes it current on its worker threads while they
+ * check files, so every pooled Checker taking part adds to the same count, and
+ * checks sharing a pool (like the daemon's concurrent requests) never see each
+ * other's counts. A check with no current count (in a Checker used on its own)
+ * keeps its own, which lasts for one call to the Checker's process().
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class ViolationCount {
+
+    /** Count of the audit running on each thread (null for threads outside any audit). */
+    private static final ThreadLocal<ViolationCount> sthreadlocalCurrent = new ThreadLocal<ViolationCount>();
+
+    /** Violations reported so far. */
+    private final AtomicInteger atomicintegerViolations = new AtomicInteger();
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public ViolationCount() {
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the count of the audit running on this thread (or null if there isn't one).
+     */
+    static ViolationCount getCurrent() {
+        return( sthreadlocalCurrent.get() );
+    }
+
+    //==============================================================================
+    /**
+     * Makes a count current on this thread, for the checks it runs.
+     *
+     * @param violationcountCurrent Count of the audit this thread works on (or null for none).
+     * @return the count that was current before, to restore afterward.
+     */
+    static ViolationCount setCurrent( ViolationCount violationcountCurrent ) {
+
+        ViolationCount violationcountPrevious = sthreadlocalCurrent.get();
+        if( violationcountCurrent != null )
+            sthreadlocalCurrent.set( violationcountCurrent );
+        else
+            sthreadlocalCurrent.remove();
+        return( violationcountPrevious );
+    }
+
+    //==============================================================================
+    /**
+     * Adds reported violations to the count.
+     *
+     * @param iViolations Number of violations just reported.
+     * @return the count including them.
+     */
+    int add( int iViolations ) {
+        return( atomicintegerViolations.addAndGet( iViolations ) );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the number of violations reported so far.
+     */
+    public int get() {
+        return( atomicintegerViolations.get() );
+    }
+}
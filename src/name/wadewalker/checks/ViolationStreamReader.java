@@ -0,0 +1,275 @@
+package name.wadewalker.checks;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+
+//==============================================================================
+/**
+ * Reads a file written by {@link ViolationStreamWriter} one violation at a time, through
+ * a fixed-size buffer, so memory use doesn't grow with the number of violations. Can
+ * also be run to print a file as DefaultLogger lines or as newline-delimited JSON:
+ *
+ * java name.wadewalker.checks.ViolationStreamReader [-json] file
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class ViolationStreamReader implements Closeable {
+
+    /** Module name given to exceptions, which aren't reported by a check. */
+    public static final String ssExceptionModule = "Checker";
+
+    /** Size of the read buffer. */
+    private static final int siBufferSize = 64 * 1024;
+
+    /** Channel of the file being read. */
+    private final FileChannel filechannel;
+
+    /** Read buffer (always in "get" mode between calls). */
+    private final ByteBuffer bytebuffer = ByteBuffer.allocateDirect( siBufferSize );
+
+    /** String table, in the order the strings were written. */
+    private final List<String> listStrings = new ArrayList<String>();
+
+    /** Severities indexed by ordinal. */
+    private final SeverityLevel [] aseveritylevels = SeverityLevel.values();
+
+    /** Message key of the last violation read. */
+    private String sMessageKey;
+
+    //==============================================================================
+    /**
+     * Opens a file and checks its header.
+     *
+     * @param file File to read.
+     * @throws IOException if the file can't be read or isn't a violation stream.
+     */
+    public ViolationStreamReader( File file ) throws IOException {
+
+        filechannel = new FileInputStream( file ).getChannel();
+        bytebuffer.flip();
+
+        try {
+            fill( 8 );
+            if( (bytebuffer.getInt() != ViolationStreamWriter.siMagic) || (bytebuffer.getInt() != ViolationStreamWriter.siVersion) )
+                throw new IOException( file + " isn't a violation stream of version " + ViolationStreamWriter.siVersion );
+        }
+        catch( IOException ioexception ) {
+            filechannel.close();
+            throw ioexception;
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Reads the next violation. Exceptions come back as violations with severity "error",
+     * line 0, module {@link #ssExceptionModule}, and the exception as the message.
+     *
+     * @return the violation, or null at the end of the file.
+     * @throws IOException if the file can't be read or is corrupt.
+     */
+    public Violation next() throws IOException {
+
+        while( true ) {
+            if( !bytebuffer.hasRemaining() && (filechannel.position() == filechannel.size()) )
+                return( null );
+
+            fill( 1 );
+            byte byTag = bytebuffer.get();
+
+            if( byTag == ViolationStreamWriter.sbyTagString )
+                listStrings.add( getString() );
+            else if( byTag == ViolationStreamWriter.sbyTagViolation ) {
+                String sFileName = lookup( getVarint() );
+                int iLine = getVarint();
+                int iColumn = getVarint();
+                int iSeverity = getVarint();
+                String sModule = lookup( getVarint() );
+                sMessageKey = lookup( getVarint() );
+                if( iSeverity >= aseveritylevels.length )
+                    throw new IOException( "Corrupt violation stream: bad severity " + iSeverity );
+                return( new Violation( sFileName, iLine, iColumn, aseveritylevels[iSeverity], sModule, getString() ) );
+            }
+            else if( byTag == ViolationStreamWriter.sbyTagException ) {
+                String sFileName = lookup( getVarint() );
+                sMessageKey = "";
+                return( new Violation( sFileName, 0, 0, SeverityLevel.ERROR, ssExceptionModule, getString() ) );
+            }
+            else
+                throw new IOException( "Corrupt violation stream: bad tag " + byTag );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the message key of the last violation read (empty for exceptions).
+     */
+    public String getMessageKey() {
+        return( sMessageKey );
+    }
+
+    //==============================================================================
+    /**
+     * Closes the file.
+     *
+     * @throws IOException if the file can't be closed.
+     */
+    public void close() throws IOException {
+        filechannel.close();
+    }
+
+    //==============================================================================
+    /**
+     * Looks up an interned string.
+     *
+     * @param iIndex Index of the string in the string table.
+     * @return the string.
+     * @throws IOException if the index hasn't been defined yet.
+     */
+    private String lookup( int iIndex ) throws IOException {
+        if( (iIndex < 0) || (iIndex >= listStrings.size()) )
+            throw new IOException( "Corrupt violation stream: undefined string " + iIndex );
+        return( listStrings.get( iIndex ) );
+    }
+
+    //==============================================================================
+    /**
+     * Gets a length-prefixed UTF-8 string.
+     *
+     * @return the string.
+     * @throws IOException if the file ends early.
+     */
+    private String getString() throws IOException {
+
+        int iLength = getVarint();
+        if( iLength < 0 )
+            throw new IOException( "Corrupt violation stream: bad string length " + iLength );
+
+        byte [] abyBytes = new byte [iLength];
+        int iRead = 0;
+        while( iRead < iLength ) {
+            fill( 1 );
+            int iChunk = Math.min( bytebuffer.remaining(), iLength - iRead );
+            bytebuffer.get( abyBytes, iRead, iChunk );
+            iRead += iChunk;
+        }
+        return( new String( abyBytes, ViolationStreamWriter.scharsetUtf8 ) );
+    }
+
+    //==============================================================================
+    /**
+     * Gets an unsigned variable-length int.
+     *
+     * @return the int.
+     * @throws IOException if the file ends early.
+     */
+    private int getVarint() throws IOException {
+
+        int i = 0;
+        for( int iShift = 0; iShift < 35; iShift += 7 ) {
+            fill( 1 );
+            byte by = bytebuffer.get();
+            i |= (by & 0x7F) << iShift;
+            if( (by & 0x80) == 0 )
+                return( i );
+        }
+        throw new IOException( "Corrupt violation stream: varint too long" );
+    }
+
+    //==============================================================================
+    /**
+     * Reads from the channel until the buffer has some bytes remaining.
+     *
+     * @param iBytes Number of bytes needed (no more than the buffer's size).
+     * @throws IOException if the file ends first.
+     */
+    private void fill( int iBytes ) throws IOException {
+
+        if( bytebuffer.remaining() >= iBytes )
+            return;
+
+        bytebuffer.compact();
+        while( bytebuffer.position() < iBytes ) {
+            if( filechannel.read( bytebuffer ) < 0 ) {
+                bytebuffer.flip();
+                throw new EOFException( "Violation stream ends in the middle of a record" );
+            }
+        }
+        bytebuffer.flip();
+    }
+
+    //==============================================================================
+    /**
+     * Escapes a string for a JSON string literal.
+     *
+     * @param s String to escape.
+     * @return the escaped string, without quotes.
+     */
+    private static String escapeJson( String s ) {
+
+        StringBuilder sb = new StringBuilder( s.length() + 8 );
+        for( int i = 0; i < s.length(); i++ ) {
+            char c = s.charAt( i );
+            if( (c == '"') || (c == '\\') )
+                sb.append( '\\' ).append( c );
+            else if( c < 0x20 )
+                sb.append( String.format( "\\u%04x", (int)c ) );
+            else
+                sb.append( c );
+        }
+        return( sb.toString() );
+    }
+
+    //==============================================================================
+    /**
+     * Formats the last violation read as one line of JSON.
+     *
+     * @param violation Violation returned by the last call to {@link #next()}.
+     * @return the JSON object, without a line terminator.
+     */
+    public String toJson( Violation violation ) {
+        return(   "{\"file\":\"" + escapeJson( violation.getFileName() ) + "\",\"line\":" + violation.getLine()
+                + ",\"column\":" + violation.getColumn() + ",\"severity\":\"" + violation.getSeverityLevel().getName()
+                + "\",\"module\":\"" + escapeJson( violation.getModule() ) + "\",\"key\":\"" + escapeJson( sMessageKey )
+                + "\",\"message\":\"" + escapeJson( violation.getMessage() ) + "\"}" );
+    }
+
+    //==============================================================================
+    /**
+     * Prints a violation stream.
+     *
+     * @param asArgs Optional "-json" for newline-delimited JSON, then the file to print.
+     * @throws IOException if the file can't be read.
+     */
+    public static void main( String [] asArgs ) throws IOException {
+
+        boolean bJson = (asArgs.length == 2) && asArgs[0].equals( "-json" );
+        if( (asArgs.length != 1) && !bJson ) {
+            System.err.println( "Usage: ViolationStreamReader [-json] file" );
+            System.exit( 2 );
+        }
+
+        PrintWriter printwriter = new PrintWriter( new OutputStreamWriter( System.out, ViolationStreamWriter.scharsetUtf8 ) );
+        ViolationStreamReader violationstreamreader = new ViolationStreamReader( new File( asArgs[asArgs.length - 1] ) );
+        try {
+            for( Violation violation = violationstreamreader.next(); violation != null; violation = violationstreamreader.next() )
+                printwriter.println( bJson ? violationstreamreader.toJson( violation ) : violation.format() );
+        }
+        finally {
+            violationstreamreader.close();
+            printwriter.flush();
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package name.wadewalker.checks;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.AutomaticBean;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+
+//==============================================================================
+/**
+ * Streams violations to a file in a compact binary format as they're reported, through
+ * a fixed-size buffer and a file channel, so memory use doesn't grow with the number of
+ * violations. Add it directly under the Checker module:
+ *
+ * &lt;module name="name.wadewalker.checks.ViolationStreamWriter"&gt;
+ *     &lt;property name="file" value="checks.wwv"/&gt;
+ * &lt;/module&gt;
+ *
+ * The file starts with a magic number and version, followed by records that each start
+ * with a tag byte. File names, module names, and message keys are interned: the first
+ * time one is seen it's written in a string record, and later records refer to it by
+ * its index in the string table. Integers are unsigned variable-length (7 bits per byte,
+ * low bits first), and strings are a length followed by UTF-8 bytes:
+ *
+ * - 'S' string: length, bytes (gets the next index in the string table)
+ * - 'V' violation: file index, line, column, severity ordinal, module index, key index, message string
+ * - 'E' exception: file index, exception string
+ *
+ * Use {@link ViolationStreamReader} to read the file back.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class ViolationStreamWriter extends AutomaticBean implements AuditListener {
+
+    /** Magic number at the start of the file. */
+    static final int siMagic = 0x57575631;
+
+    /** Version of the record format. */
+    static final int siVersion = 1;
+
+    /** Tag of a string record. */
+    static final byte sbyTagString = 'S';
+
+    /** Tag of a violation record. */
+    static final byte sbyTagViolation = 'V';
+
+    /** Tag of an exception record. */
+    static final byte sbyTagException = 'E';
+
+    /** Character set of all strings. */
+    static final Charset scharsetUtf8 = Charset.forName( "UTF-8" );
+
+    /** Size of the write buffer. */
+    private static final int siBufferSize = 64 * 1024;
+
+    /** Most bytes a variable-length int can take. */
+    private static final int siMaxVarintBytes = 5;
+
+    /** File the violations are written to. */
+    private String sFileName;
+
+    /** Channel of the file being written (null outside an audit). */
+    private FileChannel filechannel;
+
+    /** Write buffer, reused for the whole audit. */
+    private final ByteBuffer bytebuffer = ByteBuffer.allocateDirect( siBufferSize );
+
+    /** Indexes of the strings written so far (grows with distinct files and keys, not with violations). */
+    private final Map<String, Integer> mapStringIndexes = new HashMap<String, Integer>();
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public ViolationStreamWriter() {
+    }
+
+    //==============================================================================
+    /**
+     * Mutator.
+     * @param sFileNameIn File the violations are written to.
+     */
+    public void setFile( String sFileNameIn ) {
+        sFileName = sFileNameIn;
+    }
+
+    //==============================================================================
+    /**
+     * Opens the file and writes the header.
+     *
+     * @param auditevent Event for the start of the audit.
+     */
+    public synchronized void auditStarted( AuditEvent auditevent ) {
+
+        if( sFileName == null )
+            return;
+
+        try {
+            filechannel = new FileOutputStream( sFileName ).getChannel();
+        }
+        catch( IOException ioexception ) {
+            throw new IllegalStateException( "Unable to open violation stream " + sFileName, ioexception );
+        }
+
+        bytebuffer.clear();
+        mapStringIndexes.clear();
+        bytebuffer.putInt( siMagic );
+        bytebuffer.putInt( siVersion );
+    }
+
+    //==============================================================================
+    /**
+     * Flushes the buffer and closes the file.
+     *
+     * @param auditevent Event for the end of the audit.
+     */
+    public synchronized void auditFinished( AuditEvent auditevent ) {
+
+        if( filechannel == null )
+            return;
+
+        try {
+            try {
+                flush();
+            }
+            finally {
+                filechannel.close();
+            }
+        }
+        catch( IOException ioexception ) {
+            throw new IllegalStateException( "Unable to write violation stream " + sFileName, ioexception );
+        }
+        finally {
+            filechannel = null;
+            mapStringIndexes.clear();
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Does nothing.
+     *
+     * @param auditevent Event for the start of a file.
+     */
+    public void fileStarted( AuditEvent auditevent ) {
+    }
+
+    //==============================================================================
+    /**
+     * Does nothing.
+     *
+     * @param auditevent Event for the end of a file.
+     */
+    public void fileFinished( AuditEvent auditevent ) {
+    }
+
+    //==============================================================================
+    /**
+     * Writes a violation record (unless its severity is "ignore", which DefaultLogger
+     * doesn't print).
+     *
+     * @param auditevent Event for the violation.
+     */
+    public synchronized void addError( AuditEvent auditevent ) {
+
+        if( (filechannel == null) || (auditevent.getSeverityLevel() == SeverityLevel.IGNORE) )
+            return;
+
+        try {
+            // strings go first, so the reader knows them before the record refers to them
+            int iFile = intern( auditevent.getFileName() );
+            int iModule = intern( Violation.shortModuleName( auditevent.getSourceName() ) );
+            int iKey = intern( auditevent.getLocalizedMessage() != null ? auditevent.getLocalizedMessage().getKey() : "" );
+
+            ensureRemaining( 1 + 6 * siMaxVarintBytes );
+            bytebuffer.put( sbyTagViolation );
+            putVarint( iFile );
+            putVarint( auditevent.getLine() );
+            putVarint( auditevent.getColumn() );
+            putVarint( auditevent.getSeverityLevel().ordinal() );
+            putVarint( iModule );
+            putVarint( iKey );
+            putString( auditevent.getMessage() );
+        }
+        catch( IOException ioexception ) {
+            throw new IllegalStateException( "Unable to write violation stream " + sFileName, ioexception );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Writes an exception record.
+     *
+     * @param auditevent Event for the file the exception happened in.
+     * @param throwable Exception that was thrown.
+     */
+    public synchronized void addException( AuditEvent auditevent, Throwable throwable ) {
+
+        if( filechannel == null )
+            return;
+
+        try {
+            int iFile = intern( auditevent.getFileName() );
+
+            ensureRemaining( 1 + siMaxVarintBytes );
+            bytebuffer.put( sbyTagException );
+            putVarint( iFile );
+            putString( throwable.toString() );
+        }
+        catch( IOException ioexception ) {
+            throw new IllegalStateException( "Unable to write violation stream " + sFileName, ioexception );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Finds the index of a string, writing a string record the first time it's seen.
+     *
+     * @param s String to intern.
+     * @return the string's index in the string table.
+     * @throws IOException if the buffer can't be flushed.
+     */
+    private int intern( String s ) throws IOException {
+
+        Integer integerIndex = mapStringIndexes.get( s );
+        if( integerIndex != null )
+            return( integerIndex );
+
+        int iNewIndex = mapStringIndexes.size();
+        mapStringIndexes.put( s, iNewIndex );
+
+        ensureRemaining( 1 );
+        bytebuffer.put( sbyTagString );
+        putString( s );
+        return( iNewIndex );
+    }
+
+    //==============================================================================
+    /**
+     * Puts a length-prefixed UTF-8 string, writing it straight to the channel if it's
+     * bigger than the buffer.
+     *
+     * @param s String to put.
+     * @throws IOException if the buffer can't be flushed.
+     */
+    private void putString( String s ) throws IOException {
+
+        byte [] abyBytes = s.getBytes( scharsetUtf8 );
+        ensureRemaining( siMaxVarintBytes );
+        putVarint( abyBytes.length );
+
+        if( abyBytes.length <= bytebuffer.capacity() ) {
+            ensureRemaining( abyBytes.length );
+            bytebuffer.put( abyBytes );
+            return;
+        }
+
+        flush();
+        ByteBuffer bytebufferLarge = ByteBuffer.wrap( abyBytes );
+        while( bytebufferLarge.hasRemaining() )
+            filechannel.write( bytebufferLarge );
+    }
+
+    //==============================================================================
+    /**
+     * Puts an unsigned variable-length int. The caller must make sure there's room.
+     *
+     * @param i Int to put (negative values take the full five bytes).
+     */
+    private void putVarint( int i ) {
+
+        int iRemaining = i;
+        while( (iRemaining & ~0x7F) != 0 ) {
+            bytebuffer.put( (byte)((iRemaining & 0x7F) | 0x80) );
+            iRemaining >>>= 7;
+        }
+        bytebuffer.put( (byte)iRemaining );
+    }
+
+    //==============================================================================
+    /**
+     * Flushes the buffer if it doesn't have room for some bytes.
+     *
+     * @param iBytes Number of bytes about to be put.
+     * @throws IOException if the buffer can't be flushed.
+     */
+    private void ensureRemaining( int iBytes ) throws IOException {
+        if( bytebuffer.remaining() < iBytes )
+            flush();
+    }
+
+    //==============================================================================
+    /**
+     * Writes the buffer's contents to the channel and empties it.
+     *
+     * @throws IOException if the channel can't be written.
+     */
+    private void flush() throws IOException {
+
+        bytebuffer.flip();
+        while( bytebuffer.hasRemaining() )
+            filechannel.write( bytebuffer );
+        bytebuffer.clear();
+    }
+}
@@ -0,0 +1,365 @@
+package name.wadewalker.checks;
+
+import java.lang.reflect.Field;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.AbstractCheck;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.FileContents;
+import com.puppycrawl.tools.checkstyle.api.LocalizedMessages;
+import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+
+//==============================================================================
+/**
+ * Runs {@link HungarianNaming} and {@link JavadocTemplate} as one check, so the
+ * TreeWalker dispatches each token once and the per-file state (the copied line
+ * array) is only built once. Use it in place of the two separate modules:
+ *
+ * &lt;module name="name.wadewalker.checks.WadeWalkerChecks"&gt;
+ *     &lt;property name="javadocTemplate" value="false"/&gt;
+ * &lt;/module&gt;
+ *
+ * Each rule can be turned off with the "hungarianNaming" and "javadocTemplate"
+ * properties, the "prefixes", "prefixFile", "mergeViolations", "typeIndexRoots",
+ * "maxViolationsPerFile", and "maxViolations" properties are passed on to
+ * {@link HungarianNaming}, and the "metrics", "baselineFile",
+ * "updateBaseline", and "changedLines" properties are passed on to both.
+ * Violations are reported by the two rule checks themselves, so they appear under
+ * the HungarianNaming and JavadocTemplate module names and existing suppressions
+ * still match them.
+ *
+ * Only the FileContents and the copied line array are shared. The Javadoc lookups
+ * and the type nesting depth aren't, because only the Javadoc template rule uses
+ * them: the Hungarian naming rule looks at declarations alone, and never asks for a
+ * Javadoc comment or where a declaration is nested. So JavadocTemplate keeps its own
+ * depth counter, and calls FileContents.getJavadocBefore itself, which is only a map
+ * lookup in the Javadoc comments Checkstyle already indexed while parsing the file.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class WadeWalkerChecks extends AbstractCheck {
+
+    /** Token types handled by the Hungarian naming rule. */
+    private static final int [] saiHungarianNamingTokens = {TokenTypes.PARAMETER_DEF, TokenTypes.VARIABLE_DEF};
+
+    /** Hungarian naming rule. */
+    private final HungarianNaming hungariannaming = new HungarianNaming();
+
+    /** Javadoc template rule. */
+    private final JavadocTemplate javadoctemplate = new JavadocTemplate();
+
+    /** True if the Hungarian naming rule is enabled. */
+    private boolean bHungarianNaming = true;
+
+    /** True if the Javadoc template rule is enabled. */
+    private boolean bJavadocTemplate = true;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public WadeWalkerChecks() {
+    }
+
+    //==============================================================================
+    /**
+     * Enables or disables the Hungarian naming rule.
+     *
+     * @param bEnabled True to check Hungarian naming.
+     */
+    public void setHungarianNaming( boolean bEnabled ) {
+        bHungarianNaming = bEnabled;
+    }
+
+    //==============================================================================
+    /**
+     * Enables or disables the Javadoc template rule.
+     *
+     * @param bEnabled True to check the Javadoc template.
+     */
+    public void setJavadocTemplate( boolean bEnabled ) {
+        bJavadocTemplate = bEnabled;
+    }
+
+    //==============================================================================
+    /**
+     * Sets custom prefix rules for the Hungarian naming rule.
+     *
+     * @param asRules Rules like "ByteBuffer=bb", each giving the prefix for one type name.
+     * @see HungarianNaming#setPrefixes(String[])
+     */
+    public void setPrefixes( String [] asRules ) {
+        hungariannaming.setPrefixes( asRules );
+    }
+
+    //==============================================================================
+    /**
+     * Reads custom prefix rules for the Hungarian naming rule from a properties file.
+     *
+     * @param sFileName Name of a properties file with one "type=prefix" rule per line.
+     * @see HungarianNaming#setPrefixFile(String)
+     */
+    public void setPrefixFile( String sFileName ) {
+        hungariannaming.setPrefixFile( sFileName );
+    }
+
+    //==============================================================================
+    /**
+     * Chooses between one Hungarian naming violation per declaration and one per missing
+     * prefix part.
+     *
+     * @param bEnabled True to merge each declaration's missing prefix parts into one violation.
+     * @see HungarianNaming#setMergeViolations(boolean)
+     */
+    public void setMergeViolations( boolean bEnabled ) {
+        hungariannaming.setMergeViolations( bEnabled );
+    }
+
+    //==============================================================================
+    /**
+     * Enables or disables recording metrics for both rules.
+     *
+     * @param bEnabled True to record metrics in {@link CheckMetrics}.
+     */
+    public void setMetrics( boolean bEnabled ) {
+        hungariannaming.setMetrics( bEnabled );
+        javadoctemplate.setMetrics( bEnabled );
+    }
+
+    //==============================================================================
+    /**
+     * Sets a baseline file of known violations for both rules.
+     *
+     * @param sFileName Name of a file written by {@link Baseline#write(java.io.File)}.
+     */
+    public void setBaselineFile( String sFileName ) {
+        hungariannaming.setBaselineFile( sFileName );
+        javadoctemplate.setBaselineFile( sFileName );
+    }
+
+    //==============================================================================
+    /**
+     * Chooses whether both rules record their violations into the baseline file instead
+     * of skipping the ones already in it.
+     *
+     * @param bEnabled True to rewrite the baseline file.
+     */
+    public void setUpdateBaseline( boolean bEnabled ) {
+        hungariannaming.setUpdateBaseline( bEnabled );
+        javadoctemplate.setUpdateBaseline( bEnabled );
+    }
+
+    //==============================================================================
+    /**
+     * Limits both rules to changed lines.
+     *
+     * @param sFileName Name of a unified diff or line ranges file (see {@link ChangedLines}),
+     * or an empty string to check every line.
+     */
+    public void setChangedLines( String sFileName ) {
+        hungariannaming.setChangedLines( sFileName );
+        javadoctemplate.setChangedLines( sFileName );
+    }
+
+    //==============================================================================
+    /**
+     * Sets the source directories HungarianNaming resolves qualified and nested type names against.
+     *
+     * @param asRoots Source directories or files to index.
+     * @see HungarianNaming#setTypeIndexRoots(String[])
+     */
+    public void setTypeIndexRoots( String [] asRoots ) {
+        hungariannaming.setTypeIndexRoots( asRoots );
+    }
+
+    //==============================================================================
+    /**
+     * Limits the HungarianNaming violations reported in each file.
+     *
+     * @param iMaxViolationsPerFile Most violations to report in one file (or 0 for no limit).
+     * @see HungarianNaming#setMaxViolationsPerFile(int)
+     */
+    public void setMaxViolationsPerFile( int iMaxViolationsPerFile ) {
+        hungariannaming.setMaxViolationsPerFile( iMaxViolationsPerFile );
+    }
+
+    //==============================================================================
+    /**
+     * Sets a fail-fast limit on the HungarianNaming violations reported during one audit.
+     *
+     * @param iMaxViolations Number of violations that aborts the audit (or 0 for no limit).
+     * @see HungarianNaming#setMaxViolations(int)
+     */
+    public void setMaxViolations( int iMaxViolations ) {
+        hungariannaming.setMaxViolations( iMaxViolations );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the token types of all the enabled rules.
+     * @see com.puppycrawl.tools.checkstyle.api.AbstractCheck#getDefaultTokens()
+     */
+    public int [] getDefaultTokens() {
+
+        int [] aiJavadocTemplateTokens = bJavadocTemplate ? javadoctemplate.getDefaultTokens() : new int [0];
+        int [] aiHungarianNamingTokens = bHungarianNaming ? saiHungarianNamingTokens : new int [0];
+
+        int [] aiTokens = new int [aiJavadocTemplateTokens.length + aiHungarianNamingTokens.length];
+        System.arraycopy( aiJavadocTemplateTokens, 0, aiTokens, 0, aiJavadocTemplateTokens.length );
+        System.arraycopy( aiHungarianNamingTokens, 0, aiTokens, aiJavadocTemplateTokens.length, aiHungarianNamingTokens.length );
+
+        return( aiTokens );
+    }
+
+    //==============================================================================
+    /**
+     * Accessor.
+     * @return the token types that must always be visited (all of them, since each one
+     * is dispatched to a rule that relies on seeing it).
+     * @see com.puppycrawl.tools.checkstyle.api.AbstractCheck#getRequiredTokens()
+     */
+    public int [] getRequiredTokens() {
+        return( getDefaultTokens() );
+    }
+
+    //==============================================================================
+    /**
+     * Sets up the rule checks so they report to the same message collector, with the
+     * same severity, as this check.
+     * @see com.puppycrawl.tools.checkstyle.api.AbstractCheck#init()
+     */
+    public void init() {
+
+        LocalizedMessages localizedmessages = findMessageCollector( this );
+
+        setUpRule( hungariannaming, "HungarianNaming", localizedmessages );
+        setUpRule( javadoctemplate, "JavadocTemplate", localizedmessages );
+    }
+
+    //==============================================================================
+    /**
+     * Sets up one rule check.
+     *
+     * @param abstractcheck Rule check to set up.
+     * @param sModuleName Module name the rule check would have if it were configured on its own.
+     * @param localizedmessages Message collector to report violations to.
+     */
+    private void setUpRule( AbstractCheck abstractcheck, String sModuleName, LocalizedMessages localizedmessages ) {
+
+        try {
+            abstractcheck.configure( new DefaultConfiguration( sModuleName ) );
+        }
+        catch( CheckstyleException checkstyleexception ) {
+            throw new IllegalStateException( "Unable to configure " + sModuleName, checkstyleexception );
+        }
+
+        abstractcheck.setMessages( localizedmessages );
+        abstractcheck.setSeverity( getSeverity() );
+        abstractcheck.setTabWidth( getTabWidth() );
+        abstractcheck.setClassLoader( getClassLoader() );
+        abstractcheck.init();
+    }
+
+    //==============================================================================
+    /**
+     * Finds the message collector a check reports to. AbstractCheck only has a setter for
+     * it, and the TreeWalker sets it through a context this check can't see, so it has to
+     * be read back with reflection.
+     *
+     * @param abstractcheck Check to find the collector of.
+     * @return the message collector.
+     */
+    private static LocalizedMessages findMessageCollector( AbstractCheck abstractcheck ) {
+
+        try {
+            Field field = AbstractCheck.class.getDeclaredField( "messages" );
+            field.setAccessible( true );
+            return( (LocalizedMessages)field.get( abstractcheck ) );
+        }
+        catch( NoSuchFieldException nosuchfieldexception ) {
+            throw new IllegalStateException( "Unsupported Checkstyle version", nosuchfieldexception );
+        }
+        catch( IllegalAccessException illegalaccessexception ) {
+            throw new IllegalStateException( "Unsupported Checkstyle version", illegalaccessexception );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Builds the shared per-file state once and passes it to the enabled rules.
+     *
+     * @param detailastRoot First top-level AST node of the file.
+     * @see com.puppycrawl.tools.checkstyle.api.AbstractCheck#beginTree(com.puppycrawl.tools.checkstyle.api.DetailAST)
+     */
+    public void beginTree( DetailAST detailastRoot ) {
+
+        FileContents filecontents = getFileContents();
+
+        if( bHungarianNaming ) {
+            hungariannaming.setFileContents( filecontents );
+            hungariannaming.beginTree( detailastRoot );
+        }
+
+        if( bJavadocTemplate ) {
+            javadoctemplate.setFileContents( filecontents );
+            javadoctemplate.beginFile( detailastRoot, filecontents.getLines() );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Dispatches a token to the rule that handles it.
+     *
+     * @param detailast AST node being visited.
+     * @see com.puppycrawl.tools.checkstyle.api.AbstractCheck#visitToken(com.puppycrawl.tools.checkstyle.api.DetailAST)
+     */
+    public void visitToken( DetailAST detailast ) {
+
+        if( (detailast.getType() == TokenTypes.PARAMETER_DEF) || (detailast.getType() == TokenTypes.VARIABLE_DEF) )
+            hungariannaming.visitToken( detailast );
+        else
+            javadoctemplate.visitToken( detailast );
+    }
+
+    //==============================================================================
+    /**
+     * Dispatches leaving a token to the rule that handles it.
+     *
+     * @param detailast AST node being left.
+     * @see com.puppycrawl.tools.checkstyle.api.AbstractCheck#leaveToken(com.puppycrawl.tools.checkstyle.api.DetailAST)
+     */
+    public void leaveToken( DetailAST detailast ) {
+
+        if( (detailast.getType() != TokenTypes.PARAMETER_DEF) && (detailast.getType() != TokenTypes.VARIABLE_DEF) )
+            javadoctemplate.leaveToken( detailast );
+    }
+
+    //==============================================================================
+    /**
+     * Lets the enabled rules release their per-file state.
+     *
+     * @param detailastRoot First top-level AST node of the file.
+     * @see com.puppycrawl.tools.checkstyle.api.AbstractCheck#finishTree(com.puppycrawl.tools.checkstyle.api.DetailAST)
+     */
+    public void finishTree( DetailAST detailastRoot ) {
+
+        if( bHungarianNaming )
+            hungariannaming.finishTree( detailastRoot );
+
+        if( bJavadocTemplate )
+            javadoctemplate.finishTree( detailastRoot );
+    }
+
+    //==============================================================================
+    /**
+     * Lets the rules write anything they've been accumulating (like a baseline).
+     * @see com.puppycrawl.tools.checkstyle.api.AbstractCheck#destroy()
+     */
+    public void destroy() {
+        hungariannaming.destroy();
+        javadoctemplate.destroy();
+    }
+}
@@ -0,0 +1,177 @@
+package name.wadewalker.checks.test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+
+import name.wadewalker.checks.Violation;
+import name.wadewalker.checks.ViolationCollector;
+
+import static org.junit.Assert.assertEquals;
+
+//==============================================================================
+/**
+ * Runs checks over files the way the tests need: each run gets its own Checker, loads
+ * modules from this project's class path, and prints paths relative to the working
+ * directory (like the gold files do). Also has the file helpers the tests share.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public final class CheckFixture {
+
+    //==============================================================================
+    /**
+     * Can't instantiate this class (it only has static methods).
+     */
+    private CheckFixture() {
+    }
+
+    //==============================================================================
+    /**
+     * Makes a Checker configuration running some checks under one TreeWalker, with
+     * violations at warning severity.
+     *
+     * @param adefaultconfigurationChecks Configurations of the checks to run.
+     * @return the Checker configuration (more Checker modules can be added to it).
+     */
+    public static DefaultConfiguration makeChecker( DefaultConfiguration... adefaultconfigurationChecks ) {
+
+        DefaultConfiguration defaultconfigurationTreeWalker = new DefaultConfiguration( "TreeWalker" );
+        for( DefaultConfiguration defaultconfigurationCheck : adefaultconfigurationChecks )
+            defaultconfigurationTreeWalker.addChild( defaultconfigurationCheck );
+        DefaultConfiguration defaultconfigurationChecker = new DefaultConfiguration( "Checker" );
+        defaultconfigurationChecker.addAttribute( "severity", "warning" );
+        defaultconfigurationChecker.addChild( defaultconfigurationTreeWalker );
+        return( defaultconfigurationChecker );
+    }
+
+    //==============================================================================
+    /**
+     * Checks some files with a new Checker.
+     *
+     * @param configurationChecker Configuration of the Checker.
+     * @param listFiles Files to check.
+     * @param auditlistener Gets the Checker's events.
+     * @throws CheckstyleException if the Checker can't be configured or a check fails.
+     */
+    public static void process( Configuration configurationChecker, List<File> listFiles, AuditListener auditlistener )
+        throws CheckstyleException {
+
+        Checker checker = new Checker();
+        checker.setModuleClassLoader( Thread.currentThread().getContextClassLoader() );
+        checker.setBasedir( System.getProperty( "user.dir" ) );
+        checker.configure( configurationChecker );
+        checker.addListener( auditlistener );
+        try {
+            checker.process( listFiles );
+        }
+        finally {
+            checker.destroy();
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Checks some files with a new Checker, collecting the violations in memory.
+     *
+     * @param configurationChecker Configuration of the Checker.
+     * @param listFiles Files to check.
+     * @return the collected violations and exceptions.
+     * @throws CheckstyleException if the Checker can't be configured or a check fails.
+     */
+    public static ViolationCollector collect( Configuration configurationChecker, List<File> listFiles ) throws CheckstyleException {
+
+        ViolationCollector violationcollector = new ViolationCollector();
+        process( configurationChecker, listFiles, violationcollector );
+        return( violationcollector );
+    }
+
+    //==============================================================================
+    /**
+     * Checks some files with a new Checker, and makes sure nothing threw.
+     *
+     * @param configurationChecker Configuration of the Checker.
+     * @param listFiles Files to check.
+     * @return the violations, in file order.
+     * @throws CheckstyleException if the Checker can't be configured or a check fails.
+     */
+    public static List<Violation> runChecker( Configuration configurationChecker, List<File> listFiles ) throws CheckstyleException {
+
+        ViolationCollector violationcollector = collect( configurationChecker, listFiles );
+        assertEquals( new ArrayList<String>(), violationcollector.getExceptions() );
+        return( violationcollector.getViolations() );
+    }
+
+    //==============================================================================
+    /**
+     * Runs checks over some files, and makes sure nothing threw.
+     *
+     * @param listFiles Files to check.
+     * @param adefaultconfigurationChecks Configurations of the checks to run.
+     * @return the violations, in file order.
+     * @throws CheckstyleException if the Checker can't be configured or a check fails.
+     */
+    public static List<Violation> runChecks( List<File> listFiles, DefaultConfiguration... adefaultconfigurationChecks )
+        throws CheckstyleException {
+        return( runChecker( makeChecker( adefaultconfigurationChecks ), listFiles ) );
+    }
+
+    //==============================================================================
+    /**
+     * Runs checks with their default properties over some files, and makes sure nothing threw.
+     *
+     * @param listFiles Files to check.
+     * @param aclassChecks Classes of the checks to run.
+     * @return the violations, in file order.
+     * @throws CheckstyleException if the Checker can't be configured or a check fails.
+     */
+    public static List<Violation> runChecks( List<File> listFiles, Class<?>... aclassChecks ) throws CheckstyleException {
+
+        DefaultConfiguration [] adefaultconfigurationChecks = new DefaultConfiguration [aclassChecks.length];
+        for( int i = 0; i < aclassChecks.length; i++ )
+            adefaultconfigurationChecks[i] = new DefaultConfiguration( aclassChecks[i].getName() );
+        return( runChecks( listFiles, adefaultconfigurationChecks ) );
+    }
+
+    //==============================================================================
+    /**
+     * Deletes a file or directory tree.
+     *
+     * @param file File or directory to delete.
+     */
+    public static void deleteTree( File file ) {
+        File [] afileChildren = file.listFiles();
+        if( afileChildren != null ) {
+            for( File fileChild : afileChildren )
+                deleteTree( fileChild );
+        }
+        file.delete();
+    }
+
+    //==============================================================================
+    /**
+     * Finds Java files recursively.
+     *
+     * @param file File or directory to search.
+     * @param listFiles Where to put the Java files found, in sorted order.
+     */
+    public static void findJavaFiles( File file, List<File> listFiles ) {
+
+        File [] afileChildren = file.listFiles();
+        if( afileChildren != null ) {
+            Arrays.sort( afileChildren );
+            for( File fileChild : afileChildren )
+                findJavaFiles( fileChild, listFiles );
+        }
+        else if( file.getName().endsWith( ".java" ) )
+            listFiles.add( file );
+    }
+}
@@ -0,0 +1,64 @@
+package name.wadewalker.checks.test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.runners.Parameterized;
+import org.junit.runners.model.RunnerScheduler;
+
+//==============================================================================
+/**
+ * Parameterized runner that runs the parameter sets concurrently, one thread per
+ * processor. Each parameter set is still reported as its own test.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class ParallelParameterized extends Parameterized {
+
+    //==============================================================================
+    /**
+     * Schedules each parameter set's runner on a thread pool.
+     */
+    private static final class ThreadPoolScheduler implements RunnerScheduler {
+
+        /** Threads that run the parameter sets. */
+        private final ExecutorService executorservice =
+            Executors.newFixedThreadPool( Runtime.getRuntime().availableProcessors() );
+
+        /**
+         * Starts running one parameter set.
+         *
+         * @param runnableChild Runs all the tests of one parameter set.
+         */
+        public void schedule( Runnable runnableChild ) {
+            executorservice.submit( runnableChild );
+        }
+
+        /**
+         * Waits for all the parameter sets to finish.
+         */
+        public void finished() {
+            executorservice.shutdown();
+            try {
+                executorservice.awaitTermination( Long.MAX_VALUE, TimeUnit.NANOSECONDS );
+            }
+            catch( InterruptedException interruptedexception ) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Constructor.
+     *
+     * @param classTest Test class to run.
+     * @throws Throwable if the test class or its parameters are invalid.
+     */
+    public ParallelParameterized( Class<?> classTest ) throws Throwable {
+        super( classTest );
+        setScheduler( new ThreadPoolScheduler() );
+    }
+}
@@ -14,7 +14,26 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith( Suite.class )
 
 @SuiteClasses( {
-    TestChecks.class } )
+    TestBaseline.class,
+    TestChangedLines.class,
+    TestCheckDaemon.class,
+    TestCheckMetrics.class,
+    TestChecks.class,
+    TestCorpusThroughput.class,
+    TestDeclarationCache.class,
+    TestHungarianNamingMerged.class,
+    TestJavacPlugin.class,
+    TestJavadocLineScanner.class,
+    TestJavadocTemplateNesting.class,
+    TestMappedJavadocTemplate.class,
+    TestParallelChecker.class,
+    TestPrefixRules.class,
+    TestResultCache.class,
+    TestSharding.class,
+    TestTypeIndex.class,
+    TestViolationLimits.class,
+    TestViolationStream.class,
+    TestWadeWalkerChecks.class } )
 
 public class TestAll {
 
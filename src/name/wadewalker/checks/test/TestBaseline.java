@@ -0,0 +1,159 @@
+package name.wadewalker.checks.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+import name.wadewalker.checks.Baseline;
+import name.wadewalker.checks.Violation;
+import name.wadewalker.checks.WadeWalkerChecks;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+//==============================================================================
+/**
+ * Records the violations of two regression files into a {@link Baseline}, and makes
+ * sure the checks skip them afterwards, even when lines move, while still reporting
+ * new ones.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class TestBaseline {
+
+    /** Regression tests whose files are copied into the temporary directory. */
+    private static final String [] sasTestNames = {"HungarianNamingFail", "JavadocTemplateNesting"};
+
+    /** Temporary directory holding the baseline and copies of the regression files. */
+    private File fileTempDir;
+
+    /** Baseline file in the temporary directory. */
+    private File fileBaseline;
+
+    /** Copies of the regression files (same file name, different directories). */
+    private List<File> listFiles;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public TestBaseline() {
+    }
+
+    //==============================================================================
+    /**
+     * Copies the regression files into a temporary directory.
+     *
+     * @throws IOException if the files can't be copied.
+     */
+    @Before
+    public void copyFiles() throws IOException {
+
+        fileTempDir = Files.createTempDirectory( "baseline" ).toFile();
+        fileBaseline = new File( fileTempDir, "baseline.txt" );
+        listFiles = new ArrayList<File>();
+
+        for( String sTestName : sasTestNames ) {
+            File fileDir = new File( fileTempDir, sTestName );
+            assertTrue( fileDir.mkdir() );
+            File file = new File( fileDir, "ChecksTest.java" );
+            Files.copy( new File( "regression/" + sTestName + "/ChecksTest.java" ).toPath(), file.toPath() );
+            listFiles.add( file );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Deletes the temporary directory.
+     */
+    @After
+    public void deleteFiles() {
+        for( File file : listFiles ) {
+            assertTrue( file.delete() );
+            assertTrue( file.getParentFile().delete() );
+        }
+        assertTrue( !fileBaseline.exists() || fileBaseline.delete() );
+        assertTrue( fileTempDir.delete() );
+    }
+
+    //==============================================================================
+    /**
+     * Runs both rules over the copied files.
+     *
+     * @param bUpdate True to record the violations into the baseline, false to skip the ones in it.
+     * @return the violations.
+     * @throws CheckstyleException if the check fails.
+     */
+    private List<Violation> run( boolean bUpdate ) throws CheckstyleException {
+
+        DefaultConfiguration defaultconfigurationCheck = new DefaultConfiguration( WadeWalkerChecks.class.getName() );
+        defaultconfigurationCheck.addAttribute( "baselineFile", fileBaseline.getPath() );
+        defaultconfigurationCheck.addAttribute( "updateBaseline", Boolean.toString( bUpdate ) );
+        return( CheckFixture.runChecks( listFiles, defaultconfigurationCheck ) );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that recorded violations are all skipped on the next run.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if the baseline can't be read.
+     */
+    @Test
+    public void recordedViolationsAreSkipped() throws CheckstyleException, IOException {
+
+        assertTrue( run( true ).size() > 0 );
+
+        Baseline baseline = Baseline.load( fileBaseline );
+        assertTrue( baseline.size() > 0 );
+
+        // paths are stored relative to the baseline's directory
+        String sBaseline = new String( Files.readAllBytes( fileBaseline.toPath() ), StandardCharsets.UTF_8 );
+        assertTrue( sBaseline, sBaseline.contains( "\nHungarianNamingFail/ChecksTest.java\n" ) );
+        assertTrue( sBaseline, !sBaseline.contains( fileTempDir.getName() ) );
+
+        assertEquals( 0, run( false ).size() );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that moving the baselined violations to other lines doesn't report them
+     * again, but a new violation is still reported.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if a file can't be rewritten.
+     */
+    @Test
+    public void matchedByNameNotLine() throws CheckstyleException, IOException {
+
+        run( true );
+
+        // shift every line down, and add a new member with a bad name to the top class
+        File file = listFiles.get( 0 );
+        List<String> listLines = new ArrayList<String>( Files.readAllLines( file.toPath(), StandardCharsets.UTF_8 ) );
+        listLines.addAll( 0, Arrays.asList( "// shifted", "// shifted", "// shifted" ) );
+        for( int i = 0; i < listLines.size(); i++ ) {
+            if( listLines.get( i ).startsWith( "public class " ) ) {
+                listLines.add( i + 1, "    private int badlyNamedMember;" );
+                break;
+            }
+        }
+        Files.write( file.toPath(), listLines, StandardCharsets.UTF_8 );
+
+        List<Violation> listViolations = run( false );
+        assertEquals( listViolations.toString(), 1, listViolations.size() );
+        assertTrue( listViolations.get( 0 ).getMessage().contains( "'badlyNamedMember'" ) );
+    }
+}
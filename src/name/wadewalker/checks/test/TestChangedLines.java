@@ -0,0 +1,233 @@
+package name.wadewalker.checks.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+import name.wadewalker.checks.ChangedLines;
+import name.wadewalker.checks.GoldComparator;
+import name.wadewalker.checks.Violation;
+import name.wadewalker.checks.WadeWalkerChecks;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+//==============================================================================
+/**
+ * Checks that {@link ChangedLines} reads diffs and line ranges correctly, and that the
+ * checks limited to changed lines report exactly the gold violations on those lines.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class TestChangedLines {
+
+    /** Regression file with Hungarian naming violations. */
+    private static final String ssHungarianFile = "regression/HungarianNamingFail/ChecksTest.java";
+
+    /** Regression file with Javadoc violations. */
+    private static final String ssJavadocFile = "regression/JavadocTemplateFail/ChecksTest.java";
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public TestChangedLines() {
+    }
+
+    //==============================================================================
+    /**
+     * Tests that added lines (and the line after a deletion) count as changed, and that
+     * context lines and deleted files don't.
+     *
+     * @throws IOException if the diff can't be read.
+     */
+    @Test
+    public void readsUnifiedDiff() throws IOException {
+
+        String sDiff =   "diff --git a/src/A.java b/src/A.java\n"
+                       + "--- a/src/A.java\n"
+                       + "+++ b/src/A.java\n"
+                       + "@@ -10,4 +10,5 @@ class A {\n"
+                       + " context 10\n"
+                       + "+added 11\n"
+                       + "+added 12\n"
+                       + " context 13\n"
+                       + "-deleted before 14\n"
+                       + " context 14\n"
+                       + "@@ -40 +41,0 @@\n"
+                       + "-deleted before 41\n"
+                       + "--- a/src/Gone.java\n"
+                       + "+++ /dev/null\n"
+                       + "@@ -1 +0,0 @@\n"
+                       + "-class Gone {}\n";
+
+        ChangedLines changedlines = ChangedLines.load( new StringReader( sDiff ) );
+        ChangedLines.LineRanges lineranges = changedlines.getFileRanges( "/home/user/project/src/A.java" );
+
+        assertFalse( lineranges.intersects( 1, 10 ) );
+        assertTrue( lineranges.intersects( 11, 11 ) );
+        assertTrue( lineranges.intersects( 5, 12 ) );
+        assertFalse( lineranges.intersects( 13, 13 ) );
+        assertTrue( lineranges.intersects( 14, 14 ) );
+        assertFalse( lineranges.intersects( 15, 40 ) );
+        assertTrue( lineranges.intersects( 41, 41 ) );
+
+        assertTrue( changedlines.getFileRanges( "/home/user/project/src/Gone.java" ).isEmpty() );
+        assertTrue( changedlines.getFileRanges( "/home/user/project/other/A.java" ).isEmpty() );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that added lines starting with "++ " and removed lines starting with "-- "
+     * are read as changes inside their hunks instead of as file headers, and that the
+     * headers after each hunk's last line are still read.
+     *
+     * @throws IOException if the diff can't be read.
+     */
+    @Test
+    public void readsHeaderLikeLinesInsideHunks() throws IOException {
+
+        String sDiff =   "--- a/src/A.java\n"
+                       + "+++ b/src/A.java\n"
+                       + "@@ -5,3 +5,3 @@\n"
+                       + " context 5\n"
+                       + "--- removed 6\n"
+                       + "+++ added 6\n"
+                       + " context 7\n"
+                       + "@@ -20 +20,0 @@\n"
+                       + "--- removed 20\n"
+                       + "\\ No newline at end of file\n"
+                       + "--- a/src/B.java\n"
+                       + "+++ b/src/B.java\n"
+                       + "@@ -1,0 +2 @@\n"
+                       + "++ added 2\n";
+
+        ChangedLines changedlines = ChangedLines.load( new StringReader( sDiff ) );
+        ChangedLines.LineRanges lineranges = changedlines.getFileRanges( "/home/user/project/src/A.java" );
+
+        assertFalse( lineranges.intersects( 1, 5 ) );
+        assertTrue( lineranges.intersects( 6, 6 ) );
+        assertFalse( lineranges.intersects( 7, 19 ) );
+        assertTrue( lineranges.intersects( 20, 20 ) );
+        assertFalse( lineranges.intersects( 21, 100 ) );
+
+        ChangedLines.LineRanges linerangesB = changedlines.getFileRanges( "/home/user/project/src/B.java" );
+        assertFalse( linerangesB.intersects( 1, 1 ) );
+        assertTrue( linerangesB.intersects( 2, 2 ) );
+        assertTrue( changedlines.getFileRanges( "/home/user/project/added 6" ).isEmpty() );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that only the regression files with changed lines are kept.
+     *
+     * @throws IOException if the ranges can't be read.
+     */
+    @Test
+    public void filtersUnchangedFiles() throws IOException {
+
+        ChangedLines changedlines = ChangedLines.load( new StringReader( ssHungarianFile + ":20-30\n" ) );
+        List<File> listFiles = Arrays.asList( new File( ssHungarianFile ), new File( ssJavadocFile ) );
+        assertEquals( Arrays.asList( new File( ssHungarianFile ) ), changedlines.filter( listFiles ) );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that the checks report the gold violations on every other violating line,
+     * and nothing in the unchanged file.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if the gold or ranges file can't be read or written.
+     */
+    @Test
+    public void reportsOnlyChangedLines() throws CheckstyleException, IOException {
+
+        List<Violation> listGold = GoldComparator.readGold( new File( "regression/HungarianNamingFail/gold/test.out" ) );
+
+        Set<Integer> setViolationLines = new TreeSet<Integer>();
+        for( Violation violation : listGold )
+            setViolationLines.add( violation.getLine() );
+
+        Set<Integer> setChangedLines = new TreeSet<Integer>();
+        List<String> listRanges = new ArrayList<String>();
+        boolean bChanged = true;
+        for( Integer integerLine : setViolationLines ) {
+            if( bChanged ) {
+                setChangedLines.add( integerLine );
+                listRanges.add( ssHungarianFile + ":" + integerLine );
+            }
+            bChanged = !bChanged;
+        }
+
+        List<Violation> listExpected = new ArrayList<Violation>();
+        for( Violation violation : listGold ) {
+            if( setChangedLines.contains( violation.getLine() ) )
+                listExpected.add( violation );
+        }
+
+        File fileRanges = File.createTempFile( "checks", ".ranges" );
+        Files.write( fileRanges.toPath(), listRanges, StandardCharsets.UTF_8 );
+
+        DefaultConfiguration defaultconfigurationCheck = new DefaultConfiguration( WadeWalkerChecks.class.getName() );
+        defaultconfigurationCheck.addAttribute( "changedLines", fileRanges.getPath() );
+        List<Violation> listViolations =
+            CheckFixture.runChecks( Arrays.asList( new File( ssHungarianFile ), new File( ssJavadocFile ) ), defaultconfigurationCheck );
+
+        assertTrue( listExpected.size() > 0 );
+        assertTrue( listExpected.size() < listGold.size() );
+        assertNull( GoldComparator.compare( listExpected, listViolations ) );
+        assertTrue( fileRanges.delete() );
+    }
+
+    //==============================================================================
+    /**
+     * Tests changed lines in the Javadoc regression file: a range inside the class's
+     * Javadoc block, and a line on a method's comment bar. Each one brings in all the
+     * gold violations of its declaration (a change anywhere from the comment bar to the
+     * declaration counts), and the constructor between them stays unreported.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if the gold or ranges file can't be read or written.
+     */
+    @Test
+    public void reportsChangedJavadoc() throws CheckstyleException, IOException {
+
+        List<Violation> listGold = GoldComparator.readGold( new File( "regression/JavadocTemplateFail/gold/test.out" ) );
+
+        // the class's comment bar (2) and copyright (9), and method1's comment bar (18) and parameter (22)
+        Set<Integer> setChangedDeclarationLines = new TreeSet<Integer>( Arrays.asList( 2, 9, 18, 22 ) );
+        List<Violation> listExpected = new ArrayList<Violation>();
+        for( Violation violation : listGold ) {
+            if( setChangedDeclarationLines.contains( violation.getLine() ) )
+                listExpected.add( violation );
+        }
+
+        File fileRanges = File.createTempFile( "checks", ".ranges" );
+        Files.write( fileRanges.toPath(), Arrays.asList( ssJavadocFile + ":5-6", ssJavadocFile + ":18" ), StandardCharsets.UTF_8 );
+
+        DefaultConfiguration defaultconfigurationCheck = new DefaultConfiguration( WadeWalkerChecks.class.getName() );
+        defaultconfigurationCheck.addAttribute( "changedLines", fileRanges.getPath() );
+        List<Violation> listViolations =
+            CheckFixture.runChecks( Arrays.asList( new File( ssHungarianFile ), new File( ssJavadocFile ) ), defaultconfigurationCheck );
+
+        assertEquals( 4, listExpected.size() );
+        assertTrue( listExpected.size() < listGold.size() );
+        assertNull( GoldComparator.compare( listExpected, listViolations ) );
+        assertTrue( fileRanges.delete() );
+    }
+}
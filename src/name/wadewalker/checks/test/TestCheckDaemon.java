@@ -0,0 +1,311 @@
+package name.wadewalker.checks.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+import name.wadewalker.checks.CheckDaemon;
+import name.wadewalker.checks.CheckDaemonClient;
+import name.wadewalker.checks.GoldComparator;
+import name.wadewalker.checks.HungarianNaming;
+import name.wadewalker.checks.Violation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+//==============================================================================
+/**
+ * Starts a {@link CheckDaemon}, sends it check requests, and makes sure it matches the
+ * gold file, reuses its warm Checkers, reloads the configuration only when the
+ * configuration file changes, limits "-d" checks to changed lines, keeps result caches
+ * in its cache directory, and refuses requests without its token.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class TestCheckDaemon {
+
+    /** Regression file sent to the daemon. */
+    private static final String ssCheckedFile = "regression/HungarianNamingFail/ChecksTest.java";
+
+    /** Gold file of the regression file. */
+    private static final String ssGoldFile = "regression/HungarianNamingFail/gold/test.out";
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public TestCheckDaemon() {
+    }
+
+    //==============================================================================
+    /**
+     * Writes a configuration file that runs only the Hungarian naming check, limited to
+     * the changed lines if the "changedLines" property is set.
+     *
+     * @param fileConfig File to write.
+     * @param bMergeViolations Value of the check's "mergeViolations" property.
+     * @throws IOException if the file can't be written.
+     */
+    private static void writeConfig( File fileConfig, boolean bMergeViolations ) throws IOException {
+        List<String> listLines = Arrays.asList(
+            "<?xml version=\"1.0\"?>",
+            "<!DOCTYPE module PUBLIC \"-//Puppy Crawl//DTD Check Configuration 1.3//EN\"",
+            "    \"http://www.puppycrawl.com/dtds/configuration_1_3.dtd\">",
+            "<module name=\"Checker\">",
+            "    <property name=\"severity\" value=\"warning\"/>",
+            "    <module name=\"TreeWalker\">",
+            "        <module name=\"" + HungarianNaming.class.getName() + "\">",
+            "            <property name=\"mergeViolations\" value=\"" + bMergeViolations + "\"/>",
+            "            <property name=\"changedLines\" value=\"${changedLines}\" default=\"\"/>",
+            "        </module>",
+            "    </module>",
+            "</module>" );
+        Files.write( fileConfig.toPath(), listLines, StandardCharsets.UTF_8 );
+    }
+
+    //==============================================================================
+    /**
+     * Starts a daemon running the configuration {@link #writeConfig(File, boolean)} writes.
+     *
+     * @param fileConfig Configuration file the daemon loads.
+     * @param fileCacheDir Directory of the daemon's result caches (or null for none).
+     * @param fileToken File the daemon writes its token to (or null for no token).
+     * @return the running daemon.
+     * @throws CheckstyleException if the daemon's configuration can't be loaded.
+     * @throws IOException if the daemon can't start.
+     */
+    private static CheckDaemon startDaemon( File fileConfig, File fileCacheDir, File fileToken ) throws CheckstyleException, IOException {
+
+        CheckDaemon checkdaemon = new CheckDaemon( fileConfig.getPath(), null, System.getProperty( "user.dir" ), 2 );
+        checkdaemon.setCacheDir( fileCacheDir );
+        checkdaemon.setTokenFile( fileToken );
+        checkdaemon.start( 0 );
+        return( checkdaemon );
+    }
+
+    //==============================================================================
+    /**
+     * Sends a check request for the regression file.
+     *
+     * @param checkdaemon Daemon to send the request to.
+     * @return the violations in the response.
+     * @throws IOException if the daemon can't be reached.
+     */
+    private static List<Violation> check( CheckDaemon checkdaemon ) throws IOException {
+        return( check( checkdaemon, new ArrayList<String>() ) );
+    }
+
+    //==============================================================================
+    /**
+     * Sends a check request for the regression file.
+     *
+     * @param checkdaemon Daemon to send the request to.
+     * @param listOptions Option lines to send before the file.
+     * @return the violations in the response.
+     * @throws IOException if the daemon can't be reached.
+     */
+    private static List<Violation> check( CheckDaemon checkdaemon, List<String> listOptions ) throws IOException {
+
+        List<String> listRequest = new ArrayList<String>();
+        listRequest.add( "CHECK" );
+        listRequest.addAll( listOptions );
+        listRequest.add( new File( ssCheckedFile ).getAbsolutePath() );
+        listRequest.add( "" );
+        List<String> listResponse = CheckDaemonClient.sendRequest( checkdaemon.getPort(), listRequest );
+
+        assertEquals( "Starting audit...", listResponse.get( 0 ) );
+        assertEquals( "Audit done.", listResponse.get( listResponse.size() - 2 ) );
+        assertEquals( "EXIT 0", listResponse.get( listResponse.size() - 1 ) );
+
+        List<Violation> listViolations = new ArrayList<Violation>();
+        for( String sLine : listResponse.subList( 1, listResponse.size() - 2 ) )
+            listViolations.add( Violation.parse( sLine ) );
+        return( listViolations );
+    }
+
+    //==============================================================================
+    /**
+     * Tests checking, reuse, reloading, and stopping.
+     *
+     * @throws CheckstyleException if the daemon's configuration can't be loaded.
+     * @throws IOException if the daemon can't be reached, or the configuration can't be written.
+     */
+    @Test
+    public void checksWithWarmCheckersAndReloads() throws CheckstyleException, IOException {
+
+        File fileConfig = File.createTempFile( "checks", ".xml" );
+        writeConfig( fileConfig, false );
+
+        CheckDaemon checkdaemon = startDaemon( fileConfig, null, null );
+        try {
+            assertEquals( Arrays.asList( "OK" ), CheckDaemonClient.sendRequest( checkdaemon.getPort(), Arrays.asList( "PING" ) ) );
+
+            List<Violation> listGold = GoldComparator.readGold( new File( ssGoldFile ) );
+            assertNull( GoldComparator.compare( listGold, check( checkdaemon ) ) );
+            int iCreated = checkdaemon.getCheckerPool().getCreatedCount();
+
+            // the second request reuses the warm Checker and the loaded configuration
+            assertNull( GoldComparator.compare( listGold, check( checkdaemon ) ) );
+            assertEquals( iCreated, checkdaemon.getCheckerPool().getCreatedCount() );
+            assertEquals( 1, checkdaemon.getConfigurationLoads() );
+
+            // changing the configuration file reloads it
+            writeConfig( fileConfig, true );
+            assertTrue( fileConfig.setLastModified( fileConfig.lastModified() + 2000 ) );
+            List<Violation> listMerged = check( checkdaemon );
+            assertEquals( 2, checkdaemon.getConfigurationLoads() );
+            assertTrue( listMerged.size() < listGold.size() );
+            assertTrue( listMerged.get( 0 ).getMessage(), listMerged.get( 0 ).getMessage().contains( "(missing " ) );
+
+            assertEquals( Arrays.asList( "OK" ), CheckDaemonClient.sendRequest( checkdaemon.getPort(), Arrays.asList( "STOP" ) ) );
+        }
+        finally {
+            checkdaemon.stop();
+            assertTrue( fileConfig.delete() );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Tests that "-d" limits the findings to the changed lines, as it does for
+     * {@link name.wadewalker.checks.CheckRunner}, and not just the files, using the
+     * warm Checkers.
+     *
+     * @throws CheckstyleException if the daemon's configuration can't be loaded.
+     * @throws IOException if the daemon can't be reached, or the files can't be written.
+     */
+    @Test
+    public void limitsDiffChecksToChangedLines() throws CheckstyleException, IOException {
+
+        File fileConfig = File.createTempFile( "checks", ".xml" );
+        writeConfig( fileConfig, false );
+        File fileRanges = File.createTempFile( "ranges", ".txt" );
+        Files.write( fileRanges.toPath(), Arrays.asList( ssCheckedFile + ":16", ssCheckedFile + ":19" ), StandardCharsets.UTF_8 );
+
+        List<Violation> listExpected = new ArrayList<Violation>();
+        for( Violation violation : GoldComparator.readGold( new File( ssGoldFile ) ) ) {
+            if( (violation.getLine() == 16) || (violation.getLine() == 19) )
+                listExpected.add( violation );
+        }
+        assertEquals( 5, listExpected.size() );
+
+        CheckDaemon checkdaemon = startDaemon( fileConfig, null, null );
+        try {
+            List<Violation> listGold = GoldComparator.readGold( new File( ssGoldFile ) );
+            assertNull( GoldComparator.compare( listGold, check( checkdaemon ) ) );
+            int iCreated = checkdaemon.getCheckerPool().getCreatedCount();
+
+            // the diff is checked by the same warm Checkers, without reloading the configuration
+            List<String> listOptions = Arrays.asList( "-d " + fileRanges.getAbsolutePath() );
+            assertNull( GoldComparator.compare( listExpected, check( checkdaemon, listOptions ) ) );
+            assertEquals( iCreated, checkdaemon.getCheckerPool().getCreatedCount() );
+            assertEquals( 1, checkdaemon.getConfigurationLoads() );
+
+            // and still report every line afterward
+            assertNull( GoldComparator.compare( listGold, check( checkdaemon ) ) );
+        }
+        finally {
+            checkdaemon.stop();
+            assertTrue( fileConfig.delete() );
+            assertTrue( fileRanges.delete() );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Tests that result caches can only be named inside the daemon's cache directory.
+     *
+     * @throws CheckstyleException if the daemon's configuration can't be loaded.
+     * @throws IOException if the daemon can't be reached, or the files can't be written.
+     */
+    @Test
+    public void keepsCachesInCacheDir() throws CheckstyleException, IOException {
+
+        File fileConfig = File.createTempFile( "checks", ".xml" );
+        writeConfig( fileConfig, false );
+        File fileCacheDir = Files.createTempDirectory( "caches" ).toFile();
+        File fileOutside = new File( fileCacheDir.getParentFile(), fileCacheDir.getName() + ".cache" );
+
+        CheckDaemon checkdaemon = startDaemon( fileConfig, fileCacheDir, null );
+        try {
+            List<Violation> listGold = GoldComparator.readGold( new File( ssGoldFile ) );
+            assertNull( GoldComparator.compare( listGold, check( checkdaemon, Arrays.asList( "-i checks.cache" ) ) ) );
+            assertTrue( new File( fileCacheDir, "checks.cache" ).isFile() );
+
+            String [] asBadNames = { fileOutside.getAbsolutePath(), "../" + fileOutside.getName(), ".." };
+            for( String sBadName : asBadNames ) {
+                List<String> listResponse = CheckDaemonClient.sendRequest(
+                    checkdaemon.getPort(), Arrays.asList( "CHECK", "-i " + sBadName, new File( ssCheckedFile ).getAbsolutePath(), "" ) );
+                assertEquals( 2, listResponse.size() );
+                assertTrue( listResponse.get( 0 ), listResponse.get( 0 ).startsWith( "ERROR Bad cache name" ) );
+                assertEquals( "EXIT -2", listResponse.get( 1 ) );
+            }
+            assertTrue( !fileOutside.exists() );
+        }
+        finally {
+            checkdaemon.stop();
+            CheckFixture.deleteTree( fileCacheDir );
+        }
+
+        // without a cache directory, no cache can be named
+        checkdaemon = startDaemon( fileConfig, null, null );
+        try {
+            List<String> listResponse = CheckDaemonClient.sendRequest(
+                checkdaemon.getPort(), Arrays.asList( "CHECK", "-i checks.cache", new File( ssCheckedFile ).getAbsolutePath(), "" ) );
+            assertTrue( listResponse.get( 0 ), listResponse.get( 0 ).startsWith( "ERROR Result caches aren't enabled" ) );
+        }
+        finally {
+            checkdaemon.stop();
+            assertTrue( fileConfig.delete() );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Tests that a daemon with a token keeps it in a file only its owner can read, and
+     * refuses requests that don't give it.
+     *
+     * @throws CheckstyleException if the daemon's configuration can't be loaded.
+     * @throws IOException if the daemon can't be reached, or the files can't be written.
+     */
+    @Test
+    public void requiresToken() throws CheckstyleException, IOException {
+
+        File fileConfig = File.createTempFile( "checks", ".xml" );
+        writeConfig( fileConfig, false );
+        File fileToken = File.createTempFile( "token", ".txt" );
+
+        CheckDaemon checkdaemon = startDaemon( fileConfig, null, fileToken );
+        try {
+            String sToken = new String( Files.readAllBytes( fileToken.toPath() ), StandardCharsets.UTF_8 );
+            assertEquals( 64, sToken.length() );
+            if( FileSystems.getDefault().supportedFileAttributeViews().contains( "posix" ) )
+                assertEquals( "rw-------", PosixFilePermissions.toString( Files.getPosixFilePermissions( fileToken.toPath() ) ) );
+
+            List<String> listRefused = Arrays.asList( "ERROR Missing or wrong token" );
+            assertEquals( listRefused, CheckDaemonClient.sendRequest( checkdaemon.getPort(), Arrays.asList( "STOP" ) ) );
+            assertEquals( listRefused, CheckDaemonClient.sendRequest( checkdaemon.getPort(), Arrays.asList( "TOKEN 0123", "STOP" ) ) );
+            assertEquals( Arrays.asList( "OK" ),
+                          CheckDaemonClient.sendRequest( checkdaemon.getPort(), Arrays.asList( "TOKEN " + sToken, "PING" ) ) );
+            assertEquals( Arrays.asList( "OK" ),
+                          CheckDaemonClient.sendRequest( checkdaemon.getPort(), Arrays.asList( "TOKEN " + sToken, "STOP" ) ) );
+        }
+        finally {
+            checkdaemon.stop();
+            assertTrue( fileConfig.delete() );
+            assertTrue( fileToken.delete() );
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package name.wadewalker.checks.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+import name.wadewalker.checks.CheckMetrics;
+import name.wadewalker.checks.GoldComparator;
+import name.wadewalker.checks.HungarianNaming;
+import name.wadewalker.checks.JavadocTemplate;
+import name.wadewalker.checks.MetricsExporter;
+import name.wadewalker.checks.Violation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+//==============================================================================
+/**
+ * Runs the checks with metrics enabled over the failing regression files, and makes
+ * sure the violation counts by kind match the gold files, and that the MXBean and
+ * Prometheus file both show them.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class TestCheckMetrics {
+
+    /** Regression test subdirectories to check. */
+    private static final String [] sasTestNames = {"HungarianNamingFail", "JavadocTemplateFail", "JavadocTemplateScanner"};
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public TestCheckMetrics() {
+    }
+
+    //==============================================================================
+    /**
+     * Works out the kind of a gold file violation from its message.
+     *
+     * @param violation Violation from a gold file.
+     * @return the kind of the violation.
+     */
+    private static CheckMetrics.Kind kindOf( Violation violation ) {
+
+        String sMessage = violation.getMessage();
+        if( sMessage.startsWith( "Prepend static " ) )
+            return( CheckMetrics.Kind.STATIC );
+        if( sMessage.startsWith( "Prepend array " ) )
+            return( CheckMetrics.Kind.ARRAY );
+        if( sMessage.startsWith( "Prepend varargs " ) )
+            return( CheckMetrics.Kind.VARARGS );
+        if( sMessage.startsWith( "Prepend " ) )
+            return( CheckMetrics.Kind.TYPE_PREFIX );
+        if( sMessage.contains( "comment bar" ) || sMessage.contains( "equals sign bar" ) )
+            return( CheckMetrics.Kind.COMMENT_BAR );
+        if( sMessage.contains( "copyright" ) )
+            return( CheckMetrics.Kind.COPYRIGHT );
+        return( CheckMetrics.Kind.TRIVIAL_PARAM );
+    }
+
+    //==============================================================================
+    /**
+     * Tests the metrics against the gold files.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if a gold or metrics file can't be read.
+     * @throws JMException if the MXBean can't be read.
+     */
+    @Test
+    public void countsMatchGold() throws CheckstyleException, IOException, JMException {
+
+        File fileMetrics = File.createTempFile( "checks", ".prom" );
+
+        DefaultConfiguration defaultconfigurationHungarianNaming = new DefaultConfiguration( HungarianNaming.class.getName() );
+        defaultconfigurationHungarianNaming.addAttribute( "metrics", "true" );
+        DefaultConfiguration defaultconfigurationJavadocTemplate = new DefaultConfiguration( JavadocTemplate.class.getName() );
+        defaultconfigurationJavadocTemplate.addAttribute( "metrics", "true" );
+        DefaultConfiguration defaultconfigurationExporter = new DefaultConfiguration( MetricsExporter.class.getName() );
+        defaultconfigurationExporter.addAttribute( "file", fileMetrics.getPath() );
+        DefaultConfiguration defaultconfigurationChecker =
+            CheckFixture.makeChecker( defaultconfigurationHungarianNaming, defaultconfigurationJavadocTemplate );
+        defaultconfigurationChecker.addChild( defaultconfigurationExporter );
+
+        List<File> listFiles = new ArrayList<File>();
+        long [] alExpected = new long [CheckMetrics.Kind.values().length];
+        for( String sTestName : sasTestNames ) {
+            listFiles.add( new File( "regression/" + sTestName + "/ChecksTest.java" ) );
+            for( Violation violation : GoldComparator.readGold( new File( "regression/" + sTestName + "/gold/test.out" ) ) )
+                alExpected[kindOf( violation ).ordinal()]++;
+        }
+
+        CheckMetrics.getInstance().reset();
+        CheckFixture.runChecker( defaultconfigurationChecker, listFiles );
+
+        Map<String, Long> mapViolations = CheckMetrics.getInstance().getViolations();
+        for( CheckMetrics.Kind kind : CheckMetrics.Kind.values() )
+            assertEquals( kind.getLabel(), Long.valueOf( alExpected[kind.ordinal()] ), mapViolations.get( kind.getLabel() ) );
+
+        assertEquals( Long.valueOf( listFiles.size() ), CheckMetrics.getInstance().getFilesChecked().get( "HungarianNaming" ) );
+        assertTrue( CheckMetrics.getInstance().getTokensVisited().get( "JavadocTemplate" ) > 0 );
+        assertTrue( CheckMetrics.getInstance().getVisitNanos().get( "HungarianNaming" ) > 0 );
+        assertEquals( 2 * listFiles.size(), CheckMetrics.getInstance().getSlowestFiles().size() );
+
+        // the MXBean shows the same counts
+        Object oViolations = ManagementFactory.getPlatformMBeanServer().getAttribute( new ObjectName( CheckMetrics.ssObjectName ), "Violations" );
+        assertTrue( oViolations.toString().contains( "static" ) );
+
+        String sPrometheus = new String( Files.readAllBytes( fileMetrics.toPath() ), StandardCharsets.UTF_8 );
+        assertTrue( sPrometheus.contains( "# TYPE wadewalker_check_violations_total counter\n" ) );
+        assertTrue( sPrometheus.contains( "wadewalker_check_violations_total{kind=\"static\"} " + alExpected[CheckMetrics.Kind.STATIC.ordinal()] + "\n" ) );
+        assertTrue( sPrometheus.contains( "wadewalker_check_files_total{check=\"JavadocTemplate\"} " + listFiles.size() + "\n" ) );
+        assertTrue( fileMetrics.delete() );
+    }
+}
@@ -1,203 +1,130 @@
 package name.wadewalker.checks.test;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Properties;
 
-import com.puppycrawl.tools.checkstyle.Checker;
 import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
-import com.puppycrawl.tools.checkstyle.DefaultLogger;
 import com.puppycrawl.tools.checkstyle.PropertiesExpander;
-import com.puppycrawl.tools.checkstyle.api.AuditListener;
 import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+
+import name.wadewalker.checks.GoldComparator;
+import name.wadewalker.checks.ViolationCollector;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized.Parameters;
 
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 //==============================================================================
 /**
- * Contains passing and failing unit tests for each check.
+ * Runs the checks over every regression test directory that has a gold file, and
+ * compares the output to it. Directories are found automatically and checked
+ * concurrently, each with its own Checker, and each is reported as its own test.
  *
  * Copyright (c) 2011 Wade Walker. All rights reserved.
  * @author Wade Walker
  */
+@RunWith( ParallelParameterized.class )
 public class TestChecks {
 
     /** Checkstyle configuration file. */
     private static String ssConfigFile = "../External/Checkstyle/Checks.xml";
 
-    /** Used to invoke Checkstyle -- static because creation is slow. */
-    private static Checker schecker;
-    
+    /** Directory holding the regression test subdirectories. */
+    private static String ssRegressionDir = "regression";
+
+    /** Configuration shared by every test's Checker -- static because loading is slow. */
+    private static Configuration sconfiguration;
+
     /** Test subdirectory inside regression directory. */
     private String sTestSubdir;
 
     /** Input Java file to check for the current test. */
     private String sCheckedFile;
 
-    /** Current test's output directory. */
-    private File fileTestOutputDir;
-
-    /** Output file for current test. */
-    private String sTestOutputFile;
-
     /** Gold file to compare test output to. */
     private String sGoldOutputFile;
 
     //==============================================================================
     /**
      * Constructor.
+     *
+     * @param sTestName Name of the regression test subdirectory.
      */
-    public TestChecks() {
+    public TestChecks( String sTestName ) {
+        initialize( sTestName );
     }
 
     //==============================================================================
     /**
-     * Set up the Checkstyle object.
-     * @throws CheckstyleException if the checker setup fails.
+     * Finds the regression tests: every subdirectory with a gold file.
+     *
+     * @return the name of each test subdirectory, in sorted order.
      */
-    @BeforeClass
-    public static void initializeClass() throws CheckstyleException {
+    @Parameters( name = "{0}" )
+    public static Collection<Object []> findRegressionTests() {
 
-        schecker = new Checker();
-        // gives Checkstyle access to this project's .class files
-        schecker.setModuleClassLoader( Thread.currentThread().getContextClassLoader() );
+        List<Object []> listTests = new ArrayList<Object []>();
 
-        String sUserDir = System.getProperty( "user.dir" );
+        File [] afileDirs = new File( ssRegressionDir ).listFiles();
+        if( afileDirs != null ) {
+            Arrays.sort( afileDirs );
+            for( File fileDir : afileDirs ) {
+                if( new File( fileDir, "gold" + File.separator + "test.out" ).isFile() )
+                    listTests.add( new Object [] {fileDir.getName()} );
+            }
+        }
+
+        return( listTests );
+    }
+
+    //==============================================================================
+    /**
+     * Loads the Checkstyle configuration.
+     * @throws CheckstyleException if the configuration can't be loaded.
+     */
+    @BeforeClass
+    public static void initializeClass() throws CheckstyleException {
 
         // set up properties used in XML config file
         Properties properties = new Properties();
-        properties.setProperty( "basedir", sUserDir );
-
-        // this shortens paths printed to output files (also skipping the user-specific parts
-        // at the start)
-        schecker.setBasedir( sUserDir );
+        properties.setProperty( "basedir", System.getProperty( "user.dir" ) );
 
         // read configuration file
-        schecker.configure( ConfigurationLoader.loadConfiguration( ssConfigFile, new PropertiesExpander( properties ) ) );
+        sconfiguration = ConfigurationLoader.loadConfiguration( ssConfigFile, new PropertiesExpander( properties ) );
     }
 
     //==============================================================================
     /**
-     * Constructor.
+     * Sets up the file names for one test.
      *
      * @param sTestName Name of the test.
      */
-    public void initialize( String sTestName ) {
+    private void initialize( String sTestName ) {
 
-        sTestSubdir = "regression" + File.separator + sTestName;
+        sTestSubdir = ssRegressionDir + File.separator + sTestName;
         sCheckedFile = sTestSubdir + File.separator + "ChecksTest.java";
-        fileTestOutputDir = new File( sTestSubdir + File.separator + "test" );
-        sTestOutputFile = sTestSubdir + File.separator + "test/test.out";
         sGoldOutputFile = sTestSubdir + File.separator + "gold/test.out";
     }
 
     //==============================================================================
     /**
-     * Tests Hungarian naming passing cases.
-     */
-    @Test
-    public void hungarianNamingPass() {
-        initialize( "HungarianNamingPass" );
-        runCheckstyle();
-    }
-
-    //==============================================================================
-    /**
-     * Tests Hungarian naming failure cases.
+     * Tests that the output for this directory matches its gold file.
      */
     @Test
-    public void hungarianNamingFail() {
-        initialize( "HungarianNamingFail" );
+    public void matchesGold() {
         runCheckstyle();
     }
 
-    //==============================================================================
-    /**
-     * Tests Javadoc template passing cases.
-     */
-    @Test
-    public void javadocTemplatePass() {
-        initialize( "JavadocTemplatePass" );
-        runCheckstyle();
-    }
-
-    //==============================================================================
-    /**
-     * Tests Javadoc template failure cases.
-     */
-    @Test
-    public void javadocTemplateFail() {
-        initialize( "JavadocTemplateFail" );
-        runCheckstyle();
-    }
-
-    //==============================================================================
-    /**
-     * Checks for file equality.
-     * @param fileA First file to check.
-     * @param fileB Second file to check.
-     * @return true if the files are different, false otherwise.
-     */
-    private static boolean diff( File fileA, File fileB ) {
-        boolean bReturn = false;
-
-        try {
-            BufferedReader bufferedreaderA = new BufferedReader( new FileReader( fileA ) );
-            BufferedReader bufferedreaderB = new BufferedReader( new FileReader( fileB ) );
-
-            String sLineA;
-            String sLineB;
-            boolean bDone = false;
-
-            while( !bDone ) {
-                // replace so file paths won't cause spurious cross-platform diffs
-                sLineA = bufferedreaderA.readLine();
-                sLineB = bufferedreaderB.readLine();
-
-                if( (sLineA == null) && (sLineB == null) ) {
-                    bDone = true;
-                    break;
-                }
-
-                if( ((sLineA != null) && (sLineB == null)) || ((sLineA == null) && (sLineB != null)) ) {
-                    bReturn = true;
-                    break;
-                }
-
-                if( !sLineA.equals( sLineB ) ) {
-                    // replace so file paths won't cause spurious cross-platform diffs
-                    // NOTE: only need to try this if strings are different
-                    sLineA = sLineA.replace( '\\', '/' );
-                    sLineB = sLineB.replace( '\\', '/' );
-
-                    if( !sLineA.equals( sLineB ) ) {
-                        bReturn = true;
-                        break;
-                    }
-                }
-            }
-            
-            bufferedreaderA.close();
-            bufferedreaderB.close();
-        }
-        catch( FileNotFoundException filenotfoundexception ) {
-            assertTrue( false );
-        }
-        catch( IOException ioexception ) {
-            assertTrue( false );
-        }
-
-        return( bReturn );
-    }
-
     //==============================================================================
     /**
      * Runs Checkstyle against one input file. Checks the output against a "gold" file
@@ -206,27 +133,22 @@ public class TestChecks {
     private void runCheckstyle() {
 
         try {
-            // remove and re-create the output directory (insures we don't check against stale output)
-            fileTestOutputDir.delete();
-            fileTestOutputDir.mkdirs();
-
-            // logger to write this output file
-            AuditListener auditlistener = new DefaultLogger( new FileOutputStream( new File( sTestOutputFile ) ), true );
-            schecker.addListener( auditlistener );
+            // each test gets its own checker, so tests can run concurrently; violations
+            // are collected in memory instead of written to an output file
+            ViolationCollector violationcollector = CheckFixture.collect( sconfiguration, Arrays.asList( new File( sCheckedFile ) ) );
 
-            // check the file
-            schecker.process( Arrays.asList( new File( sCheckedFile ) ) );
-            schecker.removeListener( auditlistener );
+            assertEquals( "Exceptions in " + sTestSubdir, new ArrayList<String>(), violationcollector.getExceptions() );
 
-            // fail if test and gold files differ
-            if ( diff( new File( sGoldOutputFile ), new File( sTestOutputFile ) ) )
-                assertTrue( "Gold file diff failed.", false );
+            // fail if violations and gold file differ
+            String sReport = GoldComparator.compare( GoldComparator.readGold( new File( sGoldOutputFile ) ), violationcollector.getViolations() );
+            if( sReport != null )
+                fail( "Gold file diff failed for " + sTestSubdir + ".\n" + sReport );
         }
-        catch( FileNotFoundException filenotfoundexception ) {
-            assertTrue( "Test threw an exception: " + filenotfoundexception.getMessage(), false );
+        catch( IOException ioexception ) {
+            fail( "Test threw an exception: " + ioexception.getMessage() );
         }
         catch( CheckstyleException checkstyleexception ) {
-            assertTrue( "Test threw an exception: " + checkstyleexception.getMessage(), false );
+            fail( "Test threw an exception: " + checkstyleexception.getMessage() );
         }
     }
 }
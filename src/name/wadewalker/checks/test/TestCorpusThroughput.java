@@ -0,0 +1,252 @@
+package name.wadewalker.checks.test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+import name.wadewalker.checks.CorpusGenerator;
+import name.wadewalker.checks.FileResult;
+import name.wadewalker.checks.HungarianNaming;
+import name.wadewalker.checks.JavadocTemplate;
+import name.wadewalker.checks.ParallelChecker;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+//==============================================================================
+/**
+ * Checks a generated corpus, and fails if throughput drops too far below the
+ * recorded baseline. Absolute throughput depends on the machine, so this run's
+ * throughput is divided by that of a reference workload measured in the same run
+ * (Checkstyle's own naming checks over the same corpus, which parse and walk the
+ * same trees), and that ratio is what's compared. The baseline ratio and tolerance
+ * are read from regression/Throughput/baseline.properties, and can be overridden with
+ * the system properties "throughput.files", "throughput.ratio", and
+ * "throughput.tolerance". Setting "throughput.record" to true writes the measured
+ * ratio back as the new baseline.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class TestCorpusThroughput {
+
+    /** File holding the recorded baseline. */
+    private static final String ssBaselineFile = "regression/Throughput/baseline.properties";
+
+    /** Seed of the generated corpus. */
+    private static final long slSeed = 20160101L;
+
+    /** Number of times each workload is timed (the best time is kept). */
+    private static final int siTimedRuns = 3;
+
+    /** Directory holding the generated corpus. */
+    private static File sfileCorpusDir;
+
+    /** Files in the generated corpus. */
+    private static List<File> slistFiles;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public TestCorpusThroughput() {
+    }
+
+    //==============================================================================
+    /**
+     * Generates the corpus.
+     *
+     * @throws IOException if the corpus can't be written or the baseline can't be read.
+     */
+    @BeforeClass
+    public static void generateCorpus() throws IOException {
+        sfileCorpusDir = Files.createTempDirectory( "corpus" ).toFile();
+        slistFiles = new CorpusGenerator( slSeed ).generate( sfileCorpusDir, Integer.parseInt( getSetting( "throughput.files" ) ) );
+    }
+
+    //==============================================================================
+    /**
+     * Deletes the corpus.
+     */
+    @AfterClass
+    public static void deleteCorpus() {
+        for( File fileDir : sfileCorpusDir.listFiles() ) {
+            for( File file : fileDir.listFiles() )
+                assertTrue( file.delete() );
+            assertTrue( fileDir.delete() );
+        }
+        assertTrue( sfileCorpusDir.delete() );
+    }
+
+    //==============================================================================
+    /**
+     * Gets a setting from the system properties, or from the baseline file if it's
+     * not set there.
+     *
+     * @param sName Name of the setting.
+     * @return the value of the setting.
+     * @throws IOException if the baseline file can't be read.
+     */
+    private static String getSetting( String sName ) throws IOException {
+
+        String sValue = System.getProperty( sName );
+        if( sValue == null )
+            sValue = readBaseline().getProperty( sName );
+        if( sValue == null )
+            throw new IOException( "No setting " + sName + " in " + ssBaselineFile );
+        return( sValue );
+    }
+
+    //==============================================================================
+    /**
+     * Reads the baseline file.
+     *
+     * @return the baseline settings.
+     * @throws IOException if the baseline file can't be read.
+     */
+    private static Properties readBaseline() throws IOException {
+
+        Properties properties = new Properties();
+        InputStream inputstream = new FileInputStream( ssBaselineFile );
+        try {
+            properties.load( inputstream );
+        }
+        finally {
+            inputstream.close();
+        }
+        return( properties );
+    }
+
+    //==============================================================================
+    /**
+     * Creates a configuration with both checks.
+     *
+     * @return the configuration.
+     */
+    private static DefaultConfiguration createConfiguration() {
+        return( CheckFixture.makeChecker( new DefaultConfiguration( HungarianNaming.class.getName() ),
+                                          new DefaultConfiguration( JavadocTemplate.class.getName() ) ) );
+    }
+
+    //==============================================================================
+    /**
+     * Creates a configuration with Checkstyle's own naming checks, which visit the same
+     * declarations as the Hungarian naming check, to time the reference workload.
+     *
+     * @return the configuration.
+     */
+    private static DefaultConfiguration createReferenceConfiguration() {
+        return( CheckFixture.makeChecker( new DefaultConfiguration( "MemberName" ), new DefaultConfiguration( "ParameterName" ),
+                                          new DefaultConfiguration( "LocalVariableName" ) ) );
+    }
+
+    //==============================================================================
+    /**
+     * Times one check of the whole corpus.
+     *
+     * @param parallelchecker Checker to time.
+     * @return the time taken, in nanoseconds.
+     * @throws CheckstyleException if the check fails.
+     */
+    private static long timeCheck( ParallelChecker parallelchecker ) throws CheckstyleException {
+        long lStartNanos = System.nanoTime();
+        parallelchecker.check( slistFiles );
+        return( System.nanoTime() - lStartNanos );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that the generator is deterministic, and that it mixes passing and failing files.
+     *
+     * @throws CheckstyleException if the check fails.
+     */
+    @Test
+    public void generatorIsDeterministic() throws CheckstyleException {
+
+        assertEquals( new CorpusGenerator( slSeed ).generateFile( 7, "p", "C" ), new CorpusGenerator( slSeed ).generateFile( 7, "p", "C" ) );
+        assertFalse( new CorpusGenerator( slSeed ).generateFile( 7, "p", "C" ).equals( new CorpusGenerator( slSeed + 1 ).generateFile( 7, "p", "C" ) ) );
+
+        int iCleanFiles = 0;
+        int iHungarianNaming = 0;
+        int iJavadocTemplate = 0;
+        for( FileResult fileresult : new ParallelChecker( createConfiguration(), null, 0 ).check( slistFiles.subList( 0, 100 ) ) ) {
+            if( fileresult.getLines().isEmpty() )
+                iCleanFiles++;
+            for( String sLine : fileresult.getLines() ) {
+                iHungarianNaming += sLine.endsWith( "[HungarianNaming]" ) ? 1 : 0;
+                iJavadocTemplate += sLine.endsWith( "[JavadocTemplate]" ) ? 1 : 0;
+            }
+        }
+
+        assertTrue( iCleanFiles > 0 );
+        assertTrue( iCleanFiles < 100 );
+        assertTrue( iHungarianNaming > 0 );
+        assertTrue( iJavadocTemplate > 0 );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that single-threaded throughput, relative to the reference workload's, is
+     * within tolerance of the baseline.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if the baseline can't be read or written.
+     */
+    @Test
+    public void throughputWithinTolerance() throws CheckstyleException, IOException {
+
+        ParallelChecker parallelchecker = new ParallelChecker( createConfiguration(), null, 1 );
+        ParallelChecker parallelcheckerReference = new ParallelChecker( createReferenceConfiguration(), null, 1 );
+
+        // warm up the JIT and the declaration cache before timing
+        List<File> listWarmUpFiles = slistFiles.subList( 0, Math.min( 200, slistFiles.size() ) );
+        parallelchecker.check( listWarmUpFiles );
+        parallelcheckerReference.check( listWarmUpFiles );
+
+        // the runs alternate, so a slow spell on the machine hits both workloads alike
+        long lBestNanos = Long.MAX_VALUE;
+        long lBestReferenceNanos = Long.MAX_VALUE;
+        for( int iRun = 0; iRun < siTimedRuns; iRun++ ) {
+            lBestNanos = Math.min( lBestNanos, timeCheck( parallelchecker ) );
+            lBestReferenceNanos = Math.min( lBestReferenceNanos, timeCheck( parallelcheckerReference ) );
+        }
+        double dFilesPerSecond = slistFiles.size() / (lBestNanos / 1e9);
+        double dRatio = (double)lBestReferenceNanos / lBestNanos;
+
+        if( Boolean.getBoolean( "throughput.record" ) ) {
+            Properties properties = readBaseline();
+            // the root locale writes a decimal point, which Double.parseDouble reads back in any locale
+            properties.setProperty( "throughput.ratio", String.format( Locale.ROOT, "%.2f", dRatio ) );
+            OutputStream outputstream = new FileOutputStream( ssBaselineFile );
+            try {
+                properties.store( outputstream, "Single-threaded throughput of the checks on the generated corpus, "
+                                                + "divided by that of Checkstyle's naming checks" );
+            }
+            finally {
+                outputstream.close();
+            }
+            return;
+        }
+
+        double dBaseline = Double.parseDouble( getSetting( "throughput.ratio" ) );
+        double dTolerance = Double.parseDouble( getSetting( "throughput.tolerance" ) );
+        assertTrue( String.format( "Throughput %.0f files/sec is %.2f times the reference workload's, more than %.0f%% below the "
+                                   + "baseline of %.2f times", dFilesPerSecond, dRatio, dTolerance * 100.0, dBaseline ),
+                    dRatio >= dBaseline * (1.0 - dTolerance) );
+    }
+}
@@ -0,0 +1,200 @@
+package name.wadewalker.checks.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import name.wadewalker.checks.DeclarationCache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+//==============================================================================
+/**
+ * Makes sure the declaration cache keeps one verdict per flag combination, evicts the
+ * least recently used type name once it's full, counts hits and misses, and stays
+ * consistent when many threads use it at once.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class TestDeclarationCache {
+
+    /** Every combination of the static, varargs, and array flags. */
+    private static final int siFlagCombinations = 8;
+
+    /** Number of threads sharing the cache in the concurrent test. */
+    private static final int siThreads = 8;
+
+    /** Number of lookups each thread makes in the concurrent test. */
+    private static final int siLookupsPerThread = 20000;
+
+    /** Number of distinct type names the concurrent test looks up. */
+    private static final int siTypeNames = 64;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public TestDeclarationCache() {
+    }
+
+    //==============================================================================
+    /**
+     * Tests that each flag combination of a type name holds its own verdict.
+     */
+    @Test
+    public void keepsOneVerdictPerFlagCombination() {
+
+        DeclarationCache<String> declarationcache = new DeclarationCache<String>( 4 );
+        assertEquals( 1, DeclarationCache.siFlagStatic );
+        assertEquals( 2, DeclarationCache.siFlagVarargs );
+        assertEquals( 4, DeclarationCache.siFlagArray );
+
+        declarationcache.put( "String", 0, "s" );
+        declarationcache.put( "String", DeclarationCache.siFlagStatic | DeclarationCache.siFlagArray, "sas" );
+        assertEquals( "s", declarationcache.get( "String", 0 ) );
+        assertEquals( "sas", declarationcache.get( "String", DeclarationCache.siFlagStatic | DeclarationCache.siFlagArray ) );
+        assertNull( declarationcache.get( "String", DeclarationCache.siFlagStatic ) );
+        assertNull( declarationcache.get( "String", DeclarationCache.siFlagArray ) );
+        assertEquals( 1, declarationcache.size() );
+
+        // every slot can be filled and read back, and replacing one leaves the others alone
+        for( int iFlags = 0; iFlags < siFlagCombinations; iFlags++ )
+            declarationcache.put( "int", iFlags, "i" + iFlags );
+        declarationcache.put( "int", DeclarationCache.siFlagVarargs, "varargs" );
+        for( int iFlags = 0; iFlags < siFlagCombinations; iFlags++ ) {
+            String sExpected = iFlags == DeclarationCache.siFlagVarargs ? "varargs" : "i" + iFlags;
+            assertEquals( sExpected, declarationcache.get( "int", iFlags ) );
+        }
+        assertEquals( 2, declarationcache.size() );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that the cache holds at most its maximum number of type names, and evicts
+     * the one least recently looked up or stored.
+     */
+    @Test
+    public void evictsLeastRecentlyUsedTypeName() {
+
+        DeclarationCache<String> declarationcache = new DeclarationCache<String>( 3 );
+        declarationcache.put( "A", 0, "a" );
+        declarationcache.put( "B", 0, "b" );
+        declarationcache.put( "C", 0, "c" );
+        assertEquals( 3, declarationcache.size() );
+
+        // looking up A makes B the eldest, so D evicts B
+        assertEquals( "a", declarationcache.get( "A", 0 ) );
+        declarationcache.put( "D", 0, "d" );
+        assertEquals( 3, declarationcache.size() );
+        assertNull( declarationcache.get( "B", 0 ) );
+
+        // storing into C's other slots makes A the eldest, so E evicts A
+        declarationcache.put( "C", DeclarationCache.siFlagStatic, "sc" );
+        declarationcache.put( "E", 0, "e" );
+        assertEquals( 3, declarationcache.size() );
+        assertNull( declarationcache.get( "A", 0 ) );
+        assertEquals( "c", declarationcache.get( "C", 0 ) );
+        assertEquals( "sc", declarationcache.get( "C", DeclarationCache.siFlagStatic ) );
+        assertEquals( "d", declarationcache.get( "D", 0 ) );
+        assertEquals( "e", declarationcache.get( "E", 0 ) );
+
+        // a lookup that misses doesn't add a type name
+        assertNull( declarationcache.get( "F", 0 ) );
+        assertEquals( 3, declarationcache.size() );
+    }
+
+    //==============================================================================
+    /**
+     * Tests the hit and miss counts, and that clearing resets them.
+     */
+    @Test
+    public void countsHitsAndMisses() {
+
+        DeclarationCache<String> declarationcache = new DeclarationCache<String>( 2 );
+        assertEquals( 0, declarationcache.getHitCount() );
+        assertEquals( 0, declarationcache.getMissCount() );
+
+        assertNull( declarationcache.get( "long", 0 ) );
+        declarationcache.put( "long", 0, "l" );
+        assertEquals( "l", declarationcache.get( "long", 0 ) );
+        assertEquals( "l", declarationcache.get( "long", 0 ) );
+
+        // an empty slot of a cached type name is a miss too
+        assertNull( declarationcache.get( "long", DeclarationCache.siFlagArray ) );
+        assertEquals( 2, declarationcache.getHitCount() );
+        assertEquals( 2, declarationcache.getMissCount() );
+
+        // storing doesn't count as a lookup
+        declarationcache.put( "long", DeclarationCache.siFlagArray, "al" );
+        assertEquals( 2, declarationcache.getHitCount() );
+        assertEquals( 2, declarationcache.getMissCount() );
+
+        declarationcache.clear();
+        assertEquals( 0, declarationcache.size() );
+        assertEquals( 0, declarationcache.getHitCount() );
+        assertEquals( 0, declarationcache.getMissCount() );
+        assertNull( declarationcache.get( "long", 0 ) );
+        assertEquals( 1, declarationcache.getMissCount() );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that threads sharing a cache smaller than their working set always read
+     * the verdicts they stored, and that every lookup is counted once.
+     *
+     * @throws Exception if a thread fails.
+     */
+    @Test
+    public void staysConsistentUnderConcurrentUse() throws Exception {
+
+        final DeclarationCache<String> declarationcache = new DeclarationCache<String>( siTypeNames / 2 );
+
+        ExecutorService executorservice = Executors.newFixedThreadPool( siThreads );
+        try {
+            List<Future<Integer>> listFutures = new ArrayList<Future<Integer>>();
+            for( int iThread = 0; iThread < siThreads; iThread++ ) {
+                final int iSeed = iThread;
+                listFutures.add( executorservice.submit( new Callable<Integer>() {
+                    @Override
+                    public Integer call() {
+                        int iHits = 0;
+                        for( int i = 0; i < siLookupsPerThread; i++ ) {
+                            int iValue = (i * 31 + iSeed * 17) % (siTypeNames * siFlagCombinations);
+                            String sTypeName = "Type" + (iValue / siFlagCombinations);
+                            int iFlags = iValue % siFlagCombinations;
+
+                            // a verdict depends only on its key, so every thread stores the same one
+                            String sVerdict = declarationcache.get( sTypeName, iFlags );
+                            if( sVerdict == null )
+                                declarationcache.put( sTypeName, iFlags, sTypeName + "/" + iFlags );
+                            else {
+                                assertEquals( sTypeName + "/" + iFlags, sVerdict );
+                                iHits++;
+                            }
+                        }
+                        return( iHits );
+                    }
+                } ) );
+            }
+
+            long lHits = 0;
+            for( Future<Integer> future : listFutures )
+                lHits += future.get();
+
+            assertEquals( lHits, declarationcache.getHitCount() );
+            assertEquals( (long)siThreads * siLookupsPerThread, declarationcache.getHitCount() + declarationcache.getMissCount() );
+            assertTrue( declarationcache.size() <= siTypeNames / 2 );
+        }
+        finally {
+            executorservice.shutdown();
+        }
+    }
+}
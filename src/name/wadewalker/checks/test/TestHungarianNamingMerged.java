@@ -0,0 +1,113 @@
+package name.wadewalker.checks.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+import name.wadewalker.checks.GoldComparator;
+import name.wadewalker.checks.HungarianNaming;
+import name.wadewalker.checks.Violation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+//==============================================================================
+/**
+ * Runs {@link HungarianNaming} with merged violations over the Hungarian naming
+ * regression files, and makes sure each declaration gets one violation listing
+ * exactly the prefix parts the gold file reports separately.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class TestHungarianNamingMerged {
+
+    /** Matches a separate violation's message. */
+    private static final Pattern spatternSeparate = Pattern.compile( "^Prepend (.+?)(?: member| parameter)? name '(\\w+)' with '(\\w+)'$" );
+
+    /** Matches a merged violation's message. */
+    private static final Pattern spatternMerged = Pattern.compile( "^Prepend(?: member| parameter)? name '(\\w+)' with '(\\w+)' \\(missing (.*)\\)$" );
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public TestHungarianNamingMerged() {
+    }
+
+    //==============================================================================
+    /**
+     * Runs the check with merged violations over one regression file.
+     *
+     * @param sTestName Name of the regression test subdirectory.
+     * @return the violations.
+     * @throws CheckstyleException if the check fails.
+     */
+    private static List<Violation> runMerged( String sTestName ) throws CheckstyleException {
+
+        DefaultConfiguration defaultconfigurationCheck = new DefaultConfiguration( HungarianNaming.class.getName() );
+        defaultconfigurationCheck.addAttribute( "mergeViolations", "true" );
+        return( CheckFixture.runChecks( Arrays.asList( new File( "regression/" + sTestName + "/ChecksTest.java" ) ), defaultconfigurationCheck ) );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that the failing declarations each get one violation with all their missing parts.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if the gold file can't be read.
+     */
+    @Test
+    public void oneViolationPerDeclaration() throws CheckstyleException, IOException {
+
+        // missing parts from the gold file, indexed by line and name
+        Map<String, Set<String>> mapExpected = new TreeMap<String, Set<String>>();
+        for( Violation violation : GoldComparator.readGold( new File( "regression/HungarianNamingFail/gold/test.out" ) ) ) {
+            Matcher matcher = spatternSeparate.matcher( violation.getMessage() );
+            assertTrue( violation.getMessage(), matcher.matches() );
+
+            String sKey = violation.getLine() + " " + matcher.group( 2 );
+            if( !mapExpected.containsKey( sKey ) )
+                mapExpected.put( sKey, new TreeSet<String>() );
+            mapExpected.get( sKey ).add( matcher.group( 1 ) + " '" + matcher.group( 3 ) + "'" );
+        }
+
+        Map<String, Set<String>> mapActual = new TreeMap<String, Set<String>>();
+        for( Violation violation : runMerged( "HungarianNamingFail" ) ) {
+            Matcher matcher = spatternMerged.matcher( violation.getMessage() );
+            assertTrue( violation.getMessage(), matcher.matches() );
+
+            Set<String> setParts = new TreeSet<String>( Arrays.asList( matcher.group( 3 ).split( ", " ) ) );
+            assertEquals( "Duplicate violation " + violation, null, mapActual.put( violation.getLine() + " " + matcher.group( 1 ), setParts ) );
+
+            // the required prefix contains every missing part
+            for( String sPart : setParts )
+                assertTrue( violation.getMessage(), matcher.group( 2 ).contains( sPart.substring( sPart.indexOf( '\'' ) + 1, sPart.length() - 1 ) ) );
+        }
+
+        assertEquals( mapExpected, mapActual );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that merging doesn't add violations to passing declarations.
+     *
+     * @throws CheckstyleException if the check fails.
+     */
+    @Test
+    public void passingFileStaysClean() throws CheckstyleException {
+        assertEquals( 0, runMerged( "HungarianNamingPass" ).size() );
+    }
+}
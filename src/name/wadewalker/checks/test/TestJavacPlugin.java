@@ -0,0 +1,237 @@
+package name.wadewalker.checks.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.sun.source.util.JavacTask;
+
+import name.wadewalker.checks.CorpusGenerator;
+import name.wadewalker.checks.GoldComparator;
+import name.wadewalker.checks.HungarianNaming;
+import name.wadewalker.checks.JavacPlugin;
+import name.wadewalker.checks.JavadocTemplate;
+import name.wadewalker.checks.Violation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+//==============================================================================
+/**
+ * Makes sure {@link JavacPlugin} reports the same violations as Checkstyle running
+ * {@link HungarianNaming} and {@link JavadocTemplate}: against the gold files of the
+ * regression tests, and against a Checker on this project's sources and a generated
+ * corpus. The plug-in is run by parsing with the system compiler, found through its
+ * service file on the class path.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class TestJavacPlugin {
+
+    /** Directory holding the regression test subdirectories. */
+    private static final String ssRegressionDir = "regression";
+
+    /** Seed of the generated corpus. */
+    private static final long slSeed = 23L;
+
+    /** Number of files in the generated corpus. */
+    private static final int siCorpusFiles = 100;
+
+    /** Chance that each generated item fails a check. */
+    private static final double sdFailureRate = 0.3;
+
+    /** Temporary directory holding the report and the generated files. */
+    private File fileTempDir;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public TestJavacPlugin() {
+    }
+
+    //==============================================================================
+    /**
+     * Makes the temporary directory.
+     *
+     * @throws IOException if the directory can't be made.
+     */
+    @Before
+    public void makeTempDir() throws IOException {
+        fileTempDir = Files.createTempDirectory( "javacplugin" ).toFile();
+    }
+
+    //==============================================================================
+    /**
+     * Deletes the temporary directory.
+     */
+    @After
+    public void deleteTempDir() {
+        CheckFixture.deleteTree( fileTempDir );
+    }
+
+    //==============================================================================
+    /**
+     * Parses some files with the plug-in, which writes its report to the temporary directory.
+     *
+     * @param listFiles Files to parse.
+     * @param listMessages Where to put the messages of the plug-in's diagnostics (or null to drop them).
+     * @return the violations in the report, in file order.
+     * @throws IOException if a file can't be read.
+     */
+    private List<Violation> runPlugin( List<File> listFiles, List<String> listMessages ) throws IOException {
+
+        File fileReport = new File( fileTempDir, "report.out" );
+        JavaCompiler javacompiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnosticcollector = new DiagnosticCollector<JavaFileObject>();
+        StandardJavaFileManager standardjavafilemanager = javacompiler.getStandardFileManager( null, null, null );
+        try {
+            List<String> listOptions = Arrays.asList( "-classpath", System.getProperty( "java.class.path" ), "-proc:none",
+                                                      "-Xmaxwarns", "100000",
+                                                      "-Xplugin:WadeWalkerChecks basedir=" + System.getProperty( "user.dir" )
+                                                      + " report=" + fileReport.getPath() );
+            JavacTask javactask = (JavacTask)javacompiler.getTask( null, standardjavafilemanager, diagnosticcollector, listOptions, null,
+                                                                   standardjavafilemanager.getJavaFileObjectsFromFiles( listFiles ) );
+            javactask.parse();
+        }
+        finally {
+            standardjavafilemanager.close();
+        }
+
+        // the plug-in's diagnostics are the only ones javac doesn't give a code of its own
+        for( Diagnostic<? extends JavaFileObject> diagnostic : diagnosticcollector.getDiagnostics() ) {
+            if( (listMessages != null) && diagnostic.getCode().contains( "proc.messager" ) )
+                listMessages.add( diagnostic.getMessage( Locale.getDefault() ) );
+        }
+
+        return( GoldComparator.readGold( fileReport ) );
+    }
+
+    //==============================================================================
+    /**
+     * Runs both checks over some files with a Checker.
+     *
+     * @param listFiles Files to check.
+     * @return the violations, in file order.
+     * @throws CheckstyleException if the check fails.
+     */
+    private static List<Violation> runChecker( List<File> listFiles ) throws CheckstyleException {
+
+        return( CheckFixture.runChecks( listFiles, HungarianNaming.class, JavadocTemplate.class ) );
+    }
+
+    //==============================================================================
+    /**
+     * Checks that the plug-in's report matches every regression gold file, and that it
+     * gives one compiler diagnostic with the same message for each violation.
+     *
+     * @throws IOException if a file can't be read.
+     */
+    @Test
+    public void matchesRegressionGold() throws IOException {
+
+        File [] afileDirs = new File( ssRegressionDir ).listFiles();
+        Arrays.sort( afileDirs );
+        int iCompared = 0;
+
+        for( File fileDir : afileDirs ) {
+            File fileGold = new File( fileDir, "gold" + File.separator + "test.out" );
+            if( !fileGold.isFile() )
+                continue;
+
+            List<Violation> listExpected = GoldComparator.readGold( fileGold );
+            List<String> listMessages = new ArrayList<String>();
+            String sReport = GoldComparator.compare( listExpected, runPlugin( Arrays.asList( new File( fileDir, "ChecksTest.java" ) ), listMessages ) );
+            assertNull( fileDir.getName() + "\n" + sReport, sReport );
+
+            List<String> listExpectedMessages = new ArrayList<String>();
+            for( Violation violation : listExpected )
+                listExpectedMessages.add( violation.getMessage() );
+            Collections.sort( listExpectedMessages );
+            Collections.sort( listMessages );
+            assertEquals( fileDir.getName(), listExpectedMessages, listMessages );
+            iCompared++;
+        }
+
+        assertTrue( iCompared > 0 );
+    }
+
+    //==============================================================================
+    /**
+     * Checks that the plug-in matches a Checker on this project's own sources and on a
+     * generated corpus where some items fail each rule.
+     *
+     * @throws IOException if a file can't be read or written.
+     * @throws CheckstyleException if the check fails.
+     */
+    @Test
+    public void matchesCheckerOnSourcesAndCorpus() throws IOException, CheckstyleException {
+
+        List<File> listFiles = new ArrayList<File>();
+        CheckFixture.findJavaFiles( new File( "src" ), listFiles );
+        CheckFixture.findJavaFiles( new File( "bench" ), listFiles );
+
+        CorpusGenerator corpusgenerator = new CorpusGenerator( slSeed );
+        corpusgenerator.setFailureRate( sdFailureRate );
+        listFiles.addAll( corpusgenerator.generate( new File( fileTempDir, "corpus" ), siCorpusFiles ) );
+
+        List<Violation> listExpected = runChecker( listFiles );
+        assertTrue( listExpected.size() > 0 );
+        assertNull( GoldComparator.compare( listExpected, runPlugin( listFiles, null ) ) );
+    }
+
+    //==============================================================================
+    /**
+     * Checks that the plug-in tells varargs from arrays by their source, even when
+     * comments, annotation arguments, or type arguments hold the same characters.
+     *
+     * @throws IOException if a file can't be written or read.
+     * @throws CheckstyleException if the check fails.
+     */
+    @Test
+    public void findsVarargsFromSource() throws IOException, CheckstyleException {
+
+        List<String> listLines = Arrays.asList(
+            "package p;",
+            "",
+            "import java.util.Map;",
+            "",
+            "public class Varargs {",
+            "    @interface Note { String value(); }",
+            "    void a( String... sNames ) {}",
+            "    void b( String /* ... */ [] as ) {}",
+            "    void c( @Note( \"a, b) ...\" ) String [] as ) {}",
+            "    void d( Map<String, Integer> ... amap ) {}",
+            "    void e( String [] x, int [] ... aai ) {}",
+            "    void f( String sName, int... ai ) {}",
+            "    void g( String... names ) {}",
+            "    void h( int [] ... names ) {}",
+            "}" );
+        File file = new File( fileTempDir, "Varargs.java" );
+        Files.write( file.toPath(), listLines, StandardCharsets.UTF_8 );
+
+        List<Violation> listExpected = runChecker( Arrays.asList( file ) );
+        assertTrue( listExpected.size() > 0 );
+        assertNull( GoldComparator.compare( listExpected, runPlugin( Arrays.asList( file ), null ) ) );
+    }
+}
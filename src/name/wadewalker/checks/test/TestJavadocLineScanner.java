@@ -0,0 +1,248 @@
+package name.wadewalker.checks.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import name.wadewalker.checks.JavadocLineScanner;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+//==============================================================================
+/**
+ * Compares the Javadoc line scanners to the regular expressions they replaced,
+ * and makes sure they stay linear on pathologically long lines.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class TestJavadocLineScanner {
+
+    /** Original class comment bar pattern. */
+    private static final Pattern spatternClassCommentBar = Pattern.compile( "//={78}" );
+
+    /** Original method comment bar pattern. */
+    private static final Pattern spatternMethodCommentBar = Pattern.compile( "(\\s{4})+//={78}" );
+
+    /** Original copyright pattern. */
+    private static final Pattern spatternCopyright = Pattern.compile(
+          "( \\* Copyright \\(c\\) \\d\\d\\d\\d(\\s*-\\s*\\d\\d\\d\\d)? Wade Walker\\. All rights reserved\\.\\s*)|"
+        + "( \\* Copyright \\(c\\) \\d\\d\\d\\d(\\s*-\\s*\\d\\d\\d\\d)? Wade Walker\\. Free for any use, but credit is appreciated\\.\\s*)" );
+
+    /** Original trivial parameter pattern. */
+    private static final Pattern spatternTrivialParam = Pattern.compile( ".*@param(\\s+\\S+){1,2}" );
+
+    /** Pieces that random lines are built from (chosen to hit the interesting cases). */
+    private static final String [] sasPieces = {
+        " ", "  ", "\t", "    ", "*", " * ", "@param", "@", "param", "iX", "Word", "x", "-", "/", "//", "=",
+        "==========", "2011", "201", " Copyright (c) ", " * Copyright (c) ", " Wade Walker. ", "All rights reserved.",
+        "Free for any use, but credit is appreciated.", "\u000B", "\f"
+    };
+
+    /** Equals signs in a full bar. */
+    private static final String ssBarEquals = repeat( "=", 78 );
+
+    /** Number of random lines to compare. */
+    private static final int siRandomLines = 200000;
+
+    /** Size of the shorter pathological line. */
+    private static final int siShortLineSize = 100 * 1024;
+
+    /** The longer pathological line is this many times the shorter one. */
+    private static final int siLongLineFactor = 10;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public TestJavadocLineScanner() {
+    }
+
+    //==============================================================================
+    /**
+     * Repeats a string.
+     *
+     * @param sPiece String to repeat.
+     * @param iCount Number of times to repeat it.
+     * @return the repeated string.
+     */
+    private static String repeat( String sPiece, int iCount ) {
+        StringBuilder sbRepeated = new StringBuilder( sPiece.length() * iCount );
+        for( int i = 0; i < iCount; i++ )
+            sbRepeated.append( sPiece );
+
+        return( sbRepeated.toString() );
+    }
+
+    //==============================================================================
+    /**
+     * Repeats a string until it's at least a given length, then adds a suffix.
+     *
+     * @param sPiece String to repeat.
+     * @param iLength Minimum length before the suffix.
+     * @param sSuffix Added to the end.
+     * @return the line.
+     */
+    private static String longLine( String sPiece, int iLength, String sSuffix ) {
+        return( repeat( sPiece, (iLength + sPiece.length() - 1) / sPiece.length() ) + sSuffix );
+    }
+
+    //==============================================================================
+    /**
+     * Checks that all four scanners give the same verdict as the original patterns.
+     *
+     * @param sLine Line to check.
+     */
+    private static void assertSameVerdicts( String sLine ) {
+        String sShownLine = sLine.length() > 200 ? sLine.substring( 0, 200 ) + "..." : sLine;
+
+        assertEquals( "Class bar: " + sShownLine, spatternClassCommentBar.matcher( sLine ).matches(),
+                      JavadocLineScanner.isClassCommentBar( sLine ) );
+        assertEquals( "Method bar: " + sShownLine, spatternMethodCommentBar.matcher( sLine ).matches(),
+                      JavadocLineScanner.isMethodCommentBar( sLine ) );
+        assertEquals( "Copyright: " + sShownLine, spatternCopyright.matcher( sLine ).matches(),
+                      JavadocLineScanner.isCopyright( sLine ) );
+        assertEquals( "Trivial param: " + sShownLine, spatternTrivialParam.matcher( sLine ).matches(),
+                      JavadocLineScanner.isTrivialParam( sLine ) );
+    }
+
+    //==============================================================================
+    /**
+     * Tests hand-picked lines near the edges of each rule.
+     */
+    @Test
+    public void edgeCases() {
+
+        String [] asLines = {
+            "", " ", "//" + ssBarEquals, "//" + ssBarEquals + "=", "//" + ssBarEquals + " ", "/" + ssBarEquals,
+            "    //" + ssBarEquals, "   //" + ssBarEquals, "\t\t\t\t//" + ssBarEquals, "        //" + ssBarEquals,
+            "     //" + ssBarEquals, "    //" + ssBarEquals.substring( 1 ), "    //", "    ",
+            " * Copyright (c) 2011 Wade Walker. All rights reserved.",
+            " * Copyright (c) 2011-2016 Wade Walker. All rights reserved.  ",
+            " * Copyright (c) 2011 - \t2016 Wade Walker. All rights reserved.",
+            " * Copyright (c) 2011 -2016 Wade Walker. Free for any use, but credit is appreciated.",
+            " * Copyright (c) 2011- Wade Walker. All rights reserved.",
+            " * Copyright (c) 201 Wade Walker. All rights reserved.",
+            " * Copyright (c) 20111 Wade Walker. All rights reserved.",
+            " * Copyright (c) 2011 Wade Walker. All rights reserved. Really.",
+            " * Copyright (c) 2011  Wade Walker. All rights reserved.",
+            "* Copyright (c) 2011 Wade Walker. All rights reserved.",
+            " * @param iX", " * @param iX int", " * @param iX Some comment.", " * @param iX int ", " * @param",
+            " * @param ", "@param iX", "x@param iX", " * @paramiX int", " * @param iX @param iY",
+            " * @param iX @param iY more words", "@param\tiX\tint", "\t@param\u000BiX\fint", " * @param  iX   int"
+        };
+
+        for( String sLine : asLines )
+            assertSameVerdicts( sLine );
+    }
+
+    //==============================================================================
+    /**
+     * Tests lines built randomly from pieces of the patterns.
+     */
+    @Test
+    public void randomLines() {
+
+        Random random = new Random( 20160101L );
+        StringBuilder sbLine = new StringBuilder();
+
+        for( int iLine = 0; iLine < siRandomLines; iLine++ ) {
+            sbLine.setLength( 0 );
+
+            int iPieces = random.nextInt( 8 );
+            for( int i = 0; i < iPieces; i++ )
+                sbLine.append( sasPieces[random.nextInt( sasPieces.length )] );
+
+            assertSameVerdicts( sbLine.toString() );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Builds pathological lines of a given size.
+     *
+     * @param iSize Approximate length of each line.
+     * @return the lines.
+     */
+    private static List<String> pathologicalLines( int iSize ) {
+
+        List<String> listLines = new ArrayList<String>();
+        listLines.add( longLine( "word ", iSize, "" ) );
+        listLines.add( longLine( "word ", iSize, "@param iX int" ) );
+        listLines.add( longLine( " * @param iX ", iSize, "int" ) );
+        listLines.add( longLine( "@param ", iSize, "" ) );
+        listLines.add( longLine( "@param ", iSize, "iX" ) );
+        listLines.add( longLine( " ", iSize, "//" + ssBarEquals ) );
+        listLines.add( longLine( "    ", iSize, "//" + ssBarEquals ) );
+        listLines.add( " * Copyright (c) 2011" + longLine( " ", iSize, "-2016 Wade Walker. All rights reserved." ) );
+        listLines.add( " * Copyright (c) 2011 Wade Walker. All rights reserved." + longLine( " ", iSize, "" ) );
+
+        return( listLines );
+    }
+
+    //==============================================================================
+    /**
+     * Times the scanners over a set of lines.
+     *
+     * @param listLines Lines to scan.
+     * @param iRepetitions Number of times to scan all the lines.
+     * @return the shortest time of several runs, in nanoseconds.
+     */
+    private static long timeScanners( List<String> listLines, int iRepetitions ) {
+
+        long lBestNanos = Long.MAX_VALUE;
+        int iTrueCount = 0;
+
+        for( int iRun = 0; iRun < 5; iRun++ ) {
+            long lStartNanos = System.nanoTime();
+
+            for( int iRepetition = 0; iRepetition < iRepetitions; iRepetition++ ) {
+                for( String sLine : listLines ) {
+                    if( JavadocLineScanner.isClassCommentBar( sLine ) )
+                        iTrueCount++;
+                    if( JavadocLineScanner.isMethodCommentBar( sLine ) )
+                        iTrueCount++;
+                    if( JavadocLineScanner.isCopyright( sLine ) )
+                        iTrueCount++;
+                    if( JavadocLineScanner.isTrivialParam( sLine ) )
+                        iTrueCount++;
+                }
+            }
+
+            lBestNanos = Math.min( lBestNanos, System.nanoTime() - lStartNanos );
+        }
+
+        // use the count so the scans can't be optimized away
+        assertTrue( iTrueCount >= 0 );
+
+        return( lBestNanos );
+    }
+
+    //==============================================================================
+    /**
+     * Tests 100 KB lines of repeated words. Makes sure the verdicts still agree with the
+     * patterns, and that scanning lines ten times as long costs (generously) about the
+     * same per character.
+     */
+    @Test
+    public void pathologicalLines() {
+
+        List<String> listShortLines = pathologicalLines( siShortLineSize );
+        List<String> listLongLines = pathologicalLines( siShortLineSize * siLongLineFactor );
+
+        for( String sLine : listShortLines )
+            assertSameVerdicts( sLine );
+
+        // warm up, then time the same total number of characters at both sizes
+        timeScanners( listShortLines, siLongLineFactor );
+        long lShortNanos = timeScanners( listShortLines, siLongLineFactor );
+        long lLongNanos = timeScanners( listLongLines, 1 );
+
+        assertTrue( "Scanning time grew from " + lShortNanos + " ns to " + lLongNanos + " ns for the same number of characters",
+                    lLongNanos < 4 * lShortNanos + 10000000L );
+    }
+}
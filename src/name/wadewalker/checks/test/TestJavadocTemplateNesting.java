@@ -0,0 +1,302 @@
+package name.wadewalker.checks.test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import antlr.RecognitionException;
+import antlr.TokenStreamException;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.TreeWalker;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.DetailAST;
+import com.puppycrawl.tools.checkstyle.api.FileContents;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.LocalizedMessage;
+import com.puppycrawl.tools.checkstyle.api.LocalizedMessages;
+import com.puppycrawl.tools.checkstyle.api.TextBlock;
+import com.puppycrawl.tools.checkstyle.api.TokenTypes;
+
+import name.wadewalker.checks.JavadocLineScanner;
+import name.wadewalker.checks.JavadocTemplate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+//==============================================================================
+/**
+ * Checks the comment bar decisions of {@link JavadocTemplate} in deeply nested types
+ * against the parent walk it used to do for every visit, and makes sure the cost per
+ * visit doesn't grow with the nesting depth.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class TestJavadocTemplateNesting {
+
+    /** Message key for a missing comment bar. */
+    private static final String ssCommentBarKey = "javadoc.template.commentBar";
+
+    /** Nesting depth of the shallower test file. */
+    private static final int siShallowDepth = 64;
+
+    /** Nesting depth of the deeper test file. */
+    private static final int siDeepDepth = 256;
+
+    /** Number of times to run the check when timing it. */
+    private static final int siTimingRuns = 50;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public TestJavadocTemplateNesting() {
+    }
+
+    //==============================================================================
+    /**
+     * Builds a file of nested classes. Every level has a method and a nested class, none
+     * with comment bars. Every other level is an interface, and every fifth has an enum.
+     *
+     * @param iDepth Number of nesting levels.
+     * @return the lines of the file.
+     */
+    private static List<String> nestedSource( int iDepth ) {
+
+        List<String> listLines = new ArrayList<String>();
+        listLines.add( "package name.wadewalker.checks;" );
+        listLines.add( "/**" );
+        listLines.add( " * Top class without a bar." );
+        listLines.add( " */" );
+        listLines.add( "public class Test {" );
+
+        for( int iLevel = 1; iLevel <= iDepth; iLevel++ ) {
+            listLines.add( "/**" );
+            listLines.add( " * Method." );
+            listLines.add( " */" );
+            listLines.add( "void method" + iLevel + "() { }" );
+
+            if( iLevel % 5 == 0 ) {
+                listLines.add( "/**" );
+                listLines.add( " * Enum." );
+                listLines.add( " */" );
+                listLines.add( "enum Enum" + iLevel + " { A;" );
+                listLines.add( "/**" );
+                listLines.add( " * Enum method." );
+                listLines.add( " */" );
+                listLines.add( "void enumMethod() { } }" );
+            }
+
+            if( iLevel < iDepth ) {
+                listLines.add( "/**" );
+                listLines.add( " * Nested type." );
+                listLines.add( " */" );
+                listLines.add( ((iLevel % 2 == 0) ? "interface Level" : "class Level") + iLevel + " {" );
+            }
+        }
+
+        for( int iLevel = 1; iLevel <= iDepth; iLevel++ )
+            listLines.add( "}" );
+
+        return( listLines );
+    }
+
+    //==============================================================================
+    /**
+     * The nested class test that {@link JavadocTemplate} used to run on every visit.
+     *
+     * @param detailast AST to check.
+     * @return true if the class is a nested class, false otherwise.
+     */
+    private static boolean isNestedByParentWalk( DetailAST detailast ) {
+
+        int iNestingLevel = 0;
+
+        for( DetailAST detailastCurrent = detailast; detailastCurrent != null; detailastCurrent = detailastCurrent.getParent() ) {
+            if(    (detailastCurrent.getType() == TokenTypes.ANNOTATION_DEF)
+                || (detailastCurrent.getType() == TokenTypes.CLASS_DEF)
+                || (detailastCurrent.getType() == TokenTypes.ENUM_DEF)
+                || (detailastCurrent.getType() == TokenTypes.INTERFACE_DEF) )
+                iNestingLevel++;
+
+            if( iNestingLevel > 1 )
+                return( true );
+        }
+
+        return( false );
+    }
+
+    //==============================================================================
+    /**
+     * Finds the lines that should get comment bar warnings, using the parent walk.
+     *
+     * @param detailast First AST node to look at (its siblings and children are also checked).
+     * @param filecontents Contents of the file.
+     * @param setLines Receives the line numbers.
+     */
+    private static void expectedBarLines( DetailAST detailast, FileContents filecontents, Set<Integer> setLines ) {
+
+        for( DetailAST detailastCurrent = detailast; detailastCurrent != null; detailastCurrent = detailastCurrent.getNextSibling() ) {
+            int iType = detailastCurrent.getType();
+            boolean bClass = (iType == TokenTypes.CLASS_DEF) || (iType == TokenTypes.INTERFACE_DEF);
+
+            if( bClass || (iType == TokenTypes.METHOD_DEF) || (iType == TokenTypes.CTOR_DEF) ) {
+                TextBlock textblockJavadoc = filecontents.getJavadocBefore( detailastCurrent.getLineNo() );
+
+                if( (textblockJavadoc != null) && !isNestedByParentWalk( detailastCurrent ) ) {
+                    int iBarLine = textblockJavadoc.getStartLineNo() - 1;
+                    String sBarLine = iBarLine >= 1 ? filecontents.getLine( iBarLine - 1 ) : null;
+
+                    if(    (sBarLine == null)
+                        || !(bClass ? JavadocLineScanner.isClassCommentBar( sBarLine ) : JavadocLineScanner.isMethodCommentBar( sBarLine )) )
+                        setLines.add( iBarLine );
+                }
+            }
+
+            expectedBarLines( detailastCurrent.getFirstChild(), filecontents, setLines );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Drives the check over an AST the way TreeWalker does.
+     *
+     * @param javadoctemplate Check to drive.
+     * @param aiTokens Token types the check is subscribed to.
+     * @param detailast First AST node to visit (its siblings and children are also visited).
+     */
+    private static void walk( JavadocTemplate javadoctemplate, int [] aiTokens, DetailAST detailast ) {
+
+        for( DetailAST detailastCurrent = detailast; detailastCurrent != null; detailastCurrent = detailastCurrent.getNextSibling() ) {
+            boolean bSubscribed = false;
+            for( int iToken : aiTokens )
+                bSubscribed |= (iToken == detailastCurrent.getType());
+
+            if( bSubscribed )
+                javadoctemplate.visitToken( detailastCurrent );
+
+            walk( javadoctemplate, aiTokens, detailastCurrent.getFirstChild() );
+
+            if( bSubscribed )
+                javadoctemplate.leaveToken( detailastCurrent );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Runs the check over one file.
+     *
+     * @param detailastRoot Root of the file's AST.
+     * @param filecontents Contents of the file.
+     * @return the check's messages.
+     * @throws CheckstyleException if the check can't be configured.
+     */
+    private static LocalizedMessages runCheck( DetailAST detailastRoot, FileContents filecontents ) throws CheckstyleException {
+
+        JavadocTemplate javadoctemplate = new JavadocTemplate();
+        javadoctemplate.configure( new DefaultConfiguration( "JavadocTemplate" ) );
+        LocalizedMessages localizedmessages = new LocalizedMessages();
+        javadoctemplate.setMessages( localizedmessages );
+        javadoctemplate.setFileContents( filecontents );
+
+        javadoctemplate.beginTree( detailastRoot );
+        walk( javadoctemplate, javadoctemplate.getDefaultTokens(), detailastRoot );
+        javadoctemplate.finishTree( detailastRoot );
+
+        return( localizedmessages );
+    }
+
+    //==============================================================================
+    /**
+     * Parses a file of nested classes.
+     *
+     * @param iDepth Number of nesting levels.
+     * @return the contents of the file (with its comments registered).
+     */
+    private static FileContents parse( int iDepth ) {
+        return( new FileContents( FileText.fromLines( new File( "Test.java" ), nestedSource( iDepth ) ) ) );
+    }
+
+    //==============================================================================
+    /**
+     * Checks that the depth-tracking check warns about the same comment bars as the
+     * parent walk did, at both depths.
+     *
+     * @throws RecognitionException if the test file doesn't parse.
+     * @throws TokenStreamException if the test file doesn't parse.
+     * @throws CheckstyleException if the check can't be configured.
+     */
+    @Test
+    public void sameResultsAsParentWalk() throws RecognitionException, TokenStreamException, CheckstyleException {
+
+        for( int iDepth : new int [] {siShallowDepth, siDeepDepth} ) {
+            FileContents filecontents = parse( iDepth );
+            DetailAST detailastRoot = TreeWalker.parse( filecontents );
+
+            Set<Integer> setExpectedLines = new TreeSet<Integer>();
+            expectedBarLines( detailastRoot, filecontents, setExpectedLines );
+
+            Set<Integer> setActualLines = new TreeSet<Integer>();
+            for( LocalizedMessage localizedmessage : runCheck( detailastRoot, filecontents ).getMessages() ) {
+                if( localizedmessage.getKey().equals( ssCommentBarKey ) )
+                    setActualLines.add( localizedmessage.getLineNo() );
+            }
+
+            // the top class and its method are the only ones without bars that aren't nested
+            assertEquals( 2, setExpectedLines.size() );
+            assertEquals( "Depth " + iDepth, setExpectedLines, setActualLines );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Times the check over one file.
+     *
+     * @param iDepth Number of nesting levels.
+     * @return the shortest time per nesting level of several runs, in nanoseconds.
+     * @throws RecognitionException if the test file doesn't parse.
+     * @throws TokenStreamException if the test file doesn't parse.
+     * @throws CheckstyleException if the check can't be configured.
+     */
+    private static double timePerLevel( int iDepth ) throws RecognitionException, TokenStreamException, CheckstyleException {
+
+        FileContents filecontents = parse( iDepth );
+        DetailAST detailastRoot = TreeWalker.parse( filecontents );
+
+        long lBestNanos = Long.MAX_VALUE;
+        for( int iRun = 0; iRun < siTimingRuns; iRun++ ) {
+            long lStartNanos = System.nanoTime();
+            runCheck( detailastRoot, filecontents );
+            lBestNanos = Math.min( lBestNanos, System.nanoTime() - lStartNanos );
+        }
+
+        return( (double)lBestNanos / iDepth );
+    }
+
+    //==============================================================================
+    /**
+     * Checks that the time the check spends per nesting level stays (generously) flat as
+     * the nesting gets four times deeper.
+     *
+     * @throws RecognitionException if the test file doesn't parse.
+     * @throws TokenStreamException if the test file doesn't parse.
+     * @throws CheckstyleException if the check can't be configured.
+     */
+    @Test
+    public void timePerLevelDoesNotGrowWithDepth() throws RecognitionException, TokenStreamException, CheckstyleException {
+
+        // warm up
+        timePerLevel( siShallowDepth );
+
+        double dShallowNanos = timePerLevel( siShallowDepth );
+        double dDeepNanos = timePerLevel( siDeepDepth );
+
+        assertTrue( "Time per level grew from " + dShallowNanos + " ns to " + dDeepNanos + " ns",
+                    dDeepNanos < 3.0 * dShallowNanos + 20000.0 );
+    }
+}
@@ -0,0 +1,302 @@
+package name.wadewalker.checks.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+
+import name.wadewalker.checks.CorpusGenerator;
+import name.wadewalker.checks.GoldComparator;
+import name.wadewalker.checks.JavadocTemplate;
+import name.wadewalker.checks.MappedJavadocTemplate;
+import name.wadewalker.checks.Violation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+//==============================================================================
+/**
+ * Makes sure {@link MappedJavadocTemplate} reports the same violations as the AST-based
+ * {@link JavadocTemplate}: against the gold files of the regression tests, and against
+ * a Checker running JavadocTemplate on this project's sources, a generated corpus, and
+ * a file of constructs that are easy for a lexer to get wrong.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class TestMappedJavadocTemplate {
+
+    /** Directory holding the regression test subdirectories. */
+    private static final String ssRegressionDir = "regression";
+
+    /** Seed of the generated corpus. */
+    private static final long slSeed = 21L;
+
+    /** Number of files in the generated corpus. */
+    private static final int siCorpusFiles = 200;
+
+    /** Chance that each generated item fails a check. */
+    private static final double sdFailureRate = 0.3;
+
+    /** Temporary directory holding the generated files. */
+    private File fileTempDir;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public TestMappedJavadocTemplate() {
+    }
+
+    //==============================================================================
+    /**
+     * Makes the temporary directory.
+     *
+     * @throws IOException if the directory can't be made.
+     */
+    @Before
+    public void makeTempDir() throws IOException {
+        fileTempDir = Files.createTempDirectory( "mappedjavadoc" ).toFile();
+    }
+
+    //==============================================================================
+    /**
+     * Deletes the temporary directory.
+     */
+    @After
+    public void deleteTempDir() {
+        CheckFixture.deleteTree( fileTempDir );
+    }
+
+    //==============================================================================
+    /**
+     * Runs the AST-based check over some files with a Checker.
+     *
+     * @param listFiles Files to check.
+     * @return the violations, in file order.
+     * @throws CheckstyleException if the check fails.
+     */
+    private static List<Violation> runChecker( List<File> listFiles ) throws CheckstyleException {
+
+        return( CheckFixture.runChecks( listFiles, JavadocTemplate.class ) );
+    }
+
+    //==============================================================================
+    /**
+     * Runs the mapped check over some files.
+     *
+     * @param listFiles Files to check.
+     * @return the violations, in file order.
+     * @throws IOException if a file can't be read.
+     */
+    private static List<Violation> runMapped( List<File> listFiles ) throws IOException {
+
+        MappedJavadocTemplate mappedjavadoctemplate = new MappedJavadocTemplate( SeverityLevel.WARNING );
+        mappedjavadoctemplate.setBasedir( System.getProperty( "user.dir" ) );
+        return( mappedjavadoctemplate.process( listFiles ) );
+    }
+
+    //==============================================================================
+    /**
+     * Checks that the mapped check matches the JavadocTemplate lines of every
+     * regression gold file.
+     *
+     * @throws IOException if a file can't be read.
+     */
+    @Test
+    public void matchesRegressionGold() throws IOException {
+
+        File [] afileDirs = new File( ssRegressionDir ).listFiles();
+        Arrays.sort( afileDirs );
+        int iCompared = 0;
+
+        for( File fileDir : afileDirs ) {
+            File fileGold = new File( fileDir, "gold" + File.separator + "test.out" );
+            if( !fileGold.isFile() )
+                continue;
+
+            List<Violation> listExpected = new ArrayList<Violation>();
+            for( Violation violation : GoldComparator.readGold( fileGold ) ) {
+                if( violation.getModule().equals( "JavadocTemplate" ) )
+                    listExpected.add( violation );
+            }
+
+            String sReport = GoldComparator.compare( listExpected, runMapped( Arrays.asList( new File( fileDir, "ChecksTest.java" ) ) ) );
+            assertNull( fileDir.getName() + "\n" + sReport, sReport );
+            iCompared++;
+        }
+
+        assertTrue( iCompared > 0 );
+    }
+
+    //==============================================================================
+    /**
+     * Checks that the mapped check matches JavadocTemplate on this project's own sources
+     * and on a generated corpus where some items fail each rule.
+     *
+     * @throws IOException if a file can't be read or written.
+     * @throws CheckstyleException if the check fails.
+     */
+    @Test
+    public void matchesCheckerOnSourcesAndCorpus() throws IOException, CheckstyleException {
+
+        List<File> listFiles = new ArrayList<File>();
+        CheckFixture.findJavaFiles( new File( "src" ), listFiles );
+        CheckFixture.findJavaFiles( new File( "bench" ), listFiles );
+
+        CorpusGenerator corpusgenerator = new CorpusGenerator( slSeed );
+        corpusgenerator.setFailureRate( sdFailureRate );
+        listFiles.addAll( corpusgenerator.generate( fileTempDir, siCorpusFiles ) );
+
+        List<Violation> listExpected = runChecker( listFiles );
+        assertTrue( listExpected.size() > 0 );
+        assertNull( GoldComparator.compare( listExpected, runMapped( listFiles ) ) );
+    }
+
+    //==============================================================================
+    /**
+     * Checks that the mapped check matches JavadocTemplate on literals and comments that
+     * look like code, anonymous, local, and enum constant classes, annotation types,
+     * and Javadoc separated from its declaration.
+     *
+     * @throws IOException if the file can't be written.
+     * @throws CheckstyleException if the check fails.
+     */
+    @Test
+    public void matchesCheckerOnTrickySource() throws IOException, CheckstyleException {
+
+        List<String> listLines = Arrays.asList(
+            "package p;",
+            "",
+            "/**",
+            " * String \"/**\" and braces } { in literals.",
+            " */",
+            "public class Tricky {",
+            "    /** Field. */",
+            "    private String s = \"/** { } */ class X {\";",
+            "    private char c = '{';",
+            "    private char cQuote = '\\'';",
+            "    private Runnable runnable = new Runnable() {",
+            "        /**",
+            "         * @param x",
+            "         */",
+            "        public void run() { }",
+            "    };",
+            "    private int [] ai = {1, 2};",
+            "    private Class<?> classString = String.class;",
+            "    /*",
+            "     * Not Javadoc /**",
+            "     */",
+            "    void notJavadoc() { }",
+            "    /**",
+            "     * @param i",
+            "     */",
+            "    @SuppressWarnings( \"unchecked\" )",
+            "    <T> T generic( int i ) {",
+            "        /**",
+            "         * Local class.",
+            "         */",
+            "        class Local {",
+            "            /**",
+            "             * @param j",
+            "             */",
+            "            void local( int j ) { }",
+            "        }",
+            "        Object o = new Object() {",
+            "            /**",
+            "             * @param k",
+            "             */",
+            "            @Override",
+            "            public boolean equals( Object k ) { return( \"}\".equals( k ) ); }",
+            "        };",
+            "        Runnable r = () -> { };",
+            "        return( null );",
+            "    }",
+            "    /**",
+            "     * Enum.",
+            "     */",
+            "    enum E {",
+            "        /** Constant. */",
+            "        A( 1 ) {",
+            "            /**",
+            "             * @param k",
+            "             */",
+            "            void f( int k ) { }",
+            "        },",
+            "        B( new int [] {2}.length );",
+            "        /**",
+            "         * @param i",
+            "         */",
+            "        E( int i ) { }",
+            "        /**",
+            "         * @param k",
+            "         */",
+            "        void f( int k ) { }",
+            "    }",
+            "    /**",
+            "     * Annotation.",
+            "     */",
+            "    @interface Ann {",
+            "        /**",
+            "         * Value.",
+            "         */",
+            "        String [] value() default {\"a\"};",
+            "    }",
+            "//==============================================================================",
+            "    /**",
+            "     * Interface.",
+            "     */",
+            "    interface I {",
+            "        /**",
+            "         * @param x",
+            "         */",
+            "        void g( int x );",
+            "        /**",
+            "         * Nested class in interface.",
+            "         */",
+            "        class Nested { }",
+            "    }",
+            "    // comment between",
+            "    /**",
+            "     * Constructor.",
+            "     * @param x",
+            "     */",
+            "",
+            "    // line comment",
+            "    Tricky( int x ) { }",
+            "    /** One line. */ int iField; /** Two on a line. */ void twoOnLine() { }",
+            "}",
+            "/**",
+            " * Second top class, no copyright.",
+            " */",
+            "class Second {",
+            "    /**",
+            "     * @param x",
+            "     */",
+            "    @java.lang.Deprecated",
+            "    void m( int x ) { }",
+            "}",
+            "/**",
+            " * Top interface, not checked for copyright.",
+            " */",
+            "interface Third { }" );
+
+        File file = new File( fileTempDir, "Tricky.java" );
+        Files.write( file.toPath(), listLines, StandardCharsets.UTF_8 );
+        List<File> listFiles = Arrays.asList( file );
+
+        List<Violation> listExpected = runChecker( listFiles );
+        assertTrue( listExpected.size() > 10 );
+        assertNull( GoldComparator.compare( listExpected, runMapped( listFiles ) ) );
+    }
+}
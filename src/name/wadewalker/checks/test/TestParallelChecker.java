@@ -0,0 +1,124 @@
+package name.wadewalker.checks.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+
+import name.wadewalker.checks.FileResult;
+import name.wadewalker.checks.ParallelChecker;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+//==============================================================================
+/**
+ * Runs {@link ParallelChecker} over all the regression files at once, and makes sure
+ * each file's output matches its gold file no matter how many threads are used.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class TestParallelChecker {
+
+    /** Checkstyle configuration file. */
+    private static final String ssConfigFile = "../External/Checkstyle/Checks.xml";
+
+    /** Regression test subdirectories to check. */
+    private static final String [] sasTestNames = {
+        "HungarianNamingFail", "HungarianNamingPass", "JavadocTemplateFail", "JavadocTemplateNesting",
+        "JavadocTemplatePass", "JavadocTemplateScanner"
+    };
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public TestParallelChecker() {
+    }
+
+    //==============================================================================
+    /**
+     * Reads a gold file, leaving out the start and end lines.
+     *
+     * @param sTestName Name of the regression test subdirectory.
+     * @return the gold lines, with path separators normalized.
+     * @throws IOException if the gold file can't be read.
+     */
+    private static List<String> readGold( String sTestName ) throws IOException {
+
+        List<String> listLines = new ArrayList<String>();
+
+        for( String sLine : Files.readAllLines( new File( "regression/" + sTestName + "/gold/test.out" ).toPath(), StandardCharsets.UTF_8 ) ) {
+            if( !sLine.equals( "Starting audit..." ) && !sLine.equals( "Audit done." ) )
+                listLines.add( sLine.replace( '\\', '/' ) );
+        }
+
+        return( listLines );
+    }
+
+    //==============================================================================
+    /**
+     * Checks all the regression files with the given number of threads.
+     *
+     * @param iThreads Number of worker threads to use.
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if a gold file can't be read.
+     */
+    private static void checkAll( int iThreads ) throws CheckstyleException, IOException {
+
+        String sUserDir = System.getProperty( "user.dir" );
+        Properties properties = new Properties();
+        properties.setProperty( "basedir", sUserDir );
+        Configuration configuration = ConfigurationLoader.loadConfiguration( ssConfigFile, new PropertiesExpander( properties ) );
+
+        List<File> listFiles = new ArrayList<File>();
+        for( String sTestName : sasTestNames )
+            listFiles.add( new File( "regression" + File.separator + sTestName + File.separator + "ChecksTest.java" ) );
+
+        List<FileResult> listResults = new ParallelChecker( configuration, sUserDir, iThreads ).check( listFiles );
+
+        assertEquals( sasTestNames.length, listResults.size() );
+        for( int i = 0; i < sasTestNames.length; i++ ) {
+            List<String> listLines = new ArrayList<String>();
+            for( String sLine : listResults.get( i ).getLines() )
+                listLines.add( sLine.replace( '\\', '/' ) );
+
+            assertEquals( sasTestNames[i], listFiles.get( i ), listResults.get( i ).getFile() );
+            assertEquals( sasTestNames[i], readGold( sasTestNames[i] ), listLines );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Tests with a single worker.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if a gold file can't be read.
+     */
+    @Test
+    public void oneThread() throws CheckstyleException, IOException {
+        checkAll( 1 );
+    }
+
+    //==============================================================================
+    /**
+     * Tests with more workers than files, so the split of work varies from run to run.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if a gold file can't be read.
+     */
+    @Test
+    public void manyThreads() throws CheckstyleException, IOException {
+        checkAll( 8 );
+    }
+}
@@ -0,0 +1,247 @@
+package name.wadewalker.checks.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+import name.wadewalker.checks.HungarianNaming;
+import name.wadewalker.checks.Violation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+//==============================================================================
+/**
+ * Runs {@link HungarianNaming} with custom prefix rules from the "prefixes" and
+ * "prefixFile" properties, and makes sure they're applied, override the built-in
+ * rules, are told apart when their type names share a prefix, and are refused when
+ * they're malformed.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class TestPrefixRules {
+
+    /** Directory the test files are written to. */
+    private File fileTempDir;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public TestPrefixRules() {
+    }
+
+    //==============================================================================
+    /**
+     * Makes the directory for the test files.
+     *
+     * @throws IOException if the directory can't be made.
+     */
+    @Before
+    public void makeTempDir() throws IOException {
+        fileTempDir = Files.createTempDirectory( "prefixrules" ).toFile();
+    }
+
+    //==============================================================================
+    /**
+     * Deletes the test files.
+     */
+    @After
+    public void deleteTempDir() {
+        CheckFixture.deleteTree( fileTempDir );
+    }
+
+    //==============================================================================
+    /**
+     * Writes a file in the temporary directory.
+     *
+     * @param sName Name of the file.
+     * @param asLines Lines of the file.
+     * @return the file.
+     * @throws IOException if the file can't be written.
+     */
+    private File writeFile( String sName, String... asLines ) throws IOException {
+        File file = new File( fileTempDir, sName );
+        Files.write( file.toPath(), Arrays.asList( asLines ), StandardCharsets.UTF_8 );
+        return( file );
+    }
+
+    //==============================================================================
+    /**
+     * Checks a file with the Hungarian naming check.
+     *
+     * @param file File to check.
+     * @param asProperties Alternating names and values of the check's properties.
+     * @return the violations, each as its line and message.
+     * @throws CheckstyleException if the check can't be configured or fails.
+     */
+    private static List<String> check( File file, String... asProperties ) throws CheckstyleException {
+
+        DefaultConfiguration defaultconfigurationCheck = new DefaultConfiguration( HungarianNaming.class.getName() );
+        for( int i = 0; i < asProperties.length; i += 2 )
+            defaultconfigurationCheck.addAttribute( asProperties[i], asProperties[i + 1] );
+
+        List<String> listViolations = new ArrayList<String>();
+        for( Violation violation : CheckFixture.runChecks( Arrays.asList( file ), defaultconfigurationCheck ) )
+            listViolations.add( violation.getLine() + ": " + violation.getMessage() );
+        return( listViolations );
+    }
+
+    //==============================================================================
+    /**
+     * Makes sure configuring the check fails because of a bad rule.
+     *
+     * @param file File to check.
+     * @param sExpectedMessage Start of the message the rule is refused with.
+     * @param asProperties Alternating names and values of the check's properties.
+     */
+    private static void assertRefused( File file, String sExpectedMessage, String... asProperties ) {
+        try {
+            check( file, asProperties );
+            fail( "bad rule accepted: " + Arrays.toString( asProperties ) );
+        }
+        catch( CheckstyleException checkstyleexception ) {
+            Throwable throwable = checkstyleexception;
+            while( !(throwable instanceof IllegalArgumentException) && (throwable.getCause() != null) )
+                throwable = throwable.getCause();
+            assertTrue( String.valueOf( checkstyleexception ), throwable instanceof IllegalArgumentException );
+            assertTrue( throwable.getMessage(), throwable.getMessage().startsWith( sExpectedMessage ) );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Tests rules read from a prefix file, alone and together with the "prefixes" property.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if the test files can't be written.
+     */
+    @Test
+    public void loadsRulesFromPrefixFile() throws CheckstyleException, IOException {
+
+        File fileJava = writeFile( "A.java",
+            "class A {",
+            "    private ByteBuffer buffer;",
+            "    private ByteBuffer bbGood;",
+            "    private ConcurrentHashMap map;",
+            "    private ConcurrentHashMap chmGood;",
+            "}" );
+        File filePrefixes = writeFile( "prefixes.properties",
+            "# rules for buffers",
+            "ByteBuffer=bb",
+            "  ConcurrentHashMap = chm" );
+
+        assertEquals( Arrays.asList( "2: Prepend ByteBuffer member name 'buffer' with 'bb'",
+                                     "4: Prepend ConcurrentHashMap member name 'map' with 'chm'" ),
+                      check( fileJava, "prefixFile", filePrefixes.getPath() ) );
+
+        // without the file, the class name is the prefix
+        assertEquals( Arrays.asList( "2: Prepend ByteBuffer member name 'buffer' with 'bytebuffer'",
+                                     "3: Prepend ByteBuffer member name 'bbGood' with 'bytebuffer'",
+                                     "4: Prepend ConcurrentHashMap member name 'map' with 'concurrenthashmap'",
+                                     "5: Prepend ConcurrentHashMap member name 'chmGood' with 'concurrenthashmap'" ),
+                      check( fileJava ) );
+
+        // rules from the file and the property add up
+        File filePartial = writeFile( "partial.properties", "ByteBuffer=bb" );
+        assertEquals( Arrays.asList( "2: Prepend ByteBuffer member name 'buffer' with 'bb'",
+                                     "4: Prepend ConcurrentHashMap member name 'map' with 'chm'" ),
+                      check( fileJava, "prefixFile", filePartial.getPath(), "prefixes", "ConcurrentHashMap=chm" ) );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that custom rules replace the built-in rules for the same type names.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if the test files can't be written.
+     */
+    @Test
+    public void customRulesOverrideBuiltIns() throws CheckstyleException, IOException {
+
+        File fileJava = writeFile( "B.java",
+            "class B {",
+            "    private String sName;",
+            "    private String strName;",
+            "    private String name;",
+            "    private int iCount;",
+            "    private int nCount;",
+            "    private static String [] sasNames;",
+            "    private static String [] sastrNames;",
+            "}" );
+
+        assertEquals( Arrays.asList( "4: Prepend String member name 'name' with 's'",
+                                     "6: Prepend int member name 'nCount' with 'i'" ),
+                      check( fileJava ) );
+
+        // the static and array parts still come before the overridden type prefix
+        assertEquals( Arrays.asList( "2: Prepend String member name 'sName' with 'str'",
+                                     "4: Prepend String member name 'name' with 'str'",
+                                     "5: Prepend int member name 'iCount' with 'n'",
+                                     "7: Prepend String member name 'sasNames' with 'str'" ),
+                      check( fileJava, "prefixes", "String=str, int=n" ) );
+    }
+
+    //==============================================================================
+    /**
+     * Tests rules whose type names share a prefix, so the compiled trie has rules ending
+     * partway along other rules' paths, and type names that stop between or run past them.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if the test files can't be written.
+     */
+    @Test
+    public void matchesTypeNamesWithSharedPrefixes() throws CheckstyleException, IOException {
+
+        File fileJava = writeFile( "C.java",
+            "class C {",
+            "    private Str stGood;",
+            "    private Stri striGood;",
+            "    private String strGood;",
+            "    private StringB stringbGood;",
+            "    private StringBuilder sbdGood;",
+            "    private StringBuilders stringbuildersGood;",
+            "    private Str sBad;",
+            "    private StringBuilder sbBad;",
+            "}" );
+
+        assertEquals( Arrays.asList( "8: Prepend Str member name 'sBad' with 'st'",
+                                     "9: Prepend StringBuilder member name 'sbBad' with 'sbd'" ),
+                      check( fileJava, "prefixes", "StringBuilder=sbd, Str=st, String=str" ) );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that malformed rules and unreadable prefix files are refused.
+     *
+     * @throws IOException if the test files can't be written.
+     */
+    @Test
+    public void refusesBadRules() throws IOException {
+
+        File fileJava = writeFile( "D.java", "class D {", "}" );
+
+        assertRefused( fileJava, "Prefix rule 'ByteBuffer' isn't of the form type=prefix", "prefixes", "ByteBuffer" );
+        assertRefused( fileJava, "Prefix rule =bb has an empty type or prefix", "prefixes", "=bb" );
+        assertRefused( fileJava, "Prefix rule ByteBuffer= has an empty type or prefix", "prefixes", "ByteBuffer=" );
+
+        File filePrefixes = writeFile( "bad.properties", "ByteBuffer=bb", "ConcurrentHashMap" );
+        assertRefused( fileJava, "Prefix rule ConcurrentHashMap= has an empty type or prefix", "prefixFile", filePrefixes.getPath() );
+
+        File fileMissing = new File( fileTempDir, "missing.properties" );
+        assertRefused( fileJava, "Unable to read prefix file " + fileMissing.getPath(), "prefixFile", fileMissing.getPath() );
+    }
+}
@@ -0,0 +1,283 @@
+package name.wadewalker.checks.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+
+import name.wadewalker.checks.FileResult;
+import name.wadewalker.checks.HungarianNaming;
+import name.wadewalker.checks.JavadocTemplate;
+import name.wadewalker.checks.ParallelChecker;
+import name.wadewalker.checks.ResultCache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+//==============================================================================
+/**
+ * Makes sure {@link ResultCache} replays unchanged files, rechecks files whose
+ * contents or configuration have changed, and stays out of the way of baseline updates
+ * and runs limited to changed lines.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class TestResultCache {
+
+    /** Temporary directory holding the checked files and the cache. */
+    private File fileTempDir;
+
+    /** Files to check, copied from the regression directories. */
+    private List<File> listFiles;
+
+    /** Cache file. */
+    private File fileCache;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public TestResultCache() {
+    }
+
+    //==============================================================================
+    /**
+     * Copies some failing regression files to a temporary directory.
+     *
+     * @throws IOException if the files can't be copied.
+     */
+    @Before
+    public void setUp() throws IOException {
+
+        fileTempDir = Files.createTempDirectory( "resultcache" ).toFile();
+        fileCache = new File( fileTempDir, "results.cache" );
+        listFiles = new ArrayList<File>();
+
+        for( String sTestName : new String [] {"HungarianNamingFail", "JavadocTemplateFail"} ) {
+            File file = new File( fileTempDir, sTestName + ".java" );
+            Files.copy( new File( "regression/" + sTestName + "/ChecksTest.java" ).toPath(), file.toPath() );
+            listFiles.add( file );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Deletes the temporary directory.
+     */
+    @After
+    public void tearDown() {
+        for( File file : fileTempDir.listFiles() )
+            assertTrue( file.delete() );
+        assertTrue( fileTempDir.delete() );
+    }
+
+    //==============================================================================
+    /**
+     * Creates a configuration with both checks.
+     *
+     * @param sSeverity Severity of all violations.
+     * @return the configuration.
+     */
+    private static DefaultConfiguration createConfiguration( String sSeverity ) {
+
+        DefaultConfiguration defaultconfigurationTreeWalker = new DefaultConfiguration( "TreeWalker" );
+        defaultconfigurationTreeWalker.addChild( new DefaultConfiguration( HungarianNaming.class.getName() ) );
+        defaultconfigurationTreeWalker.addChild( new DefaultConfiguration( JavadocTemplate.class.getName() ) );
+
+        DefaultConfiguration defaultconfigurationChecker = new DefaultConfiguration( "Checker" );
+        defaultconfigurationChecker.addAttribute( "severity", sSeverity );
+        defaultconfigurationChecker.addChild( defaultconfigurationTreeWalker );
+        return( defaultconfigurationChecker );
+    }
+
+    //==============================================================================
+    /**
+     * Creates a configuration with both checks at warning severity, giving both the same
+     * extra properties.
+     *
+     * @param asProperties Alternating names and values of the checks' properties.
+     * @return the configuration.
+     */
+    private static DefaultConfiguration createConfigurationWith( String... asProperties ) {
+
+        DefaultConfiguration defaultconfigurationChecker = createConfiguration( "warning" );
+        for( Configuration configurationCheck : defaultconfigurationChecker.getChildren()[0].getChildren() ) {
+            for( int i = 0; i < asProperties.length; i += 2 )
+                ((DefaultConfiguration)configurationCheck).addAttribute( asProperties[i], asProperties[i + 1] );
+        }
+        return( defaultconfigurationChecker );
+    }
+
+    //==============================================================================
+    /**
+     * Checks the files using the cache file, then saves it.
+     *
+     * @param defaultconfiguration Configuration to check with.
+     * @param iExpectedHits Number of files expected to come from the cache.
+     * @return the results of each file.
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if the cache can't be saved.
+     */
+    private List<FileResult> check( DefaultConfiguration defaultconfiguration, int iExpectedHits )
+        throws CheckstyleException, IOException {
+
+        ResultCache resultcache = ResultCache.load( fileCache, defaultconfiguration, null );
+        ParallelChecker parallelchecker = new ParallelChecker( defaultconfiguration, null, 2 );
+        parallelchecker.setResultCache( resultcache );
+
+        List<FileResult> listResults = parallelchecker.check( listFiles );
+        resultcache.save();
+
+        assertEquals( iExpectedHits, resultcache.getHitCount() );
+        assertEquals( listFiles.size() - iExpectedHits, resultcache.getMissCount() );
+        return( listResults );
+    }
+
+    //==============================================================================
+    /**
+     * Makes sure two runs give the same results.
+     *
+     * @param listExpected Results of the first run.
+     * @param listActual Results of the second run.
+     */
+    private static void assertSameResults( List<FileResult> listExpected, List<FileResult> listActual ) {
+
+        assertEquals( listExpected.size(), listActual.size() );
+        for( int i = 0; i < listExpected.size(); i++ ) {
+            assertEquals( listExpected.get( i ).getFile(), listActual.get( i ).getFile() );
+            assertEquals( listExpected.get( i ).getLines(), listActual.get( i ).getLines() );
+            assertEquals( listExpected.get( i ).getErrorCount(), listActual.get( i ).getErrorCount() );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Tests that unchanged files are replayed with the same output.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if the cache can't be saved.
+     */
+    @Test
+    public void unchangedFilesReplay() throws CheckstyleException, IOException {
+
+        List<FileResult> listFirst = check( createConfiguration( "error" ), 0 );
+        assertTrue( listFirst.get( 0 ).getErrorCount() > 0 );
+        assertTrue( listFirst.get( 1 ).getErrorCount() > 0 );
+
+        assertSameResults( listFirst, check( createConfiguration( "error" ), 2 ) );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that a changed file is rechecked, and the unchanged one is still replayed.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if the cache can't be saved or a file can't be changed.
+     */
+    @Test
+    public void changedFileRechecks() throws CheckstyleException, IOException {
+
+        check( createConfiguration( "warning" ), 0 );
+
+        // a trailing comment changes the contents but not the violations
+        OutputStream outputstream = new FileOutputStream( listFiles.get( 1 ), true );
+        try {
+            outputstream.write( "\n// changed\n".getBytes( "UTF-8" ) );
+        }
+        finally {
+            outputstream.close();
+        }
+
+        check( createConfiguration( "warning" ), 1 );
+        check( createConfiguration( "warning" ), 2 );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that a configuration change throws away the whole cache.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if the cache can't be saved.
+     */
+    @Test
+    public void changedConfigurationRechecks() throws CheckstyleException, IOException {
+
+        List<FileResult> listWarnings = check( createConfiguration( "warning" ), 0 );
+        List<FileResult> listErrors = check( createConfiguration( "error" ), 0 );
+
+        assertEquals( 0, listWarnings.get( 0 ).getErrorCount() );
+        assertTrue( listErrors.get( 0 ).getErrorCount() > 0 );
+        assertSameResults( listErrors, check( createConfiguration( "error" ), 2 ) );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that updating a baseline checks every file, so files the cache would have
+     * replayed aren't dropped from the rewritten baseline, and that the cache file is
+     * left alone for the runs that don't update.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if the cache can't be saved or a file can't be changed or read.
+     */
+    @Test
+    public void updatingBaselineBypassesCache() throws CheckstyleException, IOException {
+
+        File fileBaseline = new File( fileTempDir, "baseline.txt" );
+        check( createConfiguration( "warning" ), 0 );
+
+        // the second update leaves the baseline (and so the fingerprint) as it was
+        check( createConfigurationWith( "baselineFile", fileBaseline.getPath(), "updateBaseline", "true" ), 0 );
+        check( createConfigurationWith( "baselineFile", fileBaseline.getPath(), "updateBaseline", "true" ), 0 );
+        String sBaseline = new String( Files.readAllBytes( fileBaseline.toPath() ), StandardCharsets.UTF_8 );
+        for( File file : listFiles )
+            assertTrue( sBaseline, sBaseline.contains( "\n" + file.getName() + "\n" ) );
+
+        // another update after one file changes still records both files
+        OutputStream outputstream = new FileOutputStream( listFiles.get( 1 ), true );
+        try {
+            outputstream.write( "\n// changed\n".getBytes( "UTF-8" ) );
+        }
+        finally {
+            outputstream.close();
+        }
+        check( createConfigurationWith( "baselineFile", fileBaseline.getPath(), "updateBaseline", "true" ), 0 );
+        assertEquals( sBaseline, new String( Files.readAllBytes( fileBaseline.toPath() ), StandardCharsets.UTF_8 ) );
+
+        // the updates didn't overwrite the cache, so the unchanged file is still replayed
+        check( createConfiguration( "warning" ), 1 );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that a run limited to changed lines checks every file, and doesn't replace
+     * the cached results of the full runs.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if the cache can't be saved or the changed lines can't be written.
+     */
+    @Test
+    public void changedLinesBypassCache() throws CheckstyleException, IOException {
+
+        File fileChangedLines = new File( fileTempDir, "changed.txt" );
+        Files.write( fileChangedLines.toPath(), (listFiles.get( 0 ).getPath() + ":1-20\n").getBytes( StandardCharsets.UTF_8 ) );
+
+        List<FileResult> listFull = check( createConfiguration( "warning" ), 0 );
+        List<FileResult> listChanged = check( createConfigurationWith( "changedLines", fileChangedLines.getPath() ), 0 );
+        assertTrue( listChanged.get( 0 ).getLines().size() < listFull.get( 0 ).getLines().size() );
+
+        assertSameResults( listFull, check( createConfiguration( "warning" ), 2 ) );
+    }
+}
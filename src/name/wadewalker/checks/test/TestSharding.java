@@ -0,0 +1,259 @@
+package name.wadewalker.checks.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import name.wadewalker.checks.CheckRunner;
+import name.wadewalker.checks.FileResult;
+import name.wadewalker.checks.HungarianNaming;
+import name.wadewalker.checks.JavadocTemplate;
+import name.wadewalker.checks.ShardReport;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+//==============================================================================
+/**
+ * Tests that {@link CheckRunner} split into shards, each run in its own process, and
+ * merged with {@link ShardReport} gives the same output as one unsharded process, and
+ * that partial reports from different checks aren't merged.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class TestSharding {
+
+    /** Number of shards to split the check into. */
+    private static final int siShards = 3;
+
+    /** Roots checked, which have both passing and failing files. */
+    private static final String [] sasRoots = {"src", "regression"};
+
+    /** Temporary directory holding the configuration and reports. */
+    private File fileTempDir;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public TestSharding() {
+    }
+
+    //==============================================================================
+    /**
+     * Makes the temporary directory, and writes a configuration running both checks into it.
+     *
+     * @throws IOException if the directory or configuration can't be written.
+     */
+    @Before
+    public void makeTempDir() throws IOException {
+
+        fileTempDir = Files.createTempDirectory( "sharding" ).toFile();
+        List<String> listLines = Arrays.asList(
+            "<?xml version=\"1.0\"?>",
+            "<!DOCTYPE module PUBLIC \"-//Puppy Crawl//DTD Check Configuration 1.3//EN\"",
+            "    \"http://www.puppycrawl.com/dtds/configuration_1_3.dtd\">",
+            "<module name=\"Checker\">",
+            "    <property name=\"severity\" value=\"warning\"/>",
+            "    <module name=\"TreeWalker\">",
+            "        <module name=\"" + HungarianNaming.class.getName() + "\"/>",
+            "        <module name=\"" + JavadocTemplate.class.getName() + "\"/>",
+            "    </module>",
+            "</module>" );
+        Files.write( new File( fileTempDir, "checks.xml" ).toPath(), listLines, StandardCharsets.UTF_8 );
+    }
+
+    //==============================================================================
+    /**
+     * Deletes the temporary directory.
+     */
+    @After
+    public void deleteTempDir() {
+        CheckFixture.deleteTree( fileTempDir );
+    }
+
+    //==============================================================================
+    /**
+     * Starts a Java process running a class's main method with this JVM's class path.
+     *
+     * @param sClassName Class to run.
+     * @param listArgs Arguments to the main method.
+     * @return the process.
+     * @throws IOException if the process can't be started.
+     */
+    private Process startJava( String sClassName, List<String> listArgs ) throws IOException {
+
+        List<String> listCommand = new ArrayList<String>();
+        listCommand.add( new File( new File( System.getProperty( "java.home" ), "bin" ), "java" ).getPath() );
+        listCommand.add( "-cp" );
+        listCommand.add( System.getProperty( "java.class.path" ) );
+        listCommand.add( sClassName );
+        listCommand.addAll( listArgs );
+
+        ProcessBuilder processbuilder = new ProcessBuilder( listCommand );
+        processbuilder.redirectErrorStream( true );
+        processbuilder.redirectOutput( new File( fileTempDir, sClassName + listArgs.hashCode() + ".log" ) );
+        return( processbuilder.start() );
+    }
+
+    //==============================================================================
+    /**
+     * Starts a CheckRunner process over the roots.
+     *
+     * @param sOutputFile Name of the output file in the temporary directory.
+     * @param sShard Shard argument like "0/3" (or null to check every file).
+     * @return the process.
+     * @throws IOException if the process can't be started.
+     */
+    private Process startCheckRunner( String sOutputFile, String sShard ) throws IOException {
+
+        List<String> listArgs = new ArrayList<String>( Arrays.asList( "-c", new File( fileTempDir, "checks.xml" ).getPath(),
+                                                                      "-b", System.getProperty( "user.dir" ), "-t", "2",
+                                                                      "-o", new File( fileTempDir, sOutputFile ).getPath() ) );
+        if( sShard != null )
+            listArgs.addAll( Arrays.asList( "-s", sShard ) );
+        listArgs.addAll( Arrays.asList( sasRoots ) );
+        return( startJava( CheckRunner.class.getName(), listArgs ) );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that shard processes run at the same time and merged give the same output
+     * and exit code as one process, and that merging fails if a shard is missing.
+     *
+     * @throws IOException if a process can't be run or a file can't be read.
+     * @throws InterruptedException if interrupted while waiting for a process.
+     */
+    @Test
+    public void mergedShardsMatchSingleProcess() throws IOException, InterruptedException {
+
+        Process processFull = startCheckRunner( "full.out", null );
+        List<Process> listShards = new ArrayList<Process>();
+        List<String> listArgs = new ArrayList<String>( Arrays.asList( "-o", new File( fileTempDir, "merged.out" ).getPath() ) );
+        for( int iShard = 0; iShard < siShards; iShard++ ) {
+            listShards.add( startCheckRunner( "part" + iShard, iShard + "/" + siShards ) );
+            listArgs.add( new File( fileTempDir, "part" + iShard ).getPath() );
+        }
+
+        int iFullExitCode = processFull.waitFor();
+        for( Process process : listShards )
+            assertEquals( 0, process.waitFor() );
+        assertEquals( iFullExitCode, startJava( ShardReport.class.getName(), listArgs ).waitFor() );
+
+        byte [] abFull = Files.readAllBytes( new File( fileTempDir, "full.out" ).toPath() );
+        assertTrue( new String( abFull, StandardCharsets.UTF_8 ).contains( "[HungarianNaming]" ) );
+        assertArrayEquals( abFull, Files.readAllBytes( new File( fileTempDir, "merged.out" ).toPath() ) );
+
+        try {
+            ShardReport.merge( Arrays.asList( new File( fileTempDir, "part0" ), new File( fileTempDir, "part2" ) ) );
+            fail( "merged without shard 1" );
+        }
+        catch( IOException ioexception ) {
+            assertEquals( "Missing partial report for shard 1 of " + siShards, ioexception.getMessage() );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Writes partial reports of two shards, each with one result per file of its shard.
+     *
+     * @param listFiles All the files, in output order.
+     * @param sFingerprint0 Fingerprint written to shard 0's report.
+     * @param sFingerprint1 Fingerprint written to shard 1's report.
+     * @param listFiles1 Files shard 1 found (the same number as listFiles).
+     * @return the two reports.
+     * @throws IOException if a report can't be written.
+     */
+    private List<File> writeReports( List<File> listFiles, String sFingerprint0, String sFingerprint1, List<File> listFiles1 )
+        throws IOException {
+
+        List<File> listReports = new ArrayList<File>();
+        for( int iShard = 0; iShard < 2; iShard++ ) {
+            List<File> listShardFiles = iShard == 0 ? listFiles : listFiles1;
+            List<Integer> listIndices = ShardReport.selectShard( listShardFiles, iShard, 2 );
+            List<FileResult> listResults = new ArrayList<FileResult>();
+            for( int iIndex : listIndices )
+                listResults.add( new FileResult( listShardFiles.get( iIndex ), new ArrayList<String>(), 0 ) );
+
+            File fileReport = new File( fileTempDir, "report" + iShard );
+            ShardReport.write( fileReport, iShard, 2, iShard == 0 ? sFingerprint0 : sFingerprint1, listShardFiles, listIndices, listResults );
+            listReports.add( fileReport );
+        }
+        return( listReports );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that partial reports checked with different configurations or code, or over
+     * different files of the same number, aren't merged.
+     *
+     * @throws IOException if a report can't be written or read.
+     */
+    @Test
+    public void refusesMismatchedReports() throws IOException {
+
+        List<File> listFiles = new ArrayList<File>();
+        List<File> listOtherFiles = new ArrayList<File>();
+        for( int i = 0; i < 20; i++ ) {
+            listFiles.add( new File( "dir", "File" + i + ".java" ) );
+            listOtherFiles.add( new File( "dir", "Other" + i + ".java" ) );
+        }
+
+        List<File> listReports = writeReports( listFiles, "abc", "abc", listFiles );
+        assertEquals( listFiles.size(), ShardReport.merge( listReports ).size() );
+
+        listReports = writeReports( listFiles, "abc", "abd", listFiles );
+        try {
+            ShardReport.merge( listReports );
+            fail( "merged reports with different fingerprints" );
+        }
+        catch( IOException ioexception ) {
+            assertEquals( listReports.get( 1 ) + " was checked with a different configuration or code than " + listReports.get( 0 ),
+                          ioexception.getMessage() );
+        }
+
+        listReports = writeReports( listFiles, "abc", "abc", listOtherFiles );
+        try {
+            ShardReport.merge( listReports );
+            fail( "merged reports over different files" );
+        }
+        catch( IOException ioexception ) {
+            assertEquals( listReports.get( 1 ) + " was checked over different files than " + listReports.get( 0 ),
+                          ioexception.getMessage() );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Tests that the shards split the files between them, each file in exactly one.
+     */
+    @Test
+    public void shardsPartitionFiles() {
+
+        List<File> listFiles = new ArrayList<File>();
+        for( int i = 0; i < 100; i++ )
+            listFiles.add( new File( "dir" + (i % 7), "File" + i + ".java" ) );
+
+        int [] aiShardCounts = new int [listFiles.size()];
+        for( int iShard = 0; iShard < siShards; iShard++ ) {
+            List<Integer> listIndices = ShardReport.selectShard( listFiles, iShard, siShards );
+            assertTrue( listIndices.size() > 0 );
+            for( int iIndex : listIndices )
+                aiShardCounts[iIndex]++;
+        }
+
+        for( int iCount : aiShardCounts )
+            assertEquals( 1, iCount );
+    }
+}
@@ -0,0 +1,288 @@
+package name.wadewalker.checks.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+import name.wadewalker.checks.CheckerPool;
+import name.wadewalker.checks.HungarianNaming;
+import name.wadewalker.checks.ParallelChecker;
+import name.wadewalker.checks.TypeIndex;
+import name.wadewalker.checks.Violation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+//==============================================================================
+/**
+ * Tests {@link TypeIndex} and the qualified and nested type rules of
+ * {@link HungarianNaming} on a small project with nested, same-package, and imported
+ * types, and makes sure unusual type shapes don't break the check.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class TestTypeIndex {
+
+    /** Prefix rules naming qualified and nested types. */
+    private static final String ssPrefixes = "p.Outer.Inner=oi, Outer.Nested=on, java.util.Map.Entry=me, p.Same=sa, q.Other=ot";
+
+    /** Matches a violation's message. */
+    private static final Pattern spatternMessage = Pattern.compile( "name '(\\w+)' with '(\\w+)'" );
+
+    /** Number of threads asking for the shared index at once. */
+    private static final int siThreads = 8;
+
+    /** Temporary directory holding the project. */
+    private File fileTempDir;
+
+    /** File using the project's types. */
+    private File fileUser;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public TestTypeIndex() {
+    }
+
+    //==============================================================================
+    /**
+     * Writes the project into a temporary directory.
+     *
+     * @throws IOException if a file can't be written.
+     */
+    @Before
+    public void makeProject() throws IOException {
+
+        fileTempDir = Files.createTempDirectory( "typeindex" ).toFile().getCanonicalFile();
+
+        writeFile( "p/Outer.java", "package p;", "public class Outer<T> {", "    public class Inner { }",
+                   "    public static class Nested { }", "    void f() { class Local { } }", "}" );
+        writeFile( "p/Same.java", "package p;", "public class Same { }" );
+        writeFile( "q/Other.java", "package q;", "public interface Other { }" );
+        fileUser = writeFile( "p/User.java",
+            "package p;",
+            "import java.util.Map;",
+            "import q.*;",
+            "import static java.lang.Math.max;",
+            "class User {",
+            "    Outer<String>.Inner oiFirst;",
+            "    Outer.Inner inner;",
+            "    Outer.Nested onNested;",
+            "    Map.Entry<String, String> meEntry;",
+            "    java.util.Map.Entry<String, String> entry;",
+            "    Same saSame;",
+            "    Other badOther;",
+            "    java.util.@Deprecated List list;",
+            "    java.util.function.BiFunction<Integer, Integer, Integer> bifunction = (a, b) -> a;",
+            "}" );
+    }
+
+    //==============================================================================
+    /**
+     * Deletes the temporary directory.
+     */
+    @After
+    public void deleteProject() {
+        CheckFixture.deleteTree( fileTempDir );
+    }
+
+    //==============================================================================
+    /**
+     * Writes one file of the project.
+     *
+     * @param sPath Path of the file under the temporary directory.
+     * @param asLines Lines of the file.
+     * @return the file.
+     * @throws IOException if the file can't be written.
+     */
+    private File writeFile( String sPath, String... asLines ) throws IOException {
+        File file = new File( fileTempDir, sPath );
+        file.getParentFile().mkdirs();
+        Files.write( file.toPath(), Arrays.asList( asLines ), StandardCharsets.UTF_8 );
+        return( file );
+    }
+
+    //==============================================================================
+    /**
+     * Runs HungarianNaming over the file using the project's types.
+     *
+     * @param sPrefixes Custom prefix rules (or null for none).
+     * @param sTypeIndexRoots Roots of the type index (or null for no index).
+     * @return the names and required prefixes of the violations, like "inner oi".
+     * @throws CheckstyleException if the check fails.
+     */
+    private Set<String> runCheck( String sPrefixes, String sTypeIndexRoots ) throws CheckstyleException {
+
+        DefaultConfiguration defaultconfigurationCheck = new DefaultConfiguration( HungarianNaming.class.getName() );
+        if( sPrefixes != null )
+            defaultconfigurationCheck.addAttribute( "prefixes", sPrefixes );
+        if( sTypeIndexRoots != null )
+            defaultconfigurationCheck.addAttribute( "typeIndexRoots", sTypeIndexRoots );
+
+        Set<String> setViolations = new TreeSet<String>();
+        for( Violation violation : CheckFixture.runChecks( Arrays.asList( fileUser ), defaultconfigurationCheck ) ) {
+            Matcher matcher = spatternMessage.matcher( violation.getMessage() );
+            if( matcher.find() )
+                setViolations.add( matcher.group( 1 ) + " " + matcher.group( 2 ) );
+        }
+        return( setViolations );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that the index finds each file's package, imports, and declared types, and
+     * resolves written names through them.
+     *
+     * @throws IOException if a file can't be read.
+     */
+    @Test
+    public void resolvesNames() throws IOException {
+
+        TypeIndex typeindex = TypeIndex.getShared( new String [] {fileTempDir.getPath()} );
+        TypeIndex.FileTypes filetypesOuter = typeindex.getFileTypes( new File( fileTempDir, "p/Outer.java" ).getPath() );
+        assertEquals( "p", filetypesOuter.getPackage() );
+        assertEquals( Arrays.asList( "Inner", "Nested", "Outer" ), filetypesOuter.getDeclaredNames() );
+
+        TypeIndex.FileTypes filetypes = typeindex.getFileTypes( fileUser.getPath() );
+        assertEquals( "p.Outer.Inner", filetypes.resolve( "Outer.Inner", typeindex ) );
+        assertEquals( "java.util.Map.Entry", filetypes.resolve( "Map.Entry", typeindex ) );
+        assertEquals( "java.util.Map.Entry", filetypes.resolve( "java.util.Map.Entry", typeindex ) );
+        assertEquals( "p.Same", filetypes.resolve( "Same", typeindex ) );
+        assertEquals( "q.Other", filetypes.resolve( "Other", typeindex ) );
+        assertEquals( "Unknown", filetypes.resolve( "Unknown", typeindex ) );
+        assertEquals( "p.User", filetypes.resolve( "User", null ) );
+    }
+
+    //==============================================================================
+    /**
+     * Tests qualified and nested rules with an index of the project, which also
+     * resolves types in the same package and on-demand imports.
+     *
+     * @throws CheckstyleException if the check fails.
+     */
+    @Test
+    public void appliesQualifiedRulesWithIndex() throws CheckstyleException {
+        assertEquals( new TreeSet<String>( Arrays.asList( "entry me", "inner oi", "badOther ot" ) ),
+                      runCheck( ssPrefixes, fileTempDir.getPath() ) );
+    }
+
+    //==============================================================================
+    /**
+     * Tests qualified and nested rules without an index, where only the file's own
+     * types and single-type imports resolve.
+     *
+     * @throws CheckstyleException if the check fails.
+     */
+    @Test
+    public void appliesQualifiedRulesWithoutIndex() throws CheckstyleException {
+        assertEquals( new TreeSet<String>( Arrays.asList( "badOther other", "entry me", "oiFirst inner", "saSame same" ) ), runCheck( ssPrefixes, null ) );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that parameterized outer types, annotated qualified types, and untyped
+     * lambda parameters are checked by their simple names (or skipped) without exceptions.
+     *
+     * @throws CheckstyleException if the check fails.
+     */
+    @Test
+    public void handlesUnusualTypesWithDefaultRules() throws CheckstyleException {
+        assertEquals( new TreeSet<String>( Arrays.asList( "meEntry entry", "oiFirst inner", "onNested nested", "saSame same",
+                                                          "badOther other" ) ),
+                      runCheck( null, null ) );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that threads asking for the same roots at once all get one shared index.
+     *
+     * @throws Exception if a thread fails.
+     */
+    @Test
+    public void sharesOneIndexAcrossThreads() throws Exception {
+
+        ExecutorService executorservice = Executors.newFixedThreadPool( siThreads );
+        try {
+            List<Future<TypeIndex>> listFutures = new ArrayList<Future<TypeIndex>>();
+            for( int i = 0; i < siThreads; i++ ) {
+                final String sRoot = (i % 2 == 0) ? fileTempDir.getPath() : fileTempDir.getPath() + File.separator + "q" + File.separator + "..";
+                listFutures.add( executorservice.submit( new Callable<TypeIndex>() {
+                    public TypeIndex call() throws IOException {
+                        return( TypeIndex.getShared( new String [] {sRoot} ) );
+                    }
+                } ) );
+            }
+
+            for( Future<TypeIndex> future : listFutures )
+                assertSame( listFutures.get( 0 ).get(), future.get() );
+        }
+        finally {
+            executorservice.shutdown();
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Tests that the shared index is kept while its files are unchanged, and that warm
+     * pooled checks see a type added to the project once the indexes are refreshed.
+     *
+     * @throws IOException if a file can't be written or read.
+     * @throws CheckstyleException if a check fails.
+     */
+    @Test
+    public void rebuildsIndexWhenFilesChange() throws IOException, CheckstyleException {
+
+        File fileOther = new File( fileTempDir, "q/Other.java" );
+        assertTrue( fileOther.delete() );
+        TypeIndex typeindexBefore = TypeIndex.getShared( new String [] {fileTempDir.getPath()} );
+        assertSame( typeindexBefore, TypeIndex.getShared( new String [] {fileTempDir.getPath()} ) );
+
+        DefaultConfiguration defaultconfigurationCheck = new DefaultConfiguration( HungarianNaming.class.getName() );
+        defaultconfigurationCheck.addAttribute( "prefixes", ssPrefixes );
+        defaultconfigurationCheck.addAttribute( "typeIndexRoots", fileTempDir.getPath() );
+        CheckerPool checkerpool = new CheckerPool( CheckFixture.makeChecker( defaultconfigurationCheck ), null );
+        try {
+            ParallelChecker parallelchecker = new ParallelChecker( checkerpool.getConfiguration(), null, 1 );
+            parallelchecker.setCheckerPool( checkerpool );
+
+            // without the interface, "Other" can't be resolved to "q.Other"
+            String sResults = parallelchecker.check( Arrays.asList( fileUser ) ).get( 0 ).getLines().toString();
+            assertTrue( sResults, sResults.contains( "name 'badOther' with 'other'" ) );
+
+            writeFile( "q/Other.java", "package q;", "public interface Other { }" );
+            TypeIndex.refreshShared();
+            TypeIndex typeindexAfter = TypeIndex.getShared( new String [] {fileTempDir.getPath()} );
+            assertNotSame( typeindexBefore, typeindexAfter );
+            assertEquals( "q.Other", typeindexAfter.getFileTypes( fileUser.getPath() ).resolve( "Other", typeindexAfter ) );
+
+            sResults = parallelchecker.check( Arrays.asList( fileUser ) ).get( 0 ).getLines().toString();
+            assertTrue( sResults, sResults.contains( "name 'badOther' with 'ot'" ) );
+        }
+        finally {
+            checkerpool.close();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package name.wadewalker.checks.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+import name.wadewalker.checks.CheckerPool;
+import name.wadewalker.checks.HungarianNaming;
+import name.wadewalker.checks.ParallelChecker;
+import name.wadewalker.checks.Violation;
+import name.wadewalker.checks.ViolationCollector;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+//==============================================================================
+/**
+ * Tests the per-file and fail-fast violation limits of {@link HungarianNaming}.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class TestViolationLimits {
+
+    /** Number of badly named fields in each generated file. */
+    private static final int siBadFields = 10;
+
+    /** Temporary directory holding the generated files. */
+    private File fileTempDir;
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public TestViolationLimits() {
+    }
+
+    //==============================================================================
+    /**
+     * Makes the temporary directory.
+     *
+     * @throws IOException if the directory can't be made.
+     */
+    @Before
+    public void makeTempDir() throws IOException {
+        fileTempDir = Files.createTempDirectory( "violationlimits" ).toFile();
+    }
+
+    //==============================================================================
+    /**
+     * Deletes the temporary directory.
+     */
+    @After
+    public void deleteTempDir() {
+        CheckFixture.deleteTree( fileTempDir );
+    }
+
+    //==============================================================================
+    /**
+     * Writes a class whose first field needs two prefix parts, followed by badly named fields.
+     *
+     * @param sClassName Name of the class.
+     * @return the file.
+     * @throws IOException if the file can't be written.
+     */
+    private File writeFile( String sClassName ) throws IOException {
+
+        List<String> listLines = new ArrayList<String>();
+        listLines.add( "class " + sClassName + " {" );
+        listLines.add( "    static int [] first;" );
+        for( int i = 0; i < siBadFields; i++ )
+            listLines.add( "    int bad" + i + ";" );
+        listLines.add( "}" );
+
+        File file = new File( fileTempDir, sClassName + ".java" );
+        Files.write( file.toPath(), listLines, StandardCharsets.UTF_8 );
+        return( file );
+    }
+
+    //==============================================================================
+    /**
+     * Runs HungarianNaming over some files.
+     *
+     * @param sName Name of the limit property to set.
+     * @param sValue Value of the limit property.
+     * @param listFiles Files to check.
+     * @return the violations.
+     * @throws CheckstyleException if the check fails.
+     */
+    private static List<Violation> runCheck( String sName, String sValue, List<File> listFiles ) throws CheckstyleException {
+
+        DefaultConfiguration defaultconfigurationCheck = new DefaultConfiguration( HungarianNaming.class.getName() );
+        defaultconfigurationCheck.addAttribute( sName, sValue );
+        return( CheckFixture.runChecks( listFiles, defaultconfigurationCheck ) );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that each file stops being checked once it reaches its limit (without
+     * splitting the declaration that reached it), and gives how many declarations
+     * weren't checked at the first of them.
+     *
+     * @throws IOException if a file can't be written.
+     * @throws CheckstyleException if the check fails.
+     */
+    @Test
+    public void stopsEachFileAtLimit() throws IOException, CheckstyleException {
+
+        List<Violation> listViolations = runCheck( "maxViolationsPerFile", "2", Arrays.asList( writeFile( "A" ), writeFile( "B" ) ) );
+
+        // per file: all three parts of "first" (one past the limit), then a stop at "bad0"
+        assertEquals( 8, listViolations.size() );
+        for( int iFile = 0; iFile < 2; iFile++ ) {
+            List<Violation> listFile = listViolations.subList( iFile * 4, iFile * 4 + 4 );
+            assertEquals( 2, listFile.get( 2 ).getLine() );
+            assertEquals( 3, listFile.get( 3 ).getLine() );
+            assertEquals( "Stopped checking names after 3 violations in this file (" + siBadFields + " more declarations not checked)",
+                          listFile.get( 3 ).getMessage() );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Tests that every declaration past the limit counts as not checked, whether or not
+     * it would have had violations, since none of them are looked at.
+     *
+     * @throws IOException if a file can't be written.
+     * @throws CheckstyleException if the check fails.
+     */
+    @Test
+    public void countsDeclarationsNotChecked() throws IOException, CheckstyleException {
+
+        File file = new File( fileTempDir, "C.java" );
+        Files.write( file.toPath(), Arrays.asList( "class C {",
+                                                   "    int bad;",
+                                                   "    int iGood;",
+                                                   "    static long [] worse;",
+                                                   "    String also;",
+                                                   "}" ), StandardCharsets.UTF_8 );
+
+        List<Violation> listViolations = runCheck( "maxViolationsPerFile", "1", Arrays.asList( file ) );
+
+        // "iGood", "worse", and "also" are all skipped, starting at "iGood"
+        assertEquals( 2, listViolations.size() );
+        assertEquals( 3, listViolations.get( 1 ).getLine() );
+        assertEquals( "Stopped checking names after 1 violations in this file (3 more declarations not checked)",
+                      listViolations.get( 1 ).getMessage() );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that files under the limit are reported in full.
+     *
+     * @throws IOException if a file can't be written.
+     * @throws CheckstyleException if the check fails.
+     */
+    @Test
+    public void reportsFilesUnderLimit() throws IOException, CheckstyleException {
+        List<Violation> listViolations = runCheck( "maxViolationsPerFile", "100", Arrays.asList( writeFile( "A" ) ) );
+        assertEquals( siBadFields + 3, listViolations.size() );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that reaching the fail-fast limit aborts the audit, counting across files.
+     *
+     * @throws IOException if a file can't be written.
+     */
+    @Test
+    public void abortsAuditAtLimit() throws IOException {
+
+        List<File> listFiles = Arrays.asList( writeFile( "A" ), writeFile( "B" ) );
+        try {
+            runCheck( "maxViolations", Integer.toString( siBadFields + 5 ), listFiles );
+            fail( "audit wasn't aborted" );
+        }
+        catch( CheckstyleException checkstyleexception ) {
+            // the first file has 13 violations, and the second reaches the limit at its first declaration
+            assertTrue( checkstyleexception.getCause() instanceof IllegalStateException );
+            assertEquals( "HungarianNaming aborted the audit after 16 violations (maxViolations is 15)",
+                          checkstyleexception.getCause().getMessage() );
+        }
+    }
+
+    //==============================================================================
+    /**
+     * Tests that each call to a Checker's process() is its own audit, so a Checker used
+     * on its own more than once doesn't add up its counts.
+     *
+     * @throws IOException if a file can't be written.
+     * @throws CheckstyleException if a check fails unexpectedly.
+     */
+    @Test
+    public void countsEachProcessCallAsOneAudit() throws IOException, CheckstyleException {
+
+        DefaultConfiguration defaultconfigurationCheck = new DefaultConfiguration( HungarianNaming.class.getName() );
+        defaultconfigurationCheck.addAttribute( "maxViolations", Integer.toString( siBadFields + 5 ) );
+
+        Checker checker = new Checker();
+        checker.setModuleClassLoader( Thread.currentThread().getContextClassLoader() );
+        checker.configure( CheckFixture.makeChecker( defaultconfigurationCheck ) );
+        ViolationCollector violationcollector = new ViolationCollector();
+        checker.addListener( violationcollector );
+        try {
+            // 13 violations each time, which together would pass the limit
+            List<File> listOneFile = Arrays.asList( writeFile( "A" ) );
+            for( int i = 0; i < 3; i++ )
+                checker.process( listOneFile );
+        }
+        finally {
+            checker.destroy();
+        }
+
+        assertEquals( new ArrayList<String>(), violationcollector.getExceptions() );
+        assertEquals( 3 * (siBadFields + 3), violationcollector.getViolations().size() );
+    }
+
+    //==============================================================================
+    /**
+     * Tests that each parallel check is its own audit: its workers share one count,
+     * and checks reusing the same pooled Checkers don't add to each other's counts.
+     *
+     * @throws IOException if a file can't be written.
+     * @throws CheckstyleException if a check fails unexpectedly.
+     */
+    @Test
+    public void countsEachParallelCheckAsOneAudit() throws IOException, CheckstyleException {
+
+        DefaultConfiguration defaultconfigurationCheck = new DefaultConfiguration( HungarianNaming.class.getName() );
+        defaultconfigurationCheck.addAttribute( "maxViolations", Integer.toString( siBadFields + 5 ) );
+        CheckerPool checkerpool = new CheckerPool( CheckFixture.makeChecker( defaultconfigurationCheck ), null );
+        try {
+            ParallelChecker parallelchecker = new ParallelChecker( checkerpool.getConfiguration(), null, 2 );
+            parallelchecker.setCheckerPool( checkerpool );
+
+            // 13 violations each time, which together would pass the limit
+            List<File> listOneFile = Arrays.asList( writeFile( "A" ) );
+            for( int i = 0; i < 3; i++ )
+                assertEquals( siBadFields + 3, parallelchecker.check( listOneFile ).get( 0 ).getLines().size() );
+
+            // the two workers reach the limit together
+            try {
+                parallelchecker.check( Arrays.asList( writeFile( "B" ), writeFile( "C" ) ) );
+                fail( "audit wasn't aborted" );
+            }
+            catch( CheckstyleException checkstyleexception ) {
+                assertTrue( checkstyleexception.getCause() instanceof IllegalStateException );
+                assertTrue( checkstyleexception.getCause().getMessage().startsWith( "HungarianNaming aborted the audit" ) );
+            }
+        }
+        finally {
+            checkerpool.close();
+        }
+    }
+}
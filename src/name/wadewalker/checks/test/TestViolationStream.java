@@ -0,0 +1,94 @@
+package name.wadewalker.checks.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+import name.wadewalker.checks.HungarianNaming;
+import name.wadewalker.checks.JavadocTemplate;
+import name.wadewalker.checks.Violation;
+import name.wadewalker.checks.ViolationCollector;
+import name.wadewalker.checks.ViolationStreamReader;
+import name.wadewalker.checks.ViolationStreamWriter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+//==============================================================================
+/**
+ * Writes the violations of every regression file with {@link ViolationStreamWriter},
+ * and makes sure {@link ViolationStreamReader} reads back exactly what an in-memory
+ * collector saw, more compactly than DefaultLogger would print it.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class TestViolationStream {
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public TestViolationStream() {
+    }
+
+    //==============================================================================
+    /**
+     * Tests that the stream round-trips every violation and its message key.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if the stream can't be written or read.
+     */
+    @Test
+    public void readsBackWhatWasWritten() throws CheckstyleException, IOException {
+
+        File fileStream = File.createTempFile( "checks", ".wwv" );
+
+        DefaultConfiguration defaultconfigurationWriter = new DefaultConfiguration( ViolationStreamWriter.class.getName() );
+        defaultconfigurationWriter.addAttribute( "file", fileStream.getPath() );
+        DefaultConfiguration defaultconfigurationChecker = CheckFixture.makeChecker(
+            new DefaultConfiguration( HungarianNaming.class.getName() ), new DefaultConfiguration( JavadocTemplate.class.getName() ) );
+        defaultconfigurationChecker.addChild( defaultconfigurationWriter );
+
+        List<File> listFiles = new ArrayList<File>();
+        for( File fileDir : new File( "regression" ).listFiles() ) {
+            File file = new File( fileDir, "ChecksTest.java" );
+            if( file.isFile() )
+                listFiles.add( file );
+        }
+
+        ViolationCollector violationcollector = CheckFixture.collect( defaultconfigurationChecker, listFiles );
+
+        List<Violation> listRead = new ArrayList<Violation>();
+        long lFormattedLength = 0;
+        ViolationStreamReader violationstreamreader = new ViolationStreamReader( fileStream );
+        try {
+            for( Violation violation = violationstreamreader.next(); violation != null; violation = violationstreamreader.next() ) {
+                listRead.add( violation );
+                lFormattedLength += violation.format().length() + 1;
+
+                String sKey = violationstreamreader.getMessageKey();
+                assertTrue( sKey, sKey.startsWith( "hungarian.naming." ) || sKey.startsWith( "javadoc.template." ) );
+
+                String sJson = violationstreamreader.toJson( violation );
+                assertTrue( sJson, sJson.startsWith( "{\"file\":\"" ) && sJson.contains( "\"key\":\"" + sKey + "\"" ) );
+            }
+        }
+        finally {
+            violationstreamreader.close();
+        }
+
+        assertTrue( listRead.size() > 0 );
+        assertEquals( violationcollector.getViolations(), listRead );
+
+        // file names and keys are written once, so the stream is much smaller than the text output
+        assertTrue( fileStream.length() + " bytes vs " + lFormattedLength, fileStream.length() * 2 < lFormattedLength );
+        assertTrue( fileStream.delete() );
+    }
+}
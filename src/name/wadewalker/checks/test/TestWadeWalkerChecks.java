@@ -0,0 +1,118 @@
+package name.wadewalker.checks.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.DefaultLogger;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+import name.wadewalker.checks.WadeWalkerChecks;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+//==============================================================================
+/**
+ * Runs the combined {@link WadeWalkerChecks} over the regression files, and makes
+ * sure its output is the same as the separate checks' gold files.
+ *
+ * Copyright (c) 2016 Wade Walker. All rights reserved.
+ * @author Wade Walker
+ */
+public class TestWadeWalkerChecks {
+
+    /** Regression test subdirectories to compare against. */
+    private static final String [] sasTestNames = {
+        "HungarianNamingPass", "HungarianNamingFail", "JavadocTemplatePass", "JavadocTemplateFail",
+        "JavadocTemplateScanner", "JavadocTemplateNesting"
+    };
+
+    //==============================================================================
+    /**
+     * Constructor.
+     */
+    public TestWadeWalkerChecks() {
+    }
+
+    //==============================================================================
+    /**
+     * Runs the combined check over one regression file.
+     *
+     * @param sTestName Name of the regression test subdirectory.
+     * @param bHungarianNaming True to enable the Hungarian naming rule.
+     * @param bJavadocTemplate True to enable the Javadoc template rule.
+     * @return the output lines, with path separators normalized.
+     * @throws CheckstyleException if the check fails.
+     */
+    private static List<String> runCombined( String sTestName, boolean bHungarianNaming, boolean bJavadocTemplate )
+        throws CheckstyleException {
+
+        DefaultConfiguration defaultconfigurationCheck = new DefaultConfiguration( WadeWalkerChecks.class.getName() );
+        defaultconfigurationCheck.addAttribute( "hungarianNaming", Boolean.toString( bHungarianNaming ) );
+        defaultconfigurationCheck.addAttribute( "javadocTemplate", Boolean.toString( bJavadocTemplate ) );
+
+        ByteArrayOutputStream bytearrayoutputstream = new ByteArrayOutputStream();
+        CheckFixture.process( CheckFixture.makeChecker( defaultconfigurationCheck ),
+                              Arrays.asList( new File( "regression" + File.separator + sTestName + File.separator + "ChecksTest.java" ) ),
+                              new DefaultLogger( bytearrayoutputstream, true ) );
+
+        return( Arrays.asList( new String( bytearrayoutputstream.toByteArray(), StandardCharsets.UTF_8 ).replace( '\\', '/' ).split( "\r?\n" ) ) );
+    }
+
+    //==============================================================================
+    /**
+     * Reads a gold file.
+     *
+     * @param sTestName Name of the regression test subdirectory.
+     * @param sModuleName Only keep warnings from this module (or null to keep them all).
+     * @return the gold lines, with path separators normalized.
+     * @throws IOException if the gold file can't be read.
+     */
+    private static List<String> readGold( String sTestName, String sModuleName ) throws IOException {
+
+        List<String> listLines = new ArrayList<String>();
+
+        for( String sLine : Files.readAllLines( new File( "regression/" + sTestName + "/gold/test.out" ).toPath(), StandardCharsets.UTF_8 ) ) {
+            if( (sModuleName == null) || !sLine.startsWith( "[" ) || sLine.endsWith( "[" + sModuleName + "]" ) )
+                listLines.add( sLine.replace( '\\', '/' ) );
+        }
+
+        return( listLines );
+    }
+
+    //==============================================================================
+    /**
+     * Tests both rules together against every gold file.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if a gold file can't be read.
+     */
+    @Test
+    public void bothRules() throws CheckstyleException, IOException {
+        for( String sTestName : sasTestNames )
+            assertEquals( sTestName, readGold( sTestName, null ), runCombined( sTestName, true, true ) );
+    }
+
+    //==============================================================================
+    /**
+     * Tests each rule on its own against the gold file warnings from its module.
+     *
+     * @throws CheckstyleException if the check fails.
+     * @throws IOException if a gold file can't be read.
+     */
+    @Test
+    public void eachRuleAlone() throws CheckstyleException, IOException {
+        for( String sTestName : sasTestNames ) {
+            assertEquals( sTestName, readGold( sTestName, "HungarianNaming" ), runCombined( sTestName, true, false ) );
+            assertEquals( sTestName, readGold( sTestName, "JavadocTemplate" ), runCombined( sTestName, false, true ) );
+        }
+    }
+}